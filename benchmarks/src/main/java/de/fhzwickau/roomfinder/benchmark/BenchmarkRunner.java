@@ -0,0 +1,49 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Startet die Benchmarks und speichert die Ergebnisse als JSON, sodass verschiedene Läufe verglichen werden können
+ * (z.B. mit dem JMH Visualizer). Ohne eigene Angabe ({@code -rff}) landen die Ergebnisse in
+ * {@code results/jmh-<Datum>-<Uhrzeit>.json}. Alle anderen Argumente werden an JMH weitergereicht, z.B.
+ * {@code RoutingBenchmark -p size=10000}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class BenchmarkRunner {
+
+    private static final Path RESULTS = Path.of("results");
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cli = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cli);
+
+        if (!cli.getResult().hasValue()) {
+            Files.createDirectories(RESULTS);
+
+            Path file = RESULTS.resolve("jmh-" + LocalDateTime.now().format(TIMESTAMP) + ".json");
+
+            options.resultFormat(ResultFormatType.JSON).result(file.toString());
+            System.out.println("Writing results to " + file.toAbsolutePath());
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst das Aufbauen, Verkleinern und Kombinieren eines {@link Graph}en. Jede Messung arbeitet auf frischen Knoten
+ * bzw. einem frischen Graphen, der vor jedem Aufruf außerhalb der Messung angelegt wird.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GraphBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    private List<Node> nodes;
+    private Graph graph;
+    private Graph left;
+    private Graph right;
+    private List<Node> removed;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        nodes = Graphs.nodes("n", size);
+        graph = Graphs.grid(size, "g", 1);
+        left = Graphs.grid(size / 2, "l", 2);
+        right = Graphs.grid(size / 2, "r", 3);
+        removed = new ArrayList<>(graph.values()).subList(0, graph.size() / 10);
+    }
+
+    @Benchmark
+    public Graph add() {
+        Graph g = new Graph();
+
+        for (Node node : nodes) {
+            g.add(node);
+        }
+
+        return g;
+    }
+
+    @Benchmark
+    public Graph addAll() {
+        Graph g = new Graph();
+
+        g.addAll(nodes);
+
+        return g;
+    }
+
+    /**
+     * Entfernt ein Zehntel der Knoten samt Kanten.
+     */
+    @Benchmark
+    public Graph remove() {
+        for (Node node : removed) {
+            graph.remove(node);
+        }
+
+        return graph;
+    }
+
+    @Benchmark
+    public Graph combine() {
+        return left.combine(right);
+    }
+}
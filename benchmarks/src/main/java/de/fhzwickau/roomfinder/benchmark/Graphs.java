@@ -0,0 +1,85 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare Graphen für die Benchmarks.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class Graphs {
+
+    private Graphs() {
+    }
+
+    static Node node(String id, int x, int y) {
+        return new Node(id, null, "plan", x, y, false, (byte) 0);
+    }
+
+    /**
+     * @return {@code count} neue Knoten ohne Graph, mit den IDs {@code prefix + i}.
+     */
+    static List<Node> nodes(String prefix, int count) {
+        List<Node> nodes = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            nodes.add(node(prefix + i, i % 1000, i / 1000));
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Ein Gitter mit etwa {@code size} Knoten, wie die Flure eines Gebäudes. Etwa jede zehnte Kante fehlt, die
+     * Gewichte liegen zwischen 10 und 29. Einige Knoten sind Toiletten.
+     * @param size Die ungefähre Anzahl der Knoten.
+     * @param prefix Das Präfix der IDs, damit sich mehrere Gitter kombinieren lassen.
+     * @param seed Der Startwert des Zufallsgenerators.
+     */
+    static Graph grid(int size, String prefix, long seed) {
+        int width = Math.max(2, (int) Math.sqrt(size));
+        int height = Math.max(2, size / width);
+        Random random = new Random(seed);
+        Graph graph = new Graph(width * height);
+        Node[] nodes = new Node[width * height];
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                byte toilet = random.nextInt(50) == 0 ? (byte) (1 + random.nextInt(3)) : 0;
+                Node node = new Node(prefix + x + "_" + y, null, "plan", x * 10, y * 10, false, toilet);
+
+                nodes[x * height + y] = node;
+                graph.add(node);
+            }
+        }
+
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                Node node = nodes[x * height + y];
+
+                if (x + 1 < width && random.nextInt(10) > 0)
+                    connect(node, nodes[(x + 1) * height + y], 10 + random.nextInt(20));
+                if (y + 1 < height && random.nextInt(10) > 0)
+                    connect(node, nodes[x * height + y + 1], 10 + random.nextInt(20));
+            }
+        }
+
+        return graph;
+    }
+
+    static Edge connect(Node n1, Node n2, int weight) {
+        Edge edge = new Edge(n1, n2, weight);
+
+        n1.addEdge(edge);
+        n2.addEdge(edge);
+
+        return edge;
+    }
+}
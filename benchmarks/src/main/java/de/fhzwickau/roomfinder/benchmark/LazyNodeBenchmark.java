@@ -0,0 +1,70 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst das Auflösen von Vorwärtsreferenzen beim Import: Ein Gebäudeteil ist schon geladen und verweist über
+ * {@link LazyNode}s auf Knoten, die erst danach kommen. Gemessen wird das Hinzufügen der vollständigen Knoten, bei dem
+ * jeder Platzhalter ersetzt und seine Kanten umgehängt werden. Jeder Platzhalter hat zwei Kanten.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LazyNodeBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int references;
+
+    private Graph graph;
+    private List<Node> complete;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        graph = new Graph(2 * references);
+
+        List<Node> loaded = Graphs.nodes("loaded", references);
+        graph.addAll(loaded);
+
+        for (int i = 0; i < references; i++) {
+            LazyNode lazy = new LazyNode("later" + i);
+            graph.add(lazy);
+
+            Graphs.connect(loaded.get(i), lazy, 10);
+            Graphs.connect(loaded.get((i + 1) % references), lazy, 20);
+        }
+
+        complete = Graphs.nodes("later", references);
+    }
+
+    @Benchmark
+    public Graph resolve() {
+        for (Node node : complete) {
+            graph.add(node);
+        }
+
+        return graph;
+    }
+}
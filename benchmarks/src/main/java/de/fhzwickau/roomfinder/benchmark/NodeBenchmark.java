@@ -0,0 +1,67 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst {@link Node#addEdge(Edge)} an einem Knoten mit sehr vielen Nachbarn, z.B. einem Foyer, an dem alle Räume
+ * eines Stockwerks hängen. Gemessen wird das Eintragen aller Kanten an der Drehscheibe; die Kanten selbst werden
+ * vorher angelegt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NodeBenchmark {
+
+    @Param({"100", "10000", "50000"})
+    public int degree;
+
+    private Node hub;
+    private Edge[] edges;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        Graph graph = new Graph(degree + 1);
+        List<Node> rooms = Graphs.nodes("room", degree);
+
+        hub = Graphs.node("hub", 0, 0);
+        graph.add(hub);
+        graph.addAll(rooms);
+        edges = new Edge[degree];
+
+        for (int i = 0; i < degree; i++) {
+            edges[i] = new Edge(hub, rooms.get(i), 1 + i % 20);
+        }
+    }
+
+    @Benchmark
+    public Node addEdgeToHub() {
+        for (Edge edge : edges) {
+            hub.addEdge(edge);
+        }
+
+        return hub;
+    }
+}
@@ -0,0 +1,72 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.persistent.PersistentGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst das Kombinieren zweier Zweige eines {@link PersistentGraph}en mit je {@link #changes} Änderungen und eine
+ * einzelne Änderung, jeweils im Vergleich zu {@link Graph#combine(Graph)} in {@link GraphBenchmark}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PersistentGraphBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"10", "100"})
+    public int changes;
+
+    private PersistentGraph base;
+    private PersistentGraph left;
+    private PersistentGraph right;
+    private List<String> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Graph graph = Graphs.grid(size, "g", 1);
+
+        base = PersistentGraph.of(graph);
+        ids = new ArrayList<>(graph.keySet());
+        left = base;
+        right = base;
+
+        for (int i = 0; i < changes; i++) {
+            left = left.add(Graphs.node("l" + i, i, 0)).connect("l" + i, ids.get(i), 1);
+            right = right.remove(ids.get(ids.size() - 1 - i));
+        }
+    }
+
+    @Benchmark
+    public PersistentGraph combineBranches() {
+        return left.combine(right);
+    }
+
+    @Benchmark
+    public PersistentGraph connect() {
+        return base.connect(ids.get(0), ids.get(ids.size() / 2), 7);
+    }
+}
@@ -0,0 +1,102 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.routing.AStar;
+import de.fhzwickau.roomfinder.routing.Dijkstra;
+import de.fhzwickau.roomfinder.routing.Landmarks;
+import de.fhzwickau.roomfinder.routing.Route;
+import de.fhzwickau.roomfinder.routing.ch.ContractionHierarchyBuilder;
+import de.fhzwickau.roomfinder.routing.ch.ContractionHierarchyQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vergleicht die Wegsuchen auf dem gleichen kompilierten Graphen: Dijkstra, A* mit Koordinaten, A* mit Landmarken
+ * (ALT) und die Contraction Hierarchy. Start und Ziel werden aus einer festen Folge zufälliger Paare genommen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+
+    private static final int PAIRS = 1024;
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private Dijkstra dijkstra;
+    private AStar coordinates;
+    private AStar landmarks;
+    private ContractionHierarchyQuery hierarchy;
+    private int[] sources;
+    private int[] targets;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        CompiledGraph graph = CompiledGraph.compile(Graphs.grid(size, "n", 1));
+        Random random = new Random(7);
+
+        dijkstra = new Dijkstra(graph);
+        coordinates = new AStar(graph);
+        landmarks = new AStar(graph, Landmarks.build(graph, 8));
+        hierarchy = new ContractionHierarchyQuery(new ContractionHierarchyBuilder(graph).build());
+        sources = new int[PAIRS];
+        targets = new int[PAIRS];
+
+        for (int i = 0; i < PAIRS; i++) {
+            sources[i] = random.nextInt(graph.getNodeCount());
+            targets[i] = random.nextInt(graph.getNodeCount());
+        }
+    }
+
+    private int nextPair() {
+        return next = (next + 1) & (PAIRS - 1);
+    }
+
+    @Benchmark
+    public Route dijkstra() {
+        int i = nextPair();
+
+        return dijkstra.route(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public Route aStarCoordinates() {
+        int i = nextPair();
+
+        return coordinates.route(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public Route aStarLandmarks() {
+        int i = nextPair();
+
+        return landmarks.route(sources[i], targets[i]);
+    }
+
+    @Benchmark
+    public Route contractionHierarchy() {
+        int i = nextPair();
+
+        return hierarchy.route(sources[i], targets[i]);
+    }
+}
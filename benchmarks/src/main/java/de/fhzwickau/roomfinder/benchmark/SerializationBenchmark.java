@@ -0,0 +1,81 @@
+package de.fhzwickau.roomfinder.benchmark;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphReader;
+import de.fhzwickau.roomfinder.io.BinaryGraphWriter;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.channels.Channels;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst Export und Import eines Graphen im Hauptspeicher, ohne Festplatte:
+ * <ul>
+ *     <li>die Java-Serialisierung ({@link ObjectOutputStream}), mit der die .grser-Dateien geschrieben wurden,</li>
+ *     <li>das binäre Format, das der Controller heute zum Exportieren und Importieren benutzt.</li>
+ * </ul>
+ * Die Java-Serialisierung folgt den Kanten rekursiv und braucht daher einen großen Stack.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xss512m")
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000", "40000"})
+    public int size;
+
+    private Graph graph;
+
+    @Setup
+    public void setUp() {
+        graph = Graphs.grid(size, "n", 1);
+    }
+
+    @Benchmark
+    public Graph objectStreamRoundTrip() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(graph);
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (Graph) in.readObject();
+        }
+    }
+
+    @Benchmark
+    public Graph binaryRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (BinaryGraphWriter writer = new BinaryGraphWriter(Channels.newChannel(bytes))) {
+            writer.write(graph);
+        }
+
+        try (BinaryGraphReader reader = new BinaryGraphReader(Channels.newChannel(
+                new ByteArrayInputStream(bytes.toByteArray())))) {
+            return reader.read();
+        }
+    }
+}
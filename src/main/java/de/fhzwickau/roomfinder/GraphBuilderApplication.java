@@ -1,5 +1,6 @@
 package de.fhzwickau.roomfinder;
 
+import de.fhzwickau.roomfinder.controller.GraphBuilderController;
 import javafx.application.Application;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Scene;
@@ -18,6 +19,7 @@ public class GraphBuilderApplication extends Application {
         Scene scene = new Scene(fxmlLoader.load(), 600,450);
         stage.setTitle(TITLE);
         stage.setScene(scene);
+        stage.setOnHidden(e -> ((GraphBuilderController) fxmlLoader.getController()).close());
         stage.show();
 
         primaryStage = stage;
@@ -1,9 +1,18 @@
 package de.fhzwickau.roomfinder;
 
+import de.fhzwickau.roomfinder.cli.GraphTool;
+
 public class Main {
 
+    /**
+     * Startet die Oberfläche oder, falls Argumente übergeben werden, das {@link GraphTool} ohne JavaFX.
+     */
     public static void main(String[] args) {
-        GraphBuilderApplication.start();
+        if (args.length > 0) {
+            GraphTool.main(args);
+            return;
+        }
 
+        GraphBuilderApplication.start();
     }
 }
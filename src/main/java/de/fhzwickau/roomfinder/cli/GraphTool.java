@@ -0,0 +1,492 @@
+package de.fhzwickau.roomfinder.cli;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.io.LegacyGraphConverter;
+import de.fhzwickau.roomfinder.io.table.ImportReport;
+import de.fhzwickau.roomfinder.io.table.TableImporter;
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.compiled.MappedGraph;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.routing.Landmarks;
+import de.fhzwickau.roomfinder.routing.ch.ContractionHierarchy;
+import de.fhzwickau.roomfinder.routing.ch.ContractionHierarchyBuilder;
+import de.fhzwickau.roomfinder.server.LoadTestClient;
+import de.fhzwickau.roomfinder.server.RouteServer;
+import de.fhzwickau.roomfinder.validation.GraphValidator;
+import de.fhzwickau.roomfinder.validation.ValidationReport;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Bearbeitet Graphen ohne Oberfläche, z.B. in Skripten oder auf einem Server ohne Display.
+ * Die Klasse lädt keine Klassen aus {@code javafx.*}; {@link de.fhzwickau.roomfinder.Main} ruft sie auf, sobald
+ * Argumente übergeben werden.
+ * <pre>
+ * info     &lt;graph&gt;...
+ * validate &lt;graph&gt;...
+ * convert  &lt;graph&gt; &lt;ausgabe&gt;
+ * merge    &lt;ausgabe&gt; &lt;graph&gt; &lt;graph&gt;...
+ * import   &lt;ausgabe&gt; &lt;tabelle.csv|.tsv&gt;...
+ * compile  &lt;graph&gt; &lt;ausgabe.grm&gt; [--landmarks &lt;anzahl&gt;] [--ch]
+ * serve    &lt;graph&gt; [--port &lt;port&gt;]
+ * loadtest &lt;url&gt; &lt;graph&gt; [--requests &lt;anzahl&gt;] [--concurrency &lt;anzahl&gt;] [--batch &lt;anzahl&gt;]
+ * </pre>
+ * {@code validate} prüft die Graphen mit dem {@link GraphValidator} und gibt die Probleme und Komponenten aus.
+ * {@code import} liest Knoten und Kanten aus Tabellen (siehe {@link TableImporter}), Zeilen mit Fehlern werden
+ * übersprungen und aufgeführt.
+ * {@code serve} startet einen {@link RouteServer}, {@code loadtest} misst ihn mit dem {@link LoadTestClient}.
+ * Gelesen werden das binäre Format (.grb) und serialisierte Graphen (.grser), das Format wird am Inhalt erkannt.
+ * Geschrieben wird nach der Endung der Ausgabe: .grb oder .grm (kompiliert, siehe {@link MappedGraph}). Das alte
+ * Format .grser wird nur noch gelesen.
+ * Nach jedem Befehl werden die Startzeit der JVM, die Laufzeit und der maximale Speicherbedarf (Peak RSS) als eine
+ * Zeile auf stderr ausgegeben, damit sie verfolgt werden können. Mit der Option {@code --metrics} folgen die Zähler
+ * und Laufzeiten der Operationen auf dem Graphen (siehe {@link Metrics}).
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphTool {
+
+    public static final int EXIT_OK = 0;
+    public static final int EXIT_INVALID = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_ERROR = 3;
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Verwendung: [--metrics] <befehl>",
+            "  info     <graph>...",
+            "  validate <graph>...",
+            "  convert  <graph> <ausgabe.grb|.grm>",
+            "  merge    <ausgabe.grb|.grm> <graph> <graph>...",
+            "  import   <ausgabe.grb|.grm> <tabelle.csv|.tsv>...",
+            "  compile  <graph> <ausgabe.grm> [--landmarks <anzahl>] [--ch]",
+            "  serve    <graph> [--port <port>]",
+            "  loadtest <url> <graph> [--requests <anzahl>] [--concurrency <anzahl>] [--batch <anzahl>]");
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    public GraphTool(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new GraphTool(System.out, System.err).run(args));
+    }
+
+    /**
+     * Führt einen Befehl aus.
+     * @param args Der Befehl und seine Argumente.
+     * @return Der Exit-Code: {@link #EXIT_OK}, {@link #EXIT_INVALID} (Graph ungültig), {@link #EXIT_USAGE} (falsche
+     * Argumente) oder {@link #EXIT_ERROR} (Fehler beim Lesen oder Schreiben).
+     */
+    public int run(String[] args) {
+        long started = System.nanoTime();
+        Duration startup = startupTime();
+        boolean metrics = args.length > 0 && "--metrics".equals(args[0]);
+        int code;
+
+        if (metrics)
+            args = Arrays.copyOfRange(args, 1, args.length);
+
+        try {
+            code = execute(args);
+        }
+        catch (IllegalArgumentException ex) {
+            err.println(ex.getMessage());
+            err.println(USAGE);
+            code = EXIT_USAGE;
+        }
+        catch (IOException ex) {
+            err.println("Fehler: " + ex.getMessage());
+            code = EXIT_ERROR;
+        }
+
+        err.println(statistics(startup, Duration.ofNanos(System.nanoTime() - started)));
+
+        if (metrics)
+            Metrics.snapshot().print(err);
+
+        return code;
+    }
+
+    private int execute(String[] args) throws IllegalArgumentException, IOException {
+        if (args.length == 0)
+            throw new IllegalArgumentException("No command given.");
+
+        String[] params = Arrays.copyOfRange(args, 1, args.length);
+
+        switch (args[0]) {
+            case "info":
+                return info(params);
+            case "validate":
+                return validate(params);
+            case "convert":
+                return convert(params);
+            case "merge":
+                return merge(params);
+            case "import":
+                return importTables(params);
+            case "compile":
+                return compile(params);
+            case "serve":
+                return serve(params);
+            case "loadtest":
+                return loadTest(params);
+            case "help":
+            case "--help":
+                out.println(USAGE);
+                return EXIT_OK;
+            default:
+                throw new IllegalArgumentException("Unknown command " + args[0] + ".");
+        }
+    }
+
+    /*
+    Befehle
+     */
+
+    private int info(String[] params) throws IOException {
+        requireArguments(params, 1);
+
+        for (String param : params) {
+            Graph graph = read(Path.of(param));
+            long edges = countEdges(graph);
+
+            out.println(param + ": " + graph.size() + " Knoten, " + edges + " Kanten, "
+                    + graph.getLazyNodes().size() + " LazyNodes");
+        }
+
+        return EXIT_OK;
+    }
+
+    /**
+     * Zählt jede Kante einmal, wie {@link GraphValidator}: Eine Kante, die bei beiden Knoten eingetragen ist, zählt
+     * nur beim Knoten mit dem kleineren Index, einseitige Kanten und Kanten zu Knoten außerhalb des Graphen zählen
+     * immer.
+     */
+    static long countEdges(Graph graph) {
+        Map<Node, Integer> index = new IdentityHashMap<>(graph.size());
+
+        for (Node node : graph.values()) {
+            index.put(node, index.size());
+        }
+
+        long edges = 0;
+
+        for (Node node : graph.values()) {
+            for (Edge e : node.getEdges()) {
+                Node other = e.getOther(node);
+                Integer j = graph.get(other.getId()) == other ? index.get(other) : null;
+
+                if (j == null || !other.getEdges().contains(e) || index.get(node) < j)
+                    edges++;
+            }
+        }
+
+        return edges;
+    }
+
+    private int validate(String[] params) throws IOException {
+        requireArguments(params, 1);
+
+        int invalid = 0;
+        GraphValidator validator = new GraphValidator();
+
+        for (String param : params) {
+            Graph graph = read(Path.of(param));
+            long time = System.nanoTime();
+            ValidationReport report = validator.validate(graph);
+
+            report.print(out);
+            out.println(param + ": " + report + " in " + millis(time) + " ms");
+
+            if (!report.isValid())
+                invalid++;
+            else
+                out.println(param + ": gültig");
+        }
+
+        return invalid == 0 ? EXIT_OK : EXIT_INVALID;
+    }
+
+    private int convert(String[] params) throws IOException {
+        requireArguments(params, 2);
+
+        write(read(Path.of(params[0])), Path.of(params[1]));
+
+        return EXIT_OK;
+    }
+
+    private int merge(String[] params) throws IOException {
+        requireArguments(params, 3);
+
+        Graph merged = new Graph();
+
+        for (int i = 1; i < params.length; i++) {
+            Graph graph = read(Path.of(params[i]));
+
+            for (Node node : new ArrayList<>(graph.values())) {
+                Node existing = merged.get(node.getId());
+
+                if (existing != null && !(existing instanceof LazyNode) && !(node instanceof LazyNode))
+                    throw new IOException("The node " + node.getId() + " of " + params[i]
+                            + " already exists in another graph.");
+
+                merged.add(node);
+            }
+        }
+
+        write(merged, Path.of(params[0]));
+        out.println(params[0] + ": " + merged.size() + " Knoten, " + merged.getLazyNodes().size() + " LazyNodes");
+
+        return EXIT_OK;
+    }
+
+    private int importTables(String[] params) throws IOException {
+        requireArguments(params, 2);
+
+        long time = System.nanoTime();
+        TableImporter importer = new TableImporter();
+
+        for (int i = 1; i < params.length; i++) {
+            Path table = Path.of(params[i]);
+
+            if (!Files.isRegularFile(table))
+                throw new IOException("The file " + table + " does not exist.");
+
+            importer.read(table);
+        }
+
+        ImportReport report = importer.getReport();
+        Graph graph = importer.build();
+
+        write(graph, Path.of(params[0]));
+        report.print(out);
+        out.println(params[0] + ": " + report + " in " + millis(time) + " ms");
+
+        return report.hasErrors() ? EXIT_INVALID : EXIT_OK;
+    }
+
+    private int compile(String[] params) throws IOException {
+        requireArguments(params, 2);
+
+        int landmarks = 0;
+        boolean hierarchy = false;
+
+        for (int i = 2; i < params.length; i++) {
+            if ("--ch".equals(params[i]))
+                hierarchy = true;
+            else if ("--landmarks".equals(params[i]) && i + 1 < params.length)
+                landmarks = parseCount(params[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option " + params[i] + ".");
+        }
+
+        Path target = Path.of(params[1]);
+
+        if (!target.getFileName().toString().endsWith("." + MappedGraph.EXTENSION))
+            throw new IllegalArgumentException("The output of compile must be a ." + MappedGraph.EXTENSION + " file.");
+
+        long time = System.nanoTime();
+        CompiledGraph compiled = CompiledGraph.compile(read(Path.of(params[0])));
+
+        MappedGraph.write(compiled, target);
+        out.println(target + ": " + compiled.getNodeCount() + " Knoten, " + compiled.getArcCount() + " Arcs in "
+                + millis(time) + " ms");
+
+        if (landmarks > 0) {
+            time = System.nanoTime();
+            Path file = sibling(target, Landmarks.EXTENSION);
+            Landmarks l = Landmarks.build(compiled, landmarks);
+
+            l.write(file);
+            out.println(file + ": " + l.getLandmarkCount() + " Landmarken in " + millis(time) + " ms");
+        }
+
+        if (hierarchy) {
+            time = System.nanoTime();
+            ContractionHierarchy ch = new ContractionHierarchyBuilder(compiled).build();
+
+            out.println("Contraction Hierarchy: " + ch.getShortcutCount() + " Shortcuts in " + millis(time) + " ms");
+        }
+
+        return EXIT_OK;
+    }
+
+    private int serve(String[] params) throws IOException {
+        requireArguments(params, 1);
+
+        int port = 8080;
+
+        for (int i = 1; i < params.length; i++) {
+            if ("--port".equals(params[i]) && i + 1 < params.length)
+                port = parseCount(params[++i]);
+            else
+                throw new IllegalArgumentException("Unknown option " + params[i] + ".");
+        }
+
+        RouteServer server = new RouteServer(Path.of(params[0]), new InetSocketAddress(port));
+
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        out.println("Listening on http://localhost:" + server.getAddress().getPort());
+        err.println(statistics(startupTime(), Duration.ZERO));
+
+        try {
+            Thread.currentThread().join();
+        }
+        catch (InterruptedException ex) {
+            server.close();
+        }
+
+        return EXIT_OK;
+    }
+
+    private int loadTest(String[] params) throws IOException {
+        requireArguments(params, 2);
+
+        int requests = 10_000;
+        int concurrency = 8;
+        int batch = 1;
+
+        for (int i = 2; i < params.length; i++) {
+            if (i + 1 >= params.length)
+                throw new IllegalArgumentException("Unknown option " + params[i] + ".");
+
+            switch (params[i]) {
+                case "--requests": requests = parseCount(params[++i]); break;
+                case "--concurrency": concurrency = parseCount(params[++i]); break;
+                case "--batch": batch = parseCount(params[++i]); break;
+                default: throw new IllegalArgumentException("Unknown option " + params[i] + ".");
+            }
+        }
+
+        LoadTestClient client = new LoadTestClient(URI.create(params[0]), Path.of(params[1]));
+
+        try {
+            LoadTestClient.Result result = client.run(requests, concurrency, batch, Math.min(requests, 100));
+
+            result.print(out);
+
+            return result.getErrors() == 0 ? EXIT_OK : EXIT_ERROR;
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("The load test was interrupted.", ex);
+        }
+    }
+
+    /*
+    Dateien
+     */
+
+    /**
+     * Liest einen Graphen im binären Format oder als serialisierten Graphen.
+     */
+    static Graph read(Path file) throws IOException {
+        if (!Files.isRegularFile(file))
+            throw new IOException("The file " + file + " does not exist.");
+
+        return BinaryGraphFormat.isBinaryGraph(file) ? BinaryGraphFormat.read(file) : LegacyGraphConverter.read(file);
+    }
+
+    /**
+     * Schreibt einen Graphen im Format, das zur Endung der Datei passt.
+     */
+    static void write(Graph graph, Path file) throws IOException {
+        String name = file.getFileName().toString();
+
+        if (name.endsWith("." + BinaryGraphFormat.EXTENSION)) {
+            BinaryGraphFormat.write(graph, file);
+        }
+        else if (name.endsWith("." + MappedGraph.EXTENSION)) {
+            MappedGraph.write(CompiledGraph.compile(graph), file);
+        }
+        else {
+            throw new IllegalArgumentException("Unknown output format of " + name + ".");
+        }
+    }
+
+    private static Path sibling(Path file, String extension) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+
+        return file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "." + extension);
+    }
+
+    /*
+    Statistik
+     */
+
+    /**
+     * @return Die Zeit vom Start der JVM bis jetzt.
+     */
+    private static Duration startupTime() {
+        return ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()))
+                .orElse(Duration.ZERO);
+    }
+
+    /**
+     * @return Der maximale Speicherbedarf des Prozesses (VmHWM) in KiB oder -1, falls er nicht ermittelt werden kann
+     * (z.B. außerhalb von Linux).
+     */
+    static long peakRssKiB() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+            }
+        }
+        catch (IOException | NumberFormatException ignored) {
+        }
+
+        return -1;
+    }
+
+    private static String statistics(Duration startup, Duration runtime) {
+        long rss = peakRssKiB();
+
+        return "startup_ms=" + startup.toMillis() + " runtime_ms=" + runtime.toMillis()
+                + " peak_rss_kib=" + (rss >= 0 ? rss : "n/a");
+    }
+
+    private static void requireArguments(String[] params, int count) throws IllegalArgumentException {
+        if (params.length < count)
+            throw new IllegalArgumentException("Expected at least " + count + " arguments.");
+    }
+
+    private static int parseCount(String value) throws IllegalArgumentException {
+        try {
+            int count = Integer.parseInt(value);
+
+            if (count > 0)
+                return count;
+        }
+        catch (NumberFormatException ignored) {
+        }
+
+        throw new IllegalArgumentException("Invalid count " + value + ".");
+    }
+
+    private static long millis(long since) {
+        return (System.nanoTime() - since) / 1_000_000;
+    }
+}
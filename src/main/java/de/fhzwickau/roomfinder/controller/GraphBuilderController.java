@@ -1,28 +1,39 @@
 package de.fhzwickau.roomfinder.controller;
 
 import de.fhzwickau.roomfinder.GraphBuilderApplication;
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.io.LegacyGraphConverter;
+import de.fhzwickau.roomfinder.io.journal.GraphJournal;
+import de.fhzwickau.roomfinder.metrics.Metrics;
 import de.fhzwickau.roomfinder.model.graph.Graph;
 import de.fhzwickau.roomfinder.model.graph.edge.Edge;
 import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
 import de.fhzwickau.roomfinder.model.graph.node.Node;
 import de.fhzwickau.roomfinder.model.metadata.Metadata;
+import de.fhzwickau.roomfinder.model.metadata.MetadataCodec;
+import de.fhzwickau.roomfinder.model.metadata.MetadataField;
+import de.fhzwickau.roomfinder.search.NodeSearchIndex;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.value.ObservableValue;
-import javafx.collections.FXCollections;
-import javafx.collections.ListChangeListener;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.stage.FileChooser;
 import javafx.util.Callback;
+import javafx.util.Duration;
 import org.controlsfx.control.textfield.AutoCompletionBinding;
+import org.controlsfx.control.textfield.TextFields;
 
 import java.io.*;
-import java.lang.reflect.Field;
-import java.util.ArrayList;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
  * Die Klasse, die die Eingaben des UIs in das Modell überträgt.
@@ -48,16 +59,34 @@ public class GraphBuilderController {
             UNKNOWN_ERROR = "Es ist ein unerwarteter Fehler aufgetreten.",
             EDGE_ADDED = "Die Kante konnte hinzugefügt werden.",
             EDGE_NOT_FOUND = "Die Kante konnte nicht gefunden werden.",
-            EDGE_REMOVED = "Die Kante konnte entfernt werden.";
+            EDGE_REMOVED = "Die Kante konnte entfernt werden.",
+            JOURNAL_ERROR = "Die Änderungen konnten nicht gesichert werden.",
+            WORKSPACE_ERROR = "Der Arbeitsstand konnte nicht geladen werden. Es wird ohne Sicherung mit einem leeren Graphen begonnen.";
+
+    /**
+     * Die maximale Anzahl an Vorschlägen der {@link #searchBar}.
+     */
+    private static final int SUGGESTIONS = 10;
+
+    /**
+     * Der automatisch gesicherte Arbeitsstand. Änderungen landen im {@link GraphJournal} daneben.
+     */
+    private static final Path WORKSPACE = Path.of(System.getProperty("user.home"), ".graphbuilder",
+            "workspace." + BinaryGraphFormat.EXTENSION);
 
     private static final String CHOOSER_EXPORT_TITLE = "Exportieren",
     CHOOSER_IMPORT_TITLE = "Importieren";
 
-    private static final FileChooser.ExtensionFilter FILE_FILTER = new FileChooser.ExtensionFilter("Graphen (*.grser)", "*.grser");
+    private static final FileChooser.ExtensionFilter FILE_FILTER = new FileChooser.ExtensionFilter("Graphen (*.grb)", "*." + BinaryGraphFormat.EXTENSION),
+    LEGACY_FILE_FILTER = new FileChooser.ExtensionFilter("Alte Graphen (*.grser)", "*." + LegacyGraphConverter.EXTENSION);
 
     private Node modify;
+    private String modifyId;
     private Graph graph;
-    private Map<Field, TextField> textFields = new HashMap<>();
+    private GraphJournal journal;
+    private NodeListProjection nodes;
+    private NodeSearchIndex searchIndex;
+    private Map<MetadataField, TextField> textFields = new HashMap<>();
     private AutoCompletionBinding<String> autoCompletionBinding;
 
     @FXML
@@ -81,10 +110,24 @@ public class GraphBuilderController {
     @FXML
     private TextField edgeWeightTextField;
 
+    @FXML
+    private TextArea metricsTextArea;
+
     @FXML
     private void initialize() {
         graph = new Graph();
 
+        try {
+            Files.createDirectories(WORKSPACE.getParent());
+            journal = GraphJournal.open(WORKSPACE, graph);
+        }
+        catch (IOException | RuntimeException ex) {
+            // Beschädigter Arbeitsstand: mit einem leeren Graphen beginnen
+            Alert alert = new Alert(Alert.AlertType.ERROR, WORKSPACE_ERROR);
+            alert.setContentText(WORKSPACE + ": " + ex.getLocalizedMessage());
+            alert.show();
+        }
+
         Callback<TableColumn.CellDataFeatures<Node, String>, ObservableValue<String>> callback = v -> {
             String lazyNode = v.getValue() instanceof LazyNode ? " (LazyNode)" : "";
 
@@ -92,24 +135,76 @@ public class GraphBuilderController {
         };
 
         nodeNameColumn.setCellValueFactory(callback);
+        nodeNameColumn.setSortable(false); // Die Projektion hält die Knoten sortiert
         linkedNodesColumn.setCellValueFactory(callback);
 
-        nodeTableView.getSelectionModel().getSelectedItems().addListener((ListChangeListener<Node>) change -> {
-            linkedNodesTableView.getItems().clear();
+        nodes = new NodeListProjection(graph);
+        nodeTableView.setItems(nodes.getItems());
+        linkedNodesTableView.setItems(nodes.getNeighbours());
 
-            Node selected = nodeTableView.getSelectionModel().getSelectedItem();
+        nodeTableView.getSelectionModel().selectedItemProperty().addListener((o, old, selected) -> nodes.select(selected));
+        searchBar.textProperty().addListener((o, old, text) -> nodes.setFilter(text));
 
-            if (selected != null) {
-                List<Node> links = new ArrayList<>();
+        searchIndex = NodeSearchIndex.of(graph);
+        autoCompletionBinding = TextFields.bindAutoCompletion(searchBar, request -> searchIndex
+                .search(request.getUserText(), SUGGESTIONS).stream()
+                .map(NodeSearchIndex.Match::getId)
+                .collect(Collectors.toList()));
 
-                for (Edge e : selected.getEdges()) {
-                    links.add(e.getOther(selected));
-                }
+        Timeline metricsRefresh = new Timeline(new KeyFrame(Duration.seconds(1), e -> refreshMetrics()));
+        metricsRefresh.setCycleCount(Animation.INDEFINITE);
+        metricsRefresh.play();
+    }
+
+    /**
+     * Schreibt die letzten Änderungen und schließt das Journal. Wird beim Schließen des Fensters aufgerufen.
+     */
+    public void close() {
+        if (nodes != null)
+            nodes.close();
 
-                linkedNodesTableView.setItems(FXCollections.observableList(links));
+        if (searchIndex != null)
+            graph.removeGraphListener(searchIndex);
+
+        if (autoCompletionBinding != null)
+            autoCompletionBinding.dispose();
+
+        if (journal != null) {
+            try {
+                journal.close();
+            }
+            catch (IOException ex) {
+                ex.printStackTrace();
             }
+        }
+    }
+
+    /**
+     * Schreibt eine Änderung in das Journal. Ist das Journal groß genug, wird danach ein neuer vollständiger Stand
+     * geschrieben.
+     * @param entry Die Änderung.
+     */
+    private void journal(JournalEntry entry) {
+        if (journal == null)
+            return;
+
+        try {
+            entry.writeTo(journal);
 
-        });
+            if (journal.needsCompaction())
+                journal.compact(graph);
+        }
+        catch (IOException ex) {
+            Alert alert = new Alert(Alert.AlertType.ERROR, JOURNAL_ERROR);
+            alert.setContentText(ex.getLocalizedMessage());
+            alert.show();
+        }
+    }
+
+    @FunctionalInterface
+    private interface JournalEntry {
+
+        void writeTo(GraphJournal journal) throws IOException;
     }
 
     /**
@@ -118,48 +213,60 @@ public class GraphBuilderController {
     @FXML
     private void save() {
         if (modify != null) {
-            for (Field field : modify.getClass().getDeclaredFields()) {
-                if (field.isAnnotationPresent(Metadata.class)) {
-                    String value = getUserInputFor(field);
-
-                    if (value == null && !field.getAnnotation(Metadata.class).nullable()) {
-                        new Alert(Alert.AlertType.ERROR, field.getName() + NULL_MESSAGE_END).show();
-
-                        return;
-                    }
-
-                    try {
-                        Object v = castFor(field, value);
-
-                        try {
-                            field.setAccessible(true);
-                            field.set(modify, v);
-                            field.setAccessible(false);
-                        }
-                        catch (Exception ex) {
-                            ex.printStackTrace();
-                        }
-                    }
-                    catch (RuntimeException ex) {
-                        new Alert(Alert.AlertType.ERROR, WRONG_DATATYPE.replace("%1%", field.getName()).replace("%2%", field.getType().getSimpleName())).show();
-
-                        return;
-                    }
+            MetadataCodec codec = MetadataCodec.of(modify.getClass());
+
+            /*
+            Einen anderen vollständigen Knoten mit der neuen ID nicht überschreiben, bevor Felder geändert werden
+             */
+            String newId = getUserInputFor(codec.getField("id"));
+            Node existing = newId != null ? graph.get(newId) : null;
+
+            if (existing != null && existing != modify && !(existing instanceof LazyNode)) {
+                new Alert(Alert.AlertType.ERROR, NODE_ALREADY_EXISTS).show();
+
+                return;
+            }
 
+            for (MetadataField field : codec.getFields()) {
+                String value = getUserInputFor(field);
+
+                if (value == null && !field.isNullable()) {
+                    new Alert(Alert.AlertType.ERROR, field.getName() + NULL_MESSAGE_END).show();
+
+                    return;
+                }
+
+                try {
+                    field.parseInto(modify, value);
+                }
+                catch (RuntimeException ex) {
+                    new Alert(Alert.AlertType.ERROR, WRONG_DATATYPE.replace("%1%", field.getName()).replace("%2%", field.getType().getSimpleName())).show();
+
+                    return;
                 }
             }
 
-            if (graph.contains(modify))
-                graph.remove(modify);
+            /*
+            Die ID kann geändert worden sein, deshalb unter der alten ID austragen. Die Kanten bleiben erhalten.
+             */
+            Node node = modify;
+            String oldId = modifyId;
 
-            graph.add(modify);
+            if (oldId != null && graph.get(oldId) == node) {
+                graph.rekey(oldId, node);
+                journal(j -> j.rekey(oldId, node));
+            }
+            else {
+                graph.add(node);
+                journal(j -> j.upsertNode(node));
+            }
 
             if (graph.contains(modify)) {
                 new Alert(Alert.AlertType.INFORMATION, NODE_ADDED).show();
             }
 
-            reloadExistingNodes();
             modify = null;
+            modifyId = null;
             loadFields(null);
         }
         else {
@@ -174,6 +281,7 @@ public class GraphBuilderController {
     @FXML
     private void createNewNode() {
         modify = new Node();
+        modifyId = null;
 
         loadFields(modify);
     }
@@ -181,13 +289,19 @@ public class GraphBuilderController {
     /**
      * Diese Methode lädt eine schon existierende {@link Node} in das Bearbetungsfenster.
      * Dabei wird die eingebene ID aus {@link #searchBar} ausgelesen und das zugehörige Element geladen.
+     * Gibt es keinen Knoten mit genau dieser ID, wird der beste Treffer des {@link #searchIndex} geladen (z.B. über
+     * den Anzeigenamen oder trotz eines Tippfehlers).
      */
     @FXML
     private void loadNode() {
         Node node = getNodeFromSearchBar();
 
+        if (node == null)
+            node = findNode(searchBar.getText());
+
         if (node != null) {
             modify = node;
+            modifyId = node.getId();
 
             loadFields(node);
         }
@@ -204,6 +318,7 @@ public class GraphBuilderController {
 
         if (node != null) {
             graph.remove(node);
+            journal(j -> j.removeNode(node.getId()));
 
             if (!graph.contains(node)) {
                 new Alert(Alert.AlertType.CONFIRMATION, NODE_REMOVED).show();
@@ -212,8 +327,6 @@ public class GraphBuilderController {
         else new Alert(Alert.AlertType.ERROR, NODE_NOT_FOUND).show();
 
         searchBar.setText("");
-
-        reloadExistingNodes();
     }
 
     /**
@@ -221,17 +334,11 @@ public class GraphBuilderController {
      */
     @FXML
     private void exportGraph() {
-        File file = buildFileChooser(CHOOSER_EXPORT_TITLE).showSaveDialog(GraphBuilderApplication.getPrimaryStage());
+        File file = buildFileChooser(CHOOSER_EXPORT_TITLE, FILE_FILTER).showSaveDialog(GraphBuilderApplication.getPrimaryStage());
 
         if (file != null) {
             try {
-                FileOutputStream fileOut = new FileOutputStream(file);
-                ObjectOutputStream objectOut = new ObjectOutputStream(fileOut);
-
-                objectOut.writeObject(graph);
-
-                objectOut.flush();
-                objectOut.close();
+                BinaryGraphFormat.write(graph, file.toPath());
 
                 new Alert(Alert.AlertType.CONFIRMATION, SAVED).show();
             } catch (IOException | SecurityException ex) {
@@ -244,25 +351,26 @@ public class GraphBuilderController {
 
     /**
      * Diese Methode öffnet einen {@link FileChooser} und liest einen persistierten Graphen ein.
+     * Alte, serialisierte Graphen (.grser) werden dabei einmalig in das binäre Format umgewandelt und daneben gesichert.
      */
     @FXML
     private void importGraph() {
-        File file = buildFileChooser(CHOOSER_IMPORT_TITLE).showOpenDialog(GraphBuilderApplication.getPrimaryStage());
+        File file = buildFileChooser(CHOOSER_IMPORT_TITLE, FILE_FILTER, LEGACY_FILE_FILTER).showOpenDialog(GraphBuilderApplication.getPrimaryStage());
 
         if (file != null) {
             try {
-                FileInputStream fileIn = new FileInputStream(file);
-                ObjectInputStream objectIn = new ObjectInputStream(fileIn);
-
-                Graph temp = (Graph) objectIn.readObject();
-                objectIn.close();
+                Path path = file.toPath();
+                Graph temp = BinaryGraphFormat.isBinaryGraph(path)
+                        ? BinaryGraphFormat.read(path)
+                        : LegacyGraphConverter.convert(path, LegacyGraphConverter.convertedPath(path));
 
                 graph.addAll(temp);
 
-                new Alert(Alert.AlertType.CONFIRMATION, LOADED).show();
+                if (journal != null)
+                    journal.compact(graph);
 
-                reloadExistingNodes();
-            } catch (IOException | SecurityException | ClassNotFoundException ex) {
+                new Alert(Alert.AlertType.CONFIRMATION, LOADED).show();
+            } catch (IOException | SecurityException ex) {
                 Alert alert = new Alert(Alert.AlertType.ERROR, SAVE_ERROR);
                 alert.setContentText(ex.getLocalizedMessage());
                 alert.show();
@@ -270,6 +378,20 @@ public class GraphBuilderController {
         }
     }
 
+    /**
+     * Zeigt den aktuellen Stand der {@link Metrics} an. Wird jede Sekunde aufgerufen.
+     */
+    @FXML
+    private void refreshMetrics() {
+        metricsTextArea.setText(Metrics.snapshot().toString());
+    }
+
+    @FXML
+    private void resetMetrics() {
+        Metrics.reset();
+        refreshMetrics();
+    }
+
     @FXML
     private void saveEdge() {
 
@@ -278,14 +400,16 @@ public class GraphBuilderController {
             Node node2 = getNodeFromString(edgeNode2TextField.getText());
 
             if (node1 == null) {
-                node1 = new LazyNode(edgeNode1TextField.getText());
-                graph.add(node1);
-                reloadExistingNodes();
+                LazyNode lazyNode = new LazyNode(edgeNode1TextField.getText());
+                graph.add(lazyNode);
+                journal(j -> j.upsertNode(lazyNode));
+                node1 = lazyNode;
             }
             if (node2 == null) {
-                node2 = new LazyNode(edgeNode2TextField.getText());
-                graph.add(node2);
-                reloadExistingNodes();
+                LazyNode lazyNode = new LazyNode(edgeNode2TextField.getText());
+                graph.add(lazyNode);
+                journal(j -> j.upsertNode(lazyNode));
+                node2 = lazyNode;
             }
 
             int weight = Integer.parseInt(edgeWeightTextField.getText());
@@ -298,6 +422,9 @@ public class GraphBuilderController {
                 Edge e = new Edge(node1, node2, weight);
 
                 if (node1.addEdge(e) | node2.addEdge(e)) {
+                    String id1 = node1.getId(), id2 = node2.getId();
+                    journal(j -> j.addEdge(id1, id2, weight));
+                    nodes.refreshNeighbours();
 
                     // eine ODER-Verknüpfung, aber falls das erste TRUE ist, wird das 2. trotzdem ausgeführt!
                     new Alert(Alert.AlertType.CONFIRMATION, EDGE_ADDED).show();
@@ -321,14 +448,15 @@ public class GraphBuilderController {
         Node node2 = getNodeFromString(edgeNode2TextField.getText());
 
         if (node1 != null && node2 != null) {
+            Edge e = node1.getEdgeTo(node2.getId());
 
-            for (Edge e: node1.getEdges()) {
-                if (e.getOther(node1).equals(node2)) {
-                    e.destroy();
+            if (e != null) {
+                e.destroy();
+                journal(j -> j.destroyEdge(node1.getId(), node2.getId()));
+                nodes.refreshNeighbours();
 
-                    new Alert(Alert.AlertType.CONFIRMATION,EDGE_REMOVED ).show();
-                    return;
-                }
+                new Alert(Alert.AlertType.CONFIRMATION,EDGE_REMOVED ).show();
+                return;
             }
         }
         new Alert(Alert.AlertType.ERROR, EDGE_NOT_FOUND).show();
@@ -349,6 +477,20 @@ public class GraphBuilderController {
         return null;
     }
 
+    /**
+     * Sucht den Knoten, der am besten zu einem Text passt.
+     * @param text Der Text, z.B. der Anfang einer ID oder ein Anzeigename.
+     * @return Der beste Treffer im {@link #searchIndex} oder null.
+     */
+    private Node findNode(String text) {
+        if (text == null || searchIndex == null)
+            return null;
+
+        List<NodeSearchIndex.Match> matches = searchIndex.search(text, 1);
+
+        return matches.isEmpty() ? null : graph.get(matches.get(0).getId());
+    }
+
     /**
      * Verucht einen Knoten anhand des Inputs in die {@link #searchBar} auslesen.
      * @return Der gefundene Knoten oder null.
@@ -361,40 +503,20 @@ public class GraphBuilderController {
 
     /**
      * Baut einen {@link FileChooser}.
-     * Es sind nur Dateien, die auf .grser enden, zulässig.
+     * Es sind nur Dateien zulässig, die zu einem der Filter passen.
      * @param title Der Titel des Choosers.
+     * @param filters Die zulässigen Dateiendungen.
      * @return Der zusammengebaute Chooser.
      */
-    private FileChooser buildFileChooser(String title) {
+    private FileChooser buildFileChooser(String title, FileChooser.ExtensionFilter... filters) {
         FileChooser chooser = new FileChooser();
         chooser.setTitle(title);
 
-        chooser.getExtensionFilters().add(FILE_FILTER);
+        chooser.getExtensionFilters().addAll(filters);
 
         return chooser;
     }
 
-    /**
-     * Lädt alle {@link Node}s in das UI, die zum Graphen hinzugefügt wurden.
-     * Die Nodes müssen zu {@link #graph} gehören.
-     */
-    private void reloadExistingNodes() {
-        List<Node> values = new ArrayList<>();
-
-        for (Node node : graph.values()) {
-            values.add(node);
-            System.out.println(node.getId());
-        }
-
-        nodeTableView.getItems().clear();
-        nodeTableView.setItems(FXCollections.observableList(values));
-
-        if (autoCompletionBinding != null)
-            autoCompletionBinding.dispose();
-
-        //autoCompletionBinding = TextFields.bindAutoCompletion(searchBar, graph.keySet());
-    }
-
     /**
      * Ermittelt die Nutzereingabe für ein bestimmtes Attribut.
      * Es wird anhand des aktuell zu bearbeitenden Knotens {@link #modify} und des hier angegeben Atrributfeldes
@@ -402,7 +524,7 @@ public class GraphBuilderController {
      * @param field Das Feld, für welches die Nutzereingabe abgefragt wurde.
      * @return Die Nutzereingabe als String. "" wird dabei in null umgewandelt.
      */
-    private String getUserInputFor(Field field) {
+    private String getUserInputFor(MetadataField field) {
         TextField textField = textFields.get(field);
         String value = textField != null ? textField.getText() : null;
 
@@ -419,16 +541,8 @@ public class GraphBuilderController {
      * @param field Das Feld, für das die Beschreibung gebaut werden soll. Es muss mit {@link Metadata} gekennzeichnet sein.
      * @return Die Beschreibung für das Attribut.
      */
-    private String getDescription(Field field) {
-        if (field.isAnnotationPresent(Metadata.class)) {
-            Metadata metadata = field.getAnnotation(Metadata.class);
-
-            String d = metadata.description() != null ? metadata.description() : "";
-
-            return "(" + field.getType().getSimpleName() + ") " + field.getName() + "=\n" + d + "\n";
-        }
-
-        return "";
+    private String getDescription(MetadataField field) {
+        return "(" + field.getType().getSimpleName() + ") " + field.getName() + "=\n" + field.getDescription() + "\n";
     }
 
     /**
@@ -444,54 +558,21 @@ public class GraphBuilderController {
         if (node == null || node instanceof LazyNode)
             return; // LazyNodes solen nur die ID der richtigen Nodes halten
 
-        for (Field field : node.getClass().getDeclaredFields()) {
-            if (field.isAnnotationPresent(Metadata.class)) {
-                field.setAccessible(true);
-                Object v = null;
-                try {
-                    v = field.get(node);
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                field.setAccessible(false);
+        for (MetadataField field : MetadataCodec.of(node.getClass()).getFields()) {
+            String v = field.format(node);
 
-                TextField textField = new TextField();
-                textField.setPromptText(field.getName());
-                if (v != null)
-                    textField.setText(v.toString());
+            TextField textField = new TextField();
+            textField.setPromptText(field.getName());
+            if (v != null)
+                textField.setText(v);
 
-                textFields.put(field, textField);
+            textFields.put(field, textField);
 
-                pane.addRow(i, new Label(getDescription(field)), textField);
-                i++;
-            }
+            pane.addRow(i, new Label(getDescription(field)), textField);
+            i++;
         }
 
         pane.setGridLinesVisible(true);
     }
 
-    /**
-     * Wandelt eine Nutzereingabe in einen bestimmten Typen um.
-     * Das Casting muss hier per Hand erfolgen. Für alle möglichen Feldtypen muss die Castingmethode hier existieren.
-     * @param field Das Feld, für dessen Typen die Eingabe angepasst werden soll.
-     * @param value Die Nutzereingabe.
-     * @return Der Wert, welcher für das angebene Feld gecastet ist.
-     */
-    private Object castFor(Field field, String value) {
-        if (field.getType().equals(String.class)) {
-            return value;
-        }
-        else if (field.getType().equals(int.class) || field.getType().equals(Integer.class)) {
-            return Integer.parseInt(value);
-        }
-        else if (field.getType().equals(boolean.class) || field.getType().equals(Boolean.class)) {
-            return Boolean.parseBoolean(value);
-        }
-        else if (field.getType().equals(byte.class) || field.getType().equals(Byte.class)) {
-            return Byte.parseByte(value);
-        }
-
-        return null;
-    }
-
 }
\ No newline at end of file
@@ -0,0 +1,363 @@
+package de.fhzwickau.roomfinder.controller;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Eine Sicht auf die Knoten eines {@link Graph}en für die Tabellen im UI, nach ID sortiert und optional gefiltert.
+ * Die Sicht wird über einen {@link GraphListener} schrittweise angepasst: Einzelne Änderungen werden an der
+ * passenden Stelle eingefügt bzw. entfernt (binäre Suche), statt die Liste neu aufzubauen. Alle Änderungen eines
+ * Pulses des FX-Threads werden gesammelt angewendet. Sind es mehr als {@link #BULK_THRESHOLD} (z.B. bei einem
+ * Import), oder ändert sich der Filter, wird die Liste in einem eigenen Thread neu sortiert und gefiltert und danach
+ * als Ganzes übernommen; der FX-Thread kopiert dafür nur die Knoten und IDs.
+ * Zusätzlich werden die Nachbarn eines ausgewählten Knotens bereitgestellt ({@link #getNeighbours()}).
+ * Der Graph muss im FX-Thread verändert werden, die Listen dürfen nur dort gelesen werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class NodeListProjection implements GraphListener, AutoCloseable {
+
+    /**
+     * Ab dieser Anzahl an gesammelten Änderungen wird die Liste neu aufgebaut, statt die Änderungen einzeln
+     * anzuwenden.
+     */
+    static final int BULK_THRESHOLD = 1024;
+
+    private static final Comparator<Entry> BY_KEY = Comparator.comparing(e -> e.key);
+
+    private final Graph graph;
+    private final Executor fxThread;
+    private final ObservableList<Node> items = FXCollections.observableArrayList();
+    private final ObservableList<Node> neighbours = FXCollections.observableArrayList();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "node-list");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Die ID, unter der ein angezeigter Knoten in {@link #items} einsortiert ist. Nur im FX-Thread verwendet.
+     */
+    private Map<Node, String> keys = new IdentityHashMap<>();
+    private final List<Change> changes = new ArrayList<>();
+    private boolean flushScheduled;
+    private boolean rebuilding;
+    private long generation;
+    private String filter = "";
+    private Node selected;
+
+    /**
+     * Registriert die Sicht beim Graphen und baut sie zum ersten Mal auf.
+     * @param graph Der Graph.
+     */
+    NodeListProjection(Graph graph) {
+        this(graph, Platform::runLater);
+    }
+
+    /**
+     * @param graph Der Graph.
+     * @param fxThread Führt Aufgaben im Thread aus, in dem der Graph verändert und die Listen gelesen werden.
+     */
+    NodeListProjection(Graph graph, Executor fxThread) {
+        this.graph = graph;
+        this.fxThread = fxThread;
+
+        graph.addGraphListener(this);
+        rebuild();
+    }
+
+    /**
+     * @return Die angezeigten Knoten. Die Liste darf nicht verändert werden.
+     */
+    ObservableList<Node> getItems() {
+        return items;
+    }
+
+    /**
+     * @return Die Nachbarn des mit {@link #select(Node)} ausgewählten Knotens.
+     */
+    ObservableList<Node> getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * Zeigt nur Knoten an, deren ID oder Anzeigename den Text enthält (ohne Beachtung der Groß- und Kleinschreibung).
+     * @param text Der Text, leer oder null für alle Knoten.
+     */
+    void setFilter(String text) {
+        String f = text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+
+        if (f.equals(filter))
+            return;
+
+        filter = f;
+        rebuild();
+    }
+
+    /**
+     * @param node Der Knoten, dessen Nachbarn in {@link #getNeighbours()} stehen sollen, oder null.
+     */
+    void select(Node node) {
+        selected = node;
+        refreshNeighbours();
+    }
+
+    /**
+     * Liest die Nachbarn des ausgewählten Knotens neu ein. Muss nach dem Ändern von Kanten aufgerufen werden, da der
+     * Graph diese nicht meldet.
+     */
+    void refreshNeighbours() {
+        if (selected == null) {
+            neighbours.clear();
+            return;
+        }
+
+        List<Node> links = new ArrayList<>(selected.getEdges().size());
+
+        for (Edge e : selected.getEdges()) {
+            links.add(e.getOther(selected));
+        }
+
+        neighbours.setAll(links);
+    }
+
+    /*
+    Änderungen des Graphen
+     */
+
+    @Override
+    public void onNodeAdded(Node node) {
+        enqueue(new Change(node, null));
+    }
+
+    @Override
+    public void onNodeRemoved(String id, Node node) {
+        enqueue(new Change(node, id));
+    }
+
+    private void enqueue(Change change) {
+        synchronized (changes) {
+            changes.add(change);
+
+            if (flushScheduled)
+                return;
+
+            flushScheduled = true;
+        }
+
+        fxThread.execute(this::flush);
+    }
+
+    /**
+     * Wendet die gesammelten Änderungen an. Während die Liste neu aufgebaut wird, bleiben sie liegen und werden danach
+     * angewendet.
+     */
+    private void flush() {
+        List<Change> pending;
+
+        synchronized (changes) {
+            flushScheduled = false;
+
+            if (rebuilding || changes.isEmpty())
+                return;
+
+            pending = new ArrayList<>(changes);
+            changes.clear();
+        }
+
+        if (pending.size() > BULK_THRESHOLD) {
+            rebuild();
+            return;
+        }
+
+        boolean neighbourhood = false;
+
+        for (Change change : pending) {
+            if (change.removedId != null)
+                remove(change.node);
+            else if (matches(change.node))
+                insert(change.node);
+
+            neighbourhood |= selected != null && (change.node == selected || neighbours.contains(change.node)
+                    || selected.getEdgeTo(change.node.getId()) != null);
+        }
+
+        if (neighbourhood)
+            refreshNeighbours();
+    }
+
+    private void insert(Node node) {
+        if (keys.containsKey(node))
+            return;
+
+        String key = node.getId();
+        int i = search(key);
+
+        keys.put(node, key);
+        items.add(i < 0 ? -i - 1 : i, node);
+    }
+
+    private void remove(Node node) {
+        String key = keys.get(node);
+
+        if (key == null)
+            return;
+
+        int i = search(key);
+
+        if (i < 0 || items.get(i) != node) {
+            i = 0;
+
+            while (items.get(i) != node) {
+                i++;
+            }
+        }
+
+        items.remove(i);
+        keys.remove(node);
+    }
+
+    /**
+     * Sucht die Stelle einer ID in {@link #items}.
+     * @return Der Index oder {@code -(Einfügestelle) - 1} wie bei {@link java.util.Collections#binarySearch}.
+     */
+    private int search(String key) {
+        int low = 0;
+        int high = items.size() - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int c = keys.get(items.get(mid)).compareTo(key);
+
+            if (c < 0)
+                low = mid + 1;
+            else if (c > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+
+        return -(low + 1);
+    }
+
+    private boolean matches(Node node) {
+        return matches(filter, node.getId(), node.hasDisplayName() ? node.getDisplayName() : null);
+    }
+
+    private static boolean matches(String filter, String id, String displayName) {
+        return filter.isEmpty() || id.toLowerCase(Locale.ROOT).contains(filter)
+                || (displayName != null && displayName.toLowerCase(Locale.ROOT).contains(filter));
+    }
+
+    /*
+    Neuaufbau
+     */
+
+    /**
+     * Baut die Liste im Hintergrund neu auf. Im FX-Thread werden nur die Knoten und ihre IDs kopiert; Filtern und
+     * Sortieren laufen im eigenen Thread. Ein älterer, noch laufender Neuaufbau wird verworfen.
+     */
+    private void rebuild() {
+        Node[] nodes = graph.values().toArray(new Node[0]);
+        String[] ids = new String[nodes.length];
+        String[] names = new String[nodes.length];
+
+        for (int i = 0; i < nodes.length; i++) {
+            ids[i] = nodes[i].getId();
+            names[i] = nodes[i].hasDisplayName() ? nodes[i].getDisplayName() : null;
+        }
+
+        long gen = ++generation;
+        String f = filter;
+
+        synchronized (changes) {
+            changes.clear();
+            rebuilding = true;
+        }
+
+        executor.execute(() -> {
+            Entry[] entries = new Entry[nodes.length];
+            int n = 0;
+
+            for (int i = 0; i < nodes.length; i++) {
+                if (matches(f, ids[i], names[i]))
+                    entries[n++] = new Entry(ids[i], nodes[i]);
+            }
+
+            Arrays.sort(entries, 0, n, BY_KEY);
+
+            Node[] sorted = new Node[n];
+            Map<Node, String> sortedKeys = new IdentityHashMap<>(n);
+
+            for (int i = 0; i < n; i++) {
+                sorted[i] = entries[i].node;
+                sortedKeys.put(entries[i].node, entries[i].key);
+            }
+
+            fxThread.execute(() -> install(gen, sorted, sortedKeys));
+        });
+    }
+
+    private void install(long gen, Node[] sorted, Map<Node, String> sortedKeys) {
+        if (gen != generation)
+            return;
+
+        keys = sortedKeys;
+        items.setAll(sorted);
+
+        synchronized (changes) {
+            rebuilding = false;
+        }
+
+        refreshNeighbours();
+        flush();
+    }
+
+    /**
+     * Meldet die Sicht vom Graphen ab und beendet den Thread für den Neuaufbau.
+     */
+    @Override
+    public void close() {
+        graph.removeGraphListener(this);
+        executor.shutdownNow();
+    }
+
+    private static final class Change {
+
+        private final Node node;
+        private final String removedId;
+
+        private Change(Node node, String removedId) {
+            this.node = node;
+            this.removedId = removedId;
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final Node node;
+
+        private Entry(String key, Node node) {
+            this.key = key;
+            this.node = node;
+        }
+    }
+}
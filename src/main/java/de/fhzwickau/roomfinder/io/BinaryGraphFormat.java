@@ -0,0 +1,94 @@
+package de.fhzwickau.roomfinder.io;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Das binäre Dateiformat für Graphen (Dateiendung {@value #EXTENSION}).
+ * Aufbau (alle Zahlen als Varint, vorzeichenbehaftete Zahlen zusätzlich ZigZag-kodiert):
+ * <pre>
+ * Kopf:      "GRBF" (4 Byte), Version, Flags (reserviert, 0)
+ * Strings:   Anzahl, je Länge und UTF-8-Bytes
+ * Knoten:    Anzahl, je Art (0 = Knoten, 1 = LazyNode) und Index der ID in der Stringtabelle,
+ *            bei Knoten zusätzlich displayName + 1, ressource + 1 (0 = null), positionX, positionY,
+ *            Flags (Bit 0 = asTarget) und toiletType
+ * Kanten:    Anzahl, je Index des ersten und zweiten Knotens (Reihenfolge der Knotensätze) und Gewicht
+ * Prüfsumme: CRC32 über alle vorherigen Bytes (4 Byte, Big Endian)
+ * </pre>
+ * Jede Kante wird nur einmal gespeichert und beim Einlesen bei beiden Knoten eingetragen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class BinaryGraphFormat {
+
+    public static final String EXTENSION = "grb";
+
+    static final byte[] MAGIC = {'G', 'R', 'B', 'F'};
+    static final int VERSION = 1;
+
+    static final int KIND_NODE = 0;
+    static final int KIND_LAZY = 1;
+
+    static final int FLAG_AS_TARGET = 1;
+
+    static final int BUFFER_SIZE = 1 << 16;
+
+    private BinaryGraphFormat() {
+    }
+
+    /**
+     * Prüft anhand des Kopfes, ob eine Datei im binären Format vorliegt.
+     * @param file Die Datei.
+     * @return Gibt an, ob die Datei mit der Kennung des Formats beginnt.
+     * @throws IOException Falls die Datei nicht gelesen werden kann.
+     */
+    public static boolean isBinaryGraph(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(MAGIC.length);
+
+            while (head.hasRemaining() && channel.read(head) >= 0);
+
+            return !head.hasRemaining() && head.flip().equals(ByteBuffer.wrap(MAGIC));
+        }
+    }
+
+    /**
+     * Schreibt einen Graphen in eine Datei. Eine vorhandene Datei wird überschrieben.
+     * @param graph Der Graph.
+     * @param file Die Datei.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    public static void write(Graph graph, Path file) throws IOException {
+        try (BinaryGraphWriter writer = new BinaryGraphWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+            writer.write(graph);
+        }
+    }
+
+    /**
+     * Liest einen Graphen aus einer Datei.
+     * @param file Die Datei.
+     * @return Der eingelesene Graph.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder beschädigt ist.
+     */
+    public static Graph read(Path file) throws IOException {
+        try (BinaryGraphReader reader = new BinaryGraphReader(Files.newByteChannel(file, StandardOpenOption.READ))) {
+            return reader.read();
+        }
+    }
+
+    static int zigZag(int value) {
+        return (value << 1) ^ (value >> 31);
+    }
+
+    static int unZigZag(int value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
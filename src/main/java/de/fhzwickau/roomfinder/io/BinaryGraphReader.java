@@ -0,0 +1,267 @@
+package de.fhzwickau.roomfinder.io;
+
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Liest Graphen im {@link BinaryGraphFormat} über einen gepufferten Kanal.
+ * Die Datei wird dabei nur einmal von vorne nach hinten gelesen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class BinaryGraphReader implements Closeable {
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryGraphFormat.BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private int checked;
+
+    /**
+     * @param channel Der Kanal, aus dem gelesen wird. Er wird mit {@link #close()} geschlossen.
+     */
+    public BinaryGraphReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip();
+    }
+
+    /**
+     * Liest einen Graphen.
+     * @return Der eingelesene Graph.
+     * @throws IOException Falls nicht gelesen werden kann oder die Daten beschädigt sind.
+     */
+    public Graph read() throws IOException {
+        Graph graph = new Graph();
+
+        readInto(graph);
+
+        return graph;
+    }
+
+    /**
+     * Liest die Knoten und Kanten in einen bestehenden Graphen ein. Die Knoten werden mit {@link Graph#add(Node)}
+     * hinzugefügt, {@link LazyNode}s werden also wie gewohnt aufgelöst. Kanten werden zwischen den Knoten erstellt,
+     * die nach dem Einlesen unter der jeweiligen ID im Graphen liegen.
+     * Der Graph wird erst verändert, wenn alle Daten gelesen und die Prüfsumme und die Kanten geprüft sind.
+     * @param graph Der Graph, in den eingelesen wird.
+     * @return Die IDs der eingelesenen Knoten.
+     * @throws IOException Falls nicht gelesen werden kann oder die Daten beschädigt sind.
+     */
+    public List<String> readInto(Graph graph) throws IOException {
+        long start = Metrics.start(Operation.IMPORT);
+        List<String> ids = readNodesAndEdges(graph);
+
+        Metrics.record(Operation.IMPORT, start, ids.size());
+
+        return ids;
+    }
+
+    private List<String> readNodesAndEdges(Graph graph) throws IOException {
+        /*
+        Kopf
+         */
+        byte[] magic = new byte[BinaryGraphFormat.MAGIC.length];
+        ensure(magic.length);
+        buffer.get(magic);
+
+        if (!Arrays.equals(magic, BinaryGraphFormat.MAGIC))
+            throw new IOException("The data is not a binary graph.");
+
+        int version = readVarInt();
+
+        if (version != BinaryGraphFormat.VERSION)
+            throw new IOException("Unsupported version " + version + " of the binary graph format.");
+
+        readVarInt(); // Flags
+
+        /*
+        Strings
+         */
+        String[] strings = new String[readCount()];
+
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = readString();
+        }
+
+        /*
+        Knoten: erst nur dekodieren, eingetragen wird nach der Prüfsumme
+         */
+        String[] ids = new String[readCount()];
+        Node[] nodes = new Node[ids.length];
+
+        for (int i = 0; i < ids.length; i++) {
+            int kind = readVarInt();
+            String id = string(strings, readVarInt());
+
+            if (kind == BinaryGraphFormat.KIND_LAZY) {
+                nodes[i] = new LazyNode(id);
+            }
+            else if (kind == BinaryGraphFormat.KIND_NODE) {
+                String displayName = optionalString(strings, readVarInt());
+                String ressource = optionalString(strings, readVarInt());
+                int positionX = BinaryGraphFormat.unZigZag(readVarInt());
+                int positionY = BinaryGraphFormat.unZigZag(readVarInt());
+                boolean asTarget = (readVarInt() & BinaryGraphFormat.FLAG_AS_TARGET) != 0;
+                byte toiletType = (byte) readVarInt();
+
+                nodes[i] = new Node(id, displayName, ressource, positionX, positionY, asTarget, toiletType);
+            }
+            else {
+                throw new IOException("Unknown node kind " + kind + ".");
+            }
+
+            ids[i] = id;
+        }
+
+        /*
+        Kanten: Endpunkte als Index, jeweils a, b und Gewicht
+         */
+        int edges = readCount();
+        int[] arcs = new int[3 * Math.min(edges, 1024)];
+
+        for (int i = 0; i < edges; i++) {
+            int a = index(ids, readVarInt());
+            int b = index(ids, readVarInt());
+
+            if (ids[a].equals(ids[b]))
+                throw new IOException("Invalid edge from " + ids[a] + " to itself.");
+
+            if (3 * i == arcs.length)
+                arcs = Arrays.copyOf(arcs, 2 * arcs.length);
+
+            arcs[3 * i] = a;
+            arcs[3 * i + 1] = b;
+            arcs[3 * i + 2] = BinaryGraphFormat.unZigZag(readVarInt());
+        }
+
+        /*
+        Prüfsumme
+         */
+        crc.update(buffer.duplicate().position(checked).limit(buffer.position()));
+        checked = buffer.position();
+        ensure(Integer.BYTES);
+
+        if (buffer.getInt() != (int) crc.getValue())
+            throw new IOException("The checksum of the binary graph does not match.");
+
+        /*
+        Graph aufbauen
+         */
+        for (Node node : nodes) {
+            graph.add(node);
+        }
+
+        for (int i = 0; i < ids.length; i++) {
+            nodes[i] = graph.get(ids[i]);
+        }
+
+        for (int i = 0; i < edges; i++) {
+            Node a = nodes[arcs[3 * i]];
+            Node b = nodes[arcs[3 * i + 1]];
+            Edge e = new Edge(a, b, arcs[3 * i + 2]);
+
+            a.addEdge(e);
+            b.addEdge(e);
+        }
+
+        return new ArrayList<>(Arrays.asList(ids));
+    }
+
+    private static String string(String[] strings, int index) throws IOException {
+        if (index < 0 || index >= strings.length)
+            throw new IOException("Invalid string reference " + index + ".");
+
+        return strings[index];
+    }
+
+    private static String optionalString(String[] strings, int index) throws IOException {
+        return index == 0 ? null : string(strings, index - 1);
+    }
+
+    private static int index(String[] ids, int index) throws IOException {
+        if (index < 0 || index >= ids.length)
+            throw new IOException("Invalid node reference " + index + ".");
+
+        return index;
+    }
+
+    private int readCount() throws IOException {
+        int count = readVarInt();
+
+        if (count < 0)
+            throw new IOException("Invalid count " + count + ".");
+
+        return count;
+    }
+
+    private String readString() throws IOException {
+        byte[] bytes = new byte[readCount()];
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            ensure(1);
+
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.get(bytes, offset, length);
+            offset += length;
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int readVarInt() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            ensure(1);
+
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0)
+                return value;
+        }
+
+        throw new IOException("Malformed varint.");
+    }
+
+    /**
+     * Stellt sicher, dass mindestens die angegebene Anzahl an Bytes im Puffer liegt. Bytes, die den Puffer dabei
+     * verlassen, werden in die Prüfsumme einbezogen.
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes)
+            return;
+
+        crc.update(buffer.duplicate().position(checked).limit(buffer.position()));
+        buffer.compact();
+
+        while (buffer.position() < bytes) {
+            if (channel.read(buffer) < 0)
+                throw new EOFException("Unexpected end of the binary graph.");
+        }
+
+        buffer.flip();
+        checked = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,229 @@
+package de.fhzwickau.roomfinder.io;
+
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Schreibt Graphen im {@link BinaryGraphFormat} über einen gepufferten Kanal.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class BinaryGraphWriter implements Closeable {
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryGraphFormat.BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * @param channel Der Kanal, in den geschrieben wird. Er wird mit {@link #close()} geschlossen.
+     */
+    public BinaryGraphWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Schreibt alle Knoten und Kanten eines Graphen.
+     * Kanten zu Knoten, die nicht Teil des Graphen sind, werden nicht geschrieben.
+     * @param graph Der Graph.
+     * @throws IOException Falls nicht geschrieben werden kann.
+     */
+    public void write(Graph graph) throws IOException {
+        write(graph.values());
+    }
+
+    /**
+     * Schreibt eine Menge von Knoten und alle Kanten zwischen ihnen.
+     * @param nodes Die Knoten. Die IDs müssen eindeutig sein.
+     * @throws IOException Falls nicht geschrieben werden kann.
+     */
+    public void write(Collection<Node> nodes) throws IOException {
+        long start = Metrics.start(Operation.EXPORT);
+
+        writeNodesAndEdges(nodes);
+        Metrics.record(Operation.EXPORT, start, nodes.size());
+    }
+
+    private void writeNodesAndEdges(Collection<Node> nodes) throws IOException {
+        Map<String, Integer> strings = new HashMap<>();
+        List<String> table = new ArrayList<>();
+        Map<String, Integer> indices = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+        Node[] records = nodes.toArray(new Node[0]);
+
+        for (int i = 0; i < records.length; i++) {
+            Node node = records[i];
+
+            indices.put(node.getId(), i);
+            intern(strings, table, node.getId());
+
+            if (node.hasDisplayName())
+                intern(strings, table, node.getDisplayName());
+            if (node.hasRessource())
+                intern(strings, table, node.getRessource());
+        }
+
+        /*
+        Kopf
+         */
+        buffer.put(BinaryGraphFormat.MAGIC);
+        writeVarInt(BinaryGraphFormat.VERSION);
+        writeVarInt(0);
+
+        /*
+        Strings
+         */
+        writeVarInt(table.size());
+
+        for (String s : table) {
+            writeString(s);
+        }
+
+        /*
+        Knoten
+         */
+        writeVarInt(records.length);
+
+        for (Node node : records) {
+            if (node instanceof LazyNode) {
+                writeVarInt(BinaryGraphFormat.KIND_LAZY);
+                writeVarInt(strings.get(node.getId()));
+                continue;
+            }
+
+            writeVarInt(BinaryGraphFormat.KIND_NODE);
+            writeVarInt(strings.get(node.getId()));
+            writeVarInt(node.hasDisplayName() ? strings.get(node.getDisplayName()) + 1 : 0);
+            writeVarInt(node.hasRessource() ? strings.get(node.getRessource()) + 1 : 0);
+            writeVarInt(BinaryGraphFormat.zigZag(node.getPositionX()));
+            writeVarInt(BinaryGraphFormat.zigZag(node.getPositionY()));
+            writeVarInt(node.asTarget() ? BinaryGraphFormat.FLAG_AS_TARGET : 0);
+            writeVarInt(node.getToiletType() & 0xFF);
+        }
+
+        /*
+        Kanten: Eine Kante, die bei beiden Knoten eingetragen ist, schreibt der Knoten mit dem kleineren Index
+         */
+        int count = 0;
+
+        for (int u = 0; u < records.length; u++) {
+            for (Edge e : records[u].getEdges()) {
+                if (isWrittenBy(indices, records, u, e))
+                    count++;
+            }
+        }
+
+        writeVarInt(count);
+
+        for (int u = 0; u < records.length; u++) {
+            for (Edge e : records[u].getEdges()) {
+                if (isWrittenBy(indices, records, u, e)) {
+                    writeVarInt(u);
+                    writeVarInt(indices.get(e.getOther(records[u]).getId()));
+                    writeVarInt(BinaryGraphFormat.zigZag(e.getWeight()));
+                }
+            }
+        }
+
+        /*
+        Prüfsumme
+         */
+        ensure(Integer.BYTES);
+        crc.update(buffer.duplicate().flip());
+        buffer.putInt((int) crc.getValue());
+        flush();
+    }
+
+    private static boolean isWrittenBy(Map<String, Integer> indices, Node[] records, int u, Edge edge) {
+        Integer v = indices.get(edge.getOther(records[u]).getId());
+
+        return v != null && (u < v || !records[v].getEdges().contains(edge));
+    }
+
+    private static void intern(Map<String, Integer> strings, List<String> table, String s) {
+        if (!strings.containsKey(s)) {
+            strings.put(s, table.size());
+            table.add(s);
+        }
+    }
+
+    private void writeString(String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+
+        writeVarInt(bytes.length);
+
+        int offset = 0;
+
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining())
+                drain();
+
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private void writeVarInt(int value) throws IOException {
+        ensure(5);
+
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+
+        buffer.put((byte) value);
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes)
+            drain();
+    }
+
+    /**
+     * Schreibt den Puffer in den Kanal und bezieht ihn in die Prüfsumme ein.
+     */
+    private void drain() throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Schreibt den Puffer in den Kanal, ohne ihn in die Prüfsumme einzubeziehen (nur für die Prüfsumme selbst).
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,77 @@
+package de.fhzwickau.roomfinder.io;
+
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Liest Graphen, die mit Java-Serialisierung ({@link java.io.ObjectOutputStream}) als .grser gespeichert wurden, und
+ * wandelt sie in das {@link BinaryGraphFormat} um.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class LegacyGraphConverter {
+
+    public static final String EXTENSION = "grser";
+
+    private LegacyGraphConverter() {
+    }
+
+    /**
+     * Liest einen serialisierten Graphen.
+     * @param file Die .grser-Datei.
+     * @return Der Graph.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder keinen Graphen enthält.
+     */
+    public static Graph read(Path file) throws IOException {
+        long start = Metrics.start(Operation.LEGACY_IMPORT);
+
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            Object graph = in.readObject();
+
+            if (!(graph instanceof Graph))
+                throw new InvalidClassException("The file does not contain a graph.");
+
+            Metrics.record(Operation.LEGACY_IMPORT, start, ((Graph) graph).size());
+
+            return (Graph) graph;
+        }
+        catch (ClassNotFoundException ex) {
+            throw new IOException(ex);
+        }
+    }
+
+    /**
+     * Wandelt eine .grser-Datei in das binäre Format um.
+     * @param legacyFile Die .grser-Datei.
+     * @param target Die Datei, in die geschrieben wird. Eine vorhandene Datei wird überschrieben.
+     * @return Der umgewandelte Graph.
+     * @throws IOException Falls eine der Dateien nicht gelesen oder geschrieben werden kann.
+     */
+    public static Graph convert(Path legacyFile, Path target) throws IOException {
+        Graph graph = read(legacyFile);
+
+        BinaryGraphFormat.write(graph, target);
+
+        return graph;
+    }
+
+    /**
+     * @param legacyFile Eine .grser-Datei.
+     * @return Die Datei mit gleichem Namen und der Endung des binären Formats im gleichen Verzeichnis.
+     */
+    public static Path convertedPath(Path legacyFile) {
+        String name = legacyFile.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+
+        return legacyFile.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "." + BinaryGraphFormat.EXTENSION);
+    }
+}
@@ -0,0 +1,479 @@
+package de.fhzwickau.roomfinder.io.journal;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphReader;
+import de.fhzwickau.roomfinder.io.BinaryGraphWriter;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Ein Journal (Write-Ahead-Log) der Änderungen an einem Graphen, neben einem vollständigen Stand im
+ * {@link de.fhzwickau.roomfinder.io.BinaryGraphFormat} (Dateiendung des Journals {@value #EXTENSION}).
+ * Jede Änderung wird als kurzer Eintrag angehängt, sodass Speichern nur so lange dauert, wie die Änderung groß ist.
+ * Die Einträge werden gesammelt und spätestens nach {@value #SYNC_INTERVAL_MILLIS} ms gemeinsam geschrieben und
+ * mit {@link FileChannel#force(boolean)} auf die Platte gebracht; {@link #sync()} erzwingt das sofort.
+ * Wird das Journal zu groß ({@link #needsCompaction()}), schreibt {@link #compact(Graph)} einen neuen vollständigen
+ * Stand und beginnt ein leeres Journal.
+ * <p>
+ * Aufbau der Datei:
+ * <pre>
+ * Kopf:     "GRJF" (4 Byte), Version (int), Prüfsumme des zugehörigen Standes (int, 0 = kein Stand)
+ * Einträge: je Länge (int), CRC32 des Eintrags (int) und der Eintrag, siehe {@link JournalRecords}
+ * </pre>
+ * Beim Öffnen ({@link #open(Path, Graph)}) wird der Stand gelesen und das Journal darauf wiederholt. Ein
+ * unvollständiger oder beschädigter Eintrag am Ende (z.B. nach einem Absturz während des Schreibens) beendet die
+ * Wiederholung und wird abgeschnitten. Gehört das Journal nicht zum Stand (Absturz während {@link #compact(Graph)},
+ * nachdem der neue Stand schon ersetzt wurde), ist es bereits im Stand enthalten und wird verworfen.
+ * <p>
+ * Die Methoden zum Anhängen dürfen aus mehreren Threads aufgerufen werden, die Reihenfolge der Einträge entspricht
+ * dann der Reihenfolge der Aufrufe.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphJournal implements Closeable {
+
+    public static final String EXTENSION = "grj";
+
+    /**
+     * Die längste Zeit, die ein Eintrag nur im Speicher liegt.
+     */
+    public static final long SYNC_INTERVAL_MILLIS = 100;
+
+    static final byte[] MAGIC = {'G', 'R', 'J', 'F'};
+    static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = MAGIC.length + 2 * Integer.BYTES;
+    private static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    /**
+     * Ab dieser Menge an gepufferten Einträgen wird sofort geschrieben.
+     */
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    /**
+     * Das Journal wird erst ab dieser Größe und wenn es größer als der Stand ist verdichtet.
+     */
+    private static final long MIN_COMPACTION_SIZE = 1 << 20;
+
+    private final Path snapshot;
+    private final Path file;
+    private final Object syncLock = new Object();
+    private final ScheduledExecutorService flusher;
+    private final int replayed;
+
+    /*
+    Bewacht durch this
+     */
+    private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private IOException failure;
+    private boolean closed;
+
+    /*
+    Bewacht durch syncLock
+     */
+    private FileChannel channel;
+    private long size;
+    private long snapshotSize;
+
+    private GraphJournal(Path snapshot, Path file, FileChannel channel, long size, int replayed) throws IOException {
+        this.snapshot = snapshot;
+        this.file = file;
+        this.channel = channel;
+        this.size = size;
+        this.snapshotSize = Files.exists(snapshot) ? Files.size(snapshot) : 0;
+        this.replayed = replayed;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "graph-journal");
+            t.setDaemon(true);
+            return t;
+        });
+
+        flusher.scheduleWithFixedDelay(this::flushQuietly, SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stellt einen Graphen aus Stand und Journal wieder her und öffnet das Journal zum Anhängen. Fehlen die Dateien,
+     * wird mit einem leeren Graphen begonnen.
+     * Stand und Journal werden zuerst in einen eigenen Graphen gelesen, der übergebene Graph erhält die Knoten erst,
+     * wenn beides gelungen ist. Schlägt das Öffnen fehl, bleibt er unverändert.
+     * @param snapshot Die Datei des vollständigen Standes (.grb). Das Journal liegt daneben.
+     * @param graph Der Graph, in den eingelesen wird, i.d.R. leer.
+     * @return Das geöffnete Journal.
+     * @throws IOException Falls der Stand oder das Journal nicht gelesen oder geschrieben werden können.
+     */
+    public static GraphJournal open(Path snapshot, Graph graph) throws IOException {
+        Graph restored = new Graph();
+        GraphJournal journal = restore(snapshot, restored);
+
+        graph.addAll(restored);
+
+        return journal;
+    }
+
+    private static GraphJournal restore(Path snapshot, Graph graph) throws IOException {
+        Path file = journalOf(snapshot);
+        int base = 0;
+
+        if (Files.exists(snapshot)) {
+            try (BinaryGraphReader reader = new BinaryGraphReader(Files.newByteChannel(snapshot))) {
+                reader.readInto(graph);
+            }
+
+            base = checksumOf(snapshot);
+        }
+
+        if (Files.exists(file)) {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            try {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+                while (header.hasRemaining() && channel.read(header) >= 0);
+
+                header.flip();
+
+                if (header.remaining() == HEADER_SIZE && base == header.getInt(MAGIC.length + Integer.BYTES)
+                        && header.getInt(MAGIC.length) == VERSION
+                        && Arrays.equals(Arrays.copyOf(header.array(), MAGIC.length), MAGIC)) {
+                    int[] replayed = new int[1];
+                    long end = replay(channel, graph, replayed);
+
+                    channel.truncate(end);
+                    channel.position(end);
+
+                    return new GraphJournal(snapshot, file, channel, end, replayed[0]);
+                }
+            }
+            catch (IOException | RuntimeException ex) {
+                channel.close();
+                throw ex;
+            }
+
+            channel.close();
+        }
+
+        return new GraphJournal(snapshot, file, create(file, base), HEADER_SIZE, 0);
+    }
+
+    /**
+     * @return Die Datei des Journals, das zu einem Stand gehört.
+     */
+    public static Path journalOf(Path snapshot) {
+        String name = snapshot.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+
+        return snapshot.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "." + EXTENSION);
+    }
+
+    /**
+     * Wiederholt die Einträge ab dem Kopf.
+     * @return Die Position hinter dem letzten gültigen Eintrag.
+     */
+    private static long replay(FileChannel channel, Graph graph, int[] replayed) throws IOException {
+        long position = HEADER_SIZE;
+        long length = channel.size();
+        ByteBuffer frame = ByteBuffer.allocate(FRAME_HEADER_SIZE);
+        CRC32 crc = new CRC32();
+
+        while (position + FRAME_HEADER_SIZE <= length) {
+            frame.clear();
+            readFully(channel, frame, position);
+
+            int size = frame.getInt(0);
+
+            if (size <= 0 || size > MAX_RECORD_SIZE || position + FRAME_HEADER_SIZE + size > length)
+                break;
+
+            ByteBuffer record = ByteBuffer.allocate(size);
+            readFully(channel, record, position + FRAME_HEADER_SIZE);
+
+            crc.reset();
+            crc.update(record.array());
+
+            if ((int) crc.getValue() != frame.getInt(Integer.BYTES))
+                break;
+
+            JournalRecords.apply(graph, new DataInputStream(new ByteArrayInputStream(record.array())));
+            position += FRAME_HEADER_SIZE + size;
+            replayed[0]++;
+        }
+
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+
+            if (read < 0)
+                throw new IOException("Unexpected end of the journal.");
+        }
+    }
+
+    /**
+     * Legt ein leeres Journal an. Die Datei wird daneben geschrieben und atomar ersetzt.
+     */
+    private static FileChannel create(Path file, int base) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).put(MAGIC).putInt(VERSION).putInt(base).flip();
+
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+
+            out.force(true);
+        }
+
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        channel.position(HEADER_SIZE);
+
+        return channel;
+    }
+
+    /**
+     * @return Die Prüfsumme am Ende einer Datei im binären Format.
+     */
+    private static int checksumOf(Path snapshot) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+            ByteBuffer crc = ByteBuffer.allocate(Integer.BYTES);
+
+            if (channel.size() < Integer.BYTES)
+                throw new IOException("The snapshot " + snapshot + " is truncated.");
+
+            readFully(channel, crc, channel.size() - Integer.BYTES);
+
+            return crc.getInt(0);
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Einträge, die beim Öffnen wiederholt wurden.
+     */
+    public int getReplayedRecords() {
+        return replayed;
+    }
+
+    /*
+    Einträge
+     */
+
+    /**
+     * Hält einen neuen oder geänderten Knoten fest (nur die Metadaten, Kanten werden einzeln festgehalten).
+     * @param node Der Knoten, wie er jetzt im Graphen liegt.
+     * @throws IOException Falls ein vorheriges Schreiben fehlgeschlagen ist.
+     */
+    public void upsertNode(Node node) throws IOException {
+        append(JournalRecords.upsertNode(node));
+    }
+
+    public void removeNode(String id) throws IOException {
+        append(JournalRecords.removeNode(id));
+    }
+
+    public void addEdge(String id1, String id2, int weight) throws IOException {
+        append(JournalRecords.addEdge(id1, id2, weight));
+    }
+
+    public void destroyEdge(String id1, String id2) throws IOException {
+        append(JournalRecords.destroyEdge(id1, id2));
+    }
+
+    /**
+     * Hält fest, dass ein Knoten unter einer neuen ID eingetragen wurde (siehe {@link Graph#rekey(String, Node)}):
+     * Der Knoten wird unter der neuen ID eingetragen, seine Kanten werden übertragen und die alte ID entfernt.
+     * @param oldId Die bisherige ID.
+     * @param node Der Knoten mit der neuen ID und seinen Kanten.
+     * @throws IOException Falls ein vorheriges Schreiben fehlgeschlagen ist.
+     */
+    public synchronized void rekey(String oldId, Node node) throws IOException {
+        upsertNode(node);
+
+        if (oldId.equals(node.getId()))
+            return;
+
+        for (Edge e : node.getEdges()) {
+            addEdge(node.getId(), e.getOther(node).getId(), e.getWeight());
+        }
+
+        removeNode(oldId);
+    }
+
+    private synchronized void append(byte[] record) throws IOException {
+        if (closed)
+            throw new IOException("The journal is closed.");
+        if (failure != null)
+            throw failure;
+
+        CRC32 crc = new CRC32();
+        crc.update(record);
+
+        pending.write(ByteBuffer.allocate(FRAME_HEADER_SIZE).putInt(record.length).putInt((int) crc.getValue())
+                .array());
+        pending.write(record);
+
+        if (pending.size() >= FLUSH_THRESHOLD)
+            flusher.execute(this::flushQuietly);
+    }
+
+    /*
+    Schreiben
+     */
+
+    /**
+     * Schreibt alle gepufferten Einträge und wartet, bis sie auf der Platte sind.
+     * @throws IOException Falls nicht geschrieben werden kann.
+     */
+    public void sync() throws IOException {
+        synchronized (syncLock) {
+            byte[] data = drain();
+
+            if (data.length == 0)
+                return;
+
+            try {
+                ByteBuffer buffer = ByteBuffer.wrap(data);
+
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+
+                channel.force(false);
+                size += data.length;
+            }
+            catch (IOException ex) {
+                fail(ex);
+                throw ex;
+            }
+        }
+    }
+
+    private synchronized byte[] drain() throws IOException {
+        if (failure != null)
+            throw failure;
+
+        if (pending.size() == 0)
+            return new byte[0];
+
+        byte[] data = pending.toByteArray();
+        pending = new ByteArrayOutputStream();
+
+        return data;
+    }
+
+    private synchronized void fail(IOException ex) {
+        if (failure == null)
+            failure = ex;
+    }
+
+    private void flushQuietly() {
+        try {
+            sync();
+        }
+        catch (IOException ex) {
+            // wird beim nächsten Anhängen geworfen
+        }
+    }
+
+    /**
+     * @return Gibt an, ob das Journal so groß geworden ist, dass sich ein neuer Stand lohnt: größer als der Stand
+     * und mindestens 1 MiB.
+     */
+    public boolean needsCompaction() {
+        synchronized (syncLock) {
+            return size >= MIN_COMPACTION_SIZE && size > snapshotSize;
+        }
+    }
+
+    /**
+     * Schreibt einen vollständigen Stand und beginnt ein leeres Journal. Der Graph muss alle bisher festgehaltenen
+     * Änderungen enthalten und darf währenddessen nicht verändert werden.
+     * Der Stand wird daneben geschrieben und atomar ersetzt, erst danach wird das Journal geleert.
+     * @param graph Der Graph.
+     * @throws IOException Falls nicht geschrieben werden kann. Stand und Journal bleiben dann gültig.
+     */
+    public void compact(Graph graph) throws IOException {
+        synchronized (syncLock) {
+            synchronized (this) {
+                if (closed)
+                    throw new IOException("The journal is closed.");
+            }
+
+            Path tmp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+
+            try {
+                FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+
+                try (BinaryGraphWriter writer = new BinaryGraphWriter(out)) {
+                    writer.write(graph);
+                    out.force(true);
+                }
+
+                Files.move(tmp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally {
+                Files.deleteIfExists(tmp);
+            }
+
+            channel.close();
+            channel = create(file, checksumOf(snapshot));
+            size = HEADER_SIZE;
+            snapshotSize = Files.size(snapshot);
+
+            synchronized (this) {
+                pending = new ByteArrayOutputStream();
+                failure = null;
+            }
+        }
+    }
+
+    /**
+     * Schreibt die gepufferten Einträge und schließt das Journal.
+     * @throws IOException Falls nicht geschrieben werden kann.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed)
+                return;
+
+            closed = true;
+        }
+
+        flusher.shutdown();
+
+        try {
+            sync();
+        }
+        finally {
+            synchronized (syncLock) {
+                channel.close();
+            }
+        }
+    }
+}
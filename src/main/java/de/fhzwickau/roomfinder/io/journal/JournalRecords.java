@@ -0,0 +1,182 @@
+package de.fhzwickau.roomfinder.io.journal;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Kodiert die Einträge des {@link GraphJournal}s und wendet sie beim Wiederherstellen auf einen Graphen an.
+ * Jeder Eintrag setzt einen Zustand (statt ihn relativ zu ändern), ein Eintrag kann also ohne Schaden mehrfach
+ * angewendet werden:
+ * <pre>
+ * UPSERT_NODE   Art (0 = Knoten, 1 = LazyNode), ID, bei Knoten zusätzlich displayName, ressource (je optional),
+ *               positionX, positionY, asTarget, toiletType
+ *               Wird wie im Editor über {@link Graph#add(Node)} eingetragen, ein vorhandener vollständiger Knoten
+ *               wird also samt seinen Kanten ersetzt.
+ * REMOVE_NODE   ID
+ * ADD_EDGE      ID, ID, Gewicht
+ * DESTROY_EDGE  ID, ID
+ * </pre>
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class JournalRecords {
+
+    static final byte UPSERT_NODE = 1;
+    static final byte REMOVE_NODE = 2;
+    static final byte ADD_EDGE = 3;
+    static final byte DESTROY_EDGE = 4;
+
+    private static final byte KIND_NODE = 0;
+    private static final byte KIND_LAZY = 1;
+
+    private JournalRecords() {
+    }
+
+    static byte[] upsertNode(Node node) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(UPSERT_NODE);
+
+        if (node instanceof LazyNode) {
+            out.writeByte(KIND_LAZY);
+            out.writeUTF(node.getId());
+        }
+        else {
+            out.writeByte(KIND_NODE);
+            out.writeUTF(node.getId());
+            writeOptional(out, node.hasDisplayName() ? node.getDisplayName() : null);
+            writeOptional(out, node.hasRessource() ? node.getRessource() : null);
+            out.writeInt(node.getPositionX());
+            out.writeInt(node.getPositionY());
+            out.writeBoolean(node.asTarget());
+            out.writeByte(node.getToiletType());
+        }
+
+        return bytes.toByteArray();
+    }
+
+    static byte[] removeNode(String id) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(32);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(REMOVE_NODE);
+        out.writeUTF(id);
+
+        return bytes.toByteArray();
+    }
+
+    static byte[] addEdge(String id1, String id2, int weight) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(ADD_EDGE);
+        out.writeUTF(id1);
+        out.writeUTF(id2);
+        out.writeInt(weight);
+
+        return bytes.toByteArray();
+    }
+
+    static byte[] destroyEdge(String id1, String id2) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(48);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeByte(DESTROY_EDGE);
+        out.writeUTF(id1);
+        out.writeUTF(id2);
+
+        return bytes.toByteArray();
+    }
+
+    private static void writeOptional(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+
+        if (value != null)
+            out.writeUTF(value);
+    }
+
+    private static String readOptional(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    /**
+     * Wendet einen Eintrag auf einen Graphen an. Kanten zu Knoten, die es nicht (mehr) gibt, werden übergangen.
+     * @param graph Der Graph.
+     * @param in Der Eintrag.
+     * @throws IOException Falls der Eintrag nicht gelesen werden kann oder unbekannt ist.
+     */
+    static void apply(Graph graph, DataInput in) throws IOException {
+        byte type = in.readByte();
+
+        switch (type) {
+            case UPSERT_NODE:
+                graph.add(readNode(in));
+                break;
+            case REMOVE_NODE: {
+                Node node = graph.get(in.readUTF());
+
+                if (node != null)
+                    graph.remove(node);
+
+                break;
+            }
+            case ADD_EDGE: {
+                Node a = graph.get(in.readUTF());
+                Node b = graph.get(in.readUTF());
+                int weight = in.readInt();
+
+                if (a != null && b != null && !a.equals(b))
+                    connect(a, b, weight);
+
+                break;
+            }
+            case DESTROY_EDGE: {
+                Node a = graph.get(in.readUTF());
+                String other = in.readUTF();
+                Edge e = a != null ? a.getEdgeTo(other) : null;
+
+                if (e != null)
+                    e.destroy();
+
+                break;
+            }
+            default:
+                throw new IOException("Unknown journal record type " + type + ".");
+        }
+    }
+
+    private static Node readNode(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        String id = in.readUTF();
+
+        if (kind == KIND_LAZY)
+            return new LazyNode(id);
+        if (kind != KIND_NODE)
+            throw new IOException("Unknown node kind " + kind + ".");
+
+        String displayName = readOptional(in);
+        String ressource = readOptional(in);
+        int positionX = in.readInt();
+        int positionY = in.readInt();
+        boolean asTarget = in.readBoolean();
+        byte toiletType = in.readByte();
+
+        return new Node(id, displayName, ressource, positionX, positionY, asTarget, toiletType);
+    }
+
+    private static void connect(Node a, Node b, int weight) {
+        Edge e = new Edge(a, b, weight);
+
+        a.addEdge(e);
+        b.addEdge(e);
+    }
+}
@@ -0,0 +1,260 @@
+package de.fhzwickau.roomfinder.io.shard;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphReader;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lädt die Shards eines zerlegten Graphen (siehe {@link ShardWriter}) bei Bedarf in einen {@link Graph}.
+ * Knoten aus noch nicht geladenen Shards sind im Graphen als {@link LazyNode} vorhanden. Trifft eine Traversierung
+ * auf einen solchen Knoten, lädt {@link #resolve(Node)} den zugehörigen Shard. Die Knoten werden dabei über
+ * {@link Graph#add(Node)} eingefügt, die Platzhalter also wie gewohnt über
+ * {@link de.fhzwickau.roomfinder.model.graph.node.listener.LazyNodeListener#onCompleteNodeLoaded} ersetzt.
+ * <p>
+ * Das Laden geschieht nicht von selbst: {@link Node#getEdges()} und {@link Edge#getOther(Node)} liefern weiterhin den
+ * Platzhalter, ohne etwas zu laden. Eine Traversierung muss jeden erreichten Knoten daher über {@link #resolve(Node)}
+ * oder {@link #get(String)} holen, damit fehlende Shards geladen werden.
+ * <p>
+ * Für jeden geladenen Shard wird der Speicherbedarf geschätzt. Übersteigt die Summe das Budget, werden die am
+ * längsten nicht benutzten Shards wieder entladen: Ihre Knoten werden aus dem Graphen entfernt und, wo noch Kanten
+ * von geladenen Knoten hinführen, durch {@link LazyNode}s ersetzt. Referenzen auf entladene Knoten werden dadurch
+ * ungültig, Aufrufer sollten sich daher IDs statt Knoten merken.
+ * Die Klasse ist nicht threadsicher.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class ShardManager {
+
+    /*
+    Grobe Schätzwerte für den Speicherbedarf (Objektköpfe, Felder, HashMap- und HashSet-Einträge)
+     */
+    private static final long NODE_BYTES = 200;
+    private static final long EDGE_BYTES = 120;
+    private static final long STRING_BYTES = 48;
+
+    private final Graph graph;
+    private final Path directory;
+    private final ShardManifest manifest;
+    private final long budget;
+
+    /**
+     * Die geladenen Shards mit ihrem geschätzten Speicherbedarf, in der Reihenfolge des letzten Zugriffs.
+     */
+    private final LinkedHashMap<Integer, Long> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    private long usedBytes;
+
+    /**
+     * @param graph Der Graph, in den geladen wird.
+     * @param directory Das Verzeichnis mit dem Manifest und den Shards.
+     * @param budget Der geschätzte Speicherbedarf in Bytes, ab dem Shards entladen werden.
+     * @throws IOException Falls das Manifest nicht gelesen werden kann.
+     */
+    public ShardManager(Graph graph, Path directory, long budget) throws IOException {
+        this(graph, directory, ShardManifest.read(directory), budget);
+    }
+
+    public ShardManager(Graph graph, Path directory, ShardManifest manifest, long budget) {
+        if (budget <= 0)
+            throw new IllegalArgumentException("The memory budget must be positive.");
+
+        this.graph = graph;
+        this.directory = directory;
+        this.manifest = manifest;
+        this.budget = budget;
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    public ShardManifest getManifest() {
+        return manifest;
+    }
+
+    public long getBudget() {
+        return budget;
+    }
+
+    /**
+     * @return Der geschätzte Speicherbedarf aller geladenen Shards in Bytes.
+     */
+    public long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public int getLoadedShardCount() {
+        return loaded.size();
+    }
+
+    public boolean isLoaded(int shard) {
+        return loaded.containsKey(shard);
+    }
+
+    /**
+     * Liefert einen vollständigen Knoten und lädt dafür bei Bedarf seinen Shard.
+     * @param id Die ID des Knotens.
+     * @return Der Knoten oder null, falls er in keinem Shard liegt.
+     * @throws UncheckedIOException Falls der Shard nicht gelesen werden kann.
+     */
+    public Node get(String id) throws UncheckedIOException {
+        int shard = manifest.getShard(id);
+
+        if (shard == ShardManifest.NONE)
+            return null;
+
+        try {
+            load(shard);
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return graph.get(id);
+    }
+
+    /**
+     * Ersetzt einen {@link LazyNode} durch den vollständigen Knoten. Vollständige Knoten werden unverändert
+     * zurückgegeben, ihr Shard gilt aber als zuletzt benutzt.
+     * @param node Ein Knoten, z.B. über {@link Edge#getOther(Node)} erreicht.
+     * @return Der vollständige Knoten oder der übergebene, falls er in keinem Shard liegt.
+     * @throws UncheckedIOException Falls der Shard nicht gelesen werden kann.
+     */
+    public Node resolve(Node node) throws UncheckedIOException {
+        Node resolved = get(node.getId());
+
+        return resolved != null ? resolved : node;
+    }
+
+    /**
+     * Lädt einen Shard, falls er noch nicht geladen ist, und markiert ihn als zuletzt benutzt.
+     * Danach werden so lange andere Shards entladen, bis das Budget wieder eingehalten wird.
+     * @param shard Der Index des Shards.
+     * @throws IOException Falls der Shard nicht gelesen werden kann.
+     */
+    public void load(int shard) throws IOException {
+        if (loaded.get(shard) != null)
+            return;
+
+        try (BinaryGraphReader reader = new BinaryGraphReader(Files.newByteChannel(
+                directory.resolve(manifest.getFile(shard)), StandardOpenOption.READ))) {
+            reader.readInto(graph);
+        }
+
+        long size = estimate(shard);
+
+        loaded.put(shard, size);
+        usedBytes += size;
+
+        enforceBudget(shard);
+    }
+
+    /**
+     * Entlädt die am längsten nicht benutzten Shards, bis das Budget eingehalten wird. Der zuletzt geladene Shard
+     * wird nie entladen, auch wenn er allein das Budget übersteigt.
+     */
+    private void enforceBudget(int keep) {
+        Iterator<Map.Entry<Integer, Long>> it = loaded.entrySet().iterator();
+
+        while (usedBytes > budget && it.hasNext()) {
+            Map.Entry<Integer, Long> entry = it.next();
+
+            if (entry.getKey() == keep)
+                continue;
+
+            it.remove();
+            usedBytes -= entry.getValue();
+            unload(entry.getKey());
+        }
+    }
+
+    /**
+     * Entlädt einen Shard unabhängig vom Budget.
+     * @param shard Der Index des Shards.
+     */
+    public void evict(int shard) {
+        Long size = loaded.remove(shard);
+
+        if (size != null) {
+            usedBytes -= size;
+            unload(shard);
+        }
+    }
+
+    /**
+     * Entfernt die Knoten eines Shards aus dem Graphen. Kanten zu geladenen Knoten anderer Shards werden auf einen
+     * {@link LazyNode} umgehängt, Kanten zu Platzhaltern werden entfernt, ebenso Platzhalter ohne Kanten.
+     */
+    private void unload(int shard) {
+        for (String id : manifest.getNodes(shard)) {
+            Node node = graph.get(id);
+
+            if (node == null || node instanceof LazyNode)
+                continue;
+
+            List<Edge> edges = new ArrayList<>(node.getEdges());
+            graph.remove(node);
+
+            for (Edge e : edges) {
+                Node other = e.getOther(node);
+                int weight = e.getWeight();
+
+                e.destroy();
+
+                if (manifest.getShard(other.getId()) == shard)
+                    continue;
+
+                if (other instanceof LazyNode) {
+                    if (other.getEdges().isEmpty() && graph.get(other.getId()) == other)
+                        graph.remove(other);
+                }
+                else {
+                    Node stub = graph.get(id);
+
+                    if (stub == null) {
+                        stub = new LazyNode(id);
+                        graph.add(stub);
+                    }
+
+                    Edge replacement = new Edge(other, stub, weight);
+                    other.addEdge(replacement);
+                    stub.addEdge(replacement);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schätzt den Speicherbedarf der geladenen Knoten eines Shards.
+     */
+    private long estimate(int shard) {
+        long bytes = 0;
+
+        for (String id : manifest.getNodes(shard)) {
+            Node node = graph.get(id);
+
+            if (node == null)
+                continue;
+
+            bytes += NODE_BYTES + EDGE_BYTES * node.getEdges().size() + STRING_BYTES + node.getId().length();
+
+            if (node.hasDisplayName())
+                bytes += STRING_BYTES + node.getDisplayName().length();
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,164 @@
+package de.fhzwickau.roomfinder.io.shard;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Das Verzeichnis eines in Teile (Shards) zerlegten Graphen: Welche Datei enthält welchen Knoten?
+ * Die Shards werden über fortlaufende Indizes angesprochen, jeder Shard ist eine Datei im
+ * {@link de.fhzwickau.roomfinder.io.BinaryGraphFormat} im gleichen Verzeichnis wie das Manifest.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ShardManifest {
+
+    /**
+     * Der Dateiname des Manifests im Verzeichnis der Shards.
+     */
+    public static final String FILE_NAME = "manifest.grsm";
+
+    /**
+     * Wird von {@link #getShard(String)} zurückgegeben, wenn der Knoten in keinem Shard liegt.
+     */
+    public static final int NONE = -1;
+
+    private static final int MAGIC = 0x4752534D; // "GRSM"
+    private static final int VERSION = 1;
+
+    private final List<String> files;
+    private final List<List<String>> nodes;
+    private final Map<String, Integer> shards;
+
+    ShardManifest() {
+        files = new ArrayList<>();
+        nodes = new ArrayList<>();
+        shards = new HashMap<>();
+    }
+
+    /**
+     * Fügt einen Shard hinzu.
+     * @param file Der Dateiname relativ zum Verzeichnis des Manifests.
+     * @param ids Die IDs der Knoten, die der Shard enthält.
+     * @return Der Index des Shards.
+     * @throws IllegalArgumentException Falls ein Knoten schon einem anderen Shard zugeordnet ist.
+     */
+    int addShard(String file, List<String> ids) throws IllegalArgumentException {
+        int shard = files.size();
+
+        for (String id : ids) {
+            if (shards.putIfAbsent(id, shard) != null)
+                throw new IllegalArgumentException("The node " + id + " is already part of another shard.");
+        }
+
+        files.add(file);
+        nodes.add(Collections.unmodifiableList(new ArrayList<>(ids)));
+
+        return shard;
+    }
+
+    public int getShardCount() {
+        return files.size();
+    }
+
+    public int getNodeCount() {
+        return shards.size();
+    }
+
+    /**
+     * @param id Die ID eines Knotens.
+     * @return Der Index des Shards, der den Knoten enthält, oder {@link #NONE}.
+     */
+    public int getShard(String id) {
+        Integer shard = shards.get(id);
+
+        return shard != null ? shard : NONE;
+    }
+
+    /**
+     * @return Der Dateiname des Shards relativ zum Verzeichnis des Manifests.
+     */
+    public String getFile(int shard) {
+        return files.get(shard);
+    }
+
+    /**
+     * @return Die IDs aller Knoten des Shards.
+     */
+    public List<String> getNodes(int shard) {
+        return nodes.get(shard);
+    }
+
+    /**
+     * Schreibt das Manifest als {@value #FILE_NAME} in ein Verzeichnis.
+     * @param directory Das Verzeichnis der Shards.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    public void write(Path directory) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(directory.resolve(FILE_NAME))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(files.size());
+
+            for (int i = 0; i < files.size(); i++) {
+                out.writeUTF(files.get(i));
+                out.writeInt(nodes.get(i).size());
+
+                for (String id : nodes.get(i)) {
+                    out.writeUTF(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Liest das Manifest aus einem Verzeichnis.
+     * @param directory Das Verzeichnis der Shards.
+     * @return Das Manifest.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder kein gültiges Manifest ist.
+     */
+    public static ShardManifest read(Path directory) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(directory.resolve(FILE_NAME))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("The file does not contain a shard manifest of a supported version.");
+
+            ShardManifest manifest = new ShardManifest();
+            int count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                String file = in.readUTF();
+                int size = in.readInt();
+
+                if (size < 0)
+                    throw new IOException("Invalid node count " + size + ".");
+
+                List<String> ids = new ArrayList<>(size);
+
+                for (int j = 0; j < size; j++) {
+                    ids.add(in.readUTF());
+                }
+
+                try {
+                    manifest.addShard(file, ids);
+                }
+                catch (IllegalArgumentException ex) {
+                    throw new IOException(ex.getMessage(), ex);
+                }
+            }
+
+            return manifest;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package de.fhzwickau.roomfinder.io.shard;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.io.BinaryGraphWriter;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Zerlegt einen Graphen in Shards, die der {@link ShardManager} einzeln laden kann.
+ * Jeder Shard enthält seine Knoten vollständig und die Nachbarn aus anderen Shards als {@link LazyNode}, sodass die
+ * Kanten über Shard-Grenzen hinweg beim Laden erhalten bleiben.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ShardWriter {
+
+    private static final String DEFAULT_SHARD = "default";
+
+    private ShardWriter() {
+    }
+
+    /**
+     * Zerlegt den Graphen nach den Ressourcen (Gebäudeplänen) der Knoten. Knoten ohne Ressource landen in einem
+     * gemeinsamen Shard.
+     * @see #write(Graph, Path, Function)
+     */
+    public static ShardManifest write(Graph graph, Path directory) throws IOException {
+        return write(graph, directory, n -> n.hasRessource() ? n.getRessource() : DEFAULT_SHARD);
+    }
+
+    /**
+     * Zerlegt den Graphen und schreibt die Shards und das Manifest in ein Verzeichnis.
+     * {@link LazyNode}s des Graphen werden nicht übernommen, da sie zu keinem Shard gehören.
+     * @param graph Der Graph.
+     * @param directory Das Verzeichnis. Es wird angelegt, falls es nicht existiert.
+     * @param shardKey Bestimmt für jeden Knoten den Schlüssel des Shards. Knoten mit gleichem Schlüssel landen im
+     *                 gleichen Shard.
+     * @return Das geschriebene Manifest.
+     * @throws IOException Falls nicht geschrieben werden kann.
+     */
+    public static ShardManifest write(Graph graph, Path directory, Function<Node, String> shardKey)
+            throws IOException {
+        Files.createDirectories(directory);
+
+        Map<String, List<Node>> groups = new LinkedHashMap<>();
+
+        for (Node node : graph.values()) {
+            if (!(node instanceof LazyNode))
+                groups.computeIfAbsent(shardKey.apply(node), k -> new ArrayList<>()).add(node);
+        }
+
+        ShardManifest manifest = new ShardManifest();
+
+        for (List<Node> group : groups.values()) {
+            String file = "shard-" + manifest.getShardCount() + "." + BinaryGraphFormat.EXTENSION;
+            List<String> ids = new ArrayList<>(group.size());
+            Set<String> foreign = new LinkedHashSet<>();
+
+            for (Node node : group) {
+                ids.add(node.getId());
+            }
+
+            manifest.addShard(file, ids);
+
+            /*
+            Nachbarn aus anderen Shards als Platzhalter mitschreiben
+             */
+            for (Node node : group) {
+                for (Edge e : node.getEdges()) {
+                    Node other = e.getOther(node);
+
+                    if (graph.containsKey(other.getId()) && !(other instanceof LazyNode)
+                            && manifest.getShard(other.getId()) != manifest.getShardCount() - 1)
+                        foreign.add(other.getId());
+                }
+            }
+
+            List<Node> records = new ArrayList<>(group.size() + foreign.size());
+            records.addAll(group);
+            foreign.forEach(id -> records.add(new LazyNode(id)));
+
+            try (BinaryGraphWriter writer = new BinaryGraphWriter(FileChannel.open(directory.resolve(file),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))) {
+                writer.write(records);
+            }
+        }
+
+        manifest.write(directory);
+
+        return manifest;
+    }
+}
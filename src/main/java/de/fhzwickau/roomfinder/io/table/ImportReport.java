@@ -0,0 +1,125 @@
+package de.fhzwickau.roomfinder.io.table;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Das Ergebnis eines Imports mit dem {@link TableImporter}: die Anzahl der gelesenen Zeilen, Knoten und Kanten sowie
+ * die Fehler der Zeilen, die nicht übernommen wurden. Es werden höchstens {@link #MAX_ERRORS} Fehler aufbewahrt,
+ * gezählt werden alle.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ImportReport {
+
+    public static final int MAX_ERRORS = 1000;
+
+    private final List<RowError> errors = new ArrayList<>();
+    private long errorCount;
+    private long rows;
+    private long nodes;
+    private long edges;
+
+    void addError(String source, int line, String message) {
+        if (errors.size() < MAX_ERRORS)
+            errors.add(new RowError(source, line, message));
+
+        errorCount++;
+    }
+
+    void countRow() {
+        rows++;
+    }
+
+    void countNode() {
+        nodes++;
+    }
+
+    void countEdge() {
+        edges++;
+    }
+
+    /**
+     * @return Die Anzahl der gelesenen Datenzeilen ohne Kopfzeilen.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getEdges() {
+        return edges;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public boolean hasErrors() {
+        return errorCount > 0;
+    }
+
+    /**
+     * @return Die ersten {@link #MAX_ERRORS} Fehler in der Reihenfolge, in der sie aufgetreten sind.
+     */
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public void print(PrintStream out) {
+        errors.forEach(out::println);
+
+        if (errorCount > errors.size())
+            out.println("... und " + (errorCount - errors.size()) + " weitere Fehler");
+    }
+
+    @Override
+    public String toString() {
+        return rows + " Zeilen, " + nodes + " Knoten, " + edges + " Kanten, " + errorCount + " Fehler";
+    }
+
+    /**
+     * Ein Fehler in einer Zeile einer Tabelle. Die Zeile wurde nicht übernommen.
+     */
+    public static final class RowError {
+
+        private final String source;
+        private final int line;
+        private final String message;
+
+        private RowError(String source, int line, String message) {
+            this.source = source;
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return Der Name der Tabelle, z.B. der Dateiname.
+         */
+        public String getSource() {
+            return source;
+        }
+
+        /**
+         * @return Die Nummer der Zeile in der Tabelle, ab 1.
+         */
+        public int getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return source + ":" + line + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package de.fhzwickau.roomfinder.io.table;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.GraphBulkLoader;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.model.metadata.MetadataCodec;
+import de.fhzwickau.roomfinder.model.metadata.MetadataField;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Importiert Knoten und Kanten aus Tabellen (CSV oder TSV), z.B. aus den Exporten des Facility Managements.
+ * Jede Tabelle beginnt mit einer Kopfzeile, an der erkannt wird, was sie enthält:
+ * <ul>
+ *     <li>Knoten: Eine Spalte {@code id} und beliebige weitere Spalten mit den Namen der {@link
+ *     de.fhzwickau.roomfinder.model.metadata.Metadata}-Felder des Knotens (z.B. {@code displayName}, {@code
+ *     positionX}). Fehlende Spalten und leere Zellen behalten den Standardwert, sofern das Feld null sein darf.</li>
+ *     <li>Kanten: Die Spalten {@code from}, {@code to} und {@code weight}. Kanten dürfen auf Knoten verweisen, die
+ *     (noch) nicht importiert wurden, für sie werden {@link de.fhzwickau.roomfinder.model.graph.node.LazyNode}s
+ *     angelegt.</li>
+ * </ul>
+ * Die Groß- und Kleinschreibung der Spaltennamen wird nicht beachtet. Die Tabellen werden zeilenweise gelesen und die
+ * Werte über den {@link MetadataCodec} gesetzt; Zeilen mit Fehlern werden übersprungen und im {@link ImportReport}
+ * mit ihrer Zeilennummer aufgeführt. {@link #build()} baut aus allen gültigen Zeilen mit dem {@link GraphBulkLoader}
+ * den Graphen.
+ * Ein Importer ist nicht threadsicher und kann nur einmal gebaut werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class TableImporter {
+
+    public static final String CSV = "csv";
+    public static final String TSV = "tsv";
+
+    private static final String ID = "id";
+    private static final String FROM = "from";
+    private static final String TO = "to";
+    private static final String WEIGHT = "weight";
+
+    private final Function<String, ? extends Node> factory;
+    private final GraphBulkLoader loader = new GraphBulkLoader(1024, 1024);
+    private final Set<String> ids = new HashSet<>();
+    private final ImportReport report = new ImportReport();
+    private boolean built;
+
+    /**
+     * Erstellt einen Importer, der {@link Node}s mit den Standardwerten anlegt.
+     */
+    public TableImporter() {
+        this(id -> new Node(id, null, null, -1, -1, false, (byte) 0));
+    }
+
+    /**
+     * @param factory Legt zu einer ID einen neuen Knoten an, z.B. einer Unterklasse von {@link Node}. Die weiteren
+     *                Felder werden anschließend aus der Tabelle gesetzt.
+     */
+    public TableImporter(Function<String, ? extends Node> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Liest eine Tabelle aus einer Datei in UTF-8. Dateien mit der Endung {@code .tsv} werden durch Tabulatoren
+     * getrennt gelesen, alle anderen als CSV. Enthält die Kopfzeile einer CSV-Datei Semikolons, aber keine Kommas
+     * (z.B. bei Exporten aus einer deutschen Tabellenkalkulation), werden Semikolons als Trennzeichen verwendet.
+     * @param file Die Datei.
+     * @return Der Bericht über alle bisher gelesenen Tabellen.
+     * @throws IOException Falls die Datei nicht gelesen werden kann.
+     */
+    public ImportReport read(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        boolean tsv = name.toLowerCase(Locale.ROOT).endsWith("." + TSV);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(file),
+                StandardCharsets.UTF_8))) {
+            char delimiter = '\t';
+
+            if (!tsv) {
+                reader.mark(1 << 16);
+
+                String header = reader.readLine();
+
+                reader.reset();
+                delimiter = header != null && header.indexOf(';') >= 0 && header.indexOf(',') < 0 ? ';' : ',';
+            }
+
+            return read(reader, delimiter, name);
+        }
+    }
+
+    /**
+     * Liest eine Tabelle. Der Reader wird nicht geschlossen.
+     * @param reader Die Tabelle.
+     * @param delimiter Das Trennzeichen der Felder. Bei einem Tabulator werden Anführungszeichen nicht ausgewertet.
+     * @param source Der Name der Tabelle für den Bericht.
+     * @return Der Bericht über alle bisher gelesenen Tabellen.
+     * @throws IOException Falls nicht gelesen werden kann oder ein Feld in Anführungszeichen nicht geschlossen wird.
+     * @throws IllegalStateException Falls der Graph schon gebaut wurde.
+     */
+    public ImportReport read(Reader reader, char delimiter, String source) throws IOException, IllegalStateException {
+        if (built)
+            throw new IllegalStateException("The graph has already been built.");
+
+        TableReader table = new TableReader(reader, delimiter, delimiter != '\t');
+
+        if (!table.next())
+            return report;
+
+        Map<String, Integer> header = new HashMap<>();
+
+        for (int i = 0; i < table.size(); i++) {
+            String column = table.get(i).trim().toLowerCase(Locale.ROOT);
+
+            if (header.putIfAbsent(column, i) != null)
+                report.addError(source, table.getLine(), "Die Spalte " + table.get(i) + " ist doppelt.");
+        }
+
+        if (header.containsKey(FROM) && header.containsKey(TO))
+            readEdges(table, header, source);
+        else if (header.containsKey(ID))
+            readNodes(table, header, source);
+        else
+            report.addError(source, table.getLine(),
+                    "Die Kopfzeile enthält weder die Spalte " + ID + " noch " + FROM + " und " + TO + ".");
+
+        return report;
+    }
+
+    private void readNodes(TableReader table, Map<String, Integer> header, String source) throws IOException {
+        int columns = table.size();
+        int headerLine = table.getLine();
+        int idColumn = header.get(ID);
+        Class<?> type = null;
+        MetadataField[] fields = null;
+
+        while (table.next()) {
+            report.countRow();
+
+            int line = table.getLine();
+
+            if (table.size() != columns) {
+                report.addError(source, line, "Die Zeile hat " + table.size() + " statt " + columns + " Felder.");
+                continue;
+            }
+
+            String id = table.get(idColumn);
+
+            if (id.isEmpty()) {
+                report.addError(source, line, "Die ID fehlt.");
+                continue;
+            }
+
+            if (ids.contains(id)) {
+                report.addError(source, line, "Die ID " + id + " ist doppelt.");
+                continue;
+            }
+
+            Node node = factory.apply(id);
+
+            if (node.getClass() != type) {
+                type = node.getClass();
+                fields = resolve(MetadataCodec.of(type), header, source, headerLine);
+            }
+
+            if (fill(node, fields, idColumn, table, source, line)) {
+                ids.add(id);
+                loader.addNode(node);
+                report.countNode();
+            }
+        }
+    }
+
+    /**
+     * Ordnet den Spalten der Kopfzeile die Felder einer Klasse zu. Unbekannte Spalten werden gemeldet und ignoriert.
+     */
+    private MetadataField[] resolve(MetadataCodec codec, Map<String, Integer> header, String source,
+                                    int headerLine) {
+        MetadataField[] fields = new MetadataField[header.values().stream().mapToInt(i -> i + 1).max().orElse(0)];
+
+        header.forEach((column, i) -> {
+            MetadataField field = codec.getField(column);
+
+            if (field == null)
+                report.addError(source, headerLine, "Die Spalte " + column + " ist kein Feld von "
+                        + codec.getType().getSimpleName() + " und wird ignoriert.");
+            else
+                fields[i] = field;
+        });
+
+        return fields;
+    }
+
+    private boolean fill(Node node, MetadataField[] fields, int idColumn, TableReader table, String source,
+                         int line) {
+        for (int i = 0; i < fields.length; i++) {
+            MetadataField field = fields[i];
+
+            if (field == null || i == idColumn)
+                continue;
+
+            String text = table.get(i);
+
+            if (text.isEmpty()) {
+                if (field.isNullable())
+                    continue;
+
+                report.addError(source, line, "Die Spalte " + field.getName() + " darf nicht leer sein.");
+
+                return false;
+            }
+
+            try {
+                field.parseInto(node, text);
+            }
+            catch (IllegalArgumentException ex) {
+                report.addError(source, line, "Der Wert '" + text + "' der Spalte " + field.getName()
+                        + " ist kein " + field.getType().getSimpleName() + ".");
+
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void readEdges(TableReader table, Map<String, Integer> header, String source) throws IOException {
+        int columns = table.size();
+        Integer weightColumn = header.get(WEIGHT);
+
+        if (weightColumn == null) {
+            report.addError(source, table.getLine(), "Die Kopfzeile enthält keine Spalte " + WEIGHT + ".");
+            return;
+        }
+
+        int fromColumn = header.get(FROM);
+        int toColumn = header.get(TO);
+
+        while (table.next()) {
+            report.countRow();
+
+            int line = table.getLine();
+
+            if (table.size() != columns) {
+                report.addError(source, line, "Die Zeile hat " + table.size() + " statt " + columns + " Felder.");
+                continue;
+            }
+
+            String from = table.get(fromColumn);
+            String to = table.get(toColumn);
+            String weight = table.get(weightColumn);
+
+            if (from.isEmpty() || to.isEmpty()) {
+                report.addError(source, line, "Die Kante hat keine ID für einen ihrer Knoten.");
+                continue;
+            }
+
+            if (from.equals(to)) {
+                report.addError(source, line, "Die Kante verbindet den Knoten " + from + " mit sich selbst.");
+                continue;
+            }
+
+            int w;
+
+            try {
+                w = Integer.parseInt(weight.trim());
+            }
+            catch (NumberFormatException ex) {
+                w = 0;
+            }
+
+            if (w <= 0) {
+                report.addError(source, line, "Das Gewicht '" + weight + "' ist keine positive Ganzzahl.");
+                continue;
+            }
+
+            loader.addEdge(from, to, w);
+            report.countEdge();
+        }
+    }
+
+    public ImportReport getReport() {
+        return report;
+    }
+
+    /**
+     * Baut den Graphen aus allen gültigen Zeilen der gelesenen Tabellen.
+     * @return Der Graph.
+     * @throws IllegalStateException Falls der Graph schon gebaut wurde.
+     */
+    public Graph build() throws IllegalStateException {
+        if (built)
+            throw new IllegalStateException("The graph has already been built.");
+
+        built = true;
+
+        return loader.build();
+    }
+}
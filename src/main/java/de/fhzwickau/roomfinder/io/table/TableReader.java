@@ -0,0 +1,175 @@
+package de.fhzwickau.roomfinder.io.table;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liest eine Tabelle zeilenweise aus einem {@link Reader}, ohne sie vollständig in den Speicher zu laden.
+ * Felder in Anführungszeichen (RFC 4180) werden nur bei CSV unterstützt, dort dürfen sie Trennzeichen, Zeilenumbrüche
+ * und verdoppelte Anführungszeichen enthalten. In TSV enthalten Felder keine Tabulatoren, Anführungszeichen haben dort
+ * keine besondere Bedeutung.
+ * Leere Zeilen werden übersprungen, eine Byte Order Mark am Anfang ignoriert.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class TableReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean quotes;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private int position;
+    private int limit;
+    private int line = 1;
+    private int recordLine;
+    private boolean first = true;
+
+    TableReader(Reader reader, char delimiter, boolean quotes) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quotes = quotes;
+    }
+
+    /**
+     * Liest die nächste Zeile.
+     * @return false, falls das Ende der Tabelle erreicht ist.
+     * @throws IOException Falls nicht gelesen werden kann oder ein Feld in Anführungszeichen nicht geschlossen wird.
+     */
+    boolean next() throws IOException {
+        fields.clear();
+
+        int c;
+
+        do {
+            recordLine = line;
+            c = read();
+
+            if (first) {
+                first = false;
+
+                if (c == '\uFEFF')
+                    c = read();
+            }
+
+            if (c == '\r' && peek() == '\n')
+                read();
+        } while (c == '\n' || c == '\r');
+
+        if (c < 0)
+            return false;
+
+        field.setLength(0);
+
+        while (true) {
+            if (c < 0 || c == '\n' || c == '\r') {
+                if (c == '\r' && peek() == '\n')
+                    read();
+
+                fields.add(field.toString());
+
+                return true;
+            }
+            else if (c == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else if (c == '"' && quotes && field.length() == 0) {
+                readQuoted();
+            }
+            else {
+                field.append((char) c);
+            }
+
+            c = read();
+        }
+    }
+
+    private void readQuoted() throws IOException {
+        int start = line;
+
+        while (true) {
+            int c = read();
+
+            if (c < 0)
+                throw new IOException("The quoted field starting in line " + start + " is not closed.");
+
+            if (c == '"') {
+                if (peek() != '"')
+                    return;
+
+                read();
+            }
+
+            field.append((char) c);
+        }
+    }
+
+    /**
+     * @return Die Anzahl der Felder der aktuellen Zeile.
+     */
+    int size() {
+        return fields.size();
+    }
+
+    /**
+     * @param i Der Index des Feldes.
+     * @return Das Feld oder null, falls die aktuelle Zeile weniger Felder hat.
+     */
+    String get(int i) {
+        return i < fields.size() ? fields.get(i) : null;
+    }
+
+    /**
+     * @return Die Nummer der Zeile in der Datei (ab 1), in der die aktuelle Zeile beginnt.
+     */
+    int getLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+
+        char c = buffer[position++];
+
+        if (c == '\n' || (c == '\r' && (position < limit || fill()) && buffer[position] != '\n'))
+            line++;
+
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill())
+            return -1;
+
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit)
+            return true;
+
+        int n = reader.read(buffer, 0, buffer.length);
+
+        if (n <= 0)
+            return false;
+
+        position = 0;
+        limit = n;
+
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,42 @@
+package de.fhzwickau.roomfinder.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Event des JDK Flight Recorders für das Lesen oder Schreiben eines Graphen. Standardmäßig aktiv.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@Name("de.fhzwickau.roomfinder.GraphIo")
+@Label("Graph I/O")
+@Category({"RoomFinder", "Graph"})
+@Description("A graph was read from or written to a file.")
+final class GraphIoEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    @Label("Nodes")
+    long nodes;
+
+    static void emit(Operation operation, long nanos, long nodes) {
+        GraphIoEvent event = new GraphIoEvent();
+
+        if (event.isEnabled()) {
+            event.operation = operation.getKey();
+            event.latency = nanos;
+            event.nodes = nodes;
+            event.commit();
+        }
+    }
+}
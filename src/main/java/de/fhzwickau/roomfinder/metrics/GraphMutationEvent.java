@@ -0,0 +1,46 @@
+package de.fhzwickau.roomfinder.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Ein Event des JDK Flight Recorders für eine Änderung an einem Graphen.
+ * Es wird nur für die Aufrufe erzeugt, deren Laufzeit gemessen wird (siehe {@link Metrics#SAMPLE_RATE}).
+ * Da Änderungen sehr häufig sind (beim Einlesen eine je Knoten und Kante), ist das Event standardmäßig abgeschaltet
+ * und muss in den Einstellungen der Aufzeichnung aktiviert werden, z.B. mit
+ * {@code jfr configure +de.fhzwickau.roomfinder.GraphMutation#enabled=true}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@Name("de.fhzwickau.roomfinder.GraphMutation")
+@Label("Graph Mutation")
+@Category({"RoomFinder", "Graph"})
+@Description("A change to a graph, e.g. adding a node or an edge.")
+@Enabled(false)
+@StackTrace(false)
+final class GraphMutationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Latency")
+    @Timespan(Timespan.NANOSECONDS)
+    long latency;
+
+    static void emit(Operation operation, long nanos) {
+        GraphMutationEvent event = new GraphMutationEvent();
+
+        if (event.isEnabled()) {
+            event.operation = operation.getKey();
+            event.latency = nanos;
+            event.commit();
+        }
+    }
+}
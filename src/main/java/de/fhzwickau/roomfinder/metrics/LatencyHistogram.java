@@ -0,0 +1,184 @@
+package de.fhzwickau.roomfinder.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein Histogramm der Laufzeiten einer Operation mit Zweierpotenzen als Klassengrenzen: Klasse {@code i} zählt die
+ * Laufzeiten von {@code 2^(i-1)} bis {@code 2^i - 1} Nanosekunden. Das Eintragen kostet damit nur ein
+ * {@link Long#numberOfLeadingZeros(long)} und einige {@link LongAdder}-Inkremente, auch wenn viele Threads
+ * gleichzeitig eintragen. Perzentile sind dafür nur auf eine Zweierpotenz genau.
+ * Aufrufe ({@link #count(long)}) und Laufzeiten ({@link #record(long)}) werden getrennt gezählt, damit nur ein Teil der
+ * Aufrufe gemessen werden muss.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Die Anzahl der Klassen. Die letzte Klasse nimmt alle Laufzeiten ab 2^46 ns (ca. 20 Stunden) auf.
+     */
+    static final int BUCKETS = 48;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder calls = new LongAdder();
+    /**
+     * Die Einheiten über eine pro Aufruf hinaus. Die meisten Aufrufe verarbeiten genau eine Einheit und sparen sich
+     * damit ein Inkrement.
+     */
+    private final LongAdder extraUnits = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Zählt einen Aufruf.
+     * @param units Die Anzahl der verarbeiteten Einheiten, z.B. Knoten beim Einlesen.
+     */
+    public void count(long units) {
+        calls.increment();
+
+        if (units != 1)
+            extraUnits.add(units - 1);
+    }
+
+    /**
+     * Trägt die Laufzeit eines (gezählten) Aufrufs ein.
+     * @param nanos Die Laufzeit in Nanosekunden. Negative Werte werden als 0 gezählt.
+     */
+    public void record(long nanos) {
+        nanos = Math.max(0, nanos);
+
+        buckets[Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(nanos))].increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * @return Der aktuelle Stand. Einträge, die währenddessen erfolgen, sind eventuell nur teilweise enthalten.
+     */
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+
+        long calls = this.calls.sum();
+
+        return new Snapshot(counts, calls, calls + extraUnits.sum(), totalNanos.sum(), maxNanos.get());
+    }
+
+    /**
+     * Setzt alle Werte auf 0 zurück.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+
+        calls.reset();
+        extraUnits.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Ein unveränderlicher Stand eines {@link LatencyHistogram}s.
+     */
+    public static final class Snapshot {
+
+        private final long[] buckets;
+        private final long count;
+        private final long units;
+        private final long samples;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        Snapshot(long[] buckets, long count, long units, long totalNanos, long maxNanos) {
+            long samples = 0;
+
+            for (long b : buckets) {
+                samples += b;
+            }
+
+            this.buckets = buckets;
+            this.count = count;
+            this.units = units;
+            this.samples = samples;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        /**
+         * @return Die Anzahl aller Aufrufe.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Die Summe der verarbeiteten Einheiten, siehe {@link LatencyHistogram#count(long)}.
+         */
+        public long getUnits() {
+            return units;
+        }
+
+        /**
+         * @return Die Anzahl der Aufrufe, deren Laufzeit gemessen wurde.
+         */
+        public long getSamples() {
+            return samples;
+        }
+
+        /**
+         * @return Die Summe der gemessenen Laufzeiten.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * @return Die längste gemessene Laufzeit.
+         */
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getMeanNanos() {
+            return samples == 0 ? 0 : (double) totalNanos / samples;
+        }
+
+        /**
+         * @param p Das Perzentil zwischen 0 und 100.
+         * @return Die obere Grenze der Klasse, in der das Perzentil der gemessenen Laufzeiten liegt, höchstens aber
+         * die längste Laufzeit.
+         */
+        public long getPercentileNanos(double p) {
+            long rank = Math.max(1, (long) Math.ceil(p / 100 * samples));
+            long seen = 0;
+
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+
+                if (seen >= rank)
+                    return Math.min(maxNanos, i == 0 ? 0 : (1L << i) - 1);
+            }
+
+            return maxNanos;
+        }
+
+        /**
+         * @return Die Anzahl der gemessenen Aufrufe je Klasse, siehe {@link LatencyHistogram}.
+         */
+        public long[] getBuckets() {
+            return buckets.clone();
+        }
+    }
+}
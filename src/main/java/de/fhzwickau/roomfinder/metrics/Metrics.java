@@ -0,0 +1,141 @@
+package de.fhzwickau.roomfinder.metrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Erfasst Aufrufe und Laufzeiten der Operationen auf Graphen ({@link Operation}) in je einem
+ * {@link LatencyHistogram} und meldet sie als Events an den JDK Flight Recorder ({@link GraphMutationEvent},
+ * {@link GraphIoEvent}).
+ * Eine Messung besteht aus {@link #start(Operation)} vor und {@link #record(Operation, long)} nach der Operation:
+ * <pre>
+ * long start = Metrics.start(Operation.GRAPH_ADD);
+ * ...
+ * Metrics.record(Operation.GRAPH_ADD, start);
+ * </pre>
+ * Gezählt wird jeder Aufruf. Die Laufzeit wird beim Lesen und Schreiben immer gemessen, bei Änderungen nur bei einem
+ * zufälligen Aufruf von {@value #SAMPLE_RATE}: {@link System#nanoTime()} kostet auf manchen Systemen etwa 30 ns und
+ * damit mehr als z.B. {@link Operation#NODE_ADD_EDGE} selbst. Die Perzentile bleiben dabei erwartungstreu.
+ * <p>
+ * Die Messung ist immer aktiv, kann aber mit {@link #setEnabled(boolean)} oder der System-Property
+ * {@code roomfinder.metrics=false} abgeschaltet werden; dann entfallen auch die Events. Verschachtelte Operationen
+ * (z.B. {@link Operation#NODE_ADD_EDGE} innerhalb von {@link Operation#GRAPH_ADD}) werden jeweils einzeln und
+ * einschließlich der inneren Laufzeit gezählt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class Metrics {
+
+    /**
+     * Jeder wievielte Aufruf einer Änderung im Mittel gemessen wird. Muss eine Zweierpotenz sein.
+     */
+    public static final int SAMPLE_RATE = 16;
+
+    /**
+     * Der Startwert, wenn die Messung abgeschaltet ist.
+     */
+    private static final long OFF = Long.MIN_VALUE;
+
+    /**
+     * Der Startwert, wenn der Aufruf nur gezählt wird.
+     */
+    private static final long UNTIMED = Long.MIN_VALUE + 1;
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[Operation.values().length];
+
+    private static volatile boolean enabled = !"false".equalsIgnoreCase(System.getProperty("roomfinder.metrics"));
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new LatencyHistogram();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Schaltet die Messung an oder ab. Messungen, die gerade laufen, werden noch eingetragen.
+     */
+    public static void setEnabled(boolean enabled) {
+        Metrics.enabled = enabled;
+    }
+
+    /**
+     * @param operation Die Operation, die gleich beginnt.
+     * @return Der Startwert für {@link #record(Operation, long)}.
+     */
+    public static long start(Operation operation) {
+        if (!enabled)
+            return OFF;
+
+        if (!operation.isIo() && (ThreadLocalRandom.current().nextInt() & (SAMPLE_RATE - 1)) != 0)
+            return UNTIMED;
+
+        return System.nanoTime();
+    }
+
+    /**
+     * Trägt einen Aufruf ein.
+     * @param operation Die Operation.
+     * @param start Der Wert von {@link #start(Operation)} vor der Operation.
+     */
+    public static void record(Operation operation, long start) {
+        record(operation, start, 1);
+    }
+
+    /**
+     * Trägt einen Aufruf ein, der mehrere Einheiten verarbeitet hat.
+     * @param operation Die Operation.
+     * @param start Der Wert von {@link #start(Operation)} vor der Operation.
+     * @param units Die Anzahl der verarbeiteten Einheiten, beim Lesen und Schreiben die Knoten.
+     */
+    public static void record(Operation operation, long start, long units) {
+        if (start == OFF)
+            return;
+
+        LatencyHistogram histogram = HISTOGRAMS[operation.ordinal()];
+
+        histogram.count(units);
+
+        if (start == UNTIMED)
+            return;
+
+        long nanos = System.nanoTime() - start;
+
+        histogram.record(nanos);
+
+        if (operation.isIo())
+            GraphIoEvent.emit(operation, nanos, units);
+        else
+            GraphMutationEvent.emit(operation, nanos);
+    }
+
+    /**
+     * @return Der aktuelle Stand aller Operationen.
+     */
+    public static MetricsSnapshot snapshot() {
+        Map<Operation, LatencyHistogram.Snapshot> latencies = new EnumMap<>(Operation.class);
+
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, HISTOGRAMS[operation.ordinal()].snapshot());
+        }
+
+        return new MetricsSnapshot(latencies);
+    }
+
+    /**
+     * Setzt alle Histogramme zurück.
+     */
+    public static void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+}
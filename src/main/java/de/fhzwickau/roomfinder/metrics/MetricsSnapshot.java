@@ -0,0 +1,72 @@
+package de.fhzwickau.roomfinder.metrics;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Ein unveränderlicher Stand aller Histogramme von {@link Metrics}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class MetricsSnapshot {
+
+    private final Instant capturedAt = Instant.now();
+    private final Map<Operation, LatencyHistogram.Snapshot> latencies;
+
+    MetricsSnapshot(Map<Operation, LatencyHistogram.Snapshot> latencies) {
+        this.latencies = Collections.unmodifiableMap(latencies);
+    }
+
+    public Instant getCapturedAt() {
+        return capturedAt;
+    }
+
+    public LatencyHistogram.Snapshot get(Operation operation) {
+        return latencies.get(operation);
+    }
+
+    /**
+     * @return Die Stände aller Operationen in der Reihenfolge von {@link Operation} (nur lesend).
+     */
+    public Map<Operation, LatencyHistogram.Snapshot> getLatencies() {
+        return latencies;
+    }
+
+    /**
+     * Gibt eine Zeile je Operation aus, die mindestens einmal aufgerufen wurde.
+     * @param out Der Ausgabestrom.
+     */
+    public void print(PrintStream out) {
+        out.print(this);
+    }
+
+    /**
+     * @return Eine Zeile je Operation, die mindestens einmal aufgerufen wurde, z.B.
+     * {@code graph.add count=120 mean_us=0.8 p50_us=1.0 p99_us=4.1 max_us=12.3}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+
+        for (Map.Entry<Operation, LatencyHistogram.Snapshot> entry : latencies.entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue();
+
+            if (s.getCount() == 0)
+                continue;
+
+            sb.append(entry.getKey().getKey()).append(" count=").append(s.getCount());
+
+            if (entry.getKey().isIo())
+                sb.append(" nodes=").append(s.getUnits());
+
+            sb.append(String.format(" mean_us=%.1f p50_us=%.1f p99_us=%.1f max_us=%.1f", s.getMeanNanos() / 1e3,
+                    s.getPercentileNanos(50) / 1e3, s.getPercentileNanos(99) / 1e3, s.getMaxNanos() / 1e3));
+            sb.append(System.lineSeparator());
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package de.fhzwickau.roomfinder.metrics;
+
+/**
+ * Die Operationen, deren Aufrufe und Laufzeiten von {@link Metrics} erfasst werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public enum Operation {
+
+    GRAPH_ADD("graph.add", false),
+    GRAPH_REMOVE("graph.remove", false),
+    NODE_ADD_EDGE("node.addEdge", false),
+    EDGE_REPLACE_LAZY_NODE("edge.replaceLazyNode", false),
+    IMPORT("io.import", true),
+    EXPORT("io.export", true),
+    LEGACY_IMPORT("io.legacyImport", true);
+
+    private final String key;
+    private final boolean io;
+
+    Operation(String key, boolean io) {
+        this.key = key;
+        this.io = io;
+    }
+
+    /**
+     * @return Der Name der Operation in der Ausgabe, z.B. {@code graph.add}.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * @return Gibt an, ob es sich um das Lesen oder Schreiben einer Datei handelt. Dann wird zusätzlich die Anzahl
+     * der Knoten erfasst.
+     */
+    public boolean isIo() {
+        return io;
+    }
+}
@@ -0,0 +1,420 @@
+package de.fhzwickau.roomfinder.model.graph;
+
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Ein {@link Graph}, der von mehreren Threads gleichzeitig verändert werden kann, z.B. von einem parallelen Import
+ * oder von Editoren, während ein Server Anfragen beantwortet.
+ * Die Knoten liegen in einer {@link ConcurrentHashMap}, die Methoden der {@link Map} werden dorthin weitergeleitet
+ * ({@link #put}, {@link #putAll}, {@link #remove(Object)} und {@link #clear()} wie bei {@link Graph} über die
+ * gesperrten Methoden {@link #add(Node)} und {@link #remove(Node)}).
+ * Änderungen an Knoten und Kanten sind über Lock-Striping abgesichert: Jede ID gehört zu einem von mehreren Locks,
+ * und jede Änderung hält die Locks aller betroffenen Knoten. Mehrere Locks werden immer in aufsteigender Reihenfolge
+ * genommen, sodass keine Verklemmungen entstehen. Änderungen an verschiedenen Stellen des Graphen laufen dadurch
+ * parallel, beide Endpunkte einer Kante bleiben aber immer konsistent.
+ * <p>
+ * Kanten dürfen hier nur über {@link #connect(String, String, int)} und {@link #disconnect(String, String)}
+ * verändert werden, nicht direkt über {@link Node#addEdge(Edge)} oder {@link Edge#destroy()}. Die Kanten eines
+ * Knotens sollten nur unter {@link #read(String, Function)} gelesen werden, wenn gleichzeitig geschrieben wird.
+ * Neue Knoten werden wie gewohnt über {@link #add(Node)} hinzugefügt, auch als {@link
+ * de.fhzwickau.roomfinder.model.graph.node.LazyNode}; das Auflösen ist dabei ebenfalls gesperrt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class ConcurrentGraph extends Graph {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private transient ConcurrentHashMap<String, Node> nodes;
+    private transient ReentrantLock[] stripes;
+
+    public ConcurrentGraph() {
+        this(16, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param expectedNodes Die erwartete Anzahl an Knoten.
+     * @param concurrency Die Anzahl der Locks (wird auf eine Zweierpotenz aufgerundet). Mehr Locks erlauben mehr
+     *                    parallele Änderungen.
+     */
+    public ConcurrentGraph(int expectedNodes, int concurrency) {
+        nodes = new ConcurrentHashMap<>(Math.max(16, expectedNodes));
+        stripes = new ReentrantLock[Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1];
+
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /*
+    Sperren
+     */
+
+    private int stripe(String id) {
+        int h = id.hashCode();
+
+        return (h ^ (h >>> 16)) & (stripes.length - 1);
+    }
+
+    /**
+     * @return Die Indizes der Locks aller IDs, sortiert und ohne Duplikate.
+     */
+    private int[] stripesOf(Collection<String> ids) {
+        return ids.stream().mapToInt(this::stripe).distinct().sorted().toArray();
+    }
+
+    private void lock(int[] indices) {
+        for (int i : indices) {
+            stripes[i].lock();
+        }
+    }
+
+    private void unlock(int[] indices) {
+        for (int i = indices.length - 1; i >= 0; i--) {
+            stripes[indices[i]].unlock();
+        }
+    }
+
+    private <T> T locked(Collection<String> ids, Supplier<T> action) {
+        int[] indices = stripesOf(ids);
+
+        lock(indices);
+
+        try {
+            return action.get();
+        }
+        finally {
+            unlock(indices);
+        }
+    }
+
+    /**
+     * Führt eine Aktion aus, während die Knoten, alle ihre Nachbarn und die zusätzlichen IDs gesperrt sind.
+     * Die Nachbarn werden vorher jeweils nur unter dem Lock ihres Knotens ermittelt; haben sie sich bis zum Sperren
+     * aller Locks geändert, wird es erneut versucht.
+     */
+    private <T> T lockedAround(Collection<String> centres, Collection<String> extra, Supplier<T> action) {
+        while (true) {
+            Set<String> ids = new HashSet<>(extra);
+
+            for (String id : centres) {
+                ids.addAll(locked(Set.of(id), () -> neighbourhood(Set.of(id), Set.of())));
+            }
+
+            int[] indices = stripesOf(ids);
+
+            lock(indices);
+
+            try {
+                if (neighbourhood(centres, extra).equals(ids))
+                    return action.get();
+            }
+            finally {
+                unlock(indices);
+            }
+        }
+    }
+
+    private Set<String> neighbourhood(Collection<String> centres, Collection<String> extra) {
+        Set<String> ids = new HashSet<>(centres);
+        ids.addAll(extra);
+
+        for (String id : centres) {
+            Node node = nodes.get(id);
+
+            if (node != null)
+                ids.addAll(neighbourIds(node));
+        }
+
+        return ids;
+    }
+
+    private static Set<String> neighbourIds(Node node) {
+        Set<String> ids = new HashSet<>();
+
+        for (Edge e : node.getEdges().toArray(new Edge[0])) {
+            ids.add(e.getOther(node).getId());
+        }
+
+        return ids;
+    }
+
+    /*
+    Änderungen
+     */
+
+    /**
+     * Sperrt neben dem Knoten auch die Nachbarn eines vorhandenen {@link LazyNode}, da dessen Kanten beim Auflösen
+     * umgehängt werden.
+     */
+    @Override
+    public void add(Node node) {
+        lockedAround(Set.of(node.getId()), neighbourIds(node), () -> {
+            super.add(node);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean remove(Node node) {
+        return lockedAround(Set.of(node.getId()), Set.of(), () -> super.remove(node));
+    }
+
+    @Override
+    public int removeAll(Collection<String> ids) {
+        int removed = 0;
+
+        for (String id : ids) {
+            Node node = nodes.get(id);
+
+            if (node != null && remove(node))
+                removed++;
+        }
+
+        return removed;
+    }
+
+    @Override
+    public void rekey(String oldId, Node node) throws IllegalArgumentException {
+        lockedAround(Set.of(oldId, node.getId()), Set.of(), () -> {
+            super.rekey(oldId, node);
+            return null;
+        });
+    }
+
+    /**
+     * Verbindet zwei Knoten. Eine vorhandene Kante zwischen ihnen wird ersetzt.
+     * @param id1 Die ID des ersten Knotens.
+     * @param id2 Die ID des zweiten Knotens.
+     * @param weight Das Gewicht der Kante.
+     * @return Die neue Kante.
+     * @throws IllegalArgumentException Falls einer der Knoten nicht im Graphen ist oder beide gleich sind.
+     */
+    public Edge connect(String id1, String id2, int weight) throws IllegalArgumentException {
+        return locked(Set.of(id1, id2), () -> {
+            Node n1 = requireNode(id1);
+            Node n2 = requireNode(id2);
+            Edge e = new Edge(n1, n2, weight);
+
+            n1.addEdge(e);
+            n2.addEdge(e);
+            fireEdgeChanged(n1, n2);
+
+            return e;
+        });
+    }
+
+    /**
+     * Entfernt die Kante zwischen zwei Knoten.
+     * @param id1 Die ID des ersten Knotens.
+     * @param id2 Die ID des zweiten Knotens.
+     * @return Gibt an, ob es eine Kante gab.
+     */
+    public boolean disconnect(String id1, String id2) {
+        if (id1.equals(id2))
+            return false;
+
+        return locked(Set.of(id1, id2), () -> {
+            Node n1 = nodes.get(id1);
+            Edge e = n1 != null ? n1.getEdgeTo(id2) : null;
+
+            if (e == null)
+                return false;
+
+            e.destroy();
+            fireEdgeChanged(n1, e.getOther(n1));
+
+            return true;
+        });
+    }
+
+    /**
+     * Liest einen Knoten, während er nicht verändert werden kann, z.B. um seine Kanten zu durchlaufen.
+     * @param id Die ID des Knotens.
+     * @param reader Liest den Knoten. Bekommt null, falls es keinen Knoten mit der ID gibt.
+     * @return Das Ergebnis des Lesens.
+     */
+    public <T> T read(String id, Function<Node, T> reader) {
+        return locked(Set.of(id), () -> reader.apply(nodes.get(id)));
+    }
+
+    /**
+     * Führt eine Aktion aus, während alle Locks gehalten werden, der Graph also von niemandem verändert werden kann.
+     * Gedacht für seltene Zugriffe auf den ganzen Graphen, z.B. um ihn zu kompilieren.
+     * @param action Die Aktion.
+     * @return Das Ergebnis der Aktion.
+     */
+    public <T> T exclusive(Supplier<T> action) {
+        int[] indices = new int[stripes.length];
+
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+
+        lock(indices);
+
+        try {
+            return action.get();
+        }
+        finally {
+            unlock(indices);
+        }
+    }
+
+    private Node requireNode(String id) throws IllegalArgumentException {
+        Node node = nodes.get(id);
+
+        if (node == null)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return node;
+    }
+
+    /*
+    Map
+     */
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    @Override
+    public Node get(Object key) {
+        return nodes.get(key);
+    }
+
+    @Override
+    public Node getOrDefault(Object key, Node defaultValue) {
+        return nodes.getOrDefault(key, defaultValue);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return nodes.containsKey(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return nodes.containsValue(value);
+    }
+
+    @Override
+    Node putEntry(String key, Node node) {
+        return nodes.put(key, node);
+    }
+
+    @Override
+    Node removeEntry(String key) {
+        return nodes.remove(key);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return nodes.remove(key, value);
+    }
+
+    @Override
+    public Node putIfAbsent(String key, Node value) {
+        return nodes.putIfAbsent(key, value);
+    }
+
+    @Override
+    public boolean replace(String key, Node oldValue, Node newValue) {
+        return nodes.replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public Node replace(String key, Node value) {
+        return nodes.replace(key, value);
+    }
+
+    @Override
+    public Node computeIfAbsent(String key, Function<? super String, ? extends Node> mappingFunction) {
+        return nodes.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override
+    public Node computeIfPresent(String key,
+                                 BiFunction<? super String, ? super Node, ? extends Node> remappingFunction) {
+        return nodes.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override
+    public Node compute(String key, BiFunction<? super String, ? super Node, ? extends Node> remappingFunction) {
+        return nodes.compute(key, remappingFunction);
+    }
+
+    @Override
+    public Node merge(String key, Node value,
+                      BiFunction<? super Node, ? super Node, ? extends Node> remappingFunction) {
+        return nodes.merge(key, value, remappingFunction);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super Node> action) {
+        nodes.forEach(action);
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super String, ? super Node, ? extends Node> function) {
+        nodes.replaceAll(function);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return nodes.keySet();
+    }
+
+    @Override
+    public Collection<Node> values() {
+        return nodes.values();
+    }
+
+    @Override
+    public Set<Map.Entry<String, Node>> entrySet() {
+        return nodes.entrySet();
+    }
+
+    @Override
+    public Object clone() {
+        ConcurrentGraph copy = (ConcurrentGraph) super.clone();
+        copy.nodes = new ConcurrentHashMap<>(nodes);
+        copy.stripes = Arrays.stream(stripes).map(l -> new ReentrantLock()).toArray(ReentrantLock[]::new);
+
+        return copy;
+    }
+
+    /**
+     * Serialisiert wird ein gewöhnlicher {@link Graph} mit den gleichen Knoten. Die Knoten werden direkt eingetragen,
+     * damit sie weiterhin zu diesem Graphen gehören.
+     */
+    private Object writeReplace() {
+        Graph graph = new Graph(nodes.size());
+
+        nodes.forEach(graph::putEntry);
+
+        return graph;
+    }
+}
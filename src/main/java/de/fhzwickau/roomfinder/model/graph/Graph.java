@@ -1,19 +1,33 @@
 package de.fhzwickau.roomfinder.model.graph;
 
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
 import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
 import de.fhzwickau.roomfinder.model.graph.node.Node;
 import de.fhzwickau.roomfinder.model.graph.node.listener.LazyNodeListener;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Der Graph hält alle Knoten als {@link HashMap}. Somit können die Knoten sofort per ID angefordert werden.
  * Das spart Komplexität für Suchalgorithmen a.ä. Als Key wird die ID des Knotens verwendet.
  * Kanten (also Relationen) werden nur von den Knoten selbst gesichert.
+ * {@link #put}, {@link #putAll}, {@link #remove(Object)} und {@link #clear()} laufen über {@link #add(Node)} bzw.
+ * {@link #remove(Node)}, damit {@link LazyNode}s, Kanten und {@link GraphListener} nicht umgangen werden. Die übrigen
+ * Methoden der {@link Map} und ihrer Ansichten ändern die Map direkt und sollten nicht verwendet werden.
  * @version 0.1.0
  * @since 0.1.0
  * @author Jonas Langner
@@ -22,51 +36,180 @@ public class Graph extends HashMap<String, Node> implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final Collection<LazyNodeListener> listeners = new HashSet<>();
+    private final Collection<LazyNodeListener> listeners = new CopyOnWriteArraySet<>();
 
+    /**
+     * Die noch nicht aufgelösten {@link LazyNode}s nach ID. Wird nach dem Deserialisieren neu aufgebaut.
+     */
+    private transient Map<String, LazyNode> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Die Listener für Änderungen an den Knoten. Sie gehören nicht zum Graphen und werden nicht serialisiert.
+     */
+    private transient Collection<GraphListener> graphListeners = new CopyOnWriteArrayList<>();
+
+    public Graph() {
+    }
+
+    /**
+     * Legt einen Graphen an, der die angegebene Anzahl an Knoten aufnehmen kann, ohne die Tabelle zu vergrößern.
+     * @param expectedNodes Die erwartete Anzahl an Knoten.
+     */
+    public Graph(int expectedNodes) {
+        super(Math.max(16, (int) (expectedNodes / 0.75f) + 1));
+    }
+
+    /**
+     * Registriert einen Listener, der über jeden aufgelösten {@link LazyNode} informiert wird.
+     * {@link LazyNode}s selbst müssen nicht registriert werden, sie werden direkt über ihre ID aufgelöst.
+     * @param l Der Listener.
+     * @return Gibt an, ob der Listener noch nicht registriert war.
+     */
     public boolean registerListener(LazyNodeListener l) {
         return listeners.add(l);
     }
 
+    public boolean unregisterListener(LazyNodeListener l) {
+        return listeners.remove(l);
+    }
+
+    /**
+     * Registriert einen Listener, der über jeden hinzugefügten und entfernten Knoten informiert wird.
+     * @param l Der Listener.
+     * @return Gibt an, ob der Listener noch nicht registriert war.
+     */
+    public boolean addGraphListener(GraphListener l) {
+        if (graphListeners.contains(l))
+            return false;
+
+        return graphListeners.add(l);
+    }
+
+    public boolean removeGraphListener(GraphListener l) {
+        return graphListeners.remove(l);
+    }
+
+    /**
+     * @return Die {@link LazyNode}s, die noch auf ihren eigentlichen Knoten warten (nur lesend).
+     */
+    public Collection<LazyNode> getLazyNodes() {
+        return Collections.unmodifiableCollection(pending.values());
+    }
+
     private String getKey(Node node) {
         return node.getId();
     }
 
     /**
      * Fügt einen Knoten zum Graphen hinzu.
-     * Dabei wird auch überprüft, ob ein Knoten vorher als {@link LazyNode} existiert hat.
-     * Wenn dies so ist, werden alle registrierten {@link LazyNodeListener}s aufgerufen.
+     * Dabei wird auch überprüft, ob ein Knoten vorher als {@link LazyNode} existiert hat. Wenn dies so ist, werden
+     * dessen Kanten auf den neuen Knoten umgehängt (O(1) über die ID) und alle registrierten
+     * {@link LazyNodeListener}s aufgerufen. Ein {@link LazyNode} für eine ID, unter der schon ein Knoten eingetragen
+     * ist, wird nicht eingetragen.
+     * Ersetzt der Knoten einen anderen vollständigen Knoten mit der gleichen ID, wird der alte Knoten entfernt und
+     * seine Kanten werden mit ihren Gewichten auf den neuen Knoten übertragen, sodass kein Nachbar auf den alten
+     * Knoten verweist.
      * @param node Der Knoten der hinzugefügt werden soll.
      */
     public void add(Node node) {
+        long start = Metrics.start(Operation.GRAPH_ADD);
+
+        try {
+            addNode(node);
+        }
+        finally {
+            Metrics.record(Operation.GRAPH_ADD, start);
+        }
+    }
+
+    private void addNode(Node node) {
         String key = getKey(node);
+        Node old = get(key);
 
-        if (containsKey(key)) {
-            Node old = get(key);
+        if (old == node)
+            return;
 
+        List<Edge> replaced = null;
+
+        if (old != null) {
             if ((old instanceof LazyNode) && !(node instanceof LazyNode)) {
-                listeners.forEach(l -> l.onCompleteNodeLoaded((LazyNode) old, node));
+                pending.remove(key);
+                resolve((LazyNode) old, node);
             }
-            else if (!(old instanceof LazyNode) && (node instanceof LazyNode)) {
-                LazyNodeListener listener = (LazyNodeListener) node;
+            else if (node instanceof LazyNode) {
+                if (!(old instanceof LazyNode))
+                    resolve((LazyNode) node, old);
 
-                listeners.add(listener);
-                listeners.forEach(l -> l.onCompleteNodeLoaded((LazyNode) node, old));
-                listeners.remove(listener);
                 return;
             }
-
-            remove(old);
+            else if (!(old instanceof LazyNode)) {
+                replaced = new ArrayList<>(old.getEdges());
+                detach(old);
+            }
         }
 
-        put(node.getId(), node);
+        putEntry(key, node);
         node.setGraph(this);
 
-        if (node instanceof LazyNodeListener) {
+        if (node instanceof LazyNode)
+            pending.put(key, (LazyNode) node);
+        else if (node instanceof LazyNodeListener)
             registerListener((LazyNodeListener) node);
+
+        if (replaced != null)
+            transferEdges(old, node, replaced);
+
+        if (old != null)
+            fireRemoved(key, old);
+
+        fireAdded(node);
+    }
+
+    private void fireAdded(Node node) {
+        for (GraphListener l : graphListeners) {
+            l.onNodeAdded(node);
+        }
+    }
+
+    private void fireRemoved(String id, Node node) {
+        for (GraphListener l : graphListeners) {
+            l.onNodeRemoved(id, node);
         }
+    }
 
+    /**
+     * Meldet den {@link GraphListener}n eine geänderte Kante, siehe {@link GraphListener#onEdgeChanged(Node, Node)}.
+     */
+    protected void fireEdgeChanged(Node node, Node other) {
+        for (GraphListener l : graphListeners) {
+            l.onEdgeChanged(node, other);
+        }
+    }
 
+    /**
+     * Verbindet einen Knoten mit den Nachbarn eines Knotens, den er ersetzt hat. Die Kanten des alten Knotens sind
+     * schon entfernt. Hat der neue Knoten schon eine Kante zu einem Nachbarn, bleibt diese (und ihr Gewicht) erhalten.
+     */
+    private void transferEdges(Node old, Node node, List<Edge> edges) {
+        for (Edge e : edges) {
+            Node other = get(getKey(e.getOther(old)));
+
+            if (other == null || other == node || node.getEdgeTo(other.getId()) != null)
+                continue;
+
+            Edge edge = new Edge(node, other, e.getWeight());
+
+            node.addEdge(edge);
+            other.addEdge(edge);
+        }
+    }
+
+    /**
+     * Hängt die Kanten eines {@link LazyNode} auf den vollständigen Knoten um und informiert die Listener.
+     */
+    private void resolve(LazyNode lazyNode, Node completeNode) {
+        lazyNode.onCompleteNodeLoaded(lazyNode, completeNode);
+        listeners.forEach(l -> l.onCompleteNodeLoaded(lazyNode, completeNode));
     }
 
     /**
@@ -85,28 +228,250 @@ public class Graph extends HashMap<String, Node> implements Serializable {
         addAll(nodes.values());
     }
 
+    /**
+     * Führt zwei Graphen zu einem neuen zusammen. Beide Graphen bleiben unverändert, der neue Graph besteht aus
+     * Kopien ihrer Knoten und Kanten. Das kostet O(n + m) für beide Graphen zusammen; nur
+     * {@link de.fhzwickau.roomfinder.model.graph.persistent.PersistentGraph#combine} kostet so viel wie die
+     * Unterschiede zweier Zweige.
+     * @param withGraph Der andere Graph. Seine Knoten ersetzen gleichnamige Knoten dieses Graphen (außer
+     *                  {@link LazyNode}s), bei Kanten zwischen den gleichen Knoten gewinnt sein Gewicht.
+     * @return Der neue Graph.
+     */
     public Graph combine(Graph withGraph) {
-        Graph copy = (Graph) clone();
+        Graph combined = new Graph(size() + withGraph.size());
 
-        copy.addAll(withGraph);
+        for (Node node : values()) {
+            combined.add(copy(node));
+        }
 
-        return copy;
+        for (Node node : withGraph.values()) {
+            combined.add(copy(node));
+        }
+
+        combined.copyEdges(this);
+        combined.copyEdges(withGraph);
+
+        return combined;
     }
 
-    public void remove(Node node) {
-        if (contains(node)) {
-            for (String k : keySet()) {
-                if (get(k).equals(node))
-                    remove(k);
+    /**
+     * @return Ein neuer Knoten mit den gleichen Metadaten, ohne Kanten.
+     */
+    private static Node copy(Node node) {
+        if (node instanceof LazyNode)
+            return new LazyNode(node.getId());
 
-                if (!contains(node))
-                    return;
+        return new Node(node.getId(), node.hasDisplayName() ? node.getDisplayName() : null,
+                node.hasRessource() ? node.getRessource() : null, node.getPositionX(), node.getPositionY(),
+                node.asTarget(), node.getToiletType());
+    }
+
+    /**
+     * Verbindet die Kopien der Knoten wie im anderen Graphen. Kanten zu Knoten außerhalb des anderen Graphen werden
+     * übergangen, Kanten, die dort nur bei einem Knoten eingetragen sind, werden bei beiden eingetragen.
+     */
+    private void copyEdges(Graph source) {
+        for (Node node : source.values()) {
+            for (Edge e : node.getEdges()) {
+                Node other = e.getOther(node);
+
+                if (source.get(source.getKey(other)) != other)
+                    continue;
+
+                Node a = get(getKey(node));
+                Node b = get(getKey(other));
+                Edge edge = new Edge(a, b, e.getWeight());
+
+                a.addEdge(edge);
+                b.addEdge(edge);
             }
         }
     }
 
+    /**
+     * Entfernt einen Knoten aus dem Graphen. Der Knoten wird über seine ID gefunden (O(1)), alle seine Kanten werden
+     * über {@link Edge#destroy()} auch bei den Nachbarn entfernt.
+     * @param node Der Knoten, der entfernt werden soll.
+     * @return Gibt an, ob der Knoten Teil des Graphen war.
+     */
+    public boolean remove(Node node) {
+        long start = Metrics.start(Operation.GRAPH_REMOVE);
+
+        try {
+            if (!contains(node))
+                return false;
+
+            String key = getKey(node);
+            Node removed = removeEntry(key);
+
+            detach(removed);
+            fireRemoved(key, removed);
+
+            return true;
+        }
+        finally {
+            Metrics.record(Operation.GRAPH_REMOVE, start);
+        }
+    }
+
+    /**
+     * Entfernt mehrere Knoten samt ihrer Kanten. Unbekannte IDs werden ignoriert.
+     * Der Aufwand ist linear in der Anzahl der IDs und der Kanten der entfernten Knoten.
+     * @param ids Die IDs der Knoten, die entfernt werden sollen.
+     * @return Die Anzahl der entfernten Knoten.
+     */
+    public int removeAll(Collection<String> ids) {
+        long start = Metrics.start(Operation.GRAPH_REMOVE);
+        int removed = 0;
+
+        for (String id : ids) {
+            Node node = removeEntry(id);
+
+            if (node != null) {
+                detach(node);
+                fireRemoved(id, node);
+                removed++;
+            }
+        }
+
+        Metrics.record(Operation.GRAPH_REMOVE, start, removed);
+
+        return removed;
+    }
+
+    /**
+     * Löst einen entfernten Knoten von seinen Nachbarn.
+     */
+    private void detach(Node node) {
+        for (Edge e : new ArrayList<>(node.getEdges())) {
+            e.destroy();
+        }
+
+        if (node instanceof LazyNode)
+            pending.remove(getKey(node), node);
+        else if (node instanceof LazyNodeListener)
+            listeners.remove(node);
+    }
+
+    /**
+     * Trägt einen Knoten, dessen ID oder Metadaten geändert wurden, unter der neuen ID ein. Die Kanten bleiben dabei
+     * erhalten. Die {@link GraphListener} erfahren davon, als wäre der Knoten entfernt und wieder hinzugefügt worden.
+     * @param oldId Die ID, unter der der Knoten bisher eingetragen ist.
+     * @param node Der Knoten mit der neuen ID.
+     * @throws IllegalArgumentException Falls unter der alten ID ein anderer Knoten eingetragen ist oder die neue ID
+     * schon zu einem anderen vollständigen Knoten gehört. Ein {@link LazyNode} unter der neuen ID wird aufgelöst.
+     */
+    public void rekey(String oldId, Node node) throws IllegalArgumentException {
+        if (get(oldId) != node)
+            throw new IllegalArgumentException("The node is not registered with the id " + oldId + ".");
+
+        Node existing = get(getKey(node));
+
+        if (existing != null && existing != node && !(existing instanceof LazyNode))
+            throw new IllegalArgumentException("The id " + getKey(node) + " is already used by another node.");
+
+        removeEntry(oldId);
+        pending.remove(oldId, node);
+        fireRemoved(oldId, node);
+        add(node);
+
+        for (Edge e : node.getEdges()) {
+            e.getOther(node).reindexEdges();
+        }
+    }
+
+    /*
+    Map
+     */
+
+    /**
+     * Trägt einen Knoten über {@link #add(Node)} ein.
+     * @return Der Knoten, der vorher unter der ID eingetragen war, oder null.
+     * @throws IllegalArgumentException Falls der Schlüssel nicht die ID des Knotens ist.
+     */
+    @Override
+    public Node put(String key, Node node) throws IllegalArgumentException {
+        if (!key.equals(getKey(node)))
+            throw new IllegalArgumentException("The key " + key + " is not the id of the node " + getKey(node) + ".");
+
+        Node old = get(key);
+
+        add(node);
+
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Node> m) {
+        m.forEach(this::put);
+    }
+
+    /**
+     * Entfernt den Knoten mit der ID über {@link #remove(Node)}.
+     * @return Der entfernte Knoten oder null.
+     */
+    @Override
+    public Node remove(Object key) {
+        Node node = get(key);
+
+        return node != null && remove(node) ? node : null;
+    }
+
+    /**
+     * Entfernt alle Knoten über {@link #removeAll(Collection)}.
+     */
+    @Override
+    public void clear() {
+        removeAll(new ArrayList<>(keySet()));
+    }
+
+    /**
+     * Trägt einen Knoten direkt in die Map ein, ohne {@link LazyNode}s oder Listener zu beachten.
+     */
+    Node putEntry(String key, Node node) {
+        return super.put(key, node);
+    }
+
+    /**
+     * Entfernt einen Eintrag direkt aus der Map, ohne Kanten oder Listener zu beachten.
+     */
+    Node removeEntry(String key) {
+        return super.remove(key);
+    }
+
+    @Override
+    public Object clone() {
+        Graph copy = (Graph) super.clone();
+        copy.pending = new ConcurrentHashMap<>(pending);
+        copy.graphListeners = new CopyOnWriteArrayList<>();
+
+        return copy;
+    }
+
+    /**
+     * Baut die Tabelle der {@link LazyNode}s neu auf. Ältere Graphen haben ihre {@link LazyNode}s noch als
+     * Listener gespeichert, diese werden dabei entfernt.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+
+        pending = new ConcurrentHashMap<>();
+        graphListeners = new CopyOnWriteArrayList<>();
+        listeners.removeIf(l -> l instanceof LazyNode);
+
+        for (Node node : values()) {
+            if (node instanceof LazyNode)
+                pending.put(getKey(node), (LazyNode) node);
+        }
+    }
+
+    /**
+     * @return Gibt an, ob unter der ID des Knotens ein gleicher Knoten eingetragen ist (O(1)).
+     */
     public boolean contains(Node node) {
-        return containsValue(node);
+        Node current = get(getKey(node));
+
+        return current != null && current.equals(node);
     }
 
 }
@@ -0,0 +1,222 @@
+package de.fhzwickau.roomfinder.model.graph;
+
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Baut einen {@link Graph} aus großen Mengen von Knoten und Kanten auf, z.B. beim Import eines ganzen Campus.
+ * Knoten und Kanten werden zunächst nur gesammelt, Kanten dabei über die IDs ihrer Knoten angegeben.
+ * {@link #build()} prüft alle Einträge parallel, legt den Graphen in passender Größe an, löst die IDs in einem
+ * Durchlauf auf und erstellt die Kanten parallel. Für IDs, zu denen es keinen Knoten gibt, wird ein {@link LazyNode}
+ * angelegt. Der Graph wird erst zurückgegeben, wenn er vollständig ist; vorher ist er für niemanden sichtbar.
+ * Ein Loader ist nicht threadsicher und kann nur einmal gebaut werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphBulkLoader {
+
+    /**
+     * Die maximale Anzahl an Fehlern, die in der Meldung von {@link #build()} aufgeführt werden.
+     */
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final List<Node> nodes;
+    private String[] from;
+    private String[] to;
+    private int[] weights;
+    private int edgeCount;
+    private boolean built;
+
+    public GraphBulkLoader() {
+        this(16, 16);
+    }
+
+    /**
+     * @param expectedNodes Die erwartete Anzahl an Knoten.
+     * @param expectedEdges Die erwartete Anzahl an Kanten.
+     */
+    public GraphBulkLoader(int expectedNodes, int expectedEdges) {
+        nodes = new ArrayList<>(Math.max(16, expectedNodes));
+        from = new String[Math.max(16, expectedEdges)];
+        to = new String[from.length];
+        weights = new int[from.length];
+    }
+
+    /**
+     * @param node Ein neuer Knoten, der noch zu keinem Graphen gehört und keine Kanten hat.
+     * @return Dieser Loader.
+     */
+    public GraphBulkLoader addNode(Node node) {
+        nodes.add(node);
+
+        return this;
+    }
+
+    /**
+     * @param nodes Neue Knoten, die noch zu keinem Graphen gehören und keine Kanten haben.
+     * @return Dieser Loader.
+     */
+    public GraphBulkLoader addNodes(Collection<? extends Node> nodes) {
+        this.nodes.addAll(nodes);
+
+        return this;
+    }
+
+    /**
+     * Merkt eine Kante vor. Die Knoten müssen noch nicht hinzugefügt worden sein.
+     * Gibt es mehrere Kanten zwischen den gleichen Knoten, gilt die zuletzt hinzugefügte.
+     * @param id1 Die ID des ersten Knotens.
+     * @param id2 Die ID des zweiten Knotens.
+     * @param weight Das Gewicht (> 0).
+     * @return Dieser Loader.
+     */
+    public GraphBulkLoader addEdge(String id1, String id2, int weight) {
+        if (edgeCount == from.length) {
+            int capacity = edgeCount * 2;
+
+            from = Arrays.copyOf(from, capacity);
+            to = Arrays.copyOf(to, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+
+        from[edgeCount] = id1;
+        to[edgeCount] = id2;
+        weights[edgeCount] = weight;
+        edgeCount++;
+
+        return this;
+    }
+
+    public int getNodeCount() {
+        return nodes.size();
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * Baut den Graphen.
+     * @return Der vollständige Graph.
+     * @throws IllegalArgumentException Falls Knoten oder Kanten ungültig sind (z.B. doppelte IDs, Kanten eines Knotens
+     * zu sich selbst oder Gewichte &lt;= 0). Die Meldung führt die ersten Fehler auf.
+     * @throws IllegalStateException Falls der Loader schon gebaut wurde.
+     */
+    public Graph build() throws IllegalArgumentException, IllegalStateException {
+        if (built)
+            throw new IllegalStateException("The graph has already been built.");
+
+        built = true;
+
+        /*
+        1. Alle Einträge parallel prüfen
+         */
+        List<String> errors = new ArrayList<>();
+
+        errors.addAll(nodes.parallelStream()
+                .map(GraphBulkLoader::validate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        errors.addAll(IntStream.range(0, edgeCount).parallel()
+                .mapToObj(this::validate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+
+        /*
+        2. IDs in einem Durchlauf auflösen: Vollständige Knoten ersetzen LazyNodes mit der gleichen ID
+         */
+        Map<String, Node> resolved = new HashMap<>(Math.max(16, (int) (nodes.size() / 0.75f) + 1));
+
+        if (errors.isEmpty()) {
+            for (Node node : nodes) {
+                Node other = resolved.putIfAbsent(node.getId(), node);
+
+                if (other == null)
+                    continue;
+
+                if (!(node instanceof LazyNode) && !(other instanceof LazyNode))
+                    errors.add("The id " + node.getId() + " is used by more than one node.");
+                else if (!(node instanceof LazyNode))
+                    resolved.put(node.getId(), node);
+            }
+        }
+
+        if (!errors.isEmpty())
+            throw new IllegalArgumentException(describe(errors));
+
+        Graph graph = new Graph(resolved.size());
+
+        for (Node node : resolved.values()) {
+            graph.add(node);
+        }
+
+        for (int i = 0; i < edgeCount; i++) {
+            addStubIfMissing(graph, from[i]);
+            addStubIfMissing(graph, to[i]);
+        }
+
+        /*
+        3. Kanten parallel erstellen (nur lesende Zugriffe auf den Graphen), danach bei den Knoten eintragen
+         */
+        Edge[] edges = IntStream.range(0, edgeCount).parallel()
+                .mapToObj(i -> new Edge(graph.get(from[i]), graph.get(to[i]), weights[i]))
+                .toArray(Edge[]::new);
+
+        for (int i = 0; i < edgeCount; i++) {
+            graph.get(from[i]).addEdge(edges[i]);
+            graph.get(to[i]).addEdge(edges[i]);
+        }
+
+        return graph;
+    }
+
+    private static void addStubIfMissing(Graph graph, String id) {
+        if (!graph.containsKey(id))
+            graph.add(new LazyNode(id));
+    }
+
+    private static String validate(Node node) {
+        if (node == null)
+            return "A node is null.";
+        if (node.getId() == null || node.getId().isEmpty())
+            return "A node has no id.";
+        if (node.getGraph() != null || !node.getEdges().isEmpty())
+            return "The node " + node.getId() + " already belongs to a graph or has edges.";
+
+        return null;
+    }
+
+    private String validate(int edge) {
+        if (from[edge] == null || to[edge] == null || from[edge].isEmpty() || to[edge].isEmpty())
+            return "The edge " + edge + " has no id for one of its nodes.";
+        if (from[edge].equals(to[edge]))
+            return "The edge " + edge + " connects the node " + from[edge] + " with itself.";
+        if (weights[edge] <= 0)
+            return "The edge " + edge + " between " + from[edge] + " and " + to[edge] + " has the weight "
+                    + weights[edge] + ".";
+
+        return null;
+    }
+
+    private static String describe(List<String> errors) {
+        String message = errors.stream().limit(MAX_REPORTED_ERRORS).collect(Collectors.joining(" "));
+
+        if (errors.size() > MAX_REPORTED_ERRORS)
+            message += " (" + (errors.size() - MAX_REPORTED_ERRORS) + " more errors)";
+
+        return message;
+    }
+}
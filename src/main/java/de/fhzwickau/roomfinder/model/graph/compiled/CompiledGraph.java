@@ -0,0 +1,622 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Eine unveränderliche, kompilierte Form eines {@link Graph}en für die Wegfindung.
+ * Die Knoten werden auf fortlaufende Indizes (0 bis {@link #getNodeCount()} - 1) abgebildet, die Kanten werden als
+ * Compressed-Sparse-Row (CSR) in primitiven Arrays abgelegt: Die ausgehenden Kanten (Arcs) des Knotens {@code n}
+ * liegen im Bereich {@code [getArcStart(n), getArcEnd(n))} von {@link #getTarget(int)} und {@link #getWeight(int)}.
+ * Die Attribute der Knoten werden in parallelen Arrays gehalten.
+ * Eine Traversierung erzeugt somit keine Objekte und greift nur sequenziell auf den Speicher zu.
+ * Eine {@link Edge} wird immer in beide Richtungen abgelegt, auch wenn sie nur bei einem der beiden Knoten
+ * eingetragen ist.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class CompiledGraph implements IndexedGraph {
+
+    private final String[] ids;
+    private final String[] displayNames;
+    private final Map<String, Integer> indices;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+
+    private final int[] positionX;
+    private final int[] positionY;
+    private final int[] ressources;
+    private final String[] ressourceNames;
+    private final boolean[] asTarget;
+    private final byte[] toiletTypes;
+    private final boolean[] lazy;
+
+    private CompiledGraph(String[] ids, String[] displayNames, Map<String, Integer> indices, int[] offsets,
+                          int[] targets, int[] weights, int[] positionX, int[] positionY, int[] ressources,
+                          String[] ressourceNames, boolean[] asTarget, byte[] toiletTypes, boolean[] lazy) {
+        this.ids = ids;
+        this.displayNames = displayNames;
+        this.indices = indices;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.ressources = ressources;
+        this.ressourceNames = ressourceNames;
+        this.asTarget = asTarget;
+        this.toiletTypes = toiletTypes;
+        this.lazy = lazy;
+    }
+
+    /**
+     * Kompiliert einen Graphen. Der Graph selbst wird dabei nicht verändert.
+     * Kanten zu Knoten, die nicht (mehr) Teil des Graphen sind, werden ignoriert.
+     * @param graph Der Graph, der kompiliert werden soll.
+     * @return Die kompilierte Form des Graphen.
+     */
+    public static CompiledGraph compile(Graph graph) {
+        Node[] nodes = graph.values().toArray(new Node[0]);
+
+        return build(nodes);
+    }
+
+    /**
+     * Kompiliert einen (veränderten) Graphen erneut. Im Gegensatz zu {@link #compile(Graph)} behalten dabei alle
+     * Knoten, die schon in diesem kompilierten Graphen enthalten sind, ihren Index. Neue Knoten werden hinten angefügt.
+     * Knoten, die nicht mehr im Graphen sind, bleiben als Lücke erhalten: Sie haben keine ID
+     * ({@link #getId(int)} liefert null), keine Kanten und keine Attribute.
+     * So können Daten, die über den Index eines Knotens abgelegt wurden, weiterverwendet werden.
+     * @param graph Der Graph, der kompiliert werden soll.
+     * @return Die kompilierte Form des Graphen.
+     */
+    public CompiledGraph recompile(Graph graph) {
+        int added = 0;
+
+        for (String id : graph.keySet()) {
+            if (indexOf(id) == NONE)
+                added++;
+        }
+
+        Node[] nodes = new Node[ids.length + added];
+        int next = ids.length;
+
+        for (Node node : graph.values()) {
+            int index = indexOf(node.getId());
+
+            nodes[index != NONE ? index : next++] = node;
+        }
+
+        return build(nodes);
+    }
+
+    /**
+     * Übernimmt Änderungen an einzelnen Knoten, ohne den ganzen Graphen zu durchlaufen. Wie bei
+     * {@link #recompile(Graph)} behalten alle Knoten ihren Index, neue werden hinten angefügt und entfernte werden zu
+     * Lücken.
+     * Neu aufgebaut werden nur die Zeilen der geänderten Knoten und ihrer alten und neuen Nachbarn; alle anderen
+     * Zeilen und Attribute werden blockweise kopiert. Das kostet O(n) für das Kopieren der primitiven Arrays und nur
+     * O(Änderungen) für das Lesen der {@link Node}s und ihrer Kanten.
+     * @param graph Der Graph, der kompiliert werden soll.
+     * @param changed Die IDs aller Knoten, die seit diesem Stand hinzugefügt oder entfernt wurden oder deren
+     *                Metadaten oder Kanten sich geändert haben (bei einer Kante beide Knoten, bei einer neuen ID auch
+     *                die alte). Fehlt ein geänderter Knoten, ist das Ergebnis falsch.
+     * @return Die kompilierte Form des Graphen oder dieser, falls nichts geändert wurde.
+     */
+    public CompiledGraph patch(Graph graph, Collection<String> changed) {
+        if (changed.isEmpty())
+            return this;
+
+        /*
+        Indizes: neue Knoten hinten anfügen, entfernte werden zu Lücken
+         */
+        List<Node> added = new ArrayList<>();
+        List<Integer> removed = new ArrayList<>();
+
+        for (String id : changed) {
+            Node node = graph.get(id);
+            Integer index = indices.get(id);
+
+            if (node != null && index == null)
+                added.add(node);
+            else if (node == null && index != null)
+                removed.add(index);
+        }
+
+        int oldCount = ids.length;
+        int n = oldCount + added.size();
+        String[] ids = Arrays.copyOf(this.ids, n);
+        Map<String, Integer> indices = this.indices;
+
+        if (!added.isEmpty() || !removed.isEmpty()) {
+            indices = new HashMap<>(this.indices);
+
+            for (int index : removed) {
+                indices.remove(ids[index]);
+                ids[index] = null;
+            }
+
+            for (int i = 0; i < added.size(); i++) {
+                ids[oldCount + i] = added.get(i).getId();
+                indices.put(ids[oldCount + i], oldCount + i);
+            }
+        }
+
+        /*
+        Betroffene Knoten: die geänderten und ihre alten und neuen Nachbarn. Zwischen zwei nicht betroffenen Knoten
+        oder einem nicht betroffenen und einem nur benachbarten hat sich nichts geändert.
+         */
+        boolean[] affected = new boolean[n];
+        boolean[] dirty = new boolean[n];
+        List<Integer> rows = new ArrayList<>();
+
+        for (String id : changed) {
+            Integer old = this.indices.get(id);
+            Integer index = indices.get(id);
+
+            if (old != null) {
+                dirty[old] = true;
+                mark(affected, rows, old);
+
+                for (int arc = offsets[old]; arc < offsets[old + 1]; arc++) {
+                    mark(affected, rows, targets[arc]);
+                }
+            }
+
+            if (index != null) {
+                Node node = graph.get(id);
+
+                dirty[index] = true;
+                mark(affected, rows, index);
+
+                for (Edge e : node.getEdges()) {
+                    int v = indexOfOther(indices, node, e);
+
+                    if (v != NONE)
+                        mark(affected, rows, v);
+                }
+            }
+        }
+
+        Node[] nodes = new Node[n];
+
+        for (int u : rows) {
+            nodes[u] = ids[u] != null ? graph.get(ids[u]) : null;
+        }
+
+        /*
+        Grad der Knoten: alte Arcs zu nicht betroffenen Knoten bleiben, die zwischen betroffenen werden aus den
+        Kanten neu bestimmt
+         */
+        int[] degrees = new int[n];
+
+        for (int u : rows) {
+            if (nodes[u] == null)
+                continue;
+
+            if (u < oldCount) {
+                for (int arc = offsets[u]; arc < offsets[u + 1]; arc++) {
+                    if (!affected[targets[arc]])
+                        degrees[u]++;
+                }
+            }
+
+            for (Edge e : nodes[u].getEdges()) {
+                int v = indexOfOther(indices, nodes[u], e);
+
+                if (v == NONE || !affected[v] || nodes[v] == null)
+                    continue;
+
+                degrees[u]++;
+
+                if (!nodes[v].getEdges().contains(e))
+                    degrees[v]++;
+            }
+        }
+
+        int[] offsets = new int[n + 1];
+
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] = offsets[u] + (affected[u] ? degrees[u] : u < oldCount ? getDegree(u) : 0);
+        }
+
+        /*
+        Arcs eintragen: nicht betroffene Zeilen blockweise kopieren
+         */
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int[] cursor = new int[n];
+
+        for (int u = 0; u < n; ) {
+            if (affected[u]) {
+                cursor[u] = offsets[u];
+
+                if (nodes[u] != null && u < oldCount) {
+                    for (int arc = this.offsets[u]; arc < this.offsets[u + 1]; arc++) {
+                        if (!affected[this.targets[arc]]) {
+                            targets[cursor[u]] = this.targets[arc];
+                            weights[cursor[u]++] = this.weights[arc];
+                        }
+                    }
+                }
+
+                u++;
+                continue;
+            }
+
+            int end = u;
+
+            while (end < oldCount && !affected[end]) {
+                end++;
+            }
+
+            System.arraycopy(this.targets, this.offsets[u], targets, offsets[u], this.offsets[end] - this.offsets[u]);
+            System.arraycopy(this.weights, this.offsets[u], weights, offsets[u], this.offsets[end] - this.offsets[u]);
+            u = Math.max(end, u + 1);
+        }
+
+        for (int u : rows) {
+            if (nodes[u] == null)
+                continue;
+
+            for (Edge e : nodes[u].getEdges()) {
+                int v = indexOfOther(indices, nodes[u], e);
+
+                if (v == NONE || !affected[v] || nodes[v] == null)
+                    continue;
+
+                targets[cursor[u]] = v;
+                weights[cursor[u]++] = e.getWeight();
+
+                if (!nodes[v].getEdges().contains(e)) {
+                    targets[cursor[v]] = u;
+                    weights[cursor[v]++] = e.getWeight();
+                }
+            }
+        }
+
+        /*
+        Attribute der geänderten Knoten
+         */
+        String[] displayNames = Arrays.copyOf(this.displayNames, n);
+        int[] positionX = Arrays.copyOf(this.positionX, n);
+        int[] positionY = Arrays.copyOf(this.positionY, n);
+        int[] ressources = Arrays.copyOf(this.ressources, n);
+        boolean[] asTarget = Arrays.copyOf(this.asTarget, n);
+        byte[] toiletTypes = Arrays.copyOf(this.toiletTypes, n);
+        boolean[] lazy = Arrays.copyOf(this.lazy, n);
+        Map<String, Integer> ressourceIndices = new HashMap<>();
+
+        for (int i = 0; i < ressourceNames.length; i++) {
+            ressourceIndices.put(ressourceNames[i], i);
+        }
+
+        for (int u : rows) {
+            if (!dirty[u])
+                continue;
+
+            Node node = nodes[u];
+
+            if (node == null) {
+                displayNames[u] = null;
+                positionX[u] = -1;
+                positionY[u] = -1;
+                ressources[u] = NONE;
+                asTarget[u] = false;
+                toiletTypes[u] = 0;
+                lazy[u] = false;
+                continue;
+            }
+
+            displayNames[u] = node.hasDisplayName() ? node.getDisplayName() : null;
+            positionX[u] = node.getPositionX();
+            positionY[u] = node.getPositionY();
+            ressources[u] = node.hasRessource()
+                    ? ressourceIndices.computeIfAbsent(node.getRessource(), r -> ressourceIndices.size())
+                    : NONE;
+            asTarget[u] = node.asTarget();
+            toiletTypes[u] = node.getToiletType();
+            lazy[u] = node instanceof LazyNode;
+        }
+
+        String[] ressourceNames = this.ressourceNames;
+
+        if (ressourceIndices.size() > ressourceNames.length) {
+            String[] names = Arrays.copyOf(ressourceNames, ressourceIndices.size());
+
+            ressourceIndices.forEach((name, index) -> names[index] = name);
+            ressourceNames = names;
+        }
+
+        return new CompiledGraph(ids, displayNames, indices, offsets, targets, weights, positionX, positionY,
+                ressources, ressourceNames, asTarget, toiletTypes, lazy);
+    }
+
+    /**
+     * Bestimmt die Knoten, die sich gegenüber einem älteren Stand geändert haben. Dieser Graph muss mit
+     * {@link #recompile(Graph)} oder {@link #patch(Graph, Collection)} aus dem älteren entstanden sein, damit die
+     * Indizes übereinstimmen.
+     * Ein Knoten gilt als geändert, wenn er hinzugefügt oder entfernt wurde, sich eines seiner Attribute geändert hat
+     * oder seine Arcs nicht mehr dieselben (in derselben Reihenfolge) sind. Eine geänderte Kante betrifft damit immer
+     * beide Knoten.
+     * @param older Der ältere Stand.
+     * @return Die IDs der geänderten Knoten, bei entfernten Knoten die alte ID.
+     */
+    public List<String> changedSince(CompiledGraph older) {
+        List<String> changed = new ArrayList<>();
+
+        for (int u = 0; u < ids.length; u++) {
+            if (u >= older.ids.length) {
+                if (ids[u] != null)
+                    changed.add(ids[u]);
+            }
+            else if (ids[u] == null) {
+                if (older.ids[u] != null)
+                    changed.add(older.ids[u]);
+            }
+            else if (!ids[u].equals(older.ids[u]) || !sameNode(older, u) || !sameArcs(older, u)) {
+                changed.add(ids[u]);
+
+                if (older.ids[u] != null && !ids[u].equals(older.ids[u]))
+                    changed.add(older.ids[u]);
+            }
+        }
+
+        return changed;
+    }
+
+    private boolean sameNode(CompiledGraph older, int u) {
+        return Objects.equals(displayNames[u], older.displayNames[u]) && positionX[u] == older.positionX[u]
+                && positionY[u] == older.positionY[u] && asTarget[u] == older.asTarget[u]
+                && toiletTypes[u] == older.toiletTypes[u] && lazy[u] == older.lazy[u]
+                && Objects.equals(ressources[u] != NONE ? ressourceNames[ressources[u]] : null,
+                        older.ressources[u] != NONE ? older.ressourceNames[older.ressources[u]] : null);
+    }
+
+    private boolean sameArcs(CompiledGraph older, int u) {
+        if (getDegree(u) != older.getDegree(u))
+            return false;
+
+        for (int arc = offsets[u], oldArc = older.offsets[u]; arc < offsets[u + 1]; arc++, oldArc++) {
+            if (targets[arc] != older.targets[oldArc] || weights[arc] != older.weights[oldArc])
+                return false;
+        }
+
+        return true;
+    }
+
+    private static void mark(boolean[] affected, List<Integer> rows, int node) {
+        if (!affected[node]) {
+            affected[node] = true;
+            rows.add(node);
+        }
+    }
+
+    /**
+     * Baut die kompilierte Form auf.
+     * @param nodes Die Knoten in der Reihenfolge ihrer Indizes. null-Einträge werden zu Lücken.
+     */
+    private static CompiledGraph build(Node[] nodes) {
+        int n = nodes.length;
+        Map<String, Integer> indices = new HashMap<>(Math.max(16, (int) (n / 0.75f) + 1));
+
+        for (int i = 0; i < n; i++) {
+            if (nodes[i] != null)
+                indices.put(nodes[i].getId(), i);
+        }
+
+        /*
+        1. Durchlauf: Grad der Knoten zählen
+         */
+        int[] offsets = new int[n + 1];
+
+        for (int u = 0; u < n; u++) {
+            if (nodes[u] == null)
+                continue;
+
+            for (Edge e : nodes[u].getEdges()) {
+                int v = indexOfOther(indices, nodes[u], e);
+
+                if (v == NONE)
+                    continue;
+
+                offsets[u + 1]++;
+
+                if (!nodes[v].getEdges().contains(e))
+                    offsets[v + 1]++;
+            }
+        }
+
+        for (int u = 0; u < n; u++) {
+            offsets[u + 1] += offsets[u];
+        }
+
+        /*
+        2. Durchlauf: Kanten eintragen
+         */
+        int[] cursor = new int[n];
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+
+        System.arraycopy(offsets, 0, cursor, 0, n);
+
+        for (int u = 0; u < n; u++) {
+            if (nodes[u] == null)
+                continue;
+
+            for (Edge e : nodes[u].getEdges()) {
+                int v = indexOfOther(indices, nodes[u], e);
+
+                if (v == NONE)
+                    continue;
+
+                int arc = cursor[u]++;
+                targets[arc] = v;
+                weights[arc] = e.getWeight();
+
+                if (!nodes[v].getEdges().contains(e)) {
+                    arc = cursor[v]++;
+                    targets[arc] = u;
+                    weights[arc] = e.getWeight();
+                }
+            }
+        }
+
+        /*
+        Attribute
+         */
+        String[] ids = new String[n];
+        String[] displayNames = new String[n];
+        int[] positionX = new int[n];
+        int[] positionY = new int[n];
+        int[] ressources = new int[n];
+        boolean[] asTarget = new boolean[n];
+        byte[] toiletTypes = new byte[n];
+        boolean[] lazy = new boolean[n];
+        Map<String, Integer> ressourceIndices = new HashMap<>();
+
+        for (int u = 0; u < n; u++) {
+            Node node = nodes[u];
+
+            if (node == null) {
+                positionX[u] = -1;
+                positionY[u] = -1;
+                ressources[u] = NONE;
+                continue;
+            }
+
+            ids[u] = node.getId();
+            displayNames[u] = node.hasDisplayName() ? node.getDisplayName() : null;
+            positionX[u] = node.getPositionX();
+            positionY[u] = node.getPositionY();
+            ressources[u] = node.hasRessource()
+                    ? ressourceIndices.computeIfAbsent(node.getRessource(), r -> ressourceIndices.size())
+                    : NONE;
+            asTarget[u] = node.asTarget();
+            toiletTypes[u] = node.getToiletType();
+            lazy[u] = node instanceof LazyNode;
+        }
+
+        String[] ressourceNames = new String[ressourceIndices.size()];
+        ressourceIndices.forEach((name, index) -> ressourceNames[index] = name);
+
+        return new CompiledGraph(ids, displayNames, indices, offsets, targets, weights, positionX, positionY,
+                ressources, ressourceNames, asTarget, toiletTypes, lazy);
+    }
+
+    private static int indexOfOther(Map<String, Integer> indices, Node node, Edge edge) {
+        Integer index = indices.get(edge.getOther(node).getId());
+
+        return index != null ? index : NONE;
+    }
+
+    @Override
+    public int getNodeCount() {
+        return ids.length;
+    }
+
+    @Override
+    public int getArcCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int indexOf(String id) {
+        Integer index = indices.get(id);
+
+        return index != null ? index : NONE;
+    }
+
+    @Override
+    public String getId(int node) {
+        return ids[node];
+    }
+
+    @Override
+    public String getDisplayName(int node) {
+        return displayNames[node];
+    }
+
+    @Override
+    public int getArcStart(int node) {
+        return offsets[node];
+    }
+
+    @Override
+    public int getArcEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    @Override
+    public int getDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    @Override
+    public int getTarget(int arc) {
+        return targets[arc];
+    }
+
+    @Override
+    public int getWeight(int arc) {
+        return weights[arc];
+    }
+
+    @Override
+    public int getPositionX(int node) {
+        return positionX[node];
+    }
+
+    @Override
+    public int getPositionY(int node) {
+        return positionY[node];
+    }
+
+    @Override
+    public boolean hasPosition(int node) {
+        return positionX[node] >= 0 && positionY[node] >= 0;
+    }
+
+    @Override
+    public int getRessourceIndex(int node) {
+        return ressources[node];
+    }
+
+    @Override
+    public String getRessourceName(int ressource) {
+        return ressourceNames[ressource];
+    }
+
+    @Override
+    public int getRessourceCount() {
+        return ressourceNames.length;
+    }
+
+    @Override
+    public boolean asTarget(int node) {
+        return asTarget[node];
+    }
+
+    @Override
+    public byte getToiletType(int node) {
+        return toiletTypes[node];
+    }
+
+    @Override
+    public boolean isLazy(int node) {
+        return lazy[node];
+    }
+}
@@ -0,0 +1,63 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+/**
+ * Ein unveränderlicher Stand eines Graphen, wie ihn der {@link SnapshotPublisher} veröffentlicht.
+ * Die Knoten und Kanten liegen als {@link CompiledGraph} vor und können ohne Locks von beliebig vielen Threads
+ * gelesen werden, auch während der eigentliche Graph weiter bearbeitet wird.
+ * Die Epoche zählt die veröffentlichten Stände: Ein Stand mit größerer Epoche ist neuer. Innerhalb der gleichen
+ * Folge von Ständen behalten die Knoten ihren Index (siehe {@link CompiledGraph#recompile}), solange der
+ * {@link SnapshotPublisher} nicht neu kompiliert.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphSnapshot {
+
+    private final long epoch;
+    private final CompiledGraph graph;
+    private final long createdAt;
+    private final boolean compacted;
+
+    GraphSnapshot(long epoch, CompiledGraph graph, boolean compacted) {
+        this.epoch = epoch;
+        this.graph = graph;
+        this.createdAt = System.currentTimeMillis();
+        this.compacted = compacted;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public CompiledGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Der Zeitpunkt der Veröffentlichung in Millisekunden seit 1970.
+     */
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * @return Gibt an, ob der Stand neu kompiliert wurde. Die Indizes der Knoten können sich dann gegenüber dem
+     * vorherigen Stand geändert haben.
+     */
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+    /**
+     * @return Ein neuer Cursor über diesen Stand.
+     */
+    public NodeCursor cursor() {
+        return new NodeCursor(graph);
+    }
+
+    @Override
+    public String toString() {
+        return "GraphSnapshot{epoch=" + epoch + ", nodes=" + graph.getNodeCount() + ", arcs=" + graph.getArcCount()
+                + "}";
+    }
+}
@@ -0,0 +1,98 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+/**
+ * Die Sicht der Wegfindung auf einen Graphen: Knoten sind fortlaufende Indizes, die ausgehenden Kanten (Arcs) eines
+ * Knotens {@code n} liegen im Bereich {@code [getArcStart(n), getArcEnd(n))}.
+ * Umgesetzt wird die Sicht vom {@link CompiledGraph} (im Hauptspeicher) und vom {@link MappedGraph} (direkt aus einer
+ * Datei), sodass die Algorithmen auf beiden laufen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public interface IndexedGraph {
+
+    /**
+     * Wird von {@link #indexOf(String)} und {@link #getRessourceIndex(int)} zurückgegeben, wenn es keinen Eintrag gibt.
+     */
+    int NONE = -1;
+
+    /**
+     * @return Die Anzahl der Indizes, inklusive der Lücken (siehe {@link CompiledGraph#recompile}).
+     */
+    int getNodeCount();
+
+    int getArcCount();
+
+    /**
+     * Ermittelt den Index eines Knotens.
+     * @param id Die ID des Knotens.
+     * @return Der Index oder {@link #NONE}, falls es keinen Knoten mit dieser ID gibt.
+     */
+    int indexOf(String id);
+
+    /**
+     * @return Die ID des Knotens oder null, falls der Index eine Lücke ist.
+     */
+    String getId(int node);
+
+    /**
+     * @return Der Anzeigename des Knotens oder null, falls er keinen hat.
+     */
+    String getDisplayName(int node);
+
+    /**
+     * @return Der Index der ersten ausgehenden Kante des Knotens.
+     */
+    int getArcStart(int node);
+
+    /**
+     * @return Der Index hinter der letzten ausgehenden Kante des Knotens.
+     */
+    int getArcEnd(int node);
+
+    default int getDegree(int node) {
+        return getArcEnd(node) - getArcStart(node);
+    }
+
+    /**
+     * @return Der Index des Knotens, zu dem die Kante führt.
+     */
+    int getTarget(int arc);
+
+    int getWeight(int arc);
+
+    int getPositionX(int node);
+
+    int getPositionY(int node);
+
+    default boolean hasPosition(int node) {
+        return getPositionX(node) >= 0 && getPositionY(node) >= 0;
+    }
+
+    /**
+     * Die Ressourcen werden als fortlaufende Indizes abgelegt. Zwei Knoten liegen genau dann auf der gleichen
+     * Ressource, wenn ihre Indizes gleich und nicht {@link #NONE} sind.
+     * @return Der Index der Ressource oder {@link #NONE}, falls der Knoten keine Ressource hat.
+     */
+    int getRessourceIndex(int node);
+
+    /**
+     * @param ressource Ein Index, der von {@link #getRessourceIndex(int)} geliefert wurde.
+     * @return Der Name der Ressource.
+     */
+    String getRessourceName(int ressource);
+
+    int getRessourceCount();
+
+    boolean asTarget(int node);
+
+    /**
+     * @return Die Kennung des Toilettentyps, siehe {@link de.fhzwickau.roomfinder.model.graph.node.Node#getToiletType()}.
+     */
+    byte getToiletType(int node);
+
+    /**
+     * @return Gibt an, ob der Knoten nur als {@link de.fhzwickau.roomfinder.model.graph.node.LazyNode} vorhanden war.
+     */
+    boolean isLazy(int node);
+}
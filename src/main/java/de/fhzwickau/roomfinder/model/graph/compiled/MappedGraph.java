@@ -0,0 +1,469 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Ein schreibgeschützter {@link IndexedGraph}, der direkt aus einer per {@link FileChannel#map} eingeblendeten Datei
+ * gelesen wird. Beim Öffnen wird nichts deserialisiert, es wird nur der Kopf geprüft. Die Seiten der Datei werden
+ * erst beim Zugriff geladen und von allen Prozessen, die dieselbe Datei öffnen, über den Page-Cache geteilt.
+ * Alle Zugriffe sind absolut, eine Instanz kann daher von beliebig vielen Threads gleichzeitig gelesen werden.
+ * <p>
+ * Aufbau der Datei (Little-Endian, alle Abschnitte liegen direkt hintereinander):
+ * <pre>
+ * Kopf          magic "GRMP", version, nodeCount, arcCount, ressourceCount, idCount, stringBytes, reserviert
+ * offsets       int[nodeCount + 1]   CSR-Anfänge der Kanten
+ * targets       int[arcCount]
+ * weights       int[arcCount]
+ * positionX     int[nodeCount]
+ * positionY     int[nodeCount]
+ * ressources    int[nodeCount]
+ * ids           int[nodeCount + 1]   Anfänge der IDs im String-Bereich
+ * displayNames  int[nodeCount + 1]   Anfänge der Anzeigenamen im String-Bereich
+ * ressourceNames int[ressourceCount + 1]
+ * idIndex       int[idCount]         Indizes der Knoten, sortiert nach den UTF-8-Bytes ihrer ID
+ * flags         byte[nodeCount]      vorhanden, Anzeigename, Ziel, Lazy
+ * toiletTypes   byte[nodeCount]
+ * strings       byte[stringBytes]    alle Zeichenketten in UTF-8
+ * </pre>
+ * {@link #indexOf(String)} sucht binär im sortierten ID-Index und vergleicht dabei direkt die Bytes in der Datei.
+ * Eine Sicht auf einzelne Knoten ohne ein Objekt je Knoten bietet der {@link NodeCursor}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class MappedGraph implements IndexedGraph {
+
+    /**
+     * Die Dateiendung für eingeblendete Graphen.
+     */
+    public static final String EXTENSION = "grm";
+
+    private static final int MAGIC = 0x47524D50; // "GRMP"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+
+    private static final byte FLAG_PRESENT = 1;
+    private static final byte FLAG_DISPLAY_NAME = 1 << 1;
+    private static final byte FLAG_AS_TARGET = 1 << 2;
+    private static final byte FLAG_LAZY = 1 << 3;
+
+    private final ByteBuffer buffer;
+    private final Layout layout;
+
+    private MappedGraph(ByteBuffer buffer, Layout layout) {
+        this.buffer = buffer;
+        this.layout = layout;
+    }
+
+    /**
+     * Blendet eine Datei ein, die mit {@link #write(IndexedGraph, Path)} geschrieben wurde.
+     * Der Kanal wird direkt wieder geschlossen, die Einblendung bleibt bis zur Freigabe des Objekts bestehen.
+     * @param file Die Datei.
+     * @return Der eingeblendete Graph.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder kein gültiger Graph ist.
+     */
+    public static MappedGraph open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE)
+                throw new IOException("The file " + file + " is not a mapped graph.");
+
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+        if (buffer.getInt(0) != MAGIC)
+            throw new IOException("The file " + file + " is not a mapped graph.");
+
+        if (buffer.getInt(4) != VERSION)
+            throw new IOException("The mapped graph version " + buffer.getInt(4) + " is not supported.");
+
+        Layout layout = new Layout(buffer.getInt(8), buffer.getInt(12), buffer.getInt(16), buffer.getInt(20),
+                buffer.getInt(24));
+
+        if (layout.size != buffer.capacity())
+            throw new IOException("The mapped graph " + file + " is truncated or corrupt.");
+
+        return new MappedGraph(buffer, layout);
+    }
+
+    /**
+     * Schreibt einen Graphen im Format dieser Klasse. Die Datei wird zuerst unter einem temporären Namen geschrieben
+     * und dann ersetzt, sodass Prozesse, die die alte Datei eingeblendet haben, weiter gültige Daten sehen.
+     * @param graph Der Graph, z.B. ein {@link CompiledGraph}.
+     * @param file Die Zieldatei.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann oder der Graph zu groß ist.
+     */
+    public static void write(IndexedGraph graph, Path file) throws IOException {
+        int n = graph.getNodeCount();
+        int r = graph.getRessourceCount();
+
+        /*
+        Zeichenketten kodieren und den ID-Index sortieren
+         */
+        byte[][] ids = new byte[n][];
+        byte[][] displayNames = new byte[n][];
+        byte[][] ressourceNames = new byte[r][];
+        long stringBytes = 0;
+        int idCount = 0;
+
+        for (int u = 0; u < n; u++) {
+            String id = graph.getId(u);
+            String displayName = graph.getDisplayName(u);
+
+            if (id != null) {
+                ids[u] = id.getBytes(StandardCharsets.UTF_8);
+                stringBytes += ids[u].length;
+                idCount++;
+            }
+
+            if (id != null && displayName != null) {
+                displayNames[u] = displayName.getBytes(StandardCharsets.UTF_8);
+                stringBytes += displayNames[u].length;
+            }
+        }
+
+        for (int i = 0; i < r; i++) {
+            ressourceNames[i] = graph.getRessourceName(i).getBytes(StandardCharsets.UTF_8);
+            stringBytes += ressourceNames[i].length;
+        }
+
+        Integer[] sorted = new Integer[idCount];
+
+        for (int u = 0, i = 0; u < n; u++) {
+            if (ids[u] != null)
+                sorted[i++] = u;
+        }
+
+        Arrays.sort(sorted, Comparator.comparing(u -> ids[u], Arrays::compareUnsigned));
+
+        if (stringBytes > Integer.MAX_VALUE)
+            throw new IOException("The graph is too large to be mapped.");
+
+        Layout layout = new Layout(n, graph.getArcCount(), r, idCount, (int) stringBytes);
+
+        /*
+        Abschnitte in eine temporäre Datei schreiben
+         */
+        Path directory = file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.size);
+                out.order(ByteOrder.LITTLE_ENDIAN);
+
+                out.putInt(0, MAGIC);
+                out.putInt(4, VERSION);
+                out.putInt(8, n);
+                out.putInt(12, layout.arcCount);
+                out.putInt(16, r);
+                out.putInt(20, idCount);
+                out.putInt(24, layout.stringBytes);
+
+                for (int u = 0; u <= n; u++) {
+                    out.putInt(layout.offsets + 4 * u, u < n ? graph.getArcStart(u) : graph.getArcCount());
+                }
+
+                for (int arc = 0; arc < layout.arcCount; arc++) {
+                    out.putInt(layout.targets + 4 * arc, graph.getTarget(arc));
+                    out.putInt(layout.weights + 4 * arc, graph.getWeight(arc));
+                }
+
+                int string = 0;
+
+                for (int u = 0; u < n; u++) {
+                    out.putInt(layout.positionX + 4 * u, graph.getPositionX(u));
+                    out.putInt(layout.positionY + 4 * u, graph.getPositionY(u));
+                    out.putInt(layout.ressources + 4 * u, graph.getRessourceIndex(u));
+
+                    byte flags = 0;
+
+                    if (ids[u] != null)
+                        flags |= FLAG_PRESENT;
+                    if (displayNames[u] != null)
+                        flags |= FLAG_DISPLAY_NAME;
+                    if (graph.asTarget(u))
+                        flags |= FLAG_AS_TARGET;
+                    if (graph.isLazy(u))
+                        flags |= FLAG_LAZY;
+
+                    out.put(layout.flags + u, flags);
+                    out.put(layout.toiletTypes + u, graph.getToiletType(u));
+
+                    out.putInt(layout.ids + 4 * u, string);
+                    string = putString(out, layout.strings + string, ids[u], string);
+                }
+
+                out.putInt(layout.ids + 4 * n, string);
+
+                for (int u = 0; u < n; u++) {
+                    out.putInt(layout.displayNames + 4 * u, string);
+                    string = putString(out, layout.strings + string, displayNames[u], string);
+                }
+
+                out.putInt(layout.displayNames + 4 * n, string);
+
+                for (int i = 0; i < r; i++) {
+                    out.putInt(layout.ressourceNames + 4 * i, string);
+                    string = putString(out, layout.strings + string, ressourceNames[i], string);
+                }
+
+                out.putInt(layout.ressourceNames + 4 * r, string);
+
+                for (int i = 0; i < idCount; i++) {
+                    out.putInt(layout.idIndex + 4 * i, sorted[i]);
+                }
+
+                out.force();
+            }
+
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * @return Die neue Position im String-Bereich.
+     */
+    private static int putString(ByteBuffer out, int position, byte[] bytes, int string) {
+        if (bytes == null)
+            return string;
+
+        out.put(position, bytes);
+
+        return string + bytes.length;
+    }
+
+    /**
+     * @return Ein neuer Cursor auf diesem Graphen.
+     */
+    public NodeCursor cursor() {
+        return new NodeCursor(this);
+    }
+
+    @Override
+    public int getNodeCount() {
+        return layout.nodeCount;
+    }
+
+    @Override
+    public int getArcCount() {
+        return layout.arcCount;
+    }
+
+    /**
+     * Sucht die ID binär im sortierten ID-Index. Der Aufwand ist O(log n) Vergleiche direkt auf der Datei.
+     */
+    @Override
+    public int indexOf(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = layout.idCount - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int node = buffer.getInt(layout.idIndex + 4 * mid);
+            int cmp = compareId(node, key);
+
+            if (cmp < 0)
+                low = mid + 1;
+            else if (cmp > 0)
+                high = mid - 1;
+            else
+                return node;
+        }
+
+        return NONE;
+    }
+
+    /**
+     * Vergleicht die UTF-8-Bytes der ID eines Knotens vorzeichenlos mit einem Schlüssel.
+     */
+    private int compareId(int node, byte[] key) {
+        int start = layout.strings + buffer.getInt(layout.ids + 4 * node);
+        int length = layout.strings + buffer.getInt(layout.ids + 4 * node + 4) - start;
+        int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.toUnsignedInt(buffer.get(start + i)) - Byte.toUnsignedInt(key[i]);
+
+            if (cmp != 0)
+                return cmp;
+        }
+
+        return length - key.length;
+    }
+
+    private String getString(int table, int index) {
+        int start = buffer.getInt(table + 4 * index);
+        byte[] bytes = new byte[buffer.getInt(table + 4 * index + 4) - start];
+
+        buffer.get(layout.strings + start, bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte getFlags(int node) {
+        return buffer.get(layout.flags + node);
+    }
+
+    @Override
+    public String getId(int node) {
+        return (getFlags(node) & FLAG_PRESENT) != 0 ? getString(layout.ids, node) : null;
+    }
+
+    @Override
+    public String getDisplayName(int node) {
+        return (getFlags(node) & FLAG_DISPLAY_NAME) != 0 ? getString(layout.displayNames, node) : null;
+    }
+
+    @Override
+    public int getArcStart(int node) {
+        return buffer.getInt(layout.offsets + 4 * node);
+    }
+
+    @Override
+    public int getArcEnd(int node) {
+        return buffer.getInt(layout.offsets + 4 * node + 4);
+    }
+
+    @Override
+    public int getTarget(int arc) {
+        return buffer.getInt(layout.targets + 4 * arc);
+    }
+
+    @Override
+    public int getWeight(int arc) {
+        return buffer.getInt(layout.weights + 4 * arc);
+    }
+
+    @Override
+    public int getPositionX(int node) {
+        return buffer.getInt(layout.positionX + 4 * node);
+    }
+
+    @Override
+    public int getPositionY(int node) {
+        return buffer.getInt(layout.positionY + 4 * node);
+    }
+
+    @Override
+    public int getRessourceIndex(int node) {
+        return buffer.getInt(layout.ressources + 4 * node);
+    }
+
+    @Override
+    public String getRessourceName(int ressource) {
+        return getString(layout.ressourceNames, ressource);
+    }
+
+    @Override
+    public int getRessourceCount() {
+        return layout.ressourceCount;
+    }
+
+    @Override
+    public boolean asTarget(int node) {
+        return (getFlags(node) & FLAG_AS_TARGET) != 0;
+    }
+
+    @Override
+    public byte getToiletType(int node) {
+        return buffer.get(layout.toiletTypes + node);
+    }
+
+    @Override
+    public boolean isLazy(int node) {
+        return (getFlags(node) & FLAG_LAZY) != 0;
+    }
+
+    /**
+     * Die Positionen der Abschnitte, berechnet aus den Anzahlen im Kopf.
+     */
+    private static final class Layout {
+
+        private final int nodeCount;
+        private final int arcCount;
+        private final int ressourceCount;
+        private final int idCount;
+        private final int stringBytes;
+
+        private final int offsets;
+        private final int targets;
+        private final int weights;
+        private final int positionX;
+        private final int positionY;
+        private final int ressources;
+        private final int ids;
+        private final int displayNames;
+        private final int ressourceNames;
+        private final int idIndex;
+        private final int flags;
+        private final int toiletTypes;
+        private final int strings;
+        private final long size;
+
+        private Layout(int nodeCount, int arcCount, int ressourceCount, int idCount, int stringBytes)
+                throws IOException {
+            if (nodeCount < 0 || arcCount < 0 || ressourceCount < 0 || idCount < 0 || idCount > nodeCount
+                    || stringBytes < 0)
+                throw new IOException("The mapped graph header is corrupt.");
+
+            this.nodeCount = nodeCount;
+            this.arcCount = arcCount;
+            this.ressourceCount = ressourceCount;
+            this.idCount = idCount;
+            this.stringBytes = stringBytes;
+
+            long position = HEADER_SIZE;
+            long[] sections = new long[13];
+            long[] lengths = {
+                    4L * (nodeCount + 1), 4L * arcCount, 4L * arcCount, 4L * nodeCount, 4L * nodeCount,
+                    4L * nodeCount, 4L * (nodeCount + 1), 4L * (nodeCount + 1), 4L * (ressourceCount + 1),
+                    4L * idCount, nodeCount, nodeCount, stringBytes
+            };
+
+            for (int i = 0; i < sections.length; i++) {
+                sections[i] = position;
+                position += lengths[i];
+            }
+
+            if (position > Integer.MAX_VALUE)
+                throw new IOException("The graph is too large to be mapped.");
+
+            offsets = (int) sections[0];
+            targets = (int) sections[1];
+            weights = (int) sections[2];
+            positionX = (int) sections[3];
+            positionY = (int) sections[4];
+            ressources = (int) sections[5];
+            ids = (int) sections[6];
+            displayNames = (int) sections[7];
+            ressourceNames = (int) sections[8];
+            idIndex = (int) sections[9];
+            flags = (int) sections[10];
+            toiletTypes = (int) sections[11];
+            strings = (int) sections[12];
+            size = position;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+/**
+ * Eine wiederverwendbare Sicht auf einen Knoten eines {@link IndexedGraph} und seine Kanten, entsprechend
+ * {@link de.fhzwickau.roomfinder.model.graph.node.Node} und {@link de.fhzwickau.roomfinder.model.graph.node.Node#getEdges()}.
+ * Statt für jeden Knoten ein Objekt zu erzeugen, wird der Cursor per {@link #moveTo(int)} auf einen Knoten gesetzt;
+ * die Kanten werden über ihre Position {@code 0} bis {@link #getEdgeCount()} - 1 angesprochen.
+ * Ein Cursor ist nicht threadsicher, für jeden Thread sollte ein eigener erzeugt werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class NodeCursor {
+
+    private final IndexedGraph graph;
+    private int node = IndexedGraph.NONE;
+    private int arcStart;
+    private int arcEnd;
+
+    public NodeCursor(IndexedGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Setzt den Cursor auf einen Knoten.
+     * @param node Der Index des Knotens.
+     * @return Dieser Cursor.
+     * @throws IndexOutOfBoundsException Falls es den Index nicht gibt.
+     */
+    public NodeCursor moveTo(int node) throws IndexOutOfBoundsException {
+        if (node < 0 || node >= graph.getNodeCount())
+            throw new IndexOutOfBoundsException("There is no node with the index " + node + ".");
+
+        this.node = node;
+        this.arcStart = graph.getArcStart(node);
+        this.arcEnd = graph.getArcEnd(node);
+
+        return this;
+    }
+
+    /**
+     * Setzt den Cursor auf einen Knoten.
+     * @param id Die ID des Knotens.
+     * @return Gibt an, ob es einen Knoten mit der ID gibt. Falls nicht, bleibt der Cursor unverändert.
+     */
+    public boolean moveTo(String id) {
+        int index = graph.indexOf(id);
+
+        if (index == IndexedGraph.NONE)
+            return false;
+
+        moveTo(index);
+
+        return true;
+    }
+
+    /**
+     * Setzt den Cursor auf das Ziel einer Kante des aktuellen Knotens.
+     * @param edge Die Position der Kante.
+     * @return Dieser Cursor.
+     */
+    public NodeCursor follow(int edge) {
+        return moveTo(getEdgeTarget(edge));
+    }
+
+    public int getIndex() {
+        return node;
+    }
+
+    public String getId() {
+        return graph.getId(node);
+    }
+
+    public String getDisplayName() {
+        return graph.getDisplayName(node);
+    }
+
+    public boolean hasDisplayName() {
+        return getDisplayName() != null;
+    }
+
+    public int getPositionX() {
+        return graph.getPositionX(node);
+    }
+
+    public int getPositionY() {
+        return graph.getPositionY(node);
+    }
+
+    public boolean hasPosition() {
+        return graph.hasPosition(node);
+    }
+
+    /**
+     * @return Der Name der Ressource oder null, falls der Knoten keine hat.
+     */
+    public String getRessource() {
+        int ressource = graph.getRessourceIndex(node);
+
+        return ressource != IndexedGraph.NONE ? graph.getRessourceName(ressource) : null;
+    }
+
+    public boolean hasRessource() {
+        return graph.getRessourceIndex(node) != IndexedGraph.NONE;
+    }
+
+    public boolean asTarget() {
+        return graph.asTarget(node);
+    }
+
+    public byte getToiletType() {
+        return graph.getToiletType(node);
+    }
+
+    public boolean isLazy() {
+        return graph.isLazy(node);
+    }
+
+    public int getEdgeCount() {
+        return arcEnd - arcStart;
+    }
+
+    /**
+     * @param edge Die Position der Kante, {@code 0} bis {@link #getEdgeCount()} - 1.
+     * @return Der Index des anderen Knotens der Kante.
+     */
+    public int getEdgeTarget(int edge) {
+        return graph.getTarget(arc(edge));
+    }
+
+    /**
+     * @param edge Die Position der Kante, {@code 0} bis {@link #getEdgeCount()} - 1.
+     * @return Die ID des anderen Knotens der Kante.
+     */
+    public String getEdgeTargetId(int edge) {
+        return graph.getId(getEdgeTarget(edge));
+    }
+
+    /**
+     * @param edge Die Position der Kante, {@code 0} bis {@link #getEdgeCount()} - 1.
+     */
+    public int getEdgeWeight(int edge) {
+        return graph.getWeight(arc(edge));
+    }
+
+    private int arc(int edge) {
+        if (edge < 0 || edge >= arcEnd - arcStart)
+            throw new IndexOutOfBoundsException("The node has no edge at position " + edge + ".");
+
+        return arcStart + edge;
+    }
+}
@@ -0,0 +1,187 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+import de.fhzwickau.roomfinder.model.graph.ConcurrentGraph;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Veröffentlicht unveränderliche Stände ({@link GraphSnapshot}) eines veränderlichen {@link Graph}en.
+ * Leser holen sich über {@link #current()} den aktuellen Stand ohne Locks und arbeiten für die Dauer einer Anfrage
+ * nur mit diesem; sie sehen also immer einen in sich konsistenten Graphen. Schreiber ändern den Graphen wie gewohnt
+ * und veröffentlichen über {@link #freeze()} bzw. {@link #refresh()} einen neuen Stand.
+ * <p>
+ * Hinzugefügte und entfernte Knoten erfährt der Publisher als {@link GraphListener} selbst, bei einem
+ * {@link ConcurrentGraph} auch die Kanten aus {@link ConcurrentGraph#connect} und {@link ConcurrentGraph#disconnect}.
+ * Wer Kanten direkt an den Knoten ändert, meldet das über {@link #markChanged(String)} für beide Knoten. Ein neuer
+ * Stand entsteht dann über {@link CompiledGraph#patch(Graph, Collection)} aus dem vorherigen: Nur die geänderten
+ * Knoten und ihre Nachbarn werden neu gelesen, alle Knoten behalten ihren Index. Nach {@link #markChanged()} (ohne
+ * bekannte Knoten) wird der ganze Graph über {@link CompiledGraph#recompile(Graph)} gelesen. Erst wenn mehr als die
+ * Hälfte der Indizes Lücken sind, wird neu kompiliert.
+ * <p>
+ * Der Graph selbst darf während {@link #freeze()} nicht verändert werden. Bei einem {@link ConcurrentGraph} wird dazu
+ * {@link ConcurrentGraph#exclusive} verwendet, bei einem gewöhnlichen Graphen muss der Aufrufer der einzige
+ * Schreiber sein (z.B. der Thread der Oberfläche).
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class SnapshotPublisher {
+
+    private final Graph graph;
+    private final AtomicReference<GraphSnapshot> current;
+
+    /**
+     * Die Anzahl der gemeldeten Änderungen. Ein Stand ist aktuell, solange sich der Wert seit seinem Erstellen nicht
+     * geändert hat.
+     */
+    private final AtomicLong changes = new AtomicLong();
+    private volatile long frozenChanges;
+
+    /**
+     * Die IDs der Knoten, die sich seit dem letzten Stand geändert haben.
+     */
+    private final Set<String> changed = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gibt an, ob Änderungen ohne bekannte Knoten gemeldet wurden.
+     */
+    private final AtomicBoolean unknownChanges = new AtomicBoolean();
+
+    private final GraphListener listener = new GraphListener() {
+
+        @Override
+        public void onNodeAdded(Node node) {
+            markChanged(node.getId());
+        }
+
+        @Override
+        public void onNodeRemoved(String id, Node node) {
+            markChanged(id);
+        }
+
+        @Override
+        public void onEdgeChanged(Node node, Node other) {
+            markChanged(node.getId());
+            markChanged(other.getId());
+        }
+    };
+
+    /**
+     * Legt den Publisher an, veröffentlicht den ersten Stand (Epoche 0) und registriert sich beim Graphen.
+     * @param graph Der Graph, dessen Stände veröffentlicht werden.
+     */
+    public SnapshotPublisher(Graph graph) {
+        this.graph = graph;
+        this.current = new AtomicReference<>(new GraphSnapshot(0, compile(null, false), true));
+
+        graph.addGraphListener(listener);
+    }
+
+    public Graph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Der zuletzt veröffentlichte Stand. Ohne Locks und ohne Warten.
+     */
+    public GraphSnapshot current() {
+        return current.get();
+    }
+
+    /**
+     * Meldet, dass der Graph auf unbekannte Weise verändert wurde. Der nächste Stand liest dann den ganzen Graphen.
+     * Kann von jedem Thread aufgerufen werden.
+     */
+    public void markChanged() {
+        unknownChanges.set(true);
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Meldet, dass sich die Metadaten oder Kanten eines Knotens geändert haben. Bei einer Kante müssen beide Knoten
+     * gemeldet werden. Kann von jedem Thread aufgerufen werden.
+     * @param id Die ID des Knotens.
+     */
+    public void markChanged(String id) {
+        changed.add(id);
+        changes.incrementAndGet();
+    }
+
+    /**
+     * Meldet sich vom Graphen ab. Danach werden Änderungen nur noch über {@link #markChanged(String)} erkannt.
+     */
+    public void close() {
+        graph.removeGraphListener(listener);
+    }
+
+    /**
+     * @return Gibt an, ob seit dem letzten Stand Änderungen gemeldet wurden.
+     */
+    public boolean isStale() {
+        return changes.get() != frozenChanges;
+    }
+
+    /**
+     * Erstellt einen neuen Stand aus dem aktuellen Graphen und veröffentlicht ihn, auch wenn keine Änderungen
+     * gemeldet wurden.
+     * @return Der neue Stand.
+     */
+    public synchronized GraphSnapshot freeze() {
+        GraphSnapshot previous = current.get();
+        long seen = changes.get();
+        boolean compact = previous.getGraph().getNodeCount() > 2 * graph.size();
+        GraphSnapshot snapshot = new GraphSnapshot(previous.getEpoch() + 1,
+                compile(compact ? null : previous.getGraph(), true), compact);
+
+        frozenChanges = seen;
+        current.set(snapshot);
+
+        return snapshot;
+    }
+
+    /**
+     * Veröffentlicht nur dann einen neuen Stand, wenn seit dem letzten Änderungen gemeldet wurden.
+     * @return Der aktuelle Stand.
+     */
+    public synchronized GraphSnapshot refresh() {
+        return isStale() ? freeze() : current.get();
+    }
+
+    /**
+     * @param previous Der vorherige Stand, dessen Indizes übernommen werden, oder null.
+     * @param patch Gibt an, ob nur die gemeldeten Knoten neu gelesen werden sollen.
+     */
+    private CompiledGraph compile(CompiledGraph previous, boolean patch) {
+        if (graph instanceof ConcurrentGraph)
+            return ((ConcurrentGraph) graph).exclusive(() -> compileUnlocked(previous, patch));
+
+        return compileUnlocked(previous, patch);
+    }
+
+    private CompiledGraph compileUnlocked(CompiledGraph previous, boolean patch) {
+        /*
+        Die gemeldeten Knoten abholen, solange der Graph nicht verändert wird. Spätere Meldungen bleiben für den
+        nächsten Stand stehen.
+         */
+        List<String> ids = new ArrayList<>(changed);
+
+        changed.removeAll(ids);
+
+        boolean unknown = unknownChanges.getAndSet(false);
+
+        if (previous == null)
+            return CompiledGraph.compile(graph);
+
+        return patch && !unknown ? previous.patch(graph, ids) : previous.recompile(graph);
+    }
+}
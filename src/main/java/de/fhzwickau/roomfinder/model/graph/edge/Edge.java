@@ -1,5 +1,7 @@
 package de.fhzwickau.roomfinder.model.graph.edge;
 
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
 import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
 import de.fhzwickau.roomfinder.model.graph.node.Node;
 import de.fhzwickau.roomfinder.model.metadata.Metadata;
@@ -72,6 +74,17 @@ public class Edge implements Serializable {
      * @throws IllegalStateException Wenn es keine {@link de.fhzwickau.roomfinder.model.graph.node.LazyNode} an dieser Kante gibt.
      */
     public void replaceLazyNodeWith(Node node) throws IllegalArgumentException, IllegalStateException {
+        long start = Metrics.start(Operation.EDGE_REPLACE_LAZY_NODE);
+
+        try {
+            replace(node);
+        }
+        finally {
+            Metrics.record(Operation.EDGE_REPLACE_LAZY_NODE, start);
+        }
+    }
+
+    private void replace(Node node) throws IllegalArgumentException, IllegalStateException {
         if (node instanceof LazyNode)
             throw new IllegalArgumentException("The new node is also a lazynode.");
 
@@ -0,0 +1,42 @@
+package de.fhzwickau.roomfinder.model.graph.listener;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+/**
+ * Wird über jeden Knoten informiert, der in einem {@link Graph} eingetragen oder aus ihm entfernt wird, siehe
+ * {@link Graph#addGraphListener(GraphListener)}. Damit können abgeleitete Strukturen (Tabellen im UI, Indizes)
+ * schrittweise angepasst werden, statt sie nach jeder Änderung neu aufzubauen.
+ * Ersetzt ein Knoten einen anderen mit der gleichen ID (z.B. einen {@link LazyNode}), wird zuerst der alte entfernt
+ * und dann der neue hinzugefügt. Ändert sich ein Knoten über
+ * {@link Graph#rekey(String, Node)}, wird er unter der alten ID entfernt und mit den neuen Metadaten wieder
+ * hinzugefügt. Änderungen an den Kanten werden nur über {@link #onEdgeChanged(Node, Node)} gemeldet, wenn sie über
+ * {@link de.fhzwickau.roomfinder.model.graph.ConcurrentGraph#connect} oder
+ * {@link de.fhzwickau.roomfinder.model.graph.ConcurrentGraph#disconnect} laufen.
+ * Die Methoden werden in dem Thread aufgerufen, der den Graphen verändert, und sollten schnell zurückkehren.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public interface GraphListener {
+
+    /**
+     * @param node Der Knoten, der eingetragen wurde.
+     */
+    void onNodeAdded(Node node);
+
+    /**
+     * @param id Die ID, unter der der Knoten eingetragen war. Sie kann sich von der aktuellen ID des Knotens
+     *           unterscheiden.
+     * @param node Der Knoten, der entfernt wurde.
+     */
+    void onNodeRemoved(String id, Node node);
+
+    /**
+     * @param node Ein Knoten, dessen Kante hinzugefügt, ersetzt oder entfernt wurde.
+     * @param other Der andere Knoten der Kante.
+     */
+    default void onEdgeChanged(Node node, Node other) {
+    }
+}
@@ -3,6 +3,7 @@ package de.fhzwickau.roomfinder.model.graph.node;
 import de.fhzwickau.roomfinder.model.graph.node.listener.LazyNodeListener;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 
 /**
  * Dieser besondere Knoten kennt nur die ID des eigentlichen Knotens. Wenn der eigentliche Knoten geladen wurde,
@@ -28,8 +29,11 @@ public class LazyNode extends Node implements Serializable, LazyNodeListener {
     @Override
     public void onCompleteNodeLoaded(LazyNode lazyNode, Node completeNode) {
 
+        /*
+        Über eine Kopie iterieren, da replaceLazyNodeWith die Kanten von diesem Knoten entfernt
+         */
         if (this.equals(lazyNode))
-            getEdges().forEach(e -> e.replaceLazyNodeWith(completeNode));
+            new ArrayList<>(getEdges()).forEach(e -> e.replaceLazyNodeWith(completeNode));
     }
 }
 
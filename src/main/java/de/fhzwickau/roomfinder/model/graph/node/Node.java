@@ -1,5 +1,7 @@
 package de.fhzwickau.roomfinder.model.graph.node;
 
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.Operation;
 import de.fhzwickau.roomfinder.model.ToiletType;
 import de.fhzwickau.roomfinder.model.graph.Graph;
 import de.fhzwickau.roomfinder.model.graph.edge.Edge;
@@ -7,7 +9,6 @@ import de.fhzwickau.roomfinder.model.metadata.Metadata;
 
 import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Die Knoten unseres Graphen.
@@ -27,6 +28,13 @@ public class Node implements Serializable {
     private Set<Edge> edges;
     private Graph graph;
 
+    /**
+     * Die Kanten nach der ID des jeweils anderen Knotens. Wird bei Bedarf aus {@link #edges} aufgebaut, z.B. nach dem
+     * Deserialisieren.
+     */
+    private transient Map<String, Edge> neighbours;
+    private transient Set<Edge> edgesView;
+
     @Metadata(description = "Die ID des Knotens: Name des Raums in Kleinbuchstaben ohne Leer- und Sonderzeichen.")
     protected String id;
 
@@ -55,6 +63,28 @@ public class Node implements Serializable {
         setDefaults();
     }
 
+    /**
+     * Initialisiert einen Knoten mit allen Metadaten, z.B. beim Einlesen aus einer Datei.
+     * @param id Die ID des Knotens.
+     * @param displayName Der Anzeigename oder null.
+     * @param ressource Die Ressource oder null.
+     * @param positionX Die X-Koordinate oder -1.
+     * @param positionY Die Y-Koordinate oder -1.
+     * @param asTarget Gibt an, ob der Knoten als Ziel ausgewählt werden darf.
+     * @param toiletType Die Kennung des Toilettentyps, siehe {@link ToiletType#getId()}.
+     */
+    public Node(String id, String displayName, String ressource, int positionX, int positionY, boolean asTarget,
+                byte toiletType) {
+        this.id = id;
+        this.displayName = displayName;
+        this.ressource = ressource;
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.asTarget = asTarget;
+        this.toiletType = toiletType;
+        edges = new HashSet<>();
+    }
+
     protected void setDefaults() {
         positionX = -1;
         positionY = -1;
@@ -63,7 +93,7 @@ public class Node implements Serializable {
     }
 
     public void setGraph(Graph graph) {
-        if (!graph.containsValue(this))
+        if (!graph.contains(this))
             throw new IllegalStateException("The graph does not contain this node. Use Graph::add(Node) instead!");
 
         this.graph = graph;
@@ -101,6 +131,13 @@ public class Node implements Serializable {
         return this.toiletType == type.getId();
     }
 
+    /**
+     * @return Die rohe Kennung des Toilettentyps (siehe {@link ToiletType#getId()}), 0 = Keine Toilette.
+     */
+    public byte getToiletType() {
+        return toiletType;
+    }
+
     public boolean hasDisplayName() {
         return displayName != null;
     }
@@ -113,26 +150,55 @@ public class Node implements Serializable {
         return positionX >= 0 && positionY >= 0;
     }
 
+    /**
+     * @return Eine nur lesende Sicht auf die Kanten. Es wird immer dieselbe Sicht zurückgegeben.
+     */
     public Set<Edge> getEdges() {
-        return Collections.unmodifiableSet(edges);
+        if (edgesView == null)
+            edgesView = Collections.unmodifiableSet(edges);
+
+        return edgesView;
+    }
+
+    /**
+     * @param id Die ID des Nachbarn.
+     * @return Die Kante zu dem Knoten mit der ID oder null, falls es keine gibt (O(1)).
+     */
+    public Edge getEdgeTo(String id) {
+        return neighbours().get(id);
     }
 
     public boolean addEdge(Edge edge) {
+        long start = Metrics.start(Operation.NODE_ADD_EDGE);
+
+        try {
+            return putEdge(edge);
+        }
+        finally {
+            Metrics.record(Operation.NODE_ADD_EDGE, start);
+        }
+    }
+
+    private boolean putEdge(Edge edge) {
         if (edges.contains(edge))
             return false;
 
         /*
-        Doppelte Kanten verhindern
+        Doppelte Kanten verhindern: Eine vorhandene Kante zum gleichen Nachbarn wird ersetzt
          */
-        Set<Edge> toRemove = edges.stream().filter(e -> e.getOther(this).getId().equals(edge.getOther(this).getId())).collect(Collectors.toSet());
+        String key = edge.getOther(this).getId();
+        Edge old = neighbours().get(key);
 
-        for (Edge e : toRemove) {
-            edges.remove(e);
-            e.getOther(this).edges.remove(e);
-            e.getOther(this).addEdge(edge);
-            //System.out.println("WARNING: EDGE ALREADY EXISTS: REMOVED THE OLD ONE!");
+        if (old != null) {
+            Node other = old.getOther(this);
+
+            removeEdgeOnlyForThisNode(old);
+            other.removeEdgeOnlyForThisNode(old);
+            other.addEdge(edge);
         }
 
+        neighbours().put(key, edge);
+
         return edges.add(edge);
     }
 
@@ -144,7 +210,32 @@ public class Node implements Serializable {
      * @return Gibt an, ob die Kante entfernt werden konnte.
      */
     public boolean removeEdgeOnlyForThisNode(Edge edge) {
-        return edges.remove(edge);
+        if (!edges.remove(edge))
+            return false;
+
+        if (neighbours != null && !neighbours.remove(edge.getOther(this).getId(), edge))
+            neighbours = null; // Der Nachbar hat seine ID geändert, der Index wird neu aufgebaut
+
+        return true;
+    }
+
+    /**
+     * Baut den Index der Nachbarn neu auf. Muss aufgerufen werden, wenn sich die ID eines Nachbarn geändert hat.
+     */
+    public void reindexEdges() {
+        neighbours = null;
+    }
+
+    private Map<String, Edge> neighbours() {
+        if (neighbours == null) {
+            neighbours = new HashMap<>(Math.max(4, (int) (edges.size() / 0.75f) + 1));
+
+            for (Edge e : edges) {
+                neighbours.put(e.getOther(this).getId(), e);
+            }
+        }
+
+        return neighbours;
     }
 
     @Override
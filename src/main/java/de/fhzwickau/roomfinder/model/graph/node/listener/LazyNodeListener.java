@@ -3,6 +3,13 @@ package de.fhzwickau.roomfinder.model.graph.node.listener;
 import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
 import de.fhzwickau.roomfinder.model.graph.node.Node;
 
+/**
+ * Wird informiert, sobald ein {@link LazyNode} in einem {@link de.fhzwickau.roomfinder.model.graph.Graph} durch den
+ * vollständigen Knoten ersetzt wurde, siehe {@link de.fhzwickau.roomfinder.model.graph.Graph#registerListener}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
 public interface LazyNodeListener {
 
     void onCompleteNodeLoaded(LazyNode lazyNode, Node completeNode);
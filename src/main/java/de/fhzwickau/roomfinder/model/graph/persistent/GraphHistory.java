@@ -0,0 +1,103 @@
+package de.fhzwickau.roomfinder.model.graph.persistent;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.UnaryOperator;
+
+/**
+ * Die Versionen eines {@link PersistentGraph}en für Rückgängig und Wiederholen. Da sich die Versionen alle
+ * unveränderten Knoten teilen, kostet ein Schritt nur den Speicher der Änderung.
+ * Mit {@link #branch()} wird ein unabhängiger Zweig ab dem aktuellen Stand begonnen, der später mit
+ * {@link PersistentGraph#combine(PersistentGraph)} zurückgeführt werden kann.
+ * Die Klasse ist nicht threadsicher.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphHistory {
+
+    private final Deque<PersistentGraph> undo = new ArrayDeque<>();
+    private final Deque<PersistentGraph> redo = new ArrayDeque<>();
+    private final int limit;
+    private PersistentGraph current;
+
+    /**
+     * @param initial Der erste Stand.
+     * @param limit Die Anzahl der Schritte, die höchstens rückgängig gemacht werden können.
+     */
+    public GraphHistory(PersistentGraph initial, int limit) {
+        if (limit < 0)
+            throw new IllegalArgumentException("The limit must not be negative.");
+
+        this.current = initial;
+        this.limit = limit;
+    }
+
+    public PersistentGraph getCurrent() {
+        return current;
+    }
+
+    /**
+     * Führt eine Änderung aus und merkt sich den bisherigen Stand. Die Schritte zum Wiederholen verfallen dabei.
+     * @param edit Die Änderung.
+     * @return Der neue Stand.
+     */
+    public PersistentGraph apply(UnaryOperator<PersistentGraph> edit) {
+        PersistentGraph next = edit.apply(current);
+
+        if (next != current) {
+            undo.push(current);
+            redo.clear();
+
+            if (undo.size() > limit)
+                undo.removeLast();
+
+            current = next;
+        }
+
+        return current;
+    }
+
+    public boolean canUndo() {
+        return !undo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !redo.isEmpty();
+    }
+
+    /**
+     * @return Der vorherige Stand, der jetzt der aktuelle ist.
+     * @throws IllegalStateException Falls es keinen Schritt zum Rückgängigmachen gibt.
+     */
+    public PersistentGraph undo() throws IllegalStateException {
+        if (undo.isEmpty())
+            throw new IllegalStateException("There is nothing to undo.");
+
+        redo.push(current);
+        current = undo.pop();
+
+        return current;
+    }
+
+    /**
+     * @return Der wiederhergestellte Stand.
+     * @throws IllegalStateException Falls es keinen Schritt zum Wiederholen gibt.
+     */
+    public PersistentGraph redo() throws IllegalStateException {
+        if (redo.isEmpty())
+            throw new IllegalStateException("There is nothing to redo.");
+
+        undo.push(current);
+        current = redo.pop();
+
+        return current;
+    }
+
+    /**
+     * @return Eine neue Historie ab dem aktuellen Stand, ohne Schritte zum Rückgängigmachen.
+     */
+    public GraphHistory branch() {
+        return new GraphHistory(current, limit);
+    }
+}
@@ -0,0 +1,237 @@
+package de.fhzwickau.roomfinder.model.graph.persistent;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Ein unveränderlicher Graph. Jede Änderung liefert einen neuen Graphen, der alle nicht betroffenen Knoten mit dem
+ * alten teilt ({@link PersistentMap}); der alte Graph bleibt unverändert gültig. Eine Änderung kostet damit Zeit und
+ * Speicher in O(log n) je betroffenem Knoten, Versionen für Rückgängig-Schritte oder verschiedene Zweige einer
+ * Bearbeitung sind einfach Referenzen (siehe {@link GraphHistory}).
+ * <p>
+ * {@link #combine(PersistentGraph)} führt zwei Graphen zusammen und übernimmt dabei gemeinsame Teile unverändert. Für
+ * zwei Zweige eines gemeinsamen Graphen kostet das nur so viel wie ihre Änderungen.
+ * Die Regeln entsprechen denen von {@link Graph#add(Node)}: Ein {@link LazyNode} ersetzt keinen vollständigen Knoten,
+ * ein vollständiger Knoten löst einen {@link LazyNode} mit gleicher ID ab und übernimmt seine Kanten.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class PersistentGraph {
+
+    private static final PersistentGraph EMPTY = new PersistentGraph(PersistentMap.empty());
+
+    private final PersistentMap<String, PersistentNode> nodes;
+
+    private PersistentGraph(PersistentMap<String, PersistentNode> nodes) {
+        this.nodes = nodes;
+    }
+
+    public static PersistentGraph empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Übernimmt die Knoten und Kanten eines Graphen. Kanten zu Knoten, die nicht Teil des Graphen sind, werden nicht
+     * übernommen. Kanten, die nur bei einem der Knoten eingetragen sind, werden bei beiden eingetragen, damit die
+     * Nachbarn aller Knoten wie in jedem {@link PersistentGraph}en symmetrisch sind.
+     * @param graph Der Graph. Er wird nicht verändert.
+     * @return Der unveränderliche Graph.
+     */
+    public static PersistentGraph of(Graph graph) {
+        Map<String, PersistentMap<String, Integer>> neighbours = new HashMap<>(graph.size());
+
+        for (Node node : graph.values()) {
+            for (Edge e : node.getEdges()) {
+                Node other = e.getOther(node);
+
+                if (graph.get(other.getId()) != other)
+                    continue;
+
+                link(neighbours, node.getId(), other.getId(), e.getWeight());
+                link(neighbours, other.getId(), node.getId(), e.getWeight());
+            }
+        }
+
+        PersistentMap<String, PersistentNode> nodes = PersistentMap.empty();
+
+        for (Node node : graph.values()) {
+            nodes = nodes.put(node.getId(), PersistentNode.of(node)
+                    .withNeighbours(neighbours.getOrDefault(node.getId(), PersistentMap.empty())));
+        }
+
+        return new PersistentGraph(nodes);
+    }
+
+    /**
+     * Trägt einen Nachbarn ein, sofern er nicht schon eingetragen ist. So erhalten beide Knoten einer Kante das
+     * Gewicht, das zuerst gefunden wurde.
+     */
+    private static void link(Map<String, PersistentMap<String, Integer>> neighbours, String id, String other,
+                             int weight) {
+        PersistentMap<String, Integer> map = neighbours.getOrDefault(id, PersistentMap.empty());
+
+        if (!map.containsKey(other))
+            neighbours.put(id, map.put(other, weight));
+    }
+
+    /**
+     * Baut einen veränderlichen Graphen mit neuen Knoten und Kanten (O(n)). Da die Nachbarn symmetrisch sind, wird
+     * jede Kante nur bei dem Knoten mit der kleineren ID erzeugt.
+     * @return Der Graph.
+     */
+    public Graph toGraph() {
+        Graph graph = new Graph(nodes.size());
+
+        nodes.forEach((id, node) -> graph.add(node.toNode()));
+        nodes.forEach((id, node) -> node.getNeighbours().forEach((other, weight) -> {
+            if (id.compareTo(other) < 0) {
+                Node a = graph.get(id);
+                Node b = graph.get(other);
+                Edge e = new Edge(a, b, weight);
+
+                a.addEdge(e);
+                b.addEdge(e);
+            }
+        }));
+
+        return graph;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * @return Der Knoten oder null.
+     */
+    public PersistentNode get(String id) {
+        return nodes.get(id);
+    }
+
+    public boolean contains(String id) {
+        return nodes.containsKey(id);
+    }
+
+    public void forEach(Consumer<PersistentNode> action) {
+        nodes.forEach((id, node) -> action.accept(node));
+    }
+
+    /*
+    Änderungen
+     */
+
+    /**
+     * Trägt die Metadaten eines Knotens ein. Die Kanten eines vorhandenen Knotens mit der gleichen ID bleiben
+     * erhalten, die Kanten des übergebenen Knotens werden nicht übernommen (siehe {@link #connect}).
+     * @param node Der Knoten.
+     * @return Der geänderte Graph.
+     */
+    public PersistentGraph add(Node node) {
+        PersistentNode old = nodes.get(node.getId());
+
+        if (old != null && node instanceof LazyNode)
+            return this;
+
+        PersistentNode added = PersistentNode.of(node);
+
+        return new PersistentGraph(nodes.put(node.getId(),
+                old != null ? added.withNeighbours(old.getNeighbours()) : added));
+    }
+
+    /**
+     * Entfernt einen Knoten samt seiner Kanten.
+     * @param id Die ID des Knotens.
+     * @return Der geänderte Graph oder dieser, falls es den Knoten nicht gibt.
+     */
+    public PersistentGraph remove(String id) {
+        PersistentNode node = nodes.get(id);
+
+        if (node == null)
+            return this;
+
+        List<String> neighbours = new ArrayList<>(node.getNeighbours().size());
+        PersistentMap<String, PersistentNode> updated = nodes.remove(id);
+
+        node.getNeighbours().forEach((other, weight) -> neighbours.add(other));
+
+        for (String other : neighbours) {
+            PersistentNode n = updated.get(other);
+
+            updated = updated.put(other, n.withNeighbours(n.getNeighbours().remove(id)));
+        }
+
+        return new PersistentGraph(updated);
+    }
+
+    /**
+     * Verbindet zwei Knoten. Eine vorhandene Kante zwischen ihnen wird ersetzt.
+     * @param id1 Die ID des ersten Knotens.
+     * @param id2 Die ID des zweiten Knotens.
+     * @param weight Das Gewicht der Kante.
+     * @return Der geänderte Graph.
+     * @throws IllegalArgumentException Falls es einen der Knoten nicht gibt oder die Knoten gleich sind.
+     */
+    public PersistentGraph connect(String id1, String id2, int weight) throws IllegalArgumentException {
+        PersistentNode a = require(id1);
+        PersistentNode b = require(id2);
+
+        if (id1.equals(id2))
+            throw new IllegalArgumentException("The nodes are equal.");
+
+        return new PersistentGraph(nodes
+                .put(id1, a.withNeighbours(a.getNeighbours().put(id2, weight)))
+                .put(id2, b.withNeighbours(b.getNeighbours().put(id1, weight))));
+    }
+
+    /**
+     * Entfernt die Kante zwischen zwei Knoten.
+     * @return Der geänderte Graph oder dieser, falls es die Kante nicht gibt.
+     */
+    public PersistentGraph disconnect(String id1, String id2) {
+        PersistentNode a = nodes.get(id1);
+        PersistentNode b = nodes.get(id2);
+
+        if (a == null || b == null || a.getWeightTo(id2) == null)
+            return this;
+
+        return new PersistentGraph(nodes
+                .put(id1, a.withNeighbours(a.getNeighbours().remove(id2)))
+                .put(id2, b.withNeighbours(b.getNeighbours().remove(id1))));
+    }
+
+    /**
+     * Führt zwei Graphen zusammen. Bei Knoten, die in beiden vorkommen, gewinnen die Metadaten des anderen Graphen
+     * (außer er hat an dieser Stelle nur einen {@link LazyNode}); die Kanten beider werden vereinigt, bei
+     * verschiedenen Gewichten gewinnt das des anderen Graphen.
+     * Beide Graphen bleiben unverändert.
+     * @param other Der andere Graph.
+     * @return Der zusammengeführte Graph.
+     */
+    public PersistentGraph combine(PersistentGraph other) {
+        PersistentMap<String, PersistentNode> merged = nodes.merge(other.nodes, (a, b) -> {
+            PersistentMap<String, Integer> neighbours = a.getNeighbours().merge(b.getNeighbours(), (x, y) -> y);
+
+            return (b.isLazy() && !a.isLazy() ? a : b).withNeighbours(neighbours);
+        });
+
+        return merged == nodes ? this : new PersistentGraph(merged);
+    }
+
+    private PersistentNode require(String id) throws IllegalArgumentException {
+        PersistentNode node = nodes.get(id);
+
+        if (node == null)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return node;
+    }
+}
@@ -0,0 +1,513 @@
+package de.fhzwickau.roomfinder.model.graph.persistent;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+
+/**
+ * Eine unveränderliche Map als Hash Array Mapped Trie (HAMT). Jede Änderung liefert eine neue Map und kopiert dabei
+ * nur den Pfad von der Wurzel zum geänderten Eintrag (höchstens 7 Knoten mit je bis zu 32 Einträgen); alle anderen
+ * Teilbäume werden mit der alten Map geteilt. Die alte Map bleibt unverändert gültig.
+ * <p>
+ * {@link #merge(PersistentMap, BinaryOperator)} überspringt Teilbäume, die beide Maps gemeinsam haben. Zwei Maps, die
+ * aus einer gemeinsamen Vorgängerin entstanden sind, werden so in einer Zeit proportional zu ihren Änderungen
+ * zusammengeführt.
+ * @param <K> Der Typ der Schlüssel.
+ * @param <V> Der Typ der Werte.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class PersistentMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<?, ?> EMPTY = new PersistentMap<>(null);
+
+    private final Trie<K, V> root;
+
+    private PersistentMap(Trie<K, V> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentMap<K, V> empty() {
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return root == null ? 0 : root.size();
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * @return Der Wert zum Schlüssel oder null (O(log32 n)).
+     */
+    public V get(K key) {
+        return root == null ? null : root.get(key, hash(key), 0);
+    }
+
+    public boolean containsKey(K key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @param key Der Schlüssel.
+     * @param value Der Wert, nicht null.
+     * @return Die Map mit dem Eintrag. Ist genau dieser Wert schon eingetragen, die Map selbst.
+     */
+    public PersistentMap<K, V> put(K key, V value) {
+        Objects.requireNonNull(value);
+
+        int hash = hash(key);
+        Trie<K, V> updated = root == null ? new Leaf<>(hash, key, value) : root.put(key, hash, value, 0);
+
+        return updated == root ? this : new PersistentMap<>(updated);
+    }
+
+    /**
+     * @return Die Map ohne den Eintrag. Gibt es keinen, die Map selbst.
+     */
+    public PersistentMap<K, V> remove(K key) {
+        if (root == null)
+            return this;
+
+        Trie<K, V> updated = root.remove(key, hash(key), 0);
+
+        return updated == root ? this : updated == null ? empty() : new PersistentMap<>(updated);
+    }
+
+    /**
+     * Führt zwei Maps zusammen. Teilbäume, die beide Maps gemeinsam haben, werden unverändert übernommen.
+     * @param other Die andere Map.
+     * @param resolver Bestimmt den Wert für Schlüssel, die in beiden Maps mit verschiedenen Werten vorkommen. Der
+     *                 erste Parameter ist der Wert aus dieser Map, der zweite der aus der anderen.
+     * @return Die zusammengeführte Map.
+     */
+    public PersistentMap<K, V> merge(PersistentMap<K, V> other, BinaryOperator<V> resolver) {
+        Trie<K, V> merged = merge(root, other.root, resolver, 0);
+
+        return merged == root ? this : merged == other.root ? other : new PersistentMap<>(merged);
+    }
+
+    /**
+     * Ruft die Aktion für jeden Eintrag auf, in keiner bestimmten Reihenfolge.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (root != null)
+            root.forEach(action);
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+
+        return h ^ (h >>> 16);
+    }
+
+    private static int index(int hash, int shift) {
+        return (hash >>> shift) & MASK;
+    }
+
+    /*
+    Generische Arrays
+     */
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Trie<K, V>[] newTries(int length) {
+        return (Trie<K, V>[]) new Trie<?, ?>[length];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Leaf<K, V>[] newLeaves(int length) {
+        return (Leaf<K, V>[]) new Leaf<?, ?>[length];
+    }
+
+    private static <K, V> Trie<K, V>[] tries(Trie<K, V> child) {
+        Trie<K, V>[] tries = newTries(1);
+        tries[0] = child;
+
+        return tries;
+    }
+
+    private static <K, V> Trie<K, V>[] tries(Trie<K, V> first, Trie<K, V> second) {
+        Trie<K, V>[] tries = newTries(2);
+        tries[0] = first;
+        tries[1] = second;
+
+        return tries;
+    }
+
+    private static <K, V> Leaf<K, V>[] leaves(Leaf<K, V> first, Leaf<K, V> second) {
+        Leaf<K, V>[] leaves = newLeaves(2);
+        leaves[0] = first;
+        leaves[1] = second;
+
+        return leaves;
+    }
+
+    /*
+    Zusammenführen
+     */
+
+    private static <K, V> Trie<K, V> merge(Trie<K, V> a, Trie<K, V> b, BinaryOperator<V> resolver, int shift) {
+        if (a == b || b == null)
+            return a;
+        if (a == null)
+            return b;
+
+        if (b instanceof Leaf)
+            return insert(a, (Leaf<K, V>) b, resolver, shift, false);
+        if (a instanceof Leaf)
+            return insert(b, (Leaf<K, V>) a, resolver, shift, true);
+
+        if (a instanceof Branch && b instanceof Branch) {
+            Branch<K, V> x = (Branch<K, V>) a;
+            Branch<K, V> y = (Branch<K, V>) b;
+            int bitmap = x.bitmap | y.bitmap;
+            Trie<K, V>[] children = newTries(Integer.bitCount(bitmap));
+            boolean sameAsA = bitmap == x.bitmap;
+            boolean sameAsB = bitmap == y.bitmap;
+
+            for (int bits = bitmap, i = 0; bits != 0; bits &= bits - 1, i++) {
+                int bit = Integer.lowestOneBit(bits);
+                Trie<K, V> childA = (x.bitmap & bit) != 0 ? x.children[x.slot(bit)] : null;
+                Trie<K, V> childB = (y.bitmap & bit) != 0 ? y.children[y.slot(bit)] : null;
+
+                children[i] = merge(childA, childB, resolver, shift + BITS);
+                sameAsA &= children[i] == childA;
+                sameAsB &= children[i] == childB;
+            }
+
+            return sameAsA ? a : sameAsB ? b : new Branch<>(bitmap, children);
+        }
+
+        /*
+        Mindestens einer ist ein Kollisionsknoten: dessen (wenige) Einträge einzeln einfügen
+         */
+        if (b instanceof Collision) {
+            Trie<K, V> result = a;
+
+            for (Leaf<K, V> leaf : ((Collision<K, V>) b).leaves) {
+                result = insert(result, leaf, resolver, shift, false);
+            }
+
+            return result;
+        }
+
+        Trie<K, V> result = b;
+
+        for (Leaf<K, V> leaf : ((Collision<K, V>) a).leaves) {
+            result = insert(result, leaf, resolver, shift, true);
+        }
+
+        return result;
+    }
+
+    /**
+     * Fügt einen Eintrag in einen Teilbaum ein und löst Konflikte mit dem Resolver.
+     * @param leafFirst Gibt an, ob der Wert des Eintrags im Resolver als erster Parameter übergeben wird.
+     */
+    private static <K, V> Trie<K, V> insert(Trie<K, V> trie, Leaf<K, V> leaf, BinaryOperator<V> resolver, int shift,
+                                            boolean leafFirst) {
+        V existing = trie.get(leaf.key, leaf.hash, shift);
+
+        if (existing == null)
+            return trie.put(leaf.key, leaf.hash, leaf.value, shift);
+        if (existing == leaf.value)
+            return trie;
+
+        V value = leafFirst ? resolver.apply(leaf.value, existing) : resolver.apply(existing, leaf.value);
+
+        return trie.put(leaf.key, leaf.hash, value, shift);
+    }
+
+    /*
+    Knoten des Tries
+     */
+
+    private abstract static class Trie<K, V> {
+
+        abstract int size();
+
+        abstract V get(K key, int hash, int shift);
+
+        /**
+         * @return Der geänderte Teilbaum oder dieser, falls sich nichts geändert hat.
+         */
+        abstract Trie<K, V> put(K key, int hash, V value, int shift);
+
+        /**
+         * @return Der geänderte Teilbaum, dieser, falls sich nichts geändert hat, oder null, falls er leer ist.
+         */
+        abstract Trie<K, V> remove(K key, int hash, int shift);
+
+        abstract void forEach(BiConsumer<? super K, ? super V> action);
+    }
+
+    private static final class Leaf<K, V> extends Trie<K, V> {
+
+        private final int hash;
+        private final K key;
+        private final V value;
+
+        Leaf(int hash, K key, V value) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+        }
+
+        @Override
+        int size() {
+            return 1;
+        }
+
+        @Override
+        V get(K key, int hash, int shift) {
+            return hash == this.hash && key.equals(this.key) ? value : null;
+        }
+
+        @Override
+        Trie<K, V> put(K key, int hash, V value, int shift) {
+            if (hash == this.hash && key.equals(this.key))
+                return value == this.value ? this : new Leaf<>(hash, key, value);
+
+            Leaf<K, V> leaf = new Leaf<>(hash, key, value);
+
+            if (hash == this.hash)
+                return new Collision<>(hash, leaves(this, leaf));
+
+            return Branch.of(this, leaf, shift);
+        }
+
+        @Override
+        Trie<K, V> remove(K key, int hash, int shift) {
+            return hash == this.hash && key.equals(this.key) ? null : this;
+        }
+
+        @Override
+        void forEach(BiConsumer<? super K, ? super V> action) {
+            action.accept(key, value);
+        }
+    }
+
+    /**
+     * Ein innerer Knoten mit bis zu 32 Kindern. Die Bitmap gibt an, welche der 32 Positionen belegt sind, das Array
+     * enthält nur die belegten. Ein Knoten mit nur einem Blatt (oder Kollisionsknoten) als Kind wird durch das Kind
+     * ersetzt, damit gleiche Inhalte möglichst gleich aufgebaut sind.
+     */
+    private static final class Branch<K, V> extends Trie<K, V> {
+
+        private final int bitmap;
+        private final Trie<K, V>[] children;
+        private final int size;
+
+        Branch(int bitmap, Trie<K, V>[] children) {
+            int size = 0;
+
+            for (Trie<K, V> child : children) {
+                size += child.size();
+            }
+
+            this.bitmap = bitmap;
+            this.children = children;
+            this.size = size;
+        }
+
+        /**
+         * Baut die Knoten, die zwei Blätter mit verschiedenen Hashes ab der angegebenen Stelle trennen.
+         */
+        static <K, V> Trie<K, V> of(Leaf<K, V> a, Leaf<K, V> b, int shift) {
+            int i = index(a.hash, shift);
+            int j = index(b.hash, shift);
+
+            if (i == j)
+                return new Branch<>(1 << i, tries(of(a, b, shift + BITS)));
+
+            return new Branch<>((1 << i) | (1 << j), i < j ? tries(a, b) : tries(b, a));
+        }
+
+        int slot(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        int size() {
+            return size;
+        }
+
+        @Override
+        V get(K key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+
+            return (bitmap & bit) == 0 ? null : children[slot(bit)].get(key, hash, shift + BITS);
+        }
+
+        @Override
+        Trie<K, V> put(K key, int hash, V value, int shift) {
+            int bit = 1 << index(hash, shift);
+            int slot = slot(bit);
+
+            if ((bitmap & bit) == 0) {
+                Trie<K, V>[] updated = newTries(children.length + 1);
+
+                System.arraycopy(children, 0, updated, 0, slot);
+                updated[slot] = new Leaf<>(hash, key, value);
+                System.arraycopy(children, slot, updated, slot + 1, children.length - slot);
+
+                return new Branch<>(bitmap | bit, updated);
+            }
+
+            Trie<K, V> child = children[slot].put(key, hash, value, shift + BITS);
+
+            if (child == children[slot])
+                return this;
+
+            Trie<K, V>[] updated = children.clone();
+            updated[slot] = child;
+
+            return new Branch<>(bitmap, updated);
+        }
+
+        @Override
+        Trie<K, V> remove(K key, int hash, int shift) {
+            int bit = 1 << index(hash, shift);
+
+            if ((bitmap & bit) == 0)
+                return this;
+
+            int slot = slot(bit);
+            Trie<K, V> child = children[slot].remove(key, hash, shift + BITS);
+
+            if (child == children[slot])
+                return this;
+
+            if (child != null) {
+                if (children.length == 1 && !(child instanceof Branch))
+                    return child;
+
+                Trie<K, V>[] updated = children.clone();
+                updated[slot] = child;
+
+                return new Branch<>(bitmap, updated);
+            }
+
+            if (children.length == 1)
+                return null;
+
+            if (children.length == 2 && !(children[1 - slot] instanceof Branch))
+                return children[1 - slot];
+
+            Trie<K, V>[] updated = newTries(children.length - 1);
+
+            System.arraycopy(children, 0, updated, 0, slot);
+            System.arraycopy(children, slot + 1, updated, slot, children.length - slot - 1);
+
+            return new Branch<>(bitmap & ~bit, updated);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super K, ? super V> action) {
+            for (Trie<K, V> child : children) {
+                child.forEach(action);
+            }
+        }
+    }
+
+    /**
+     * Einträge mit gleichem Hash, aber verschiedenen Schlüsseln.
+     */
+    private static final class Collision<K, V> extends Trie<K, V> {
+
+        private final int hash;
+        private final Leaf<K, V>[] leaves;
+
+        Collision(int hash, Leaf<K, V>[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        int size() {
+            return leaves.length;
+        }
+
+        private int find(K key) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].key.equals(key))
+                    return i;
+            }
+
+            return -1;
+        }
+
+        @Override
+        V get(K key, int hash, int shift) {
+            int i = hash == this.hash ? find(key) : -1;
+
+            return i < 0 ? null : leaves[i].value;
+        }
+
+        @Override
+        Trie<K, V> put(K key, int hash, V value, int shift) {
+            if (hash != this.hash) {
+                /*
+                Den Kollisionsknoten wie ein Blatt unter einem neuen inneren Knoten einhängen
+                 */
+                Leaf<K, V> leaf = new Leaf<>(hash, key, value);
+                int i = index(this.hash, shift);
+                int j = index(hash, shift);
+
+                if (i == j)
+                    return new Branch<>(1 << i, tries(put(key, hash, value, shift + BITS)));
+
+                return new Branch<>((1 << i) | (1 << j), i < j ? tries(this, leaf) : tries(leaf, this));
+            }
+
+            int i = find(key);
+
+            if (i >= 0) {
+                if (leaves[i].value == value)
+                    return this;
+
+                Leaf<K, V>[] updated = leaves.clone();
+                updated[i] = new Leaf<>(hash, key, value);
+
+                return new Collision<>(hash, updated);
+            }
+
+            Leaf<K, V>[] updated = Arrays.copyOf(leaves, leaves.length + 1);
+            updated[leaves.length] = new Leaf<>(hash, key, value);
+
+            return new Collision<>(hash, updated);
+        }
+
+        @Override
+        Trie<K, V> remove(K key, int hash, int shift) {
+            int i = hash == this.hash ? find(key) : -1;
+
+            if (i < 0)
+                return this;
+            if (leaves.length == 2)
+                return leaves[1 - i];
+
+            Leaf<K, V>[] updated = newLeaves(leaves.length - 1);
+
+            System.arraycopy(leaves, 0, updated, 0, i);
+            System.arraycopy(leaves, i + 1, updated, i, leaves.length - i - 1);
+
+            return new Collision<>(hash, updated);
+        }
+
+        @Override
+        void forEach(BiConsumer<? super K, ? super V> action) {
+            for (Leaf<K, V> leaf : leaves) {
+                leaf.forEach(action);
+            }
+        }
+    }
+}
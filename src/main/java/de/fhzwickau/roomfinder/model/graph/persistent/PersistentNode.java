@@ -0,0 +1,122 @@
+package de.fhzwickau.roomfinder.model.graph.persistent;
+
+import de.fhzwickau.roomfinder.model.ToiletType;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+/**
+ * Ein unveränderlicher Knoten eines {@link PersistentGraph}en: die Metadaten eines {@link Node}s und die Gewichte
+ * der Kanten nach der ID des Nachbarn. Jede Kante ist bei beiden Knoten eingetragen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class PersistentNode {
+
+    private final String id;
+    private final String displayName;
+    private final String ressource;
+    private final int positionX;
+    private final int positionY;
+    private final boolean asTarget;
+    private final byte toiletType;
+    private final boolean lazy;
+    private final PersistentMap<String, Integer> neighbours;
+
+    private PersistentNode(String id, String displayName, String ressource, int positionX, int positionY,
+                           boolean asTarget, byte toiletType, boolean lazy, PersistentMap<String, Integer> neighbours) {
+        this.id = id;
+        this.displayName = displayName;
+        this.ressource = ressource;
+        this.positionX = positionX;
+        this.positionY = positionY;
+        this.asTarget = asTarget;
+        this.toiletType = toiletType;
+        this.lazy = lazy;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Übernimmt die Metadaten eines Knotens, ohne Kanten.
+     */
+    static PersistentNode of(Node node) {
+        if (node instanceof LazyNode)
+            return new PersistentNode(node.getId(), null, null, -1, -1, false, (byte) 0, true,
+                    PersistentMap.empty());
+
+        return new PersistentNode(node.getId(), node.hasDisplayName() ? node.getDisplayName() : null,
+                node.hasRessource() ? node.getRessource() : null, node.getPositionX(), node.getPositionY(),
+                node.asTarget(), node.getToiletType(), false, PersistentMap.empty());
+    }
+
+    /**
+     * @return Ein veränderlicher Knoten mit den gleichen Metadaten, ohne Kanten.
+     */
+    Node toNode() {
+        return lazy ? new LazyNode(id) : new Node(id, displayName, ressource, positionX, positionY, asTarget, toiletType);
+    }
+
+    PersistentNode withNeighbours(PersistentMap<String, Integer> neighbours) {
+        return neighbours == this.neighbours ? this : new PersistentNode(id, displayName, ressource, positionX,
+                positionY, asTarget, toiletType, lazy, neighbours);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return Der Anzeigename oder null.
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return Die Ressource oder null.
+     */
+    public String getRessource() {
+        return ressource;
+    }
+
+    public int getPositionX() {
+        return positionX;
+    }
+
+    public int getPositionY() {
+        return positionY;
+    }
+
+    public boolean asTarget() {
+        return asTarget;
+    }
+
+    public boolean isToilet(ToiletType type) {
+        return toiletType == type.getId();
+    }
+
+    public byte getToiletType() {
+        return toiletType;
+    }
+
+    /**
+     * @return Gibt an, ob der Knoten nur ein Platzhalter ist (siehe {@link LazyNode}).
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * @return Die Gewichte der Kanten nach der ID des Nachbarn.
+     */
+    public PersistentMap<String, Integer> getNeighbours() {
+        return neighbours;
+    }
+
+    /**
+     * @return Das Gewicht der Kante zum Nachbarn oder null, falls es keine gibt (O(log32 n)).
+     */
+    public Integer getWeightTo(String id) {
+        return neighbours.get(id);
+    }
+}
@@ -0,0 +1,104 @@
+package de.fhzwickau.roomfinder.model.metadata;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Liest und schreibt die mit {@link Metadata} gekennzeichneten Felder einer Klasse, z.B. von
+ * {@link de.fhzwickau.roomfinder.model.graph.node.Node} oder einer Unterklasse.
+ * Die Felder werden pro Klasse nur einmal per Reflection ermittelt, inklusive der Felder aller Oberklassen (diese
+ * zuerst). Der Codec einer Klasse wird zwischengespeichert, der Zugriff auf die Felder läuft anschließend nur noch
+ * über die {@link MetadataField}s.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class MetadataCodec {
+
+    private static final ClassValue<MetadataCodec> CODECS = new ClassValue<>() {
+
+        @Override
+        protected MetadataCodec computeValue(Class<?> type) {
+            return new MetadataCodec(type);
+        }
+    };
+
+    private final Class<?> type;
+    private final List<MetadataField> fields;
+    private final Map<String, MetadataField> byName;
+
+    private MetadataCodec(Class<?> type) {
+        Deque<Class<?>> hierarchy = new ArrayDeque<>();
+
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            hierarchy.push(c);
+        }
+
+        List<MetadataField> fields = new ArrayList<>();
+        Map<String, MetadataField> byName = new HashMap<>();
+
+        for (Class<?> c : hierarchy) {
+            MethodHandles.Lookup lookup = null;
+
+            for (Field field : c.getDeclaredFields()) {
+                if (!field.isAnnotationPresent(Metadata.class) || Modifier.isStatic(field.getModifiers()))
+                    continue;
+
+                try {
+                    if (lookup == null)
+                        lookup = MethodHandles.privateLookupIn(c, MethodHandles.lookup());
+
+                    MetadataField f = new MetadataField(field, lookup);
+
+                    fields.add(f);
+                    byName.putIfAbsent(f.getName().toLowerCase(Locale.ROOT), f);
+                }
+                catch (IllegalAccessException ex) {
+                    throw new IllegalStateException("The metadata field " + c.getName() + "." + field.getName()
+                            + " is not accessible.", ex);
+                }
+            }
+        }
+
+        this.type = type;
+        this.fields = Collections.unmodifiableList(fields);
+        this.byName = byName;
+    }
+
+    /**
+     * @param type Die Klasse, deren Metadaten gelesen und geschrieben werden sollen.
+     * @return Der Codec für die Klasse.
+     * @throws IllegalArgumentException Falls ein Feld einen nicht unterstützten Typ hat (siehe {@link MetadataField}).
+     */
+    public static MetadataCodec of(Class<?> type) throws IllegalArgumentException {
+        return CODECS.get(type);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return Alle Metadaten-Felder, die der Oberklassen zuerst, jeweils in der Reihenfolge der Deklaration.
+     */
+    public List<MetadataField> getFields() {
+        return fields;
+    }
+
+    /**
+     * @param name Der Name des Feldes, Groß- und Kleinschreibung wird nicht beachtet.
+     * @return Das Feld oder null, falls es keines mit diesem Namen gibt.
+     */
+    public MetadataField getField(String name) {
+        return byName.get(name.toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,186 @@
+package de.fhzwickau.roomfinder.model.metadata;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+
+/**
+ * Ein mit {@link Metadata} gekennzeichnetes Feld einer Klasse, siehe {@link MetadataCodec}.
+ * Der Zugriff läuft über einen {@link VarHandle}, der beim Anlegen einmal ermittelt wird; Lesen und Schreiben
+ * primitiver Werte geschieht ohne Boxing. Unterstützt werden {@code String}, {@code int}, {@code boolean} und
+ * {@code byte} sowie die zugehörigen Wrapper-Klassen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class MetadataField {
+
+    private enum Kind { STRING, INT, BOOLEAN, BYTE, INTEGER_OBJECT, BOOLEAN_OBJECT, BYTE_OBJECT }
+
+    private final String name;
+    private final Class<?> type;
+    private final boolean nullable;
+    private final String description;
+    private final Kind kind;
+    private final VarHandle handle;
+
+    MetadataField(Field field, MethodHandles.Lookup lookup) throws IllegalAccessException {
+        Metadata metadata = field.getAnnotation(Metadata.class);
+
+        this.name = field.getName();
+        this.type = field.getType();
+        this.nullable = metadata.nullable();
+        this.description = metadata.description();
+        this.kind = kindOf(field);
+        this.handle = lookup.unreflectVarHandle(field);
+    }
+
+    private static Kind kindOf(Field field) {
+        Class<?> type = field.getType();
+
+        if (type == String.class)
+            return Kind.STRING;
+        if (type == int.class)
+            return Kind.INT;
+        if (type == boolean.class)
+            return Kind.BOOLEAN;
+        if (type == byte.class)
+            return Kind.BYTE;
+        if (type == Integer.class)
+            return Kind.INTEGER_OBJECT;
+        if (type == Boolean.class)
+            return Kind.BOOLEAN_OBJECT;
+        if (type == Byte.class)
+            return Kind.BYTE_OBJECT;
+
+        throw new IllegalArgumentException("The metadata field " + field.getDeclaringClass().getName() + "."
+                + field.getName() + " has the unsupported type " + type.getName() + ".");
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @see Metadata#nullable()
+     */
+    public boolean isNullable() {
+        return nullable;
+    }
+
+    /**
+     * @see Metadata#description()
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * @param target Das Objekt, dessen Wert gelesen werden soll.
+     * @return Der Wert des Feldes, primitive Werte geboxt.
+     */
+    public Object get(Object target) {
+        switch (kind) {
+            case INT:
+                return (int) handle.get(target);
+            case BOOLEAN:
+                return (boolean) handle.get(target);
+            case BYTE:
+                return (byte) handle.get(target);
+            default:
+                return (Object) handle.get(target);
+        }
+    }
+
+    /**
+     * @param target Das Objekt, dessen Wert gelesen werden soll.
+     * @return Der Wert des Feldes als Text, wie ihn {@link #parse(String)} wieder einliest, oder null.
+     */
+    public String format(Object target) {
+        Object value = get(target);
+
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Wandelt einen Text in den Typ des Feldes um.
+     * Zahlen und Wahrheitswerte dürfen von Leerzeichen umgeben sein, Wahrheitswerte werden als {@code true}/{@code
+     * false} (ohne Beachtung der Groß- und Kleinschreibung) oder {@code 1}/{@code 0} angegeben.
+     * @param text Der Text oder null.
+     * @return Der umgewandelte Wert, primitive Werte geboxt. Für null bei einem Wrapper oder String null.
+     * @throws IllegalArgumentException Falls der Text nicht umgewandelt werden kann, oder null für einen primitiven Typ
+     * angegeben wurde.
+     */
+    public Object parse(String text) throws IllegalArgumentException {
+        if (text == null) {
+            if (type.isPrimitive())
+                throw new IllegalArgumentException("The field " + name + " of type " + type.getName()
+                        + " cannot be null.");
+
+            return null;
+        }
+
+        switch (kind) {
+            case STRING:
+                return text;
+            case INT:
+            case INTEGER_OBJECT:
+                return Integer.parseInt(text.trim());
+            case BOOLEAN:
+            case BOOLEAN_OBJECT:
+                return parseBoolean(text);
+            default:
+                return Byte.parseByte(text.trim());
+        }
+    }
+
+    /**
+     * Wandelt einen Text wie {@link #parse(String)} um und setzt ihn als Wert des Feldes. Primitive Werte werden dabei
+     * nicht geboxt.
+     * @param target Das Objekt, dessen Wert gesetzt werden soll.
+     * @param text Der Text oder null.
+     * @throws IllegalArgumentException Falls der Text nicht umgewandelt werden kann.
+     */
+    public void parseInto(Object target, String text) throws IllegalArgumentException {
+        if (text != null) {
+            switch (kind) {
+                case STRING:
+                    handle.set(target, (Object) text);
+                    return;
+                case INT:
+                    handle.set(target, Integer.parseInt(text.trim()));
+                    return;
+                case BOOLEAN:
+                    handle.set(target, parseBoolean(text));
+                    return;
+                case BYTE:
+                    handle.set(target, Byte.parseByte(text.trim()));
+                    return;
+                default:
+                    break;
+            }
+        }
+
+        handle.set(target, parse(text));
+    }
+
+    private boolean parseBoolean(String text) {
+        String t = text.trim();
+
+        if ("true".equalsIgnoreCase(t) || "1".equals(t))
+            return true;
+        if ("false".equalsIgnoreCase(t) || "0".equals(t))
+            return false;
+
+        throw new IllegalArgumentException("'" + text + "' is not a boolean.");
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + type.getSimpleName();
+    }
+}
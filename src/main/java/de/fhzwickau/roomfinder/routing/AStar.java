@@ -0,0 +1,36 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+/**
+ * Der A*-Algorithmus. Die Suche wird durch eine {@link Heuristic} in Richtung des Ziels gelenkt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class AStar extends ShortestPathSearch {
+
+    private final Heuristic heuristic;
+
+    /**
+     * Initialisiert die Suche mit einer {@link CoordinateHeuristic}, die aus dem Graphen kalibriert wird.
+     * @param graph Der Graph.
+     */
+    public AStar(IndexedGraph graph) {
+        this(graph, CoordinateHeuristic.calibrate(graph));
+    }
+
+    public AStar(IndexedGraph graph, Heuristic heuristic) {
+        super(graph);
+        this.heuristic = heuristic;
+    }
+
+    public Heuristic getHeuristic() {
+        return heuristic;
+    }
+
+    @Override
+    protected int estimate(int node, int target) {
+        return heuristic.estimate(node, target);
+    }
+}
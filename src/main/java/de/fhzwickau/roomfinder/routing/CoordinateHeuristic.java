@@ -0,0 +1,141 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Schätzt die Restkosten über den Luftlinienabstand der Positionen ({@code positionX/positionY}).
+ * Die Koordinaten verschiedener Ressourcen (Grundrisse) haben keinen gemeinsamen Bezug, daher wird nur dann
+ * geschätzt, wenn beide Knoten auf der gleichen Ressource liegen und eine Position haben; sonst ist die Schätzung 0.
+ * Der Abstand wird mit einem Faktor (Kosten pro Pixel) multipliziert. {@link #calibrate(IndexedGraph)} wählt den
+ * größten Faktor, bei dem keine Kante des Graphen kürzer ist als ihr gewichteter Luftlinienabstand.
+ * <p>
+ * Über Kanten, die den Grundriss verlassen (zu einer anderen Ressource oder zu einem Knoten ohne Position), sagt der
+ * Faktor nichts aus: Ein Weg über eine andere Etage kann beliebig kürzer sein als die Luftlinie. Die Knoten mit einer
+ * solchen Kante heißen hier Übergänge. Ein Weg von {@code u} nach {@code t}, der den Grundriss verlässt, läuft
+ * zuerst innerhalb des Grundrisses zu einem Übergang und zuletzt von einem Übergang zu {@code t}. Geschätzt wird
+ * daher das Minimum aus dem Abstand von {@code u} zu {@code t} und der Summe der Abstände beider Knoten zu ihrem
+ * jeweils nächsten Übergang. Damit ist die Schätzung für alle Wege zulässig, solange kein Gewicht negativ ist.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class CoordinateHeuristic implements Heuristic {
+
+    private final IndexedGraph graph;
+    private final double costPerPixel;
+
+    /**
+     * Der Abstand jedes Knotens zum nächsten Übergang seiner Ressource, unendlich, falls es keinen gibt.
+     */
+    private final double[] exitDistances;
+
+    /**
+     * @param graph Der Graph, auf den sich die Indizes beziehen.
+     * @param costPerPixel Die Kosten pro Pixel Luftlinie.
+     */
+    public CoordinateHeuristic(IndexedGraph graph, double costPerPixel) {
+        this.graph = graph;
+        this.costPerPixel = costPerPixel;
+        this.exitDistances = exitDistances(graph);
+    }
+
+    /**
+     * Ermittelt den Faktor aus den Kanten des Graphen (siehe Klassenbeschreibung).
+     * @param graph Der Graph.
+     * @return Die Heuristik mit dem größten Faktor, der für alle Kanten innerhalb einer Ressource zulässig ist.
+     */
+    public static CoordinateHeuristic calibrate(IndexedGraph graph) {
+        double factor = Double.POSITIVE_INFINITY;
+
+        for (int u = 0; u < graph.getNodeCount(); u++) {
+            for (int arc = graph.getArcStart(u); arc < graph.getArcEnd(u); arc++) {
+                int v = graph.getTarget(arc);
+                double distance = distance(graph, u, v);
+
+                if (distance > 0)
+                    factor = Math.min(factor, Math.max(0, graph.getWeight(arc)) / distance);
+            }
+        }
+
+        return new CoordinateHeuristic(graph, factor == Double.POSITIVE_INFINITY ? 0 : factor);
+    }
+
+    /**
+     * Bestimmt für jeden Knoten mit Position den Abstand zum nächsten Übergang seiner Ressource (O(n * Übergänge
+     * je Ressource)).
+     */
+    private static double[] exitDistances(IndexedGraph graph) {
+        int n = graph.getNodeCount();
+        List<List<Integer>> exits = new ArrayList<>();
+
+        for (int r = 0; r < graph.getRessourceCount(); r++) {
+            exits.add(new ArrayList<>());
+        }
+
+        for (int u = 0; u < n; u++) {
+            if (!positioned(graph, u))
+                continue;
+
+            for (int arc = graph.getArcStart(u); arc < graph.getArcEnd(u); arc++) {
+                int v = graph.getTarget(arc);
+
+                if (!positioned(graph, v) || graph.getRessourceIndex(v) != graph.getRessourceIndex(u)) {
+                    exits.get(graph.getRessourceIndex(u)).add(u);
+                    break;
+                }
+            }
+        }
+
+        double[] distances = new double[n];
+
+        for (int u = 0; u < n; u++) {
+            distances[u] = Double.POSITIVE_INFINITY;
+
+            if (!positioned(graph, u))
+                continue;
+
+            for (int exit : exits.get(graph.getRessourceIndex(u))) {
+                distances[u] = Math.min(distances[u], distance(graph, u, exit));
+            }
+        }
+
+        return distances;
+    }
+
+    private static boolean positioned(IndexedGraph graph, int node) {
+        return graph.getRessourceIndex(node) != IndexedGraph.NONE && graph.hasPosition(node);
+    }
+
+    /**
+     * @return Der Luftlinienabstand der beiden Knoten oder 0, falls sie nicht vergleichbar sind.
+     */
+    private static double distance(IndexedGraph graph, int u, int v) {
+        int ressource = graph.getRessourceIndex(u);
+
+        if (ressource == IndexedGraph.NONE || ressource != graph.getRessourceIndex(v)
+                || !graph.hasPosition(u) || !graph.hasPosition(v))
+            return 0;
+
+        long dx = (long) graph.getPositionX(u) - graph.getPositionX(v);
+        long dy = (long) graph.getPositionY(u) - graph.getPositionY(v);
+
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    public double getCostPerPixel() {
+        return costPerPixel;
+    }
+
+    @Override
+    public int estimate(int node, int target) {
+        double distance = distance(graph, node, target);
+
+        if (distance == 0)
+            return 0;
+
+        return (int) (costPerPixel * Math.min(distance, exitDistances[node] + exitDistances[target]));
+    }
+}
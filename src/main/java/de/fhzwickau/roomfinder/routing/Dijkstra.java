@@ -0,0 +1,21 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+/**
+ * Der Algorithmus von Dijkstra. Es werden die Gewichte der Kanten als Kosten verwendet.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class Dijkstra extends ShortestPathSearch {
+
+    public Dijkstra(IndexedGraph graph) {
+        super(graph);
+    }
+
+    @Override
+    protected int estimate(int node, int target) {
+        return 0;
+    }
+}
@@ -0,0 +1,33 @@
+package de.fhzwickau.roomfinder.routing;
+
+/**
+ * Eine Abschätzung der Restkosten für {@link AStar}.
+ * Damit der gefundene Weg optimal ist, darf die Abschätzung die tatsächlichen Kosten nie überschätzen (zulässig).
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /**
+     * Die Heuristik, die immer 0 schätzt. Damit verhält sich {@link AStar} wie {@link Dijkstra}.
+     */
+    Heuristic NONE = (node, target) -> 0;
+
+    /**
+     * @param node Der Index des aktuellen Knotens.
+     * @param target Der Index des Zielknotens.
+     * @return Eine untere Schranke für die Kosten von node nach target.
+     */
+    int estimate(int node, int target);
+
+    /**
+     * Kombiniert zwei Heuristiken. Das Maximum zweier zulässiger Heuristiken ist wieder zulässig.
+     * @param other Die andere Heuristik.
+     * @return Eine Heuristik, die das Maximum beider Abschätzungen liefert.
+     */
+    default Heuristic max(Heuristic other) {
+        return (node, target) -> Math.max(estimate(node, target), other.estimate(node, target));
+    }
+}
@@ -0,0 +1,198 @@
+package de.fhzwickau.roomfinder.routing;
+
+import java.util.Arrays;
+
+/**
+ * Ein binärer Min-Heap über Knotenindizes mit primitiven Prioritäten.
+ * Jeder Knoten kann höchstens einmal im Heap liegen, über {@link #decreaseKey(int, int)} kann seine Priorität
+ * nachträglich verringert werden. Es werden dabei keine Objekte erzeugt.
+ * Das Leeren mit {@link #clear()} kostet nur so viel, wie Knoten im Heap liegen; der Heap kann somit für viele
+ * Suchen auf dem gleichen Graphen wiederverwendet werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class IndexedMinHeap {
+
+    private static final int ABSENT = -1;
+
+    private final int[] heap;
+    private final int[] priorities;
+    private final int[] positions;
+    private int size;
+
+    /**
+     * @param capacity Die Anzahl der Knoten. Es sind nur Indizes im Bereich [0, capacity) zulässig.
+     */
+    public IndexedMinHeap(int capacity) {
+        heap = new int[capacity];
+        priorities = new int[capacity];
+        positions = new int[capacity];
+
+        Arrays.fill(positions, ABSENT);
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Die Anzahl der Knoten, für die der Heap angelegt wurde.
+     */
+    public int capacity() {
+        return positions.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int node) {
+        return positions[node] != ABSENT;
+    }
+
+    /**
+     * Fügt einen Knoten ein.
+     * @throws IllegalStateException Falls der Knoten schon im Heap liegt.
+     */
+    public void insert(int node, int priority) throws IllegalStateException {
+        if (contains(node))
+            throw new IllegalStateException("The node is already part of the heap.");
+
+        heap[size] = node;
+        positions[node] = size;
+        priorities[node] = priority;
+        siftUp(size++);
+    }
+
+    /**
+     * Verringert die Priorität eines Knotens, der im Heap liegt. Ist die neue Priorität nicht kleiner, passiert nichts.
+     */
+    public void decreaseKey(int node, int priority) {
+        if (priority < priorities[node]) {
+            priorities[node] = priority;
+            siftUp(positions[node]);
+        }
+    }
+
+    /**
+     * Setzt die Priorität eines Knotens, der im Heap liegt. Die Priorität darf dabei auch steigen.
+     */
+    public void changeKey(int node, int priority) {
+        int old = priorities[node];
+        priorities[node] = priority;
+
+        if (priority < old)
+            siftUp(positions[node]);
+        else if (priority > old)
+            siftDown(positions[node]);
+    }
+
+    /**
+     * Fügt einen Knoten ein oder verringert seine Priorität, falls er schon im Heap liegt.
+     */
+    public void insertOrDecrease(int node, int priority) {
+        if (contains(node))
+            decreaseKey(node, priority);
+        else
+            insert(node, priority);
+    }
+
+    /**
+     * @return Der Knoten mit der kleinsten Priorität, ohne ihn zu entfernen.
+     */
+    public int peek() {
+        return heap[0];
+    }
+
+    /**
+     * @return Die kleinste Priorität im Heap.
+     */
+    public int peekPriority() {
+        return priorities[heap[0]];
+    }
+
+    /**
+     * @return Die aktuelle Priorität eines Knotens, der im Heap liegt.
+     */
+    public int getPriority(int node) {
+        return priorities[node];
+    }
+
+    /**
+     * Entfernt den Knoten mit der kleinsten Priorität.
+     * @return Der entfernte Knoten.
+     * @throws IllegalStateException Falls der Heap leer ist.
+     */
+    public int poll() throws IllegalStateException {
+        if (size == 0)
+            throw new IllegalStateException("The heap is empty.");
+
+        int min = heap[0];
+        positions[min] = ABSENT;
+
+        if (--size > 0) {
+            int last = heap[size];
+            heap[0] = last;
+            positions[last] = 0;
+            siftDown(0);
+        }
+
+        return min;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            positions[heap[i]] = ABSENT;
+        }
+
+        size = 0;
+    }
+
+    private void siftUp(int index) {
+        int node = heap[index];
+        int priority = priorities[node];
+
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            int parent = heap[parentIndex];
+
+            if (priorities[parent] <= priority)
+                break;
+
+            heap[index] = parent;
+            positions[parent] = index;
+            index = parentIndex;
+        }
+
+        heap[index] = node;
+        positions[node] = index;
+    }
+
+    private void siftDown(int index) {
+        int node = heap[index];
+        int priority = priorities[node];
+        int half = size >>> 1;
+
+        while (index < half) {
+            int childIndex = 2 * index + 1;
+            int child = heap[childIndex];
+            int right = childIndex + 1;
+
+            if (right < size && priorities[heap[right]] < priorities[child]) {
+                childIndex = right;
+                child = heap[right];
+            }
+
+            if (priority <= priorities[child])
+                break;
+
+            heap[index] = child;
+            positions[child] = index;
+            index = childIndex;
+        }
+
+        heap[index] = node;
+        positions[node] = index;
+    }
+}
@@ -0,0 +1,280 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Eine Heuristik nach dem ALT-Verfahren (A*, Landmarks, Triangle inequality).
+ * Für einige ausgewählte Knoten (Landmarken) werden die Distanzen zu allen anderen Knoten vorberechnet.
+ * Über die Dreiecksungleichung ergibt sich daraus eine untere Schranke für die Distanz zweier beliebiger Knoten:
+ * {@code d(v, t) >= |d(L, t) - d(L, v)|}. Im Gegensatz zur {@link CoordinateHeuristic} funktioniert das auch zwischen
+ * verschiedenen Ressourcen, die keine gemeinsamen Koordinaten haben.
+ * Die Landmarken werden per Farthest-Point-Verfahren gewählt, die Tabellen können parallel (eine Landmarke je
+ * Fork-Join-Task) berechnet und neben dem Graphen gespeichert werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class Landmarks implements Heuristic {
+
+    /**
+     * Die übliche Endung für Tabellen, die mit {@link #write(Path)} gespeichert werden.
+     */
+    public static final String EXTENSION = "grl";
+
+    private static final int MAGIC = 0x47524C4D; // "GRLM"
+    private static final int VERSION = 1;
+
+    private final IndexedGraph graph;
+    private final int[] landmarks;
+    private final int[][] distances;
+
+    private Landmarks(IndexedGraph graph, int[] landmarks, int[][] distances) {
+        this.graph = graph;
+        this.landmarks = landmarks;
+        this.distances = distances;
+    }
+
+    /**
+     * Wählt die Landmarken aus und berechnet die Tabellen im gemeinsamen {@link ForkJoinPool}.
+     * @param graph Der Graph.
+     * @param count Die gewünschte Anzahl an Landmarken.
+     * @return Die vorberechneten Landmarken.
+     */
+    public static Landmarks build(IndexedGraph graph, int count) {
+        return build(graph, select(graph, count), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Berechnet die Tabellen für vorgegebene Landmarken. Jede Landmarke wird in einem eigenen Fork-Join-Task berechnet.
+     * @param graph Der Graph.
+     * @param landmarks Die Indizes der Landmarken.
+     * @param pool Der Pool, in dem die Tasks ausgeführt werden.
+     * @return Die vorberechneten Landmarken.
+     */
+    public static Landmarks build(IndexedGraph graph, int[] landmarks, ForkJoinPool pool) {
+        int[][] distances = pool.invoke(new RecursiveTask<int[][]>() {
+            @Override
+            protected int[][] compute() {
+                List<RecursiveTask<int[]>> tasks = new ArrayList<>(landmarks.length);
+
+                for (int landmark : landmarks) {
+                    tasks.add(new RecursiveTask<>() {
+                        @Override
+                        protected int[] compute() {
+                            return new Dijkstra(graph).distancesFrom(landmark);
+                        }
+                    });
+                }
+
+                ForkJoinTask.invokeAll(tasks);
+
+                int[][] result = new int[landmarks.length][];
+
+                for (int i = 0; i < result.length; i++) {
+                    result[i] = tasks.get(i).join();
+                }
+
+                return result;
+            }
+        });
+
+        return new Landmarks(graph, landmarks.clone(), distances);
+    }
+
+    /**
+     * Wählt Landmarken nach dem Farthest-Point-Verfahren: Die erste Landmarke ist der Knoten, der am weitesten von
+     * einem beliebigen Knoten entfernt ist, jede weitere der Knoten, der am weitesten von allen bisherigen Landmarken
+     * entfernt ist. Knoten, die von keiner Landmarke erreichbar sind, werden bevorzugt, damit jede Zusammenhangskomponente
+     * eine Landmarke bekommt. Knoten ohne Kanten werden nie gewählt.
+     * @param graph Der Graph.
+     * @param count Die gewünschte Anzahl an Landmarken.
+     * @return Die Indizes der Landmarken. Es können weniger als gewünscht sein, wenn der Graph zu klein ist.
+     */
+    public static int[] select(IndexedGraph graph, int count) {
+        int n = graph.getNodeCount();
+        int[] minDistances = new int[n];
+        int[] selected = new int[count];
+        int size = 0;
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        Arrays.fill(minDistances, ShortestPathSearch.INFINITY);
+
+        int start = farthest(graph, minDistances);
+
+        if (start == IndexedGraph.NONE)
+            return new int[0];
+
+        spread(graph, heap, minDistances, start);
+        start = farthest(graph, minDistances);
+        Arrays.fill(minDistances, ShortestPathSearch.INFINITY);
+
+        while (size < count && start != IndexedGraph.NONE && minDistances[start] > 0) {
+            selected[size++] = start;
+            spread(graph, heap, minDistances, start);
+            start = farthest(graph, minDistances);
+        }
+
+        return Arrays.copyOf(selected, size);
+    }
+
+    /**
+     * @return Der Knoten mit Kanten, der die größte Distanz hat, oder {@link IndexedGraph#NONE}.
+     */
+    private static int farthest(IndexedGraph graph, int[] distances) {
+        int best = IndexedGraph.NONE;
+
+        for (int v = 0; v < distances.length; v++) {
+            if (graph.getDegree(v) > 0 && (best == IndexedGraph.NONE || distances[v] > distances[best]))
+                best = v;
+        }
+
+        return best;
+    }
+
+    /**
+     * Verringert die Distanzen ausgehend von einer neuen Landmarke. Knoten, die schon näher an einer anderen
+     * Landmarke liegen, werden nicht weiter besucht.
+     */
+    private static void spread(IndexedGraph graph, IndexedMinHeap heap, int[] distances, int source) {
+        distances[source] = 0;
+        heap.insertOrDecrease(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int du = distances[u];
+
+            for (int arc = graph.getArcStart(u), end = graph.getArcEnd(u); arc < end; arc++) {
+                int v = graph.getTarget(arc);
+                int dv = du + Math.max(0, graph.getWeight(arc));
+
+                if (dv < distances[v]) {
+                    distances[v] = dv;
+                    heap.insertOrDecrease(v, dv);
+                }
+            }
+        }
+    }
+
+    public int getLandmarkCount() {
+        return landmarks.length;
+    }
+
+    /**
+     * @return Der Index der i-ten Landmarke.
+     */
+    public int getLandmark(int i) {
+        return landmarks[i];
+    }
+
+    /**
+     * @return Die vorberechnete Distanz von der i-ten Landmarke zu einem Knoten.
+     */
+    public int getDistance(int i, int node) {
+        return distances[i][node];
+    }
+
+    @Override
+    public int estimate(int node, int target) {
+        int bound = 0;
+
+        for (int[] d : distances) {
+            int a = d[node];
+            int b = d[target];
+
+            if (a != ShortestPathSearch.INFINITY && b != ShortestPathSearch.INFINITY)
+                bound = Math.max(bound, Math.abs(a - b));
+        }
+
+        return bound;
+    }
+
+    /**
+     * Speichert die Tabellen in einer Datei, z.B. neben der Datei des Graphen.
+     * @param file Die Datei.
+     * @throws IOException Falls die Datei nicht geschrieben werden kann.
+     */
+    public void write(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(graph.getNodeCount());
+            out.writeLong(fingerprint(graph));
+            out.writeInt(landmarks.length);
+
+            for (int i = 0; i < landmarks.length; i++) {
+                out.writeInt(landmarks[i]);
+
+                for (int d : distances[i]) {
+                    out.writeInt(d);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lädt Tabellen, die mit {@link #write(Path)} gespeichert wurden.
+     * @param file Die Datei.
+     * @param graph Der Graph, für den die Tabellen berechnet wurden.
+     * @return Die geladenen Landmarken.
+     * @throws IOException Falls die Datei nicht gelesen werden kann oder nicht zum Graphen gehört.
+     */
+    public static Landmarks read(Path file, IndexedGraph graph) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                throw new IOException("The file does not contain landmarks of a supported version.");
+
+            int n = in.readInt();
+
+            if (n != graph.getNodeCount() || in.readLong() != fingerprint(graph))
+                throw new IOException("The landmarks were not computed for this graph.");
+
+            int[] landmarks = new int[in.readInt()];
+            int[][] distances = new int[landmarks.length][n];
+
+            for (int i = 0; i < landmarks.length; i++) {
+                landmarks[i] = in.readInt();
+
+                for (int v = 0; v < n; v++) {
+                    distances[i][v] = in.readInt();
+                }
+            }
+
+            return new Landmarks(graph, landmarks, distances);
+        }
+    }
+
+    /**
+     * Ein Prüfwert über die IDs und Kanten des Graphen, damit keine Tabellen zu einem anderen Graphen geladen werden.
+     */
+    private static long fingerprint(IndexedGraph graph) {
+        long hash = 1125899906842597L;
+
+        for (int v = 0; v < graph.getNodeCount(); v++) {
+            String id = graph.getId(v);
+
+            hash = 31 * hash + (id != null ? id.hashCode() : 0);
+            hash = 31 * hash + graph.getDegree(v);
+        }
+
+        for (int arc = 0; arc < graph.getArcCount(); arc++) {
+            hash = 31 * hash + graph.getTarget(arc);
+            hash = 31 * hash + graph.getWeight(arc);
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,373 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.ToiletType;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Beantwortet die Frage "Wo ist die nächste Toilette vom Typ X?" in O(1).
+ * Für jeden {@link ToiletType} wird einmal ein Dijkstra mit allen Toiletten dieses Typs als Startknoten ausgeführt.
+ * Für jeden Knoten werden dabei die nächste Toilette, die Distanz zu ihr und der nächste Knoten auf dem Weg dorthin
+ * in primitiven Arrays abgelegt. Der Weg zur Toilette ergibt sich damit direkt aus den Vorgängern.
+ * Ändern sich Toiletten oder Kanten, werden über {@link #update(CompiledGraph, Collection)} nur die Einträge neu
+ * berechnet, die davon betroffen sind.
+ * Die Klasse ist nicht threadsicher.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class NearestToiletIndex {
+
+    private IndexedGraph graph;
+    private final Map<ToiletType, Labels> labels = new EnumMap<>(ToiletType.class);
+    private IndexedMinHeap heap;
+
+    /**
+     * Berechnet die Einträge für alle {@link ToiletType}s.
+     * @param graph Der Graph.
+     */
+    public NearestToiletIndex(IndexedGraph graph) {
+        this.graph = graph;
+        this.heap = new IndexedMinHeap(graph.getNodeCount());
+
+        for (ToiletType type : ToiletType.values()) {
+            Labels l = new Labels(graph.getNodeCount());
+
+            for (int u = 0; u < graph.getNodeCount(); u++) {
+                if (isToilet(u, type))
+                    l.seed(heap, u, 0, u, -1);
+            }
+
+            propagate(l);
+            labels.put(type, l);
+        }
+    }
+
+    private NearestToiletIndex(NearestToiletIndex index) {
+        this.graph = index.graph;
+        this.heap = new IndexedMinHeap(graph.getNodeCount());
+
+        index.labels.forEach((type, l) -> labels.put(type, new Labels(l)));
+    }
+
+    /**
+     * Kopiert die Einträge, etwa um sie mit {@link #update(CompiledGraph, Collection)} fortzuschreiben, während der
+     * bisherige Index noch von anderen Threads gelesen wird. Der Aufwand ist linear in der Anzahl der Knoten.
+     * @return Die Kopie.
+     */
+    public NearestToiletIndex copy() {
+        return new NearestToiletIndex(this);
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @param type Der gesuchte Toilettentyp.
+     * @param node Der Index des Knotens, von dem aus gesucht wird.
+     * @return Der Index der nächsten Toilette oder {@link IndexedGraph#NONE}, falls keine erreichbar ist.
+     */
+    public int getNearestToilet(ToiletType type, int node) {
+        return labels.get(type).nearest[node];
+    }
+
+    /**
+     * @param type Der gesuchte Toilettentyp.
+     * @param id Die ID des Knotens, von dem aus gesucht wird.
+     * @return Die ID der nächsten Toilette oder null, falls keine erreichbar ist.
+     * @throws IllegalArgumentException Falls es keinen Knoten mit der ID gibt.
+     */
+    public String getNearestToilet(ToiletType type, String id) throws IllegalArgumentException {
+        int toilet = getNearestToilet(type, requireIndex(id));
+
+        return toilet != IndexedGraph.NONE ? graph.getId(toilet) : null;
+    }
+
+    /**
+     * @return Die Distanz zur nächsten Toilette oder {@link ShortestPathSearch#INFINITY}.
+     */
+    public int getDistance(ToiletType type, int node) {
+        return labels.get(type).distances[node];
+    }
+
+    /**
+     * Baut den Weg zur nächsten Toilette. Der Aufwand ist linear in der Länge des Weges.
+     * @param type Der gesuchte Toilettentyp.
+     * @param node Der Index des Startknotens.
+     * @return Der Weg zur Toilette oder null, falls keine erreichbar ist.
+     */
+    public Route route(ToiletType type, int node) {
+        Labels l = labels.get(type);
+
+        if (l.nearest[node] == IndexedGraph.NONE)
+            return null;
+
+        int length = 1;
+
+        for (int v = node; l.parents[v] != -1; v = l.parents[v]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+
+        for (int v = node, i = 0; i < length; v = l.parents[v], i++) {
+            path[i] = v;
+        }
+
+        return new Route(graph, path, l.distances[node]);
+    }
+
+    /**
+     * @throws IllegalArgumentException Falls es keinen Knoten mit der ID gibt.
+     * @see #route(ToiletType, int)
+     */
+    public Route route(ToiletType type, String id) throws IllegalArgumentException {
+        return route(type, requireIndex(id));
+    }
+
+    /**
+     * Übernimmt Änderungen am Graphen. Der neue Graph muss mit {@link CompiledGraph#recompile(Graph)} aus dem
+     * bisherigen Graphen entstanden sein, damit die Indizes übereinstimmen.
+     * Es werden nur die Einträge neu berechnet, deren kürzester Weg über eine entfernte oder teurere Kante oder eine
+     * entfernte Toilette lief, sowie die Einträge, die durch neue oder günstigere Kanten und neue Toiletten kürzer
+     * werden.
+     * @param graph Der neu kompilierte Graph.
+     * @param changedNodes Die IDs aller Knoten, die hinzugefügt, entfernt oder als Toilette geändert wurden, sowie
+     *                     beide Endpunkte jeder Kante, die hinzugefügt, entfernt oder umgewichtet wurde.
+     */
+    public void update(CompiledGraph graph, Collection<String> changedNodes) {
+        IndexedGraph old = this.graph;
+        int n = graph.getNodeCount();
+        int[] changed = new int[changedNodes.size()];
+        int changedCount = 0;
+
+        for (String id : changedNodes) {
+            int index = graph.indexOf(id);
+
+            if (index == IndexedGraph.NONE)
+                index = old.indexOf(id);
+
+            if (index != IndexedGraph.NONE)
+                changed[changedCount++] = index;
+        }
+
+        this.graph = graph;
+
+        if (n != heap.capacity())
+            heap = new IndexedMinHeap(n);
+
+        for (ToiletType type : ToiletType.values()) {
+            Labels l = labels.get(type);
+            l.grow(n);
+
+            int[] invalid = invalidate(old, l, type, changed, changedCount);
+
+            for (int v : invalid) {
+                if (isToilet(v, type)) {
+                    l.seed(heap, v, 0, v, -1);
+                    continue;
+                }
+
+                for (int arc = graph.getArcStart(v); arc < graph.getArcEnd(v); arc++) {
+                    offer(l, graph.getTarget(arc), v, Math.max(0, graph.getWeight(arc)));
+                }
+            }
+
+            for (int i = 0; i < changedCount; i++) {
+                int u = changed[i];
+
+                if (isToilet(u, type))
+                    l.seed(heap, u, 0, u, -1);
+
+                for (int arc = graph.getArcStart(u); arc < graph.getArcEnd(u); arc++) {
+                    int v = graph.getTarget(arc);
+                    int w = Math.max(0, graph.getWeight(arc));
+
+                    offer(l, u, v, w);
+                    offer(l, v, u, w);
+                }
+            }
+
+            propagate(l);
+        }
+    }
+
+    /**
+     * Setzt alle Einträge zurück, deren kürzester Weg durch die Änderungen ungültig geworden sein kann.
+     * Das sind die Teilbäume (im Baum der kürzesten Wege) unter entfernten Toiletten, entfernten Knoten und unter
+     * Baumkanten, die entfernt oder teurer wurden.
+     * @return Die Indizes der zurückgesetzten Knoten.
+     */
+    private int[] invalidate(IndexedGraph old, Labels l, ToiletType type, int[] changed, int changedCount) {
+        int[] queue = new int[16];
+        int size = 0;
+        boolean[] invalid = new boolean[graph.getNodeCount()];
+
+        for (int i = 0; i < changedCount; i++) {
+            int u = changed[i];
+
+            if (u >= old.getNodeCount())
+                continue;
+
+            if (graph.getId(u) == null || (isToilet(old, u, type) && !isToilet(u, type))) {
+                queue = push(queue, size++, u, invalid);
+                continue;
+            }
+
+            for (int arc = old.getArcStart(u); arc < old.getArcEnd(u); arc++) {
+                int v = old.getTarget(arc);
+
+                if (l.parents[v] == u && !invalid[v] && weightBetween(u, v) > l.distances[v] - l.distances[u])
+                    queue = push(queue, size++, v, invalid);
+                else if (l.parents[u] == v && !invalid[u] && weightBetween(u, v) > l.distances[u] - l.distances[v])
+                    queue = push(queue, size++, u, invalid);
+            }
+        }
+
+        for (int head = 0; head < size; head++) {
+            int u = queue[head];
+
+            for (int arc = old.getArcStart(u); arc < old.getArcEnd(u); arc++) {
+                int v = old.getTarget(arc);
+
+                if (l.parents[v] == u && !invalid[v])
+                    queue = push(queue, size++, v, invalid);
+            }
+        }
+
+        for (int i = 0; i < size; i++) {
+            l.reset(queue[i]);
+        }
+
+        return Arrays.copyOf(queue, size);
+    }
+
+    private static int[] push(int[] queue, int size, int node, boolean[] invalid) {
+        if (size == queue.length)
+            queue = Arrays.copyOf(queue, size * 2);
+
+        queue[size] = node;
+        invalid[node] = true;
+
+        return queue;
+    }
+
+    /**
+     * @return Das kleinste Gewicht zwischen zwei Knoten im aktuellen Graphen oder
+     * {@link ShortestPathSearch#INFINITY}, falls es keine Kante gibt.
+     */
+    private int weightBetween(int u, int v) {
+        int weight = ShortestPathSearch.INFINITY;
+
+        for (int arc = graph.getArcStart(u); arc < graph.getArcEnd(u); arc++) {
+            if (graph.getTarget(arc) == v)
+                weight = Math.min(weight, Math.max(0, graph.getWeight(arc)));
+        }
+
+        return weight;
+    }
+
+    /**
+     * Bietet dem Knoten {@code to} den Weg über {@code from} an.
+     */
+    private void offer(Labels l, int from, int to, int weight) {
+        int d = l.distances[from];
+
+        if (d != ShortestPathSearch.INFINITY && d + weight < l.distances[to])
+            l.seed(heap, to, d + weight, l.nearest[from], from);
+    }
+
+    /**
+     * Führt den Dijkstra ausgehend von allen Knoten im Heap aus.
+     */
+    private void propagate(Labels l) {
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            int du = l.distances[u];
+
+            for (int arc = graph.getArcStart(u), end = graph.getArcEnd(u); arc < end; arc++) {
+                int v = graph.getTarget(arc);
+                int dv = du + Math.max(0, graph.getWeight(arc));
+
+                if (dv < l.distances[v])
+                    l.seed(heap, v, dv, l.nearest[u], u);
+            }
+        }
+    }
+
+    private boolean isToilet(int node, ToiletType type) {
+        return isToilet(graph, node, type);
+    }
+
+    private static boolean isToilet(IndexedGraph graph, int node, ToiletType type) {
+        return graph.getId(node) != null && graph.getToiletType(node) == type.getId();
+    }
+
+    private int requireIndex(String id) throws IllegalArgumentException {
+        int index = graph.indexOf(id);
+
+        if (index == IndexedGraph.NONE)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return index;
+    }
+
+    /**
+     * Die Einträge für einen {@link ToiletType}.
+     */
+    private static final class Labels {
+
+        private int[] nearest;
+        private int[] distances;
+        private int[] parents;
+
+        private Labels(int n) {
+            nearest = new int[0];
+            distances = new int[0];
+            parents = new int[0];
+
+            grow(n);
+        }
+
+        private Labels(Labels labels) {
+            nearest = labels.nearest.clone();
+            distances = labels.distances.clone();
+            parents = labels.parents.clone();
+        }
+
+        private void grow(int n) {
+            int old = nearest.length;
+
+            if (n <= old)
+                return;
+
+            nearest = Arrays.copyOf(nearest, n);
+            distances = Arrays.copyOf(distances, n);
+            parents = Arrays.copyOf(parents, n);
+
+            for (int v = old; v < n; v++) {
+                reset(v);
+            }
+        }
+
+        private void reset(int v) {
+            nearest[v] = IndexedGraph.NONE;
+            distances[v] = ShortestPathSearch.INFINITY;
+            parents[v] = -1;
+        }
+
+        private void seed(IndexedMinHeap heap, int v, int distance, int toilet, int parent) {
+            distances[v] = distance;
+            nearest[v] = toilet;
+            parents[v] = parent;
+            heap.insertOrDecrease(v, distance);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Das Ergebnis einer Wegsuche: Die Folge der Knoten vom Start bis zum Ziel und die Gesamtkosten.
+ * Die Kosten sind die Summe der Gewichte ({@link de.fhzwickau.roomfinder.model.graph.edge.Edge#getWeight()})
+ * der benutzten Kanten.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class Route {
+
+    private final IndexedGraph graph;
+    private final int[] path;
+    private final int cost;
+
+    /**
+     * @param graph Der Graph, auf den sich die Indizes beziehen.
+     * @param path Die Indizes der Knoten vom Start bis zum Ziel. Das Array wird übernommen und nicht kopiert.
+     * @param cost Die Gesamtkosten des Weges.
+     */
+    public Route(IndexedGraph graph, int[] path, int cost) {
+        this.graph = graph;
+        this.path = path;
+        this.cost = cost;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+
+    /**
+     * @return Die Anzahl der Knoten auf dem Weg (inklusive Start und Ziel).
+     */
+    public int getLength() {
+        return path.length;
+    }
+
+    /**
+     * @param i Die Position auf dem Weg, 0 ist der Start.
+     * @return Der Index des Knotens im {@link IndexedGraph}.
+     */
+    public int getNode(int i) {
+        return path[i];
+    }
+
+    public int getSource() {
+        return path[0];
+    }
+
+    public int getTarget() {
+        return path[path.length - 1];
+    }
+
+    public List<String> getNodeIds() {
+        List<String> ids = new ArrayList<>(path.length);
+
+        for (int node : path) {
+            ids.add(graph.getId(node));
+        }
+
+        return ids;
+    }
+
+    /**
+     * Löst den Weg in die Knoten eines Graphen auf.
+     * @param graph Der Graph, aus dem kompiliert wurde.
+     * @return Die Knoten des Weges. Knoten, die inzwischen nicht mehr im Graphen sind, werden als null eingetragen.
+     */
+    public List<Node> getNodes(Graph graph) {
+        List<Node> nodes = new ArrayList<>(path.length);
+
+        for (int node : path) {
+            nodes.add(graph.get(this.graph.getId(node)));
+        }
+
+        return nodes;
+    }
+
+    @Override
+    public String toString() {
+        return getNodeIds() + " (" + cost + ")";
+    }
+}
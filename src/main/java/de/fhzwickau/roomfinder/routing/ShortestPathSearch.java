@@ -0,0 +1,185 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+import java.util.Arrays;
+
+/**
+ * Gemeinsame Grundlage für {@link Dijkstra} und {@link AStar} auf einem {@link IndexedGraph}.
+ * Die Arbeitsspeicher (Distanzen, Vorgänger, {@link IndexedMinHeap}) werden einmal angelegt und für jede Suche
+ * wiederverwendet. Statt die Arrays vor jeder Suche zu leeren, wird jeder Eintrag mit der Nummer der Suche markiert,
+ * in der er geschrieben wurde. Eine Suche erzeugt somit nur für das Ergebnis Objekte.
+ * Eine Instanz ist daher nicht threadsicher; jeder Thread braucht seine eigene.
+ * Negative Kantengewichte werden wie 0 behandelt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public abstract class ShortestPathSearch {
+
+    /**
+     * Die Distanz zu Knoten, die nicht erreichbar sind.
+     */
+    public static final int INFINITY = Integer.MAX_VALUE;
+
+    protected final IndexedGraph graph;
+
+    private final int[] distances;
+    private final int[] parents;
+    private final int[] stamps;
+    private final IndexedMinHeap heap;
+    private int stamp;
+    private int settled;
+
+    protected ShortestPathSearch(IndexedGraph graph) {
+        this.graph = graph;
+
+        int n = graph.getNodeCount();
+        distances = new int[n];
+        parents = new int[n];
+        stamps = new int[n];
+        heap = new IndexedMinHeap(n);
+    }
+
+    /**
+     * Schätzt die Restkosten von einem Knoten zum Ziel. Muss zulässig sein, damit der Weg optimal ist.
+     * @param node Der aktuelle Knoten.
+     * @param target Das Ziel.
+     * @return Die Abschätzung.
+     */
+    protected abstract int estimate(int node, int target);
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return Die Anzahl der Knoten, die bei der letzten Suche aus dem Heap genommen wurden.
+     */
+    public int getSettledNodes() {
+        return settled;
+    }
+
+    /**
+     * Sucht den kürzesten Weg zwischen zwei Knoten.
+     * @param from Die ID des Startknotens.
+     * @param to Die ID des Zielknotens.
+     * @return Der Weg oder null, falls das Ziel nicht erreichbar ist.
+     * @throws IllegalArgumentException Falls einer der Knoten nicht im Graphen ist.
+     */
+    public Route route(String from, String to) throws IllegalArgumentException {
+        return route(requireIndex(from), requireIndex(to));
+    }
+
+    /**
+     * Sucht den kürzesten Weg zwischen zwei Knoten.
+     * @param source Der Index des Startknotens.
+     * @param target Der Index des Zielknotens.
+     * @return Der Weg oder null, falls das Ziel nicht erreichbar ist.
+     */
+    public Route route(int source, int target) {
+        start(source, estimate(source, target));
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+
+            if (u == target)
+                return buildRoute(target);
+
+            relax(u, target, true);
+        }
+
+        return null;
+    }
+
+    /**
+     * Berechnet die Distanzen von einem Knoten zu allen anderen Knoten.
+     * @param source Der Index des Startknotens.
+     * @return Die Distanzen, {@link #INFINITY} für Knoten, die nicht erreichbar sind.
+     */
+    public int[] distancesFrom(int source) {
+        start(source, 0);
+
+        while (!heap.isEmpty()) {
+            int u = heap.poll();
+            settled++;
+
+            relax(u, source, false);
+        }
+
+        int[] result = new int[graph.getNodeCount()];
+
+        for (int v = 0; v < result.length; v++) {
+            result[v] = getDistance(v);
+        }
+
+        return result;
+    }
+
+    private void start(int source, int priority) {
+        heap.clear();
+        settled = 0;
+
+        if (++stamp == 0) {
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        setDistance(source, 0, -1);
+        heap.insert(source, priority);
+    }
+
+    /**
+     * Entspannt alle Kanten eines Knotens. Knoten, deren Distanz sich verbessert, werden (wieder) in den Heap gelegt.
+     * Dadurch bleibt die Suche auch mit zulässigen, aber nicht konsistenten Heuristiken optimal.
+     */
+    private void relax(int u, int target, boolean estimate) {
+        int du = distances[u];
+
+        for (int arc = graph.getArcStart(u), end = graph.getArcEnd(u); arc < end; arc++) {
+            int v = graph.getTarget(arc);
+            int dv = du + Math.max(0, graph.getWeight(arc));
+
+            if (dv < getDistance(v)) {
+                setDistance(v, dv, u);
+                heap.insertOrDecrease(v, estimate ? dv + estimate(v, target) : dv);
+            }
+        }
+    }
+
+    private int getDistance(int node) {
+        return stamps[node] == stamp ? distances[node] : INFINITY;
+    }
+
+    private void setDistance(int node, int distance, int parent) {
+        stamps[node] = stamp;
+        distances[node] = distance;
+        parents[node] = parent;
+    }
+
+    private Route buildRoute(int target) {
+        int length = 1;
+
+        for (int v = target; parents[v] != -1; v = parents[v]) {
+            length++;
+        }
+
+        int[] path = new int[length];
+
+        for (int v = target, i = length - 1; i >= 0; v = parents[v], i--) {
+            path[i] = v;
+        }
+
+        return new Route(graph, path, distances[target]);
+    }
+
+    private int requireIndex(String id) throws IllegalArgumentException {
+        int index = graph.indexOf(id);
+
+        if (index == IndexedGraph.NONE)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return index;
+    }
+}
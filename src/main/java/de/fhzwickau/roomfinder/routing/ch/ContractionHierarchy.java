@@ -0,0 +1,98 @@
+package de.fhzwickau.roomfinder.routing.ch;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+/**
+ * Das Ergebnis der Vorberechnung durch den {@link ContractionHierarchyBuilder}.
+ * Jeder Knoten hat einen Rang (die Reihenfolge, in der er kontrahiert wurde). Gespeichert werden nur die Kanten, die
+ * zu einem Knoten mit höherem Rang führen, als CSR wie im {@link IndexedGraph}. Dazu gehören neben den Kanten des
+ * Graphen auch die Abkürzungen (Shortcuts), die beim Kontrahieren entstanden sind. Eine Abkürzung ersetzt den Weg
+ * über genau einen Mittelknoten; Mittelknoten können selbst wieder über Abkürzungen erreicht werden.
+ * Die Struktur ist unveränderlich, Anfragen laufen über {@link ContractionHierarchyQuery}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ContractionHierarchy {
+
+    /**
+     * Der Mittelknoten von Kanten, die keine Abkürzungen sind.
+     */
+    public static final int NO_MIDDLE = -1;
+
+    private final IndexedGraph graph;
+    private final int[] ranks;
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] middles;
+    private final int shortcutCount;
+
+    ContractionHierarchy(IndexedGraph graph, int[] ranks, int[] offsets, int[] targets, int[] weights, int[] middles,
+                         int shortcutCount) {
+        this.graph = graph;
+        this.ranks = ranks;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.middles = middles;
+        this.shortcutCount = shortcutCount;
+    }
+
+    public IndexedGraph getGraph() {
+        return graph;
+    }
+
+    public int getRank(int node) {
+        return ranks[node];
+    }
+
+    /**
+     * @return Die Anzahl der Abkürzungen, die beim Kontrahieren hinzugekommen sind.
+     */
+    public int getShortcutCount() {
+        return shortcutCount;
+    }
+
+    public int getArcStart(int node) {
+        return offsets[node];
+    }
+
+    public int getArcEnd(int node) {
+        return offsets[node + 1];
+    }
+
+    /**
+     * @return Der Knoten (mit höherem Rang), zu dem die Kante führt.
+     */
+    public int getTarget(int arc) {
+        return targets[arc];
+    }
+
+    public int getWeight(int arc) {
+        return weights[arc];
+    }
+
+    /**
+     * @return Der Mittelknoten einer Abkürzung oder {@link #NO_MIDDLE}.
+     */
+    public int getMiddle(int arc) {
+        return middles[arc];
+    }
+
+    /**
+     * Sucht die Kante zwischen zwei benachbarten Knoten der Hierarchie.
+     * @return Der Index der Kante (beim Knoten mit niedrigerem Rang) oder -1.
+     */
+    int findArc(int a, int b) {
+        int low = ranks[a] < ranks[b] ? a : b;
+        int high = low == a ? b : a;
+
+        for (int arc = offsets[low]; arc < offsets[low + 1]; arc++) {
+            if (targets[arc] == high)
+                return arc;
+        }
+
+        return -1;
+    }
+}
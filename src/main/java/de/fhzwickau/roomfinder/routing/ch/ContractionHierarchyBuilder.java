@@ -0,0 +1,384 @@
+package de.fhzwickau.roomfinder.routing.ch;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.routing.IndexedMinHeap;
+import de.fhzwickau.roomfinder.routing.ShortestPathSearch;
+
+import java.util.Arrays;
+
+/**
+ * Berechnet eine {@link ContractionHierarchy}.
+ * Die Knoten werden nacheinander kontrahiert: Ein Knoten wird aus dem Restgraphen entfernt und für jedes Paar seiner
+ * Nachbarn, deren kürzester Weg über ihn führt, wird eine Abkürzung eingefügt. Ob ein anderer Weg (Zeuge) existiert,
+ * wird mit einer begrenzten lokalen Suche geprüft. Im Zweifel wird eine Abkürzung zu viel eingefügt, was die
+ * Korrektheit nicht beeinträchtigt.
+ * Die Reihenfolge richtet sich nach der Kantendifferenz (eingefügte Abkürzungen minus entfernte Kanten), zusätzlich
+ * wird die Anzahl schon kontrahierter Nachbarn addiert, damit die Kontraktion gleichmäßig über den Graphen verteilt
+ * wird. Die Prioritäten werden verzögert aktualisiert: Vor dem Kontrahieren wird die Priorität neu berechnet und der
+ * Knoten zurückgelegt, falls er nicht mehr der günstigste ist.
+ * Ein Builder kann nur einmal verwendet werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class ContractionHierarchyBuilder {
+
+    private static final int INITIAL_CAPACITY = 4;
+    private static final int DEFAULT_WITNESS_LIMIT = 500;
+    private static final int SIMULATION_WITNESS_LIMIT = 50;
+
+    private final IndexedGraph graph;
+    private final int witnessLimit;
+
+    /*
+    Der Restgraph als Adjazenzlisten, die wachsen können
+     */
+    private final int[][] adjacentTargets;
+    private final int[][] adjacentWeights;
+    private final int[][] adjacentMiddles;
+    private final int[] degrees;
+
+    private final boolean[] contracted;
+    private final int[] contractedNeighbours;
+    private final int[] ranks;
+
+    /*
+    Arbeitsspeicher der Zeugensuche
+     */
+    private final IndexedMinHeap witnessHeap;
+    private final int[] witnessDistances;
+    private final int[] witnessStamps;
+    private final int[] witnessTargets;
+    private int witnessStamp;
+
+    /*
+    Gefundene Abkürzungen für den aktuellen Knoten (Tripel aus Knoten, Knoten, Gewicht)
+     */
+    private int[] shortcuts = new int[3 * 16];
+    private int shortcutSize;
+
+    public ContractionHierarchyBuilder(IndexedGraph graph) {
+        this(graph, DEFAULT_WITNESS_LIMIT);
+    }
+
+    /**
+     * @param graph Der Graph.
+     * @param witnessLimit Die maximale Anzahl an Knoten, die eine Zeugensuche besuchen darf. Kleinere Werte
+     *                     beschleunigen die Vorberechnung, führen aber zu mehr Abkürzungen.
+     */
+    public ContractionHierarchyBuilder(IndexedGraph graph, int witnessLimit) {
+        this.graph = graph;
+        this.witnessLimit = witnessLimit;
+
+        int n = graph.getNodeCount();
+        adjacentTargets = new int[n][];
+        adjacentWeights = new int[n][];
+        adjacentMiddles = new int[n][];
+        degrees = new int[n];
+        contracted = new boolean[n];
+        contractedNeighbours = new int[n];
+        ranks = new int[n];
+        witnessHeap = new IndexedMinHeap(n);
+        witnessDistances = new int[n];
+        witnessStamps = new int[n];
+        witnessTargets = new int[n];
+
+        for (int u = 0; u < n; u++) {
+            int degree = Math.max(INITIAL_CAPACITY, graph.getDegree(u));
+
+            adjacentTargets[u] = new int[degree];
+            adjacentWeights[u] = new int[degree];
+            adjacentMiddles[u] = new int[degree];
+
+            for (int arc = graph.getArcStart(u); arc < graph.getArcEnd(u); arc++) {
+                int v = graph.getTarget(arc);
+
+                if (v != u)
+                    put(u, v, Math.max(0, graph.getWeight(arc)), ContractionHierarchy.NO_MIDDLE);
+            }
+        }
+    }
+
+    /**
+     * Kompiliert einen Graphen und berechnet die Hierarchie.
+     * @param graph Der Graph.
+     * @return Die Hierarchie.
+     */
+    public static ContractionHierarchy build(Graph graph) {
+        return new ContractionHierarchyBuilder(CompiledGraph.compile(graph)).build();
+    }
+
+    /**
+     * Kontrahiert alle Knoten und baut die Hierarchie.
+     * @return Die Hierarchie.
+     */
+    public ContractionHierarchy build() {
+        int n = graph.getNodeCount();
+        IndexedMinHeap queue = new IndexedMinHeap(n);
+
+        for (int v = 0; v < n; v++) {
+            queue.insert(v, priority(v));
+        }
+
+        int rank = 0;
+        int shortcutCount = 0;
+
+        while (!queue.isEmpty()) {
+            int v = queue.poll();
+            int priority = priority(v);
+
+            if (!queue.isEmpty() && priority > queue.peekPriority()) {
+                queue.insert(v, priority);
+                continue;
+            }
+
+            shortcutCount += contract(v);
+            ranks[v] = rank++;
+
+            for (int i = 0; i < degrees[v]; i++) {
+                int u = adjacentTargets[v][i];
+
+                if (!contracted[u]) {
+                    contractedNeighbours[u]++;
+
+                    queue.changeKey(u, priority(u));
+                }
+            }
+        }
+
+        return buildHierarchy(shortcutCount);
+    }
+
+    /**
+     * Berechnet die Priorität eines Knotens: Kantendifferenz plus Anzahl der schon kontrahierten Nachbarn.
+     */
+    private int priority(int v) {
+        int removed = 0;
+
+        for (int i = 0; i < degrees[v]; i++) {
+            if (!contracted[adjacentTargets[v][i]])
+                removed++;
+        }
+
+        return findShortcuts(v, Math.min(witnessLimit, SIMULATION_WITNESS_LIMIT)) - removed + contractedNeighbours[v];
+    }
+
+    /**
+     * Kontrahiert einen Knoten und fügt die nötigen Abkürzungen ein.
+     * @return Die Anzahl der neuen Abkürzungen.
+     */
+    private int contract(int v) {
+        int count = findShortcuts(v, witnessLimit);
+        int added = 0;
+
+        for (int i = 0; i < count; i++) {
+            int u = shortcuts[3 * i];
+            int w = shortcuts[3 * i + 1];
+            int weight = shortcuts[3 * i + 2];
+
+            if (put(u, w, weight, v) | put(w, u, weight, v))
+                added++;
+        }
+
+        contracted[v] = true;
+
+        return added;
+    }
+
+    /**
+     * Sucht alle Abkürzungen, die beim Kontrahieren eines Knotens nötig wären, und legt sie in {@link #shortcuts} ab.
+     * Für die Berechnung der Priorität reicht eine kürzere Zeugensuche, die die Anzahl eher überschätzt.
+     * @param limit Die maximale Anzahl an Knoten, die eine Zeugensuche besuchen darf.
+     * @return Die Anzahl der Abkürzungen.
+     */
+    private int findShortcuts(int v, int limit) {
+        shortcutSize = 0;
+
+        int maxOut = 0;
+
+        for (int i = 0; i < degrees[v]; i++) {
+            if (!contracted[adjacentTargets[v][i]])
+                maxOut = Math.max(maxOut, adjacentWeights[v][i]);
+        }
+
+        for (int i = 0; i < degrees[v]; i++) {
+            int u = adjacentTargets[v][i];
+
+            if (contracted[u])
+                continue;
+
+            int toV = adjacentWeights[v][i];
+            int targets = 0;
+
+            nextWitnessStamp();
+
+            for (int j = i + 1; j < degrees[v]; j++) {
+                int w = adjacentTargets[v][j];
+
+                if (!contracted[w] && w != u && witnessTargets[w] != witnessStamp) {
+                    witnessTargets[w] = witnessStamp;
+                    targets++;
+                }
+            }
+
+            if (targets == 0)
+                continue;
+
+            witnessSearch(u, v, toV + maxOut, targets, limit);
+
+            for (int j = i + 1; j < degrees[v]; j++) {
+                int w = adjacentTargets[v][j];
+
+                if (contracted[w] || w == u)
+                    continue;
+
+                int viaV = toV + adjacentWeights[v][j];
+
+                if (witnessDistance(w) > viaV)
+                    addShortcut(u, w, viaV);
+            }
+        }
+
+        return shortcutSize;
+    }
+
+    private void addShortcut(int u, int w, int weight) {
+        if (3 * shortcutSize + 3 > shortcuts.length)
+            shortcuts = Arrays.copyOf(shortcuts, shortcuts.length * 2);
+
+        shortcuts[3 * shortcutSize] = u;
+        shortcuts[3 * shortcutSize + 1] = w;
+        shortcuts[3 * shortcutSize + 2] = weight;
+        shortcutSize++;
+    }
+
+    /**
+     * Dijkstra im Restgraphen ohne den Knoten, der kontrahiert werden soll.
+     * Die Suche endet, wenn alle Zielknoten erreicht sind, bei der Kostengrenze oder nach der maximalen Anzahl an
+     * besuchten Knoten. Die Zielknoten müssen vorher in {@link #witnessTargets} mit der aktuellen Suchnummer
+     * markiert werden.
+     */
+    private void witnessSearch(int source, int excluded, int maxCost, int targets, int limit) {
+        witnessHeap.clear();
+        setWitnessDistance(source, 0);
+        witnessHeap.insert(source, 0);
+
+        int settled = 0;
+
+        while (!witnessHeap.isEmpty() && settled++ < limit) {
+            if (witnessHeap.peekPriority() > maxCost)
+                break;
+
+            int u = witnessHeap.poll();
+            int du = witnessDistances[u];
+
+            if (witnessTargets[u] == witnessStamp && --targets == 0)
+                break;
+
+            for (int i = 0; i < degrees[u]; i++) {
+                int w = adjacentTargets[u][i];
+
+                if (w == excluded || contracted[w])
+                    continue;
+
+                int dw = du + adjacentWeights[u][i];
+
+                if (dw < witnessDistance(w)) {
+                    setWitnessDistance(w, dw);
+                    witnessHeap.insertOrDecrease(w, dw);
+                }
+            }
+        }
+    }
+
+    private void nextWitnessStamp() {
+        if (++witnessStamp == 0) {
+            Arrays.fill(witnessStamps, 0);
+            Arrays.fill(witnessTargets, 0);
+            witnessStamp = 1;
+        }
+    }
+
+    private int witnessDistance(int node) {
+        return witnessStamps[node] == witnessStamp ? witnessDistances[node] : ShortestPathSearch.INFINITY;
+    }
+
+    private void setWitnessDistance(int node, int distance) {
+        witnessStamps[node] = witnessStamp;
+        witnessDistances[node] = distance;
+    }
+
+    /**
+     * Trägt eine Kante von u nach v ein. Existiert schon eine, wird nur das kleinere Gewicht behalten.
+     * @return Gibt an, ob eine neue Kante eingetragen wurde.
+     */
+    private boolean put(int u, int v, int weight, int middle) {
+        int[] t = adjacentTargets[u];
+
+        for (int i = 0; i < degrees[u]; i++) {
+            if (t[i] == v) {
+                if (weight < adjacentWeights[u][i]) {
+                    adjacentWeights[u][i] = weight;
+                    adjacentMiddles[u][i] = middle;
+                }
+
+                return false;
+            }
+        }
+
+        if (degrees[u] == t.length) {
+            int capacity = t.length * 2;
+
+            adjacentTargets[u] = Arrays.copyOf(t, capacity);
+            adjacentWeights[u] = Arrays.copyOf(adjacentWeights[u], capacity);
+            adjacentMiddles[u] = Arrays.copyOf(adjacentMiddles[u], capacity);
+        }
+
+        int i = degrees[u]++;
+        adjacentTargets[u][i] = v;
+        adjacentWeights[u][i] = weight;
+        adjacentMiddles[u][i] = middle;
+
+        return true;
+    }
+
+    /**
+     * Überträgt alle Kanten zu Knoten mit höherem Rang in ein CSR.
+     */
+    private ContractionHierarchy buildHierarchy(int shortcutCount) {
+        int n = graph.getNodeCount();
+        int[] offsets = new int[n + 1];
+
+        for (int u = 0; u < n; u++) {
+            int count = 0;
+
+            for (int i = 0; i < degrees[u]; i++) {
+                if (ranks[adjacentTargets[u][i]] > ranks[u])
+                    count++;
+            }
+
+            offsets[u + 1] = offsets[u] + count;
+        }
+
+        int[] targets = new int[offsets[n]];
+        int[] weights = new int[offsets[n]];
+        int[] middles = new int[offsets[n]];
+
+        for (int u = 0; u < n; u++) {
+            int arc = offsets[u];
+
+            for (int i = 0; i < degrees[u]; i++) {
+                if (ranks[adjacentTargets[u][i]] > ranks[u]) {
+                    targets[arc] = adjacentTargets[u][i];
+                    weights[arc] = adjacentWeights[u][i];
+                    middles[arc] = adjacentMiddles[u][i];
+                    arc++;
+                }
+            }
+        }
+
+        return new ContractionHierarchy(graph, ranks.clone(), offsets, targets, weights, middles, shortcutCount);
+    }
+}
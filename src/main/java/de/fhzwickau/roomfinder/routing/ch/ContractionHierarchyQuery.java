@@ -0,0 +1,238 @@
+package de.fhzwickau.roomfinder.routing.ch;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.routing.IndexedMinHeap;
+import de.fhzwickau.roomfinder.routing.Route;
+import de.fhzwickau.roomfinder.routing.ShortestPathSearch;
+
+import java.util.Arrays;
+
+/**
+ * Beantwortet Wegsuchen auf einer {@link ContractionHierarchy}.
+ * Vom Start und vom Ziel aus wird gleichzeitig gesucht, wobei nur Kanten zu Knoten mit höherem Rang benutzt werden.
+ * Beide Suchen treffen sich im Knoten mit dem höchsten Rang auf dem kürzesten Weg. Die Abkürzungen des gefundenen
+ * Weges werden danach wieder in die Kanten des Graphen aufgelöst, die {@link Route} enthält also alle Knoten.
+ * Wie bei {@link ShortestPathSearch} werden die Arbeitsspeicher wiederverwendet; eine Instanz ist nicht threadsicher.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class ContractionHierarchyQuery {
+
+    private final ContractionHierarchy hierarchy;
+    private final Direction forward;
+    private final Direction backward;
+    private int stamp;
+    private int settled;
+
+    public ContractionHierarchyQuery(ContractionHierarchy hierarchy) {
+        this.hierarchy = hierarchy;
+
+        int n = hierarchy.getGraph().getNodeCount();
+        forward = new Direction(n);
+        backward = new Direction(n);
+    }
+
+    /**
+     * @return Die Anzahl der Knoten, die bei der letzten Suche (in beide Richtungen) aus den Heaps genommen wurden.
+     */
+    public int getSettledNodes() {
+        return settled;
+    }
+
+    /**
+     * Sucht den kürzesten Weg zwischen zwei Knoten.
+     * @param from Die ID des Startknotens.
+     * @param to Die ID des Zielknotens.
+     * @return Der Weg oder null, falls das Ziel nicht erreichbar ist.
+     * @throws IllegalArgumentException Falls einer der Knoten nicht im Graphen ist.
+     */
+    public Route route(String from, String to) throws IllegalArgumentException {
+        return route(requireIndex(from), requireIndex(to));
+    }
+
+    /**
+     * Sucht den kürzesten Weg zwischen zwei Knoten.
+     * @param source Der Index des Startknotens.
+     * @param target Der Index des Zielknotens.
+     * @return Der Weg oder null, falls das Ziel nicht erreichbar ist.
+     */
+    public Route route(int source, int target) {
+        if (++stamp == 0) {
+            forward.reset();
+            backward.reset();
+            stamp = 1;
+        }
+
+        settled = 0;
+        forward.start(source, stamp);
+        backward.start(target, stamp);
+
+        int best = ShortestPathSearch.INFINITY;
+        int meeting = -1;
+
+        while (!forward.heap.isEmpty() || !backward.heap.isEmpty()) {
+            Direction current;
+
+            if (forward.heap.isEmpty())
+                current = backward;
+            else if (backward.heap.isEmpty())
+                current = forward;
+            else
+                current = forward.heap.peekPriority() <= backward.heap.peekPriority() ? forward : backward;
+
+            if (current.heap.peekPriority() >= best) {
+                current.heap.clear();
+                continue;
+            }
+
+            Direction other = current == forward ? backward : forward;
+            int u = current.heap.poll();
+            int du = current.distances[u];
+            settled++;
+
+            int total = other.getDistance(u, stamp);
+
+            if (total != ShortestPathSearch.INFINITY && du + total < best) {
+                best = du + total;
+                meeting = u;
+            }
+
+            for (int arc = hierarchy.getArcStart(u), end = hierarchy.getArcEnd(u); arc < end; arc++) {
+                int v = hierarchy.getTarget(arc);
+                int dv = du + hierarchy.getWeight(arc);
+
+                if (dv < current.getDistance(v, stamp)) {
+                    current.set(v, dv, u, stamp);
+                    current.heap.insertOrDecrease(v, dv);
+                }
+            }
+        }
+
+        return meeting != -1 ? buildRoute(source, meeting, best) : null;
+    }
+
+    /**
+     * Setzt den Weg aus beiden Suchen zusammen und löst die Abkürzungen auf.
+     */
+    private Route buildRoute(int source, int meeting, int cost) {
+        int[] path = new int[16];
+        int size = 0;
+
+        /*
+        Vom Treffpunkt rückwärts zum Start, danach umdrehen
+         */
+        for (int v = meeting; v != -1; v = forward.parents[v]) {
+            path = append(path, size++, v);
+        }
+
+        for (int i = 0, j = size - 1; i < j; i++, j--) {
+            int tmp = path[i];
+            path[i] = path[j];
+            path[j] = tmp;
+        }
+
+        for (int v = backward.parents[meeting]; v != -1; v = backward.parents[v]) {
+            path = append(path, size++, v);
+        }
+
+        int[] unpacked = new int[size];
+        int unpackedSize = 0;
+        unpacked[unpackedSize++] = source;
+
+        int[] stack = new int[16];
+
+        for (int i = 0; i + 1 < size; i++) {
+            /*
+            Die Abkürzung path[i] -> path[i + 1] rekursiv (über einen Stapel) in ihre Mittelknoten auflösen
+             */
+            int stackSize = 0;
+            stack = push(stack, stackSize, path[i], path[i + 1]);
+            stackSize += 2;
+
+            while (stackSize > 0) {
+                int b = stack[--stackSize];
+                int a = stack[--stackSize];
+                int middle = hierarchy.getMiddle(hierarchy.findArc(a, b));
+
+                if (middle == ContractionHierarchy.NO_MIDDLE) {
+                    unpacked = append(unpacked, unpackedSize++, b);
+                }
+                else {
+                    stack = push(stack, stackSize, middle, b);
+                    stackSize += 2;
+                    stack = push(stack, stackSize, a, middle);
+                    stackSize += 2;
+                }
+            }
+        }
+
+        return new Route(hierarchy.getGraph(), Arrays.copyOf(unpacked, unpackedSize), cost);
+    }
+
+    private static int[] append(int[] array, int size, int value) {
+        if (size == array.length)
+            array = Arrays.copyOf(array, size * 2);
+
+        array[size] = value;
+
+        return array;
+    }
+
+    private static int[] push(int[] stack, int size, int a, int b) {
+        if (size + 2 > stack.length)
+            stack = Arrays.copyOf(stack, stack.length * 2);
+
+        stack[size] = a;
+        stack[size + 1] = b;
+
+        return stack;
+    }
+
+    private int requireIndex(String id) throws IllegalArgumentException {
+        int index = hierarchy.getGraph().indexOf(id);
+
+        if (index == IndexedGraph.NONE)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return index;
+    }
+
+    /**
+     * Die Arbeitsspeicher einer Suchrichtung.
+     */
+    private static final class Direction {
+
+        private final IndexedMinHeap heap;
+        private final int[] distances;
+        private final int[] parents;
+        private final int[] stamps;
+
+        private Direction(int n) {
+            heap = new IndexedMinHeap(n);
+            distances = new int[n];
+            parents = new int[n];
+            stamps = new int[n];
+        }
+
+        private void reset() {
+            Arrays.fill(stamps, 0);
+        }
+
+        private void start(int source, int stamp) {
+            heap.clear();
+            set(source, 0, -1, stamp);
+            heap.insert(source, 0);
+        }
+
+        private int getDistance(int node, int stamp) {
+            return stamps[node] == stamp ? distances[node] : ShortestPathSearch.INFINITY;
+        }
+
+        private void set(int node, int distance, int parent, int stamp) {
+            stamps[node] = stamp;
+            distances[node] = distance;
+            parents[node] = parent;
+        }
+    }
+}
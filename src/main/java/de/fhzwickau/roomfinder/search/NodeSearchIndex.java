@@ -0,0 +1,720 @@
+package de.fhzwickau.roomfinder.search;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * Ein Suchindex über die IDs und Anzeigenamen der Knoten, z.B. für die Autovervollständigung im UI oder eine Suche
+ * im {@link de.fhzwickau.roomfinder.server.RouteServer}.
+ * Gesucht wird in Begriffen: der ID, dem Anzeigenamen und den einzelnen Wörtern des Anzeigenamens, jeweils in
+ * Kleinbuchstaben. Es gibt zwei Arten von Anfragen:
+ * <ul>
+ *     <li>{@link #prefix(String, int)}: Begriffe, die mit dem Text beginnen, in lexikographischer Reihenfolge. Die
+ *     Begriffe liegen in einer {@link TreeMap}, eine Anfrage kostet O(log n + k).</li>
+ *     <li>{@link #fuzzy(String, int)}: Begriffe mit höchstens ein (ab 4 Zeichen) bzw. zwei (ab 8 Zeichen)
+ *     Tippfehlern (Levenshtein-Distanz). Jeder Begriff ist unter seinen Trigrammen eingetragen. Da ein Tippfehler
+ *     höchstens drei Trigramme verändert, muss ein Treffer mindestens {@code Trigramme - 3 * Distanz} davon mit der
+ *     Anfrage teilen. Nur die kürzesten Listen werden vollständig gelesen, in den übrigen werden die Kandidaten per
+ *     binärer Suche nachgeschlagen. Die verbliebenen Kandidaten werden mit der Distanz geprüft.</li>
+ * </ul>
+ * {@link #search(String, int)} kombiniert beide. Jeder Knoten erscheint in einem Ergebnis höchstens einmal.
+ * <p>
+ * Der Index wird schrittweise angepasst ({@link #add(String, String)}, {@link #remove(String)}), z.B. über
+ * {@link #of(Graph)} als {@link GraphListener} eines Graphen. Entfernte Begriffe bleiben bis zur nächsten
+ * Verdichtung in den Trigramm-Listen stehen und werden bei Anfragen übersprungen; die Verdichtung läuft, sobald sie
+ * die Hälfte der Einträge ausmachen. Anfragen dürfen gleichzeitig aus mehreren Threads gestellt werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class NodeSearchIndex implements GraphListener {
+
+    /**
+     * Füllt die Trigramme am Anfang und Ende eines Begriffs auf, damit auch die ersten und letzten Zeichen in drei
+     * bzw. zwei Trigrammen vorkommen.
+     */
+    private static final char PAD = '\u0002';
+
+    /**
+     * Ab dieser Anzahl an entfernten Begriffen wird verdichtet, sofern sie mindestens die Hälfte ausmachen.
+     */
+    private static final int MIN_COMPACTION = 1024;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Die Einträge (Anzeigename und Begriffe) nach ID des Knotens.
+     */
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    /**
+     * Alle Begriffe, sortiert für die Präfixsuche.
+     */
+    private final NavigableMap<String, Term> dictionary = new TreeMap<>();
+
+    /**
+     * Die aufsteigend sortierten Nummern der Begriffe nach Trigramm.
+     */
+    private final Map<Long, IntList> postings = new HashMap<>();
+
+    /**
+     * Die Begriffe nach Nummer, null für entfernte Begriffe.
+     */
+    private Term[] terms = new Term[1024];
+    private int termCount;
+    private int deadTerms;
+
+    public NodeSearchIndex() {
+    }
+
+    /**
+     * Erstellt einen Index über alle Knoten eines Graphen und registriert ihn als {@link GraphListener}, sodass er
+     * mit dem Graphen aktuell bleibt.
+     * @param graph Der Graph.
+     * @return Der Index.
+     */
+    public static NodeSearchIndex of(Graph graph) {
+        NodeSearchIndex index = new NodeSearchIndex();
+
+        for (Node node : graph.values()) {
+            index.onNodeAdded(node);
+        }
+
+        graph.addGraphListener(index);
+
+        return index;
+    }
+
+    /**
+     * Erstellt einen Index über alle Knoten eines kompilierten Graphen. Er ändert sich nicht mehr.
+     * @param graph Der Graph.
+     * @return Der Index.
+     */
+    public static NodeSearchIndex of(IndexedGraph graph) {
+        NodeSearchIndex index = new NodeSearchIndex();
+
+        for (int u = 0; u < graph.getNodeCount(); u++) {
+            if (graph.getId(u) != null)
+                index.add(graph.getId(u), graph.getDisplayName(u));
+        }
+
+        return index;
+    }
+
+    @Override
+    public void onNodeAdded(Node node) {
+        add(node.getId(), node.hasDisplayName() ? node.getDisplayName() : null);
+    }
+
+    @Override
+    public void onNodeRemoved(String id, Node node) {
+        remove(id);
+    }
+
+    /*
+    Ändern
+     */
+
+    /**
+     * Nimmt einen Knoten auf. Ein vorhandener Eintrag mit der gleichen ID wird ersetzt.
+     * @param id Die ID.
+     * @param displayName Der Anzeigename oder null.
+     */
+    public void add(String id, String displayName) {
+        lock.writeLock().lock();
+
+        try {
+            Entry old = entries.get(id);
+
+            if (old != null)
+                removeTerms(id, old);
+
+            Entry entry = new Entry(displayName, termsFor(id, displayName));
+
+            entries.put(id, entry);
+
+            for (String term : entry.terms) {
+                addOwner(term, id);
+            }
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param id Die ID des Knotens.
+     * @return Gibt an, ob der Knoten im Index war.
+     */
+    public boolean remove(String id) {
+        lock.writeLock().lock();
+
+        try {
+            Entry entry = entries.remove(id);
+
+            if (entry == null)
+                return false;
+
+            removeTerms(id, entry);
+
+            if (deadTerms >= MIN_COMPACTION && deadTerms * 2 >= termCount)
+                compact();
+
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return entries.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return Die Begriffe eines Knotens ohne Duplikate: ID, Anzeigename und dessen Wörter.
+     */
+    private static String[] termsFor(String id, String displayName) {
+        String normalizedId = normalize(id);
+
+        if (displayName == null)
+            return new String[]{normalizedId};
+
+        List<String> t = new ArrayList<>(4);
+        String name = normalize(displayName);
+
+        t.add(normalizedId);
+
+        if (!name.isEmpty() && !t.contains(name))
+            t.add(name);
+
+        if (name.indexOf(' ') >= 0) {
+            for (String word : name.split(" ")) {
+                if (word.length() >= 2 && !t.contains(word))
+                    t.add(word);
+            }
+        }
+
+        return t.toArray(new String[0]);
+    }
+
+    private void addOwner(String text, String id) {
+        Term term = dictionary.get(text);
+
+        if (term == null) {
+            if (termCount == terms.length)
+                terms = Arrays.copyOf(terms, termCount * 2);
+
+            term = new Term(text, termCount++);
+            terms[term.number] = term;
+            dictionary.put(text, term);
+
+            for (long gram : trigrams(text)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(term.number);
+            }
+        }
+
+        term.add(id);
+    }
+
+    private void removeTerms(String id, Entry entry) {
+        for (String text : entry.terms) {
+            Term term = dictionary.get(text);
+
+            if (term != null && term.remove(id) && term.isEmpty()) {
+                dictionary.remove(text);
+                terms[term.number] = null;
+                deadTerms++;
+            }
+        }
+    }
+
+    /**
+     * Baut die Trigramm-Listen aus den aktuellen Begriffen neu auf. Die Nummern der Begriffe werden dabei neu
+     * vergeben.
+     */
+    private void compact() {
+        Term[] live = new Term[Math.max(1024, Integer.highestOneBit(dictionary.size()) * 2)];
+        int n = 0;
+
+        postings.clear();
+
+        for (Term term : dictionary.values()) {
+            term.number = n;
+            live[n++] = term;
+
+            for (long gram : trigrams(term.text)) {
+                postings.computeIfAbsent(gram, g -> new IntList()).add(term.number);
+            }
+        }
+
+        terms = live;
+        termCount = n;
+        deadTerms = 0;
+    }
+
+    /*
+    Anfragen
+     */
+
+    /**
+     * Sucht zuerst per {@link #prefix(String, int)} und ergänzt das Ergebnis mit {@link #fuzzy(String, int)}, falls
+     * weniger als {@code k} Knoten gefunden wurden.
+     * @param query Der gesuchte Text.
+     * @param k Die maximale Anzahl an Treffern.
+     * @return Die Treffer, die besten zuerst.
+     */
+    public List<Match> search(String query, int k) {
+        lock.readLock().lock();
+
+        try {
+            Map<String, Match> matches = new LinkedHashMap<>();
+            String q = normalize(query);
+
+            collectPrefix(q, k, matches);
+
+            if (matches.size() < k)
+                collectFuzzy(q, k, matches);
+
+            return new ArrayList<>(matches.values());
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Der Anfang des gesuchten Begriffs.
+     * @param k Die maximale Anzahl an Treffern.
+     * @return Die Knoten, bei denen ein Begriff mit dem Text beginnt. Ein exakt passender Begriff zuerst, danach in
+     * lexikographischer Reihenfolge der Begriffe.
+     */
+    public List<Match> prefix(String query, int k) {
+        lock.readLock().lock();
+
+        try {
+            Map<String, Match> matches = new LinkedHashMap<>();
+
+            collectPrefix(normalize(query), k, matches);
+
+            return new ArrayList<>(matches.values());
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param query Der gesuchte Begriff.
+     * @param k Die maximale Anzahl an Treffern.
+     * @return Die Knoten mit einem Begriff, der höchstens die zur Länge der Anfrage passende Anzahl an Tippfehlern
+     * enthält, nach Distanz und dann nach Begriff sortiert. Leer für Anfragen mit weniger als vier Zeichen.
+     */
+    public List<Match> fuzzy(String query, int k) {
+        lock.readLock().lock();
+
+        try {
+            Map<String, Match> matches = new LinkedHashMap<>();
+
+            collectFuzzy(normalize(query), k, matches);
+
+            return new ArrayList<>(matches.values());
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void collectPrefix(String q, int k, Map<String, Match> matches) {
+        if (q.isEmpty() || k <= 0)
+            return;
+
+        Term exact = dictionary.get(q);
+
+        if (exact != null)
+            collect(exact, 0, k, matches);
+
+        for (Term term : dictionary.tailMap(q, false).values()) {
+            if (matches.size() >= k || !term.text.startsWith(q))
+                return;
+
+            collect(term, 0, k, matches);
+        }
+    }
+
+    private void collectFuzzy(String q, int k, Map<String, Match> matches) {
+        int distance = maxDistance(q.length());
+
+        if (distance == 0 || matches.size() >= k)
+            return;
+
+        long[] grams = trigrams(q);
+        int threshold = grams.length - 3 * distance;
+        IntList[] lists = new IntList[grams.length];
+
+        for (int i = 0; i < grams.length; i++) {
+            IntList list = postings.get(grams[i]);
+            lists[i] = list != null ? list : IntList.EMPTY;
+        }
+
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+
+        int[] candidates;
+        int n = 0;
+        int scanned;
+
+        if (threshold <= 0) {
+            /*
+            Wiederholende Anfragen (z.B. "aaaaaaaa") haben zu wenige verschiedene Trigramme für den Filter, dann
+            werden alle Begriffe passender Länge geprüft
+             */
+            scanned = lists.length;
+            candidates = new int[termCount];
+
+            for (int i = 0; i < termCount; i++) {
+                Term term = terms[i];
+
+                if (term != null && Math.abs(term.text.length() - q.length()) <= distance)
+                    candidates[n++] = i;
+            }
+        }
+        else {
+            /*
+            Die kürzesten Listen vollständig lesen: Ein Treffer muss in mindestens einer davon vorkommen. Begriffe,
+            deren Länge zu weit abweicht, fallen schon hier heraus
+             */
+            scanned = Math.min(grams.length - threshold + 1, lists.length);
+
+            int total = 0;
+
+            for (int i = 0; i < scanned; i++) {
+                total += lists[i].size;
+            }
+
+            candidates = new int[total];
+
+            for (int i = 0; i < scanned; i++) {
+                for (int j = 0; j < lists[i].size; j++) {
+                    Term term = terms[lists[i].values[j]];
+
+                    if (term != null && Math.abs(term.text.length() - q.length()) <= distance)
+                        candidates[n++] = term.number;
+                }
+            }
+        }
+
+        Arrays.sort(candidates, 0, n);
+
+        /*
+        Die übrigen Listen per binärer Suche nachschlagen, danach die Distanz prüfen
+         */
+        List<Term> found = new ArrayList<>();
+        List<Integer> distances = new ArrayList<>();
+
+        for (int i = 0; i < n; ) {
+            int number = candidates[i];
+            int count = 0;
+
+            while (i < n && candidates[i] == number) {
+                count++;
+                i++;
+            }
+
+            Term term = terms[number];
+
+            for (int j = scanned; j < lists.length && count < threshold; j++) {
+                if (count + lists.length - j < threshold)
+                    break;
+
+                if (lists[j].contains(number))
+                    count++;
+            }
+
+            if (count < threshold)
+                continue;
+
+            int d = levenshtein(q, term.text, distance);
+
+            if (d <= distance) {
+                found.add(term);
+                distances.add(d);
+            }
+        }
+
+        Integer[] order = new Integer[found.size()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> !distances.get(a).equals(distances.get(b))
+                ? Integer.compare(distances.get(a), distances.get(b))
+                : found.get(a).text.compareTo(found.get(b).text));
+
+        for (int i : order) {
+            if (matches.size() >= k)
+                return;
+
+            collect(found.get(i), distances.get(i), k, matches);
+        }
+    }
+
+    /**
+     * Übernimmt die Knoten eines Begriffs in das Ergebnis, bis es {@code k} Treffer hat.
+     */
+    private void collect(Term term, int distance, int k, Map<String, Match> matches) {
+        term.forEach(id -> {
+            if (matches.size() < k && !matches.containsKey(id))
+                matches.put(id, new Match(id, entries.get(id).displayName, term.text, distance));
+        });
+    }
+
+    /*
+    Hilfsmethoden
+     */
+
+    private static String normalize(String text) {
+        if (text == null)
+            return "";
+
+        String t = text.trim();
+
+        if (t.contains("  ") || t.indexOf('\t') >= 0 || t.indexOf('\n') >= 0)
+            t = WHITESPACE.matcher(t).replaceAll(" ");
+
+        return t.toLowerCase(Locale.ROOT);
+    }
+
+    private static int maxDistance(int length) {
+        return length < 4 ? 0 : length < 8 ? 1 : 2;
+    }
+
+    /**
+     * @return Die verschiedenen Trigramme eines Begriffs mit zwei Füllzeichen am Anfang und einem am Ende, jeweils als
+     * drei 16-Bit-Zeichen in einem long, aufsteigend sortiert.
+     */
+    private static long[] trigrams(String term) {
+        long[] grams = new long[term.length() + 1];
+        char a = PAD;
+        char b = PAD;
+
+        for (int i = 0; i < grams.length; i++) {
+            char c = i < term.length() ? term.charAt(i) : PAD;
+
+            grams[i] = ((long) a << 32) | ((long) b << 16) | c;
+            a = b;
+            b = c;
+        }
+
+        Arrays.sort(grams);
+
+        int n = 1;
+
+        for (int i = 1; i < grams.length; i++) {
+            if (grams[i] != grams[n - 1])
+                grams[n++] = grams[i];
+        }
+
+        return n == grams.length ? grams : Arrays.copyOf(grams, n);
+    }
+
+    /**
+     * @return Die Levenshtein-Distanz oder {@code max + 1}, sobald feststeht, dass sie größer als {@code max} ist.
+     */
+    private static int levenshtein(String a, String b, int max) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int min = current[0];
+
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                min = Math.min(min, current[j]);
+            }
+
+            if (min > max)
+                return max + 1;
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[b.length()];
+    }
+
+    /**
+     * Der Anzeigename und die Begriffe eines Knotens.
+     */
+    private static final class Entry {
+
+        private final String displayName;
+        private final String[] terms;
+
+        private Entry(String displayName, String[] terms) {
+            this.displayName = displayName;
+            this.terms = terms;
+        }
+    }
+
+    /**
+     * Ein Begriff mit den IDs der Knoten, zu denen er gehört. Die meisten Begriffe (IDs) gehören zu genau einem
+     * Knoten, dann wird keine Menge angelegt.
+     */
+    private static final class Term {
+
+        private final String text;
+        private int number;
+        private String single;
+        private Set<String> owners;
+
+        private Term(String text, int number) {
+            this.text = text;
+            this.number = number;
+        }
+
+        void add(String id) {
+            if (owners != null)
+                owners.add(id);
+            else if (single == null)
+                single = id;
+            else if (!single.equals(id)) {
+                owners = new LinkedHashSet<>();
+                owners.add(single);
+                owners.add(id);
+                single = null;
+            }
+        }
+
+        boolean remove(String id) {
+            if (owners != null)
+                return owners.remove(id);
+
+            if (!id.equals(single))
+                return false;
+
+            single = null;
+
+            return true;
+        }
+
+        boolean isEmpty() {
+            return owners != null ? owners.isEmpty() : single == null;
+        }
+
+        void forEach(Consumer<String> action) {
+            if (owners != null)
+                owners.forEach(action);
+            else if (single != null)
+                action.accept(single);
+        }
+    }
+
+    /**
+     * Eine wachsende, aufsteigend sortierte Liste von ints. Neue Nummern sind immer größer als alle vorhandenen.
+     */
+    private static final class IntList {
+
+        private static final IntList EMPTY = new IntList();
+
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length)
+                values = Arrays.copyOf(values, size * 2);
+
+            values[size++] = value;
+        }
+
+        boolean contains(int value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+    }
+
+    /**
+     * Ein Treffer einer Anfrage.
+     */
+    public static final class Match {
+
+        private final String id;
+        private final String displayName;
+        private final String term;
+        private final int distance;
+
+        private Match(String id, String displayName, String term, int distance) {
+            this.id = id;
+            this.displayName = displayName;
+            this.term = term;
+            this.distance = distance;
+        }
+
+        /**
+         * @return Die ID des gefundenen Knotens.
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return Der Anzeigename des Knotens oder null.
+         */
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        /**
+         * @return Der Begriff, über den der Knoten gefunden wurde (in Kleinbuchstaben).
+         */
+        public String getTerm() {
+            return term;
+        }
+
+        /**
+         * @return Die Anzahl der Tippfehler, 0 bei einem exakten oder Präfix-Treffer.
+         */
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return id + (displayName != null ? " (" + displayName + ")" : "");
+        }
+    }
+}
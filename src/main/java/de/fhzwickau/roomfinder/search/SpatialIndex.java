@@ -0,0 +1,567 @@
+package de.fhzwickau.roomfinder.search;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Ein räumlicher Index über die Positionen von Knoten, getrennt nach Ressource (Etagenplan). Damit lassen sich der
+ * nächste Knoten zu einem Klick oder einer umgerechneten GPS-Position, alle Knoten in einem Umkreis oder alle Knoten
+ * in einem sichtbaren Ausschnitt finden, ohne alle Knoten zu durchsuchen.
+ * <p>
+ * Jede Ressource hat ein gleichmäßiges Gitter aus quadratischen Zellen der Kantenlänge {@link #getCellSize()}. Es
+ * werden nur belegte Zellen in einer {@link HashMap} angelegt, sodass die Größe des Plans keine Rolle spielt.
+ * <ul>
+ *     <li>{@link #nearest(String, int, int, int, Predicate)}: Die Zellen werden ringförmig um die Position
+ *     durchsucht. Sobald {@code k} Treffer gefunden sind und der nächste Ring weiter entfernt ist als der
+ *     {@code k}-te Treffer, ist die Suche fertig. Ringe außerhalb der belegten Zellen werden übersprungen.</li>
+ *     <li>{@link #within(String, int, int, int)} und {@link #inRectangle(String, int, int, int, int)}: Es werden nur
+ *     die Zellen gelesen, die den Bereich schneiden.</li>
+ * </ul>
+ * Bei ungefähr gleichmäßig verteilten Knoten kostet eine Anfrage damit nur die Zellen in der Nähe, unabhängig von der
+ * Anzahl der Knoten.
+ * <p>
+ * Der Index merkt sich, in welcher Zelle ein Eintrag liegt, sodass er ihn auch dann entfernen kann, wenn sich die
+ * Position des Knotens schon geändert hat. Die Einträge werden über {@link Object#equals(Object)} verglichen, nur der
+ * Index aus {@link #of(Graph)} vergleicht die Knoten über ihre Identität: Ein {@link Node} ist über seine ID gleich,
+ * und die kann sich ändern. So bleibt er als {@link GraphListener} aktuell, auch wenn ein Knoten über
+ * {@link Graph#rekey(String, Node)} verschoben oder durch einen gleichnamigen ersetzt wird.
+ * Knoten ohne Position werden nicht aufgenommen. Anfragen dürfen gleichzeitig aus mehreren Threads gestellt werden.
+ * @param <T> Der Typ der Einträge, z.B. {@link Node} oder der Index eines Knotens in einem {@link IndexedGraph}.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class SpatialIndex<T> {
+
+    /**
+     * Die Kantenlänge einer Zelle, falls keine angegeben wird, in Koordinaten des Plans (Pixel).
+     */
+    public static final int DEFAULT_CELL_SIZE = 64;
+
+    private final int cellSize;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Floor> floors = new HashMap<>();
+    private final Map<T, Location<T>> locations;
+    private GraphListener listener;
+
+    public SpatialIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * @param cellSize Die Kantenlänge einer Zelle. Sie sollte etwa dem typischen Abstand benachbarter Knoten
+     *                 entsprechen.
+     * @throws IllegalArgumentException Falls die Kantenlänge nicht positiv ist.
+     */
+    public SpatialIndex(int cellSize) throws IllegalArgumentException {
+        this(cellSize, false);
+    }
+
+    /**
+     * @param identity Gibt an, ob die Einträge über ihre Identität statt über {@link Object#equals(Object)}
+     *                 verglichen werden.
+     */
+    private SpatialIndex(int cellSize, boolean identity) throws IllegalArgumentException {
+        if (cellSize <= 0)
+            throw new IllegalArgumentException("The cell size must be positive.");
+
+        this.cellSize = cellSize;
+        this.locations = identity ? new IdentityHashMap<>() : new HashMap<>();
+    }
+
+    /**
+     * Erstellt einen Index über alle Knoten eines Graphen, die eine Position haben, und registriert ihn über
+     * {@link #getListener()} beim Graphen, sodass er mit dem Graphen aktuell bleibt.
+     * @param graph Der Graph.
+     * @return Der Index.
+     */
+    public static SpatialIndex<Node> of(Graph graph) {
+        SpatialIndex<Node> index = new SpatialIndex<>(DEFAULT_CELL_SIZE, true);
+
+        index.listener = new GraphListener() {
+
+            @Override
+            public void onNodeAdded(Node node) {
+                if (node.hasPosition())
+                    index.add(node.hasRessource() ? node.getRessource() : null, node.getPositionX(),
+                            node.getPositionY(), node);
+            }
+
+            @Override
+            public void onNodeRemoved(String id, Node node) {
+                index.remove(node);
+            }
+        };
+
+        for (Node node : graph.values()) {
+            index.listener.onNodeAdded(node);
+        }
+
+        graph.addGraphListener(index.listener);
+
+        return index;
+    }
+
+    /**
+     * Erstellt einen Index über alle Knoten eines kompilierten Graphen mit ihren Indizes als Einträgen. Er ändert sich
+     * nicht mehr.
+     * @param graph Der Graph.
+     * @return Der Index.
+     */
+    public static SpatialIndex<Integer> of(IndexedGraph graph) {
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+
+        for (int u = 0; u < graph.getNodeCount(); u++) {
+            if (!graph.hasPosition(u))
+                continue;
+
+            int ressource = graph.getRessourceIndex(u);
+
+            index.add(ressource != IndexedGraph.NONE ? graph.getRessourceName(ressource) : null,
+                    graph.getPositionX(u), graph.getPositionY(u), u);
+        }
+
+        return index;
+    }
+
+    /**
+     * @return Der Listener, über den ein mit {@link #of(Graph)} erstellter Index aktuell bleibt, sonst null. Er muss
+     * beim Graphen abgemeldet werden, wenn der Index nicht mehr gebraucht wird.
+     */
+    public GraphListener getListener() {
+        return listener;
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /*
+    Ändern
+     */
+
+    /**
+     * Nimmt einen Eintrag auf. Ist er schon im Index, wird er an die neue Position verschoben.
+     * @param ressource Die Ressource oder null.
+     * @param x Die X-Koordinate.
+     * @param y Die Y-Koordinate.
+     * @param item Der Eintrag.
+     */
+    public void add(String ressource, int x, int y, T item) {
+        lock.writeLock().lock();
+
+        try {
+            Location<T> old = locations.remove(item);
+
+            if (old != null)
+                old.floor.remove(old.cell, old.item);
+
+            Floor floor = floors.computeIfAbsent(ressource, r -> new Floor());
+            long cell = cellKey(cellOf(x), cellOf(y));
+
+            floor.add(cell, x, y, item);
+            locations.put(item, new Location<>(floor, cell, item));
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param item Der Eintrag.
+     * @return Gibt an, ob der Eintrag im Index war.
+     */
+    public boolean remove(T item) {
+        lock.writeLock().lock();
+
+        try {
+            Location<T> location = locations.remove(item);
+
+            if (location == null)
+                return false;
+
+            location.floor.remove(location.cell, location.item);
+
+            return true;
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+
+        try {
+            return locations.size();
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+    Anfragen
+     */
+
+    /**
+     * @param ressource Die Ressource oder null.
+     * @param x Die X-Koordinate.
+     * @param y Die Y-Koordinate.
+     * @param filter Nur Einträge, für die der Filter zutrifft, z.B. Knoten mit Kanten.
+     * @return Der nächste Eintrag oder null, falls es auf der Ressource keinen passenden gibt.
+     */
+    public T nearest(String ressource, int x, int y, Predicate<? super T> filter) {
+        List<T> nearest = nearest(ressource, x, y, 1, filter);
+
+        return nearest.isEmpty() ? null : nearest.get(0);
+    }
+
+    /**
+     * @param ressource Die Ressource oder null.
+     * @param x Die X-Koordinate.
+     * @param y Die Y-Koordinate.
+     * @param k Die maximale Anzahl an Treffern.
+     * @param filter Nur Einträge, für die der Filter zutrifft, oder null für alle.
+     * @return Die {@code k} nächsten Einträge auf der Ressource, der nächste zuerst.
+     */
+    public List<T> nearest(String ressource, int x, int y, int k, Predicate<? super T> filter) {
+        lock.readLock().lock();
+
+        try {
+            Floor floor = floors.get(ressource);
+
+            if (floor == null || floor.size == 0 || k <= 0)
+                return new ArrayList<>();
+
+            PriorityQueue<Hit<T>> best = new PriorityQueue<>(Math.min(k, 64) + 1,
+                    (a, b) -> Long.compare(b.distance, a.distance));
+            int cx = cellOf(x);
+            int cy = cellOf(y);
+
+            /*
+            Ringe um die Zelle der Position durchsuchen. Ring r + 1 ist mindestens r Zellen entfernt
+             */
+            int first = Math.max(Math.max(floor.minX - cx, cx - floor.maxX), Math.max(floor.minY - cy, cy - floor.maxY));
+            int last = Math.max(Math.max(cx - floor.minX, floor.maxX - cx), Math.max(cy - floor.minY, floor.maxY - cy));
+
+            for (int r = Math.max(0, first); r <= last; r++) {
+                if (best.size() == k) {
+                    long bound = (long) (r - 1) * cellSize;
+
+                    if (r > 0 && best.peek().distance <= bound * bound)
+                        break;
+                }
+
+                for (int ry = Math.max(cy - r, floor.minY); ry <= Math.min(cy + r, floor.maxY); ry++) {
+                    boolean edge = ry == cy - r || ry == cy + r;
+                    int step = edge || r == 0 ? 1 : 2 * r;
+
+                    for (int rx = cx - r; rx <= cx + r; rx += step) {
+                        if (rx < floor.minX || rx > floor.maxX)
+                            continue;
+
+                        Cell cell = floor.cells.get(cellKey(rx, ry));
+
+                        if (cell != null)
+                            cell.collect(x, y, k, filter, best);
+                    }
+                }
+            }
+
+            return sorted(best);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ressource Die Ressource oder null.
+     * @param x Die X-Koordinate des Mittelpunkts.
+     * @param y Die Y-Koordinate des Mittelpunkts.
+     * @param radius Der Radius (einschließlich).
+     * @return Die Einträge im Umkreis, der nächste zuerst.
+     */
+    public List<T> within(String ressource, int x, int y, int radius) {
+        lock.readLock().lock();
+
+        try {
+            Floor floor = floors.get(ressource);
+
+            if (floor == null || radius < 0)
+                return new ArrayList<>();
+
+            long limit = (long) radius * radius;
+            List<Hit<T>> hits = new ArrayList<>();
+
+            floor.forEachCell(cellOf(x - radius), cellOf(y - radius), cellOf(x + radius), cellOf(y + radius),
+                    cell -> {
+                        for (int i = 0; i < cell.size; i++) {
+                            long d = distance(x, y, cell.xs[i], cell.ys[i]);
+
+                            if (d <= limit)
+                                hits.add(new Hit<>(cell.item(i), d));
+                        }
+                    });
+
+            hits.sort((a, b) -> Long.compare(a.distance, b.distance));
+
+            List<T> items = new ArrayList<>(hits.size());
+
+            for (Hit<T> hit : hits) {
+                items.add(hit.item);
+            }
+
+            return items;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ressource Die Ressource oder null.
+     * @return Die Einträge im Rechteck (einschließlich der Ränder), z.B. im sichtbaren Ausschnitt eines Plans, in
+     * keiner bestimmten Reihenfolge.
+     */
+    public List<T> inRectangle(String ressource, int minX, int minY, int maxX, int maxY) {
+        lock.readLock().lock();
+
+        try {
+            Floor floor = floors.get(ressource);
+            List<T> items = new ArrayList<>();
+
+            if (floor == null || minX > maxX || minY > maxY)
+                return items;
+
+            floor.forEachCell(cellOf(minX), cellOf(minY), cellOf(maxX), cellOf(maxY), cell -> {
+                for (int i = 0; i < cell.size; i++) {
+                    if (cell.xs[i] >= minX && cell.xs[i] <= maxX && cell.ys[i] >= minY && cell.ys[i] <= maxY)
+                        items.add(cell.item(i));
+                }
+            });
+
+            return items;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /*
+    Hilfsmethoden
+     */
+
+    private int cellOf(int coordinate) {
+        return Math.floorDiv(coordinate, cellSize);
+    }
+
+    private static long cellKey(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+
+    private static long distance(int x1, int y1, int x2, int y2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * @return Die Einträge der Warteschlange (der entfernteste oben) aufsteigend nach Distanz.
+     */
+    private static <T> List<T> sorted(PriorityQueue<Hit<T>> best) {
+        List<T> items = new ArrayList<>(best.size());
+
+        while (!best.isEmpty()) {
+            items.add(best.poll().item);
+        }
+
+        Collections.reverse(items);
+
+        return items;
+    }
+
+    /**
+     * Die belegten Zellen einer Ressource und die Grenzen, in denen sie liegen. Die Grenzen werden beim Entfernen
+     * nicht verkleinert.
+     */
+    private static final class Floor {
+
+        private final Map<Long, Cell> cells = new HashMap<>();
+        private int size;
+        private int minX = Integer.MAX_VALUE;
+        private int minY = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int maxY = Integer.MIN_VALUE;
+
+        void add(long key, int x, int y, Object item) {
+            int cx = (int) (key >> 32);
+            int cy = (int) key;
+
+            cells.computeIfAbsent(key, c -> new Cell()).add(x, y, item);
+            size++;
+            minX = Math.min(minX, cx);
+            minY = Math.min(minY, cy);
+            maxX = Math.max(maxX, cx);
+            maxY = Math.max(maxY, cy);
+        }
+
+        void remove(long key, Object item) {
+            Cell cell = cells.get(key);
+
+            if (cell != null && cell.remove(item)) {
+                size--;
+
+                if (cell.size == 0)
+                    cells.remove(key);
+            }
+        }
+
+        /**
+         * Ruft die Aktion für alle belegten Zellen im Bereich auf. Ist der Bereich größer als die Anzahl der belegten
+         * Zellen, werden stattdessen diese durchlaufen.
+         */
+        void forEachCell(int fromX, int fromY, int toX, int toY, Consumer<Cell> action) {
+            fromX = Math.max(fromX, minX);
+            fromY = Math.max(fromY, minY);
+            toX = Math.min(toX, maxX);
+            toY = Math.min(toY, maxY);
+
+            if (fromX > toX || fromY > toY)
+                return;
+
+            if ((long) (toX - fromX + 1) * (toY - fromY + 1) > cells.size()) {
+                for (Map.Entry<Long, Cell> e : cells.entrySet()) {
+                    int cx = (int) (e.getKey() >> 32);
+                    int cy = (int) (long) e.getKey();
+
+                    if (cx >= fromX && cx <= toX && cy >= fromY && cy <= toY)
+                        action.accept(e.getValue());
+                }
+
+                return;
+            }
+
+            for (int cx = fromX; cx <= toX; cx++) {
+                for (int cy = fromY; cy <= toY; cy++) {
+                    Cell cell = cells.get(cellKey(cx, cy));
+
+                    if (cell != null)
+                        action.accept(cell);
+                }
+            }
+        }
+    }
+
+    /**
+     * Die Einträge einer Zelle mit ihren Koordinaten in parallelen Arrays.
+     */
+    private static final class Cell {
+
+        private Object[] items = new Object[4];
+        private int[] xs = new int[4];
+        private int[] ys = new int[4];
+        private int size;
+
+        void add(int x, int y, Object item) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+                xs = Arrays.copyOf(xs, size * 2);
+                ys = Arrays.copyOf(ys, size * 2);
+            }
+
+            items[size] = item;
+            xs[size] = x;
+            ys[size] = y;
+            size++;
+        }
+
+        /**
+         * Entfernt einen Eintrag, indem der letzte an seine Stelle rückt.
+         */
+        boolean remove(Object item) {
+            for (int i = 0; i < size; i++) {
+                if (items[i] == item) {
+                    size--;
+                    items[i] = items[size];
+                    xs[i] = xs[size];
+                    ys[i] = ys[size];
+                    items[size] = null;
+
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> T item(int i) {
+            return (T) items[i];
+        }
+
+        <T> void collect(int x, int y, int k, Predicate<? super T> filter, PriorityQueue<Hit<T>> best) {
+            for (int i = 0; i < size; i++) {
+                long d = distance(x, y, xs[i], ys[i]);
+
+                if (best.size() == k && d >= best.peek().distance)
+                    continue;
+
+                T item = item(i);
+
+                if (filter != null && !filter.test(item))
+                    continue;
+
+                best.add(new Hit<>(item, d));
+
+                if (best.size() > k)
+                    best.poll();
+            }
+        }
+    }
+
+    /**
+     * Die Zelle eines Eintrags und der Eintrag selbst, wie er in der Zelle liegt. Die Zellen vergleichen über die
+     * Identität, daher wird immer dieser entfernt, auch wenn ein gleicher übergeben wurde.
+     */
+    private static final class Location<T> {
+
+        private final Floor floor;
+        private final long cell;
+        private final T item;
+
+        private Location(Floor floor, long cell, T item) {
+            this.floor = floor;
+            this.cell = cell;
+            this.item = item;
+        }
+    }
+
+    private static final class Hit<T> {
+
+        private final T item;
+        private final long distance;
+
+        private Hit(T item, long distance) {
+            this.item = item;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package de.fhzwickau.roomfinder.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Überwacht die Datei eines Graphen und die zugehörigen Landmarken über einen {@link WatchService}.
+ * Wird eine der Dateien angelegt oder geändert, wird nach einer kurzen Ruhezeit die Aktion ausgeführt. So wird bei
+ * einer Datei, die in mehreren Schritten geschrieben wird, nur einmal und erst am Ende neu geladen. Am zuverlässigsten
+ * ist es, den neuen Graphen daneben zu schreiben und per {@link java.nio.file.Files#move} atomar zu ersetzen, wie es
+ * {@link de.fhzwickau.roomfinder.model.graph.compiled.MappedGraph#write} tut.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class GraphFileWatcher implements Closeable {
+
+    private static final long QUIET_PERIOD_MILLIS = 250;
+
+    private final Path file;
+    private final Path landmarks;
+    private final Runnable onChange;
+    private final WatchService service;
+    private final ScheduledExecutorService scheduler;
+    private final Thread thread;
+    private ScheduledFuture<?> pending;
+
+    /**
+     * Beginnt sofort mit der Überwachung.
+     * @param file Die Datei des Graphen.
+     * @param onChange Wird nach einer Änderung aufgerufen, immer im gleichen Thread.
+     * @throws IOException Falls das Verzeichnis nicht überwacht werden kann.
+     */
+    GraphFileWatcher(Path file, Runnable onChange) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.landmarks = LoadedGraph.landmarksOf(this.file);
+        this.onChange = onChange;
+        this.service = FileSystems.getDefault().newWatchService();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> daemon(r, "graph-reload"));
+
+        this.file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        thread = daemon(this::watch, "graph-watcher");
+        thread.start();
+    }
+
+    private static Thread daemon(Runnable r, String name) {
+        Thread t = new Thread(r, name);
+        t.setDaemon(true);
+
+        return t;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        schedule();
+                        continue;
+                    }
+
+                    Path changed = file.getParent().resolve((Path) event.context());
+
+                    if (changed.equals(file) || changed.equals(landmarks))
+                        schedule();
+                }
+
+                if (!key.reset())
+                    return;
+            }
+        }
+        catch (InterruptedException | ClosedWatchServiceException ex) {
+            // beendet
+        }
+    }
+
+    /**
+     * Plant die Aktion nach der Ruhezeit ein. Eine schon geplante Aktion wird dabei verschoben.
+     */
+    private synchronized void schedule() {
+        if (pending != null)
+            pending.cancel(false);
+
+        pending = scheduler.schedule(onChange, QUIET_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+        try {
+            service.close();
+        }
+        catch (IOException ignored) {
+        }
+
+        thread.interrupt();
+        scheduler.shutdownNow();
+    }
+}
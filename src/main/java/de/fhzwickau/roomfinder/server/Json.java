@@ -0,0 +1,126 @@
+package de.fhzwickau.roomfinder.server;
+
+/**
+ * Baut die JSON-Antworten des {@link RouteServer}s auf. Es werden nur Objekte, Arrays, Zeichenketten, Zahlen und
+ * Wahrheitswerte geschrieben; Kommas werden automatisch gesetzt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class Json {
+
+    private final StringBuilder sb = new StringBuilder(256);
+    private boolean first = true;
+
+    Json beginObject() {
+        separate();
+        sb.append('{');
+        first = true;
+
+        return this;
+    }
+
+    Json endObject() {
+        sb.append('}');
+        first = false;
+
+        return this;
+    }
+
+    Json beginArray() {
+        separate();
+        sb.append('[');
+        first = true;
+
+        return this;
+    }
+
+    Json endArray() {
+        sb.append(']');
+        first = false;
+
+        return this;
+    }
+
+    /**
+     * Schreibt den Namen eines Feldes. Der Wert folgt mit dem nächsten Aufruf.
+     */
+    Json name(String name) {
+        separate();
+        string(name);
+        sb.append(':');
+        first = true;
+
+        return this;
+    }
+
+    Json value(String value) {
+        separate();
+
+        if (value == null)
+            sb.append("null");
+        else
+            string(value);
+
+        return this;
+    }
+
+    Json value(long value) {
+        separate();
+        sb.append(value);
+
+        return this;
+    }
+
+    Json value(boolean value) {
+        separate();
+        sb.append(value);
+
+        return this;
+    }
+
+    /**
+     * Übernimmt ein fertiges JSON-Dokument als Wert.
+     */
+    Json raw(String json) {
+        separate();
+        sb.append(json);
+
+        return this;
+    }
+
+    private void separate() {
+        if (!first)
+            sb.append(',');
+
+        first = false;
+    }
+
+    private void string(String value) {
+        sb.append('"');
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20)
+                        sb.append(String.format("\\u%04x", (int) c));
+                    else
+                        sb.append(c);
+            }
+        }
+
+        sb.append('"');
+    }
+
+    @Override
+    public String toString() {
+        return sb.toString();
+    }
+}
@@ -0,0 +1,214 @@
+package de.fhzwickau.roomfinder.server;
+
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ein einfacher Lasttest für den {@link RouteServer}. Mehrere Threads senden Wegsuchen zwischen zufälligen Knoten
+ * eines Graphen, jeweils erst nach der Antwort auf die vorherige. Gemessen werden der Durchsatz und die Verteilung der
+ * Antwortzeiten (p50, p90, p99, Maximum). Mit einer Bündelgröße &gt; 1 werden mehrere Wegsuchen in einer POST-Anfrage
+ * gesendet; der Durchsatz zählt dann die einzelnen Wegsuchen, die Antwortzeiten die Anfragen.
+ * Die ersten Anfragen jedes Threads gelten als Aufwärmphase und werden nicht gemessen.
+ * Das Modul {@code java.net.http} ist optional und muss beim Start über den Modulpfad hinzugefügt werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class LoadTestClient {
+
+    private final URI base;
+    private final String[] ids;
+    private final HttpClient client;
+
+    /**
+     * @param base Die Adresse des Servers, z.B. {@code http://localhost:8080}.
+     * @param graph Der Graph, aus dem die Knoten für die Anfragen gewählt werden (der gleiche wie auf dem Server).
+     */
+    public LoadTestClient(URI base, IndexedGraph graph) {
+        List<String> ids = new ArrayList<>(graph.getNodeCount());
+
+        for (int u = 0; u < graph.getNodeCount(); u++) {
+            if (graph.getId(u) != null && !graph.isLazy(u))
+                ids.add(graph.getId(u));
+        }
+
+        if (ids.isEmpty())
+            throw new IllegalArgumentException("The graph has no nodes.");
+
+        this.base = base;
+        this.ids = ids.toArray(new String[0]);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * @see #LoadTestClient(URI, IndexedGraph)
+     * @param graphFile Die Datei des Graphen.
+     * @throws IOException Falls der Graph nicht gelesen werden kann.
+     */
+    public LoadTestClient(URI base, Path graphFile) throws IOException {
+        this(base, LoadedGraph.open(graphFile));
+    }
+
+    /**
+     * Führt den Lasttest aus.
+     * @param requests Die Anzahl der gemessenen Anfragen insgesamt.
+     * @param concurrency Die Anzahl der gleichzeitig sendenden Threads.
+     * @param batchSize Die Anzahl der Wegsuchen pro Anfrage.
+     * @param warmup Die Anzahl der nicht gemessenen Anfragen pro Thread.
+     * @return Das Ergebnis.
+     * @throws InterruptedException Falls der Test unterbrochen wird.
+     */
+    public Result run(int requests, int concurrency, int batchSize, int warmup) throws InterruptedException {
+        if (requests <= 0 || concurrency <= 0 || batchSize <= 0 || warmup < 0)
+            throw new IllegalArgumentException("Requests, concurrency and batch size must be positive.");
+
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        LongAdder errors = new LongAdder();
+        Thread[] threads = new Thread[concurrency];
+        long[] window = new long[2];
+
+        for (int t = 0; t < concurrency; t++) {
+            Random random = new Random(t);
+
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < warmup; i++) {
+                    send(random, batchSize, errors);
+                }
+
+                synchronized (window) {
+                    if (window[0] == 0)
+                        window[0] = System.nanoTime();
+                }
+
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long start = System.nanoTime();
+
+                    send(random, batchSize, errors);
+                    latencies[i] = System.nanoTime() - start;
+                }
+            }, "load-test-" + t);
+            threads[t].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        window[1] = System.nanoTime();
+
+        return new Result(latencies, window[1] - window[0], batchSize, errors.sum());
+    }
+
+    private void send(Random random, int batchSize, LongAdder errors) {
+        HttpRequest request;
+
+        if (batchSize == 1) {
+            request = HttpRequest.newBuilder(base.resolve("/route?from=" + encode(randomId(random))
+                    + "&to=" + encode(randomId(random)))).GET().build();
+        }
+        else {
+            StringBuilder body = new StringBuilder();
+
+            for (int i = 0; i < batchSize; i++) {
+                body.append(randomId(random)).append(' ').append(randomId(random)).append('\n');
+            }
+
+            request = HttpRequest.newBuilder(base.resolve("/route"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString())).build();
+        }
+
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+
+            if (response.statusCode() != 200)
+                errors.increment();
+        }
+        catch (IOException ex) {
+            errors.increment();
+        }
+        catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            errors.increment();
+        }
+    }
+
+    private String randomId(Random random) {
+        return ids[random.nextInt(ids.length)];
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Das Ergebnis eines Lasttests.
+     */
+    public static final class Result {
+
+        private final long[] latencies;
+        private final long nanos;
+        private final int batchSize;
+        private final long errors;
+
+        private Result(long[] latencies, long nanos, int batchSize, long errors) {
+            this.latencies = latencies.clone();
+            this.nanos = nanos;
+            this.batchSize = batchSize;
+            this.errors = errors;
+
+            Arrays.sort(this.latencies);
+        }
+
+        public int getRequests() {
+            return latencies.length;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return Die beantworteten Wegsuchen pro Sekunde.
+         */
+        public double getThroughput() {
+            return latencies.length * (double) batchSize / (nanos / 1e9);
+        }
+
+        /**
+         * @param p Das Perzentil zwischen 0 und 100.
+         * @return Die Antwortzeit in Millisekunden, unter der der Anteil {@code p} der Anfragen lag.
+         */
+        public double getPercentileMillis(double p) {
+            int i = (int) Math.ceil(p / 100 * latencies.length) - 1;
+
+            return latencies[Math.max(0, Math.min(latencies.length - 1, i))] / 1e6;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("requests=%d batch=%d errors=%d throughput_rps=%.1f p50_ms=%.3f p90_ms=%.3f p99_ms=%.3f "
+                            + "max_ms=%.3f%n", getRequests(), batchSize, errors, getThroughput(),
+                    getPercentileMillis(50), getPercentileMillis(90), getPercentileMillis(99),
+                    getPercentileMillis(100));
+        }
+    }
+}
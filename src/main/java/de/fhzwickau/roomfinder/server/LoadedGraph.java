@@ -0,0 +1,182 @@
+package de.fhzwickau.roomfinder.server;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.io.LegacyGraphConverter;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.model.graph.compiled.MappedGraph;
+import de.fhzwickau.roomfinder.routing.AStar;
+import de.fhzwickau.roomfinder.routing.CoordinateHeuristic;
+import de.fhzwickau.roomfinder.routing.Heuristic;
+import de.fhzwickau.roomfinder.routing.Landmarks;
+import de.fhzwickau.roomfinder.routing.NearestToiletIndex;
+import de.fhzwickau.roomfinder.search.NodeSearchIndex;
+import de.fhzwickau.roomfinder.search.SpatialIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Ein geladener Graph mit allem, was der {@link RouteServer} für Anfragen braucht. Wird nach dem Laden nicht mehr
+ * verändert; beim Austausch des Graphen wird ein neues Objekt erzeugt, laufende Anfragen arbeiten mit dem alten zu
+ * Ende.
+ * Die Suchen ({@link AStar}) halten Arrays in der Größe des Graphen und werden daher in einem Pool wiederverwendet,
+ * statt sie pro Anfrage (und damit pro virtuellem Thread) neu anzulegen.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+final class LoadedGraph {
+
+    private final Path file;
+    private final long epoch;
+    private final IndexedGraph graph;
+    private final Heuristic heuristic;
+    private final NearestToiletIndex toilets;
+    private final NodeSearchIndex searchIndex;
+    private final SpatialIndex<Integer> spatialIndex;
+    private final ConcurrentLinkedQueue<AStar> searches = new ConcurrentLinkedQueue<>();
+
+    private LoadedGraph(Path file, long epoch, IndexedGraph graph, Heuristic heuristic, NearestToiletIndex toilets) {
+        this.file = file;
+        this.epoch = epoch;
+        this.graph = graph;
+        this.heuristic = heuristic;
+        this.toilets = toilets;
+        this.searchIndex = NodeSearchIndex.of(graph);
+        this.spatialIndex = SpatialIndex.of(graph);
+    }
+
+    /**
+     * Lädt einen Graphen. Kompilierte Graphen (.grm) werden direkt eingeblendet, alle anderen Formate werden gelesen
+     * und kompiliert. Liegen daneben passende Landmarken (.grl), werden sie als Heuristik verwendet, sonst die
+     * Koordinaten der Knoten.
+     * @param file Die Datei des Graphen.
+     * @param epoch Die fortlaufende Nummer dieses Standes.
+     * @return Der geladene Graph.
+     * @throws IOException Falls die Datei nicht gelesen werden kann.
+     */
+    static LoadedGraph load(Path file, long epoch) throws IOException {
+        IndexedGraph graph = open(file);
+
+        return new LoadedGraph(file, epoch, graph, heuristic(graph, landmarksOf(file)), new NearestToiletIndex(graph));
+    }
+
+    /**
+     * Lädt einen Graphen als Nachfolger eines bisherigen Standes. Wurde der bisherige Stand kompiliert, wird der neue
+     * mit {@link CompiledGraph#recompile(Graph)} aus ihm kompiliert, sodass die Indizes erhalten bleiben, und der
+     * {@link NearestToiletIndex} wird nur für die geänderten Knoten fortgeschrieben, statt für jeden
+     * {@link de.fhzwickau.roomfinder.model.ToiletType} wieder den ganzen Graphen zu durchsuchen. Der bisherige Stand
+     * wird dabei nicht verändert.
+     * Eingeblendete Graphen (.grm) und Graphen mit Landmarken (.grl) werden wie mit {@link #load(Path, long)} neu
+     * geladen, da deren Indizes zur Datei passen müssen. Ebenso, wenn mehr als die Hälfte der Indizes Lücken wären.
+     * @param file Die Datei des Graphen.
+     * @param epoch Die fortlaufende Nummer dieses Standes.
+     * @param previous Der bisherige Stand.
+     * @return Der geladene Graph.
+     * @throws IOException Falls die Datei nicht gelesen werden kann.
+     */
+    static LoadedGraph load(Path file, long epoch, LoadedGraph previous) throws IOException {
+        if (!(previous.graph instanceof CompiledGraph) || isMapped(file) || Files.isRegularFile(landmarksOf(file)))
+            return load(file, epoch);
+
+        Graph source = read(file);
+        CompiledGraph old = (CompiledGraph) previous.graph;
+        CompiledGraph graph = old.recompile(source);
+
+        if (graph.getNodeCount() > 2 * source.size()) {
+            graph = CompiledGraph.compile(source);
+
+            return new LoadedGraph(file, epoch, graph, CoordinateHeuristic.calibrate(graph),
+                    new NearestToiletIndex(graph));
+        }
+
+        NearestToiletIndex toilets = previous.toilets.copy();
+
+        toilets.update(graph, graph.changedSince(old));
+
+        return new LoadedGraph(file, epoch, graph, CoordinateHeuristic.calibrate(graph), toilets);
+    }
+
+    /**
+     * Öffnet einen Graphen für die Wegfindung.
+     * @see #load(Path, long)
+     */
+    static IndexedGraph open(Path file) throws IOException {
+        if (isMapped(file))
+            return MappedGraph.open(file);
+
+        return CompiledGraph.compile(read(file));
+    }
+
+    private static boolean isMapped(Path file) {
+        return file.getFileName().toString().endsWith("." + MappedGraph.EXTENSION);
+    }
+
+    private static Graph read(Path file) throws IOException {
+        return BinaryGraphFormat.isBinaryGraph(file) ? BinaryGraphFormat.read(file) : LegacyGraphConverter.read(file);
+    }
+
+    private static Heuristic heuristic(IndexedGraph graph, Path landmarks) {
+        if (Files.isRegularFile(landmarks)) {
+            try {
+                return Landmarks.read(landmarks, graph);
+            }
+            catch (IOException ex) {
+                System.err.println("Ignoring landmarks " + landmarks + ": " + ex.getMessage());
+            }
+        }
+
+        return CoordinateHeuristic.calibrate(graph);
+    }
+
+    /**
+     * @return Die Datei der Landmarken, die zu einem Graphen gehört.
+     */
+    static Path landmarksOf(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+
+        return file.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + "." + Landmarks.EXTENSION);
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    IndexedGraph getGraph() {
+        return graph;
+    }
+
+    NearestToiletIndex getToilets() {
+        return toilets;
+    }
+
+    NodeSearchIndex getSearchIndex() {
+        return searchIndex;
+    }
+
+    SpatialIndex<Integer> getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * @return Eine freie Suche aus dem Pool oder eine neue. Muss mit {@link #release(AStar)} zurückgegeben werden.
+     */
+    AStar acquire() {
+        AStar search = searches.poll();
+
+        return search != null ? search : new AStar(graph, heuristic);
+    }
+
+    void release(AStar search) {
+        searches.offer(search);
+    }
+}
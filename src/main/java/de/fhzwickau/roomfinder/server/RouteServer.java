@@ -0,0 +1,533 @@
+package de.fhzwickau.roomfinder.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import de.fhzwickau.roomfinder.metrics.LatencyHistogram;
+import de.fhzwickau.roomfinder.metrics.Metrics;
+import de.fhzwickau.roomfinder.metrics.MetricsSnapshot;
+import de.fhzwickau.roomfinder.metrics.Operation;
+import de.fhzwickau.roomfinder.model.ToiletType;
+import de.fhzwickau.roomfinder.model.graph.compiled.IndexedGraph;
+import de.fhzwickau.roomfinder.routing.AStar;
+import de.fhzwickau.roomfinder.routing.Route;
+import de.fhzwickau.roomfinder.routing.ShortestPathSearch;
+import de.fhzwickau.roomfinder.search.NodeSearchIndex;
+import de.fhzwickau.roomfinder.search.SpatialIndex;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Beantwortet Anfragen zur Wegfindung über HTTP (mit dem {@code com.sun.net.httpserver} des JDK):
+ * <pre>
+ * GET  /route?from=&lt;id&gt;&amp;to=&lt;id&gt;
+ * GET  /nearest-toilet?from=&lt;id&gt;&amp;type=MALE|FEMALE|ACCESSIBLE
+ * GET  /node/&lt;id&gt;
+ * GET  /search?q=&lt;text&gt;[&amp;limit=&lt;anzahl&gt;]   Knoten nach ID oder Anzeigename, siehe {@link NodeSearchIndex}
+ * GET  /nearest-node?ressource=&lt;name&gt;&amp;x=&lt;x&gt;&amp;y=&lt;y&gt;[&amp;limit=&lt;anzahl&gt;]
+ *                        die nächsten erreichbaren Knoten zu einer Position, siehe {@link SpatialIndex}
+ * GET  /metrics          Zähler und Laufzeiten der Operationen auf Graphen, siehe {@link Metrics}
+ * POST /route            eine Anfrage "&lt;from&gt; &lt;to&gt;" pro Zeile
+ * POST /nearest-toilet   eine Anfrage "&lt;from&gt; &lt;type&gt;" pro Zeile
+ * </pre>
+ * Die Antworten sind JSON. Per POST werden mehrere Anfragen gebündelt: Sie laufen nacheinander auf dem gleichen Stand
+ * des Graphen und mit der gleichen Suche, die Antwort ist ein Array mit einem Ergebnis pro Zeile.
+ * <p>
+ * Jede Anfrage läuft in einem eigenen virtuellen Thread, falls die JVM sie anbietet (ab Java 21), sonst in einem
+ * Thread-Pool. Der Graph wird über einen {@link GraphFileWatcher} ausgetauscht, sobald eine neue Datei abgelegt wird;
+ * laufende Anfragen arbeiten mit dem alten Graphen zu Ende.
+ * Das Modul {@code jdk.httpserver} ist optional: Beim Start über den Modulpfad muss es mit
+ * {@code --add-modules jdk.httpserver} hinzugefügt werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public class RouteServer implements Closeable {
+
+    private static final int MAX_BATCH_SIZE = 10_000;
+    private static final int MAX_BODY_SIZE = 1 << 20;
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 100;
+
+    private final Path file;
+    private final AtomicReference<LoadedGraph> current;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private GraphFileWatcher watcher;
+
+    /**
+     * Lädt den Graphen und bindet den Server an die Adresse. Gestartet wird er mit {@link #start()}.
+     * @param file Die Datei des Graphen (.grm, .grb oder .grser).
+     * @param address Die Adresse, z.B. {@code new InetSocketAddress(8080)}. Port 0 wählt einen freien Port.
+     * @throws IOException Falls der Graph nicht geladen oder die Adresse nicht gebunden werden kann.
+     */
+    public RouteServer(Path file, InetSocketAddress address) throws IOException {
+        this.file = file;
+        this.current = new AtomicReference<>(LoadedGraph.load(file, 1));
+        this.executor = newRequestExecutor();
+        this.server = HttpServer.create(address, 0);
+
+        server.setExecutor(executor);
+        server.createContext("/route", ex -> handle(ex, this::route));
+        server.createContext("/nearest-toilet", ex -> handle(ex, this::nearestToilet));
+        server.createContext("/node/", ex -> handle(ex, this::node));
+        server.createContext("/search", ex -> handle(ex, this::search));
+        server.createContext("/nearest-node", ex -> handle(ex, this::nearestNode));
+        server.createContext("/metrics", ex -> handle(ex, this::metrics));
+    }
+
+    /**
+     * @return Ein Executor mit einem virtuellen Thread pro Aufgabe oder, falls die JVM keine virtuellen Threads hat,
+     * ein Pool mit Daemon-Threads.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException | RuntimeException ex) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "route-server");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /**
+     * Startet den Server und die Überwachung der Datei des Graphen.
+     * @throws IOException Falls das Verzeichnis des Graphen nicht überwacht werden kann.
+     */
+    public void start() throws IOException {
+        watcher = new GraphFileWatcher(file, this::reload);
+        server.start();
+    }
+
+    /**
+     * Lädt den Graphen neu und tauscht ihn aus. Schlägt das Laden fehl, bleibt der bisherige Graph aktiv.
+     * @return Gibt an, ob der Graph ausgetauscht wurde.
+     */
+    public boolean reload() {
+        LoadedGraph old = current.get();
+
+        try {
+            LoadedGraph loaded = LoadedGraph.load(file, old.getEpoch() + 1, old);
+
+            current.set(loaded);
+            System.err.println("Loaded " + file + " (epoch " + loaded.getEpoch() + ", "
+                    + loaded.getGraph().getNodeCount() + " nodes)");
+
+            return true;
+        }
+        catch (IOException | RuntimeException ex) {
+            System.err.println("Keeping epoch " + old.getEpoch() + ", " + file + " could not be loaded: "
+                    + ex.getMessage());
+
+            return false;
+        }
+    }
+
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * @return Die Nummer des aktuellen Standes, beginnend bei 1 und mit jedem Austausch erhöht.
+     */
+    public long getEpoch() {
+        return current.get().getEpoch();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+
+        if (watcher != null)
+            watcher.close();
+
+        executor.shutdownNow();
+    }
+
+    /*
+    Anfragen
+     */
+
+    /**
+     * Beantwortet eine Anfrage.
+     */
+    @FunctionalInterface
+    private interface Handler {
+
+        /**
+         * @param graph Der Stand des Graphen für die gesamte Anfrage.
+         * @param path Der Pfad der Anfrage.
+         * @param params Die Parameter der Anfrage oder einer Zeile einer gebündelten Anfrage.
+         * @param search Eine freie Suche auf dem Graphen.
+         * @param json Die Antwort.
+         * @return Der HTTP-Status.
+         */
+        int answer(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json);
+    }
+
+    private void handle(HttpExchange exchange, Handler handler) throws IOException {
+        try (exchange) {
+            LoadedGraph graph = current.get();
+            AStar search = graph.acquire();
+            Json json = new Json();
+            int status;
+
+            try {
+                String method = exchange.getRequestMethod();
+                String path = exchange.getRequestURI().getRawPath();
+
+                if ("GET".equals(method)) {
+                    status = handler.answer(graph, path, parseQuery(exchange.getRequestURI().getRawQuery()), search,
+                            json);
+                }
+                else if ("POST".equals(method) && (path.startsWith("/route") || path.startsWith("/nearest-toilet"))) {
+                    String body = readBody(exchange);
+
+                    status = body != null
+                            ? batch(graph, path, body, handler, search, json)
+                            : error(json, 413, "The request body must not exceed " + MAX_BODY_SIZE + " bytes.");
+                }
+                else {
+                    status = error(json, 405, "Method " + method + " is not allowed.");
+                }
+            }
+            catch (IllegalArgumentException ex) {
+                json = new Json();
+                status = error(json, 400, ex.getMessage());
+            }
+            catch (RuntimeException ex) {
+                System.err.println("Request " + exchange.getRequestURI() + " failed: " + ex);
+
+                json = new Json();
+                status = error(json, 500, "Internal error.");
+            }
+            finally {
+                graph.release(search);
+            }
+
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("X-Graph-Epoch", Long.toString(graph.getEpoch()));
+            exchange.sendResponseHeaders(status, body.length);
+
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Beantwortet eine gebündelte Anfrage. Jede Zeile wird wie die Parameter einer einzelnen Anfrage behandelt, die
+     * Namen ergeben sich aus dem Pfad.
+     */
+    private static int batch(LoadedGraph graph, String path, String body, Handler handler, AStar search, Json json) {
+        String[] names = path.startsWith("/nearest-toilet") ? new String[]{"from", "type"} : new String[]{"from", "to"};
+        String[] lines = body.split("\r?\n");
+
+        if (lines.length > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("A batch may contain at most " + MAX_BATCH_SIZE + " requests.");
+
+        json.beginArray();
+
+        for (String line : lines) {
+            if (line.isBlank())
+                continue;
+
+            String[] parts = line.trim().split("\\s+");
+            Map<String, String> params = new HashMap<>();
+
+            for (int i = 0; i < Math.min(parts.length, names.length); i++) {
+                params.put(names[i], parts[i]);
+            }
+
+            Json item = new Json();
+
+            try {
+                handler.answer(graph, path, params, search, item);
+            }
+            catch (IllegalArgumentException ex) {
+                item = new Json();
+                error(item, 400, ex.getMessage());
+            }
+
+            json.raw(item.toString());
+        }
+
+        json.endArray();
+
+        return 200;
+    }
+
+    private int route(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        int from = requireNode(graph, params, "from");
+        int to = requireNode(graph, params, "to");
+
+        return writeRoute(json, graph.getGraph(), search.route(from, to), params.get("from"), params.get("to"));
+    }
+
+    private int nearestToilet(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        int from = requireNode(graph, params, "from");
+        String type = require(params, "type");
+        ToiletType toiletType;
+
+        try {
+            toiletType = ToiletType.valueOf(type.toUpperCase(Locale.ROOT));
+        }
+        catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown toilet type " + type + ".");
+        }
+
+        Route route = graph.getToilets().route(toiletType, from);
+
+        return writeRoute(json, graph.getGraph(), route, params.get("from"),
+                route != null ? graph.getGraph().getId(route.getTarget()) : null);
+    }
+
+    private int node(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        String id = decodePath(path.substring("/node/".length()));
+        IndexedGraph g = graph.getGraph();
+        int node = g.indexOf(id);
+
+        if (node == IndexedGraph.NONE)
+            return error(json, 404, "There is no node with the id " + id + ".");
+
+        json.beginObject()
+                .name("id").value(id)
+                .name("displayName").value(g.getDisplayName(node))
+                .name("ressource").value(g.getRessourceIndex(node) != IndexedGraph.NONE
+                        ? g.getRessourceName(g.getRessourceIndex(node)) : null)
+                .name("x").value(g.getPositionX(node))
+                .name("y").value(g.getPositionY(node))
+                .name("asTarget").value(g.asTarget(node))
+                .name("toiletType").value(g.getToiletType(node))
+                .name("lazy").value(g.isLazy(node))
+                .name("neighbours").beginArray();
+
+        for (int arc = g.getArcStart(node); arc < g.getArcEnd(node); arc++) {
+            json.beginObject()
+                    .name("id").value(g.getId(g.getTarget(arc)))
+                    .name("weight").value(g.getWeight(arc))
+                    .endObject();
+        }
+
+        json.endArray().endObject();
+
+        return 200;
+    }
+
+    private int search(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        String query = require(params, "q");
+        int limit = limit(params);
+
+        json.beginArray();
+
+        for (NodeSearchIndex.Match match : graph.getSearchIndex().search(query, limit)) {
+            json.beginObject()
+                    .name("id").value(match.getId())
+                    .name("displayName").value(match.getDisplayName())
+                    .name("distance").value(match.getDistance())
+                    .endObject();
+        }
+
+        json.endArray();
+
+        return 200;
+    }
+
+    /**
+     * Sucht die nächsten Knoten zu einer Position auf einer Ressource, z.B. für einen Klick in den Plan oder eine
+     * umgerechnete GPS-Position. Es werden nur Knoten geliefert, von denen aus eine Route möglich ist (mit Kanten und
+     * nicht nur als {@link de.fhzwickau.roomfinder.model.graph.node.LazyNode} vorhanden).
+     */
+    private int nearestNode(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        String ressource = require(params, "ressource");
+        int x = requireInt(params, "x");
+        int y = requireInt(params, "y");
+        int limit = params.containsKey("limit") ? limit(params) : 1;
+        IndexedGraph g = graph.getGraph();
+
+        json.beginArray();
+
+        for (int node : graph.getSpatialIndex().nearest(ressource, x, y, limit,
+                u -> g.getDegree(u) > 0 && !g.isLazy(u))) {
+            long dx = g.getPositionX(node) - x;
+            long dy = g.getPositionY(node) - y;
+
+            json.beginObject()
+                    .name("id").value(g.getId(node))
+                    .name("displayName").value(g.getDisplayName(node))
+                    .name("x").value(g.getPositionX(node))
+                    .name("y").value(g.getPositionY(node))
+                    .name("distance").value(Math.round(Math.sqrt(dx * dx + dy * dy)))
+                    .endObject();
+        }
+
+        json.endArray();
+
+        return 200;
+    }
+
+    private int metrics(LoadedGraph graph, String path, Map<String, String> params, AStar search, Json json) {
+        MetricsSnapshot snapshot = Metrics.snapshot();
+
+        json.beginObject()
+                .name("capturedAt").value(snapshot.getCapturedAt().toString())
+                .name("operations").beginObject();
+
+        for (Map.Entry<Operation, LatencyHistogram.Snapshot> entry : snapshot.getLatencies().entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue();
+
+            json.name(entry.getKey().getKey()).beginObject()
+                    .name("count").value(s.getCount())
+                    .name("units").value(s.getUnits())
+                    .name("samples").value(s.getSamples())
+                    .name("meanNanos").value(Math.round(s.getMeanNanos()))
+                    .name("p50Nanos").value(s.getPercentileNanos(50))
+                    .name("p99Nanos").value(s.getPercentileNanos(99))
+                    .name("maxNanos").value(s.getMaxNanos())
+                    .endObject();
+        }
+
+        json.endObject().endObject();
+
+        return 200;
+    }
+
+    private static int writeRoute(Json json, IndexedGraph graph, Route route, String from, String to) {
+        json.beginObject()
+                .name("from").value(from)
+                .name("to").value(to)
+                .name("reachable").value(route != null);
+
+        if (route != null) {
+            json.name("cost").value(route.getCost()).name("path").beginArray();
+
+            for (int i = 0; i < route.getLength(); i++) {
+                json.value(graph.getId(route.getNode(i)));
+            }
+
+            json.endArray();
+        }
+        else {
+            json.name("cost").value(ShortestPathSearch.INFINITY);
+        }
+
+        json.endObject();
+
+        return 200;
+    }
+
+    private static int error(Json json, int status, String message) {
+        json.beginObject().name("status").value(status).name("error").value(message).endObject();
+
+        return status;
+    }
+
+    /*
+    Parameter
+     */
+
+    private static String require(Map<String, String> params, String name) throws IllegalArgumentException {
+        String value = params.get(name);
+
+        if (value == null || value.isEmpty())
+            throw new IllegalArgumentException("The parameter " + name + " is missing.");
+
+        return value;
+    }
+
+    private static int requireNode(LoadedGraph graph, Map<String, String> params, String name)
+            throws IllegalArgumentException {
+        String id = require(params, name);
+        int node = graph.getGraph().indexOf(id);
+
+        if (node == IndexedGraph.NONE)
+            throw new IllegalArgumentException("There is no node with the id " + id + ".");
+
+        return node;
+    }
+
+    private static int requireInt(Map<String, String> params, String name) throws IllegalArgumentException {
+        String value = require(params, name);
+
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("The parameter " + name + " is not an integer: " + value + ".");
+        }
+    }
+
+    /**
+     * @return Der Parameter {@code limit} oder {@link #DEFAULT_SEARCH_LIMIT}, falls er fehlt.
+     * @throws IllegalArgumentException Falls er nicht zwischen 1 und {@link #MAX_SEARCH_LIMIT} liegt.
+     */
+    private static int limit(Map<String, String> params) throws IllegalArgumentException {
+        int limit = DEFAULT_SEARCH_LIMIT;
+
+        if (params.containsKey("limit")) {
+            try {
+                limit = Integer.parseInt(params.get("limit"));
+            }
+            catch (NumberFormatException ex) {
+                limit = 0;
+            }
+
+            if (limit <= 0 || limit > MAX_SEARCH_LIMIT)
+                throw new IllegalArgumentException("The limit must be between 1 and " + MAX_SEARCH_LIMIT + ".");
+        }
+
+        return limit;
+    }
+
+    static Map<String, String> parseQuery(String query) {
+        Map<String, String> params = new HashMap<>();
+
+        if (query == null || query.isEmpty())
+            return params;
+
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+
+        return params;
+    }
+
+    /**
+     * Dekodiert einen Abschnitt des rohen Pfads. Anders als in der Query steht '+' dort für sich selbst.
+     */
+    static String decodePath(String raw) {
+        return URLDecoder.decode(raw.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return Der Inhalt der Anfrage oder null, falls er größer als {@link #MAX_BODY_SIZE} Bytes ist.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_SIZE + 1);
+
+            return body.length > MAX_BODY_SIZE ? null : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
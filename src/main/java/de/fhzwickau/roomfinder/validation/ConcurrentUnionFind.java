@@ -0,0 +1,98 @@
+package de.fhzwickau.roomfinder.validation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Eine Union-Find-Struktur über die Indizes {@code 0..n-1}, die ohne Sperren aus mehreren Threads gleichzeitig
+ * verwendet werden kann.
+ * Jede Menge wird durch ihre Wurzel vertreten. Zwei Wurzeln werden verbunden, indem die mit dem größeren Index per
+ * compare-and-set unter die mit dem kleineren gehängt wird; scheitert das, weil ein anderer Thread die Wurzel gerade
+ * verändert hat, wird es mit den neuen Wurzeln wiederholt. Da Verweise immer zu kleineren Indizes zeigen, entstehen
+ * keine Zyklen. {@link #find(int)} halbiert die Pfade dabei ebenfalls per compare-and-set.
+ * Sind alle Aufrufe von {@link #union(int, int)} abgeschlossen, liefert {@link #find(int)} für jede Menge die gleiche
+ * Wurzel, und zwar ihren kleinsten Index.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ConcurrentUnionFind {
+
+    private final AtomicIntegerArray parent;
+
+    /**
+     * @param size Die Anzahl der Elemente. Jedes bildet zunächst eine eigene Menge.
+     */
+    public ConcurrentUnionFind(int size) {
+        parent = new AtomicIntegerArray(size);
+
+        for (int i = 0; i < size; i++) {
+            parent.lazySet(i, i);
+        }
+    }
+
+    public int size() {
+        return parent.length();
+    }
+
+    /**
+     * @param x Ein Element.
+     * @return Die Wurzel der Menge, in der es liegt.
+     */
+    public int find(int x) {
+        while (true) {
+            int p = parent.get(x);
+
+            if (p == x)
+                return x;
+
+            int grandparent = parent.get(p);
+
+            if (p != grandparent)
+                parent.compareAndSet(x, p, grandparent);
+
+            x = p;
+        }
+    }
+
+    /**
+     * Vereinigt die Mengen zweier Elemente.
+     * @return Gibt an, ob die Elemente vorher in verschiedenen Mengen lagen.
+     */
+    public boolean union(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+
+            if (a == b)
+                return false;
+
+            if (a < b) {
+                int swap = a;
+                a = b;
+                b = swap;
+            }
+
+            if (parent.compareAndSet(a, a, b))
+                return true;
+        }
+    }
+
+    /**
+     * @return Gibt an, ob zwei Elemente in der gleichen Menge liegen.
+     */
+    public boolean connected(int a, int b) {
+        while (true) {
+            a = find(a);
+            b = find(b);
+
+            if (a == b)
+                return true;
+
+            /*
+            a kann inzwischen unter eine andere Wurzel gehängt worden sein, dann erneut suchen
+             */
+            if (parent.get(a) == a)
+                return false;
+        }
+    }
+}
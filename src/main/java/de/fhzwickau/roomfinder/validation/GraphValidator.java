@@ -0,0 +1,296 @@
+package de.fhzwickau.roomfinder.validation;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.validation.ValidationReport.Component;
+import de.fhzwickau.roomfinder.validation.ValidationReport.Problem;
+import de.fhzwickau.roomfinder.validation.ValidationReport.ProblemType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Prüft einen {@link Graph}en, bevor er veröffentlicht wird (siehe {@link ValidationReport.ProblemType}):
+ * nicht aufgelöste {@link LazyNode}s, Kanten zu Knoten außerhalb des Graphen, Kanten, die nur bei einem Knoten
+ * eingetragen sind ({@link Node#addEdge(Edge)} erzwingt das nicht), Gewichte kleiner oder gleich 0 und Ziele, die
+ * nicht in der größten Zusammenhangskomponente liegen.
+ * <p>
+ * Die Knoten werden in Abschnitte von {@link #CHUNK_SIZE} Knoten geteilt und in einem {@link ForkJoinPool}
+ * parallel geprüft. Dabei werden die Knoten jeder Kante in einer {@link ConcurrentUnionFind} vereinigt, die
+ * Komponenten ergeben sich danach aus deren Wurzeln. Jede Kante wird nur bei dem Knoten mit dem kleineren Index
+ * gezählt und gemeldet, sofern sie bei beiden eingetragen ist.
+ * Der Graph darf während der Prüfung nicht verändert werden.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class GraphValidator {
+
+    /**
+     * Die Anzahl der Knoten, die ein Task ohne weitere Teilung prüft.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * Erstellt einen Validator, der den gemeinsamen {@link ForkJoinPool#commonPool()} verwendet.
+     */
+    public GraphValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GraphValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param graph Der Graph.
+     * @return Der Bericht mit allen Problemen und den Komponenten.
+     */
+    public ValidationReport validate(Graph graph) {
+        Node[] nodes = graph.values().toArray(new Node[0]);
+        Map<Node, Integer> index = new IdentityHashMap<>(nodes.length);
+
+        for (int i = 0; i < nodes.length; i++) {
+            index.put(nodes[i], i);
+        }
+
+        /*
+        Knoten und Kanten prüfen, dabei die Komponenten vereinigen
+         */
+        ConcurrentUnionFind components = new ConcurrentUnionFind(nodes.length);
+        Result result = pool.invoke(new CheckTask(graph, nodes, index, components, 0, nodes.length));
+
+        /*
+        Wurzeln bestimmen, danach die Komponenten zählen und die Ziele außerhalb der größten melden
+         */
+        int[] roots = new int[nodes.length];
+
+        pool.invoke(new RootTask(components, roots, 0, nodes.length));
+
+        int[] sizes = new int[nodes.length];
+        int[] targets = new int[nodes.length];
+        int main = -1;
+        int componentCount = 0;
+
+        for (int i = 0; i < nodes.length; i++) {
+            int root = roots[i];
+
+            if (sizes[root]++ == 0)
+                componentCount++;
+
+            if (nodes[i].asTarget())
+                targets[root]++;
+
+            if (main < 0 || sizes[root] > sizes[main])
+                main = root;
+        }
+
+        for (int i = 0; i < nodes.length; i++) {
+            if (nodes[i].asTarget() && roots[i] != main)
+                result.add(new Problem(ProblemType.UNREACHABLE_TARGET, nodes[i].getId(), null, "Das Ziel "
+                        + nodes[i].getId() + " liegt in einer Komponente mit " + sizes[roots[i]]
+                        + " Knoten und ist vom Rest des Graphen aus nicht erreichbar."));
+        }
+
+        return new ValidationReport(nodes.length, result.edges, result.counts, result.sortedProblems(),
+                componentCount, largest(nodes, sizes, targets));
+    }
+
+    /**
+     * @return Die {@link ValidationReport#MAX_COMPONENTS} größten Komponenten. Die Wurzeln sind die kleinsten Indizes
+     * ihrer Komponenten und dienen als Beispiel.
+     */
+    private static List<Component> largest(Node[] nodes, int[] sizes, int[] targets) {
+        List<Integer> roots = new ArrayList<>();
+
+        for (int i = 0; i < nodes.length; i++) {
+            if (sizes[i] > 0)
+                roots.add(i);
+        }
+
+        roots.sort((a, b) -> sizes[a] != sizes[b] ? Integer.compare(sizes[b], sizes[a]) : Integer.compare(a, b));
+
+        List<Component> components = new ArrayList<>();
+
+        for (int root : roots.subList(0, Math.min(roots.size(), ValidationReport.MAX_COMPONENTS))) {
+            components.add(new Component(sizes[root], nodes[root].getId(), targets[root]));
+        }
+
+        return components;
+    }
+
+    /**
+     * Prüft einen Abschnitt der Knoten, teilt ihn vorher, solange er größer als {@link #CHUNK_SIZE} ist.
+     */
+    private static final class CheckTask extends RecursiveTask<Result> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Graph graph;
+        private final Node[] nodes;
+        private final Map<Node, Integer> index;
+        private final ConcurrentUnionFind components;
+        private final int from;
+        private final int to;
+
+        private CheckTask(Graph graph, Node[] nodes, Map<Node, Integer> index, ConcurrentUnionFind components,
+                          int from, int to) {
+            this.graph = graph;
+            this.nodes = nodes;
+            this.index = index;
+            this.components = components;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Result compute() {
+            if (to - from > CHUNK_SIZE) {
+                int mid = (from + to) >>> 1;
+                CheckTask left = new CheckTask(graph, nodes, index, components, from, mid);
+                CheckTask right = new CheckTask(graph, nodes, index, components, mid, to);
+
+                left.fork();
+
+                Result result = right.compute();
+
+                result.merge(left.join());
+
+                return result;
+            }
+
+            Result result = new Result();
+
+            for (int i = from; i < to; i++) {
+                check(i, result);
+            }
+
+            return result;
+        }
+
+        private void check(int i, Result result) {
+            Node node = nodes[i];
+            String id = node.getId();
+
+            if (node instanceof LazyNode)
+                result.add(new Problem(ProblemType.UNRESOLVED_LAZY_NODE, id, null,
+                        "Der Knoten " + id + " ist nicht aufgelöst (LazyNode)."));
+
+            for (Edge e : node.getEdges()) {
+                Node other = e.getOther(node);
+                String otherId = other.getId();
+                boolean reported;
+
+                if (graph.get(otherId) != other) {
+                    result.add(new Problem(ProblemType.DANGLING_EDGE, id, otherId, "Die Kante von " + id
+                            + " führt zu " + otherId + ", der nicht (mehr) Teil des Graphen ist."));
+                    reported = true;
+                }
+                else {
+                    int j = index.get(other);
+
+                    components.union(i, j);
+
+                    if (!other.getEdges().contains(e)) {
+                        result.add(new Problem(ProblemType.ONE_SIDED_EDGE, id, otherId, "Die Kante von " + id
+                                + " zu " + otherId + " ist nur bei einem der Knoten eingetragen."));
+                        reported = true;
+                    }
+                    else {
+                        reported = i < j;
+                    }
+                }
+
+                if (!reported)
+                    continue;
+
+                result.edges++;
+
+                if (e.getWeight() <= 0)
+                    result.add(new Problem(ProblemType.NON_POSITIVE_WEIGHT, id, otherId, "Die Kante von " + id
+                            + " zu " + otherId + " hat das Gewicht " + e.getWeight() + "."));
+            }
+        }
+    }
+
+    /**
+     * Schreibt die Wurzel jedes Knotens in ein Array. Läuft erst, wenn alle Vereinigungen abgeschlossen sind.
+     */
+    private static final class RootTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ConcurrentUnionFind components;
+        private final int[] roots;
+        private final int from;
+        private final int to;
+
+        private RootTask(ConcurrentUnionFind components, int[] roots, int from, int to) {
+            this.components = components;
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CHUNK_SIZE * 4) {
+                int mid = (from + to) >>> 1;
+
+                invokeAll(new RootTask(components, roots, from, mid), new RootTask(components, roots, mid, to));
+
+                return;
+            }
+
+            for (int i = from; i < to; i++) {
+                roots[i] = components.find(i);
+            }
+        }
+    }
+
+    /**
+     * Die Probleme und gezählten Kanten eines Abschnitts. Es werden nur die nach Art und ID ersten
+     * {@link ValidationReport#MAX_PROBLEMS} Probleme aufbewahrt, damit das Ergebnis nicht von der Aufteilung
+     * abhängt.
+     */
+    private static final class Result {
+
+        private final Map<ProblemType, Long> counts = new EnumMap<>(ProblemType.class);
+        private List<Problem> problems = new ArrayList<>();
+        private long edges;
+
+        void add(Problem problem) {
+            counts.merge(problem.getType(), 1L, Long::sum);
+            problems.add(problem);
+
+            if (problems.size() >= 2 * ValidationReport.MAX_PROBLEMS)
+                problems = sortedProblems();
+        }
+
+        void merge(Result other) {
+            other.counts.forEach((type, count) -> counts.merge(type, count, Long::sum));
+            edges += other.edges;
+            problems.addAll(other.problems);
+
+            if (problems.size() >= 2 * ValidationReport.MAX_PROBLEMS)
+                problems = sortedProblems();
+        }
+
+        List<Problem> sortedProblems() {
+            Collections.sort(problems);
+
+            return new ArrayList<>(problems.subList(0, Math.min(problems.size(), ValidationReport.MAX_PROBLEMS)));
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package de.fhzwickau.roomfinder.validation;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Das Ergebnis des {@link GraphValidator}: die gefundenen Probleme und die Zusammenhangskomponenten des Graphen.
+ * Es werden höchstens {@link #MAX_PROBLEMS} Probleme aufbewahrt (nach Art und ID sortiert), gezählt werden alle.
+ * Von den Komponenten werden die {@link #MAX_COMPONENTS} größten aufbewahrt.
+ * @version 0.1.0
+ * @since 0.1.0
+ * @author Jonas Langner
+ */
+public final class ValidationReport {
+
+    public static final int MAX_PROBLEMS = 1000;
+    public static final int MAX_COMPONENTS = 100;
+
+    private final long nodes;
+    private final long edges;
+    private final Map<ProblemType, Long> counts;
+    private final List<Problem> problems;
+    private final int componentCount;
+    private final List<Component> components;
+
+    ValidationReport(long nodes, long edges, Map<ProblemType, Long> counts, List<Problem> problems,
+                     int componentCount, List<Component> components) {
+        this.nodes = nodes;
+        this.edges = edges;
+        this.counts = new EnumMap<>(counts);
+        this.problems = problems;
+        this.componentCount = componentCount;
+        this.components = components;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return Die Anzahl der Kanten, jede nur einmal gezählt.
+     */
+    public long getEdges() {
+        return edges;
+    }
+
+    /**
+     * @return Die Anzahl aller gefundenen Probleme.
+     */
+    public long getProblemCount() {
+        long sum = 0;
+
+        for (long count : counts.values()) {
+            sum += count;
+        }
+
+        return sum;
+    }
+
+    /**
+     * @return Die Anzahl der gefundenen Probleme einer Art.
+     */
+    public long getProblemCount(ProblemType type) {
+        return counts.getOrDefault(type, 0L);
+    }
+
+    /**
+     * @return Gibt an, ob keine Probleme gefunden wurden. Mehrere Komponenten allein sind kein Problem, solange alle
+     * Ziele in der größten liegen.
+     */
+    public boolean isValid() {
+        return getProblemCount() == 0;
+    }
+
+    /**
+     * @return Die ersten {@link #MAX_PROBLEMS} Probleme, nach Art und ID des Knotens sortiert.
+     */
+    public List<Problem> getProblems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    public int getComponentCount() {
+        return componentCount;
+    }
+
+    /**
+     * @return Die {@link #MAX_COMPONENTS} größten Komponenten, die größte zuerst.
+     */
+    public List<Component> getComponents() {
+        return Collections.unmodifiableList(components);
+    }
+
+    public void print(PrintStream out) {
+        problems.forEach(out::println);
+
+        long problemCount = getProblemCount();
+
+        if (problemCount > problems.size())
+            out.println("... und " + (problemCount - problems.size()) + " weitere Probleme");
+
+        if (componentCount > 1) {
+            out.println("Komponenten (Knoten):");
+
+            for (Component component : components) {
+                out.println("  " + component);
+            }
+
+            if (componentCount > components.size())
+                out.println("  ... und " + (componentCount - components.size()) + " weitere");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return nodes + " Knoten, " + edges + " Kanten, " + componentCount + " Komponenten, " + getProblemCount()
+                + " Probleme";
+    }
+
+    /**
+     * Die Arten von Problemen, die der {@link GraphValidator} findet.
+     */
+    public enum ProblemType {
+
+        /**
+         * Ein {@link de.fhzwickau.roomfinder.model.graph.node.LazyNode}, zu dem der eigentliche Knoten fehlt.
+         */
+        UNRESOLVED_LAZY_NODE,
+
+        /**
+         * Eine Kante zu einem Knoten, der nicht (mehr) Teil des Graphen ist.
+         */
+        DANGLING_EDGE,
+
+        /**
+         * Eine Kante, die nur bei einem ihrer beiden Knoten eingetragen ist.
+         */
+        ONE_SIDED_EDGE,
+
+        /**
+         * Eine Kante mit einem Gewicht kleiner oder gleich 0.
+         */
+        NON_POSITIVE_WEIGHT,
+
+        /**
+         * Ein Ziel ({@link de.fhzwickau.roomfinder.model.graph.node.Node#asTarget()}), das nicht in der größten
+         * Komponente liegt und daher von den meisten Knoten aus nicht erreichbar ist.
+         */
+        UNREACHABLE_TARGET
+    }
+
+    /**
+     * Ein Problem an einem Knoten bzw. an einer Kante.
+     */
+    public static final class Problem implements Comparable<Problem> {
+
+        private final ProblemType type;
+        private final String nodeId;
+        private final String otherId;
+        private final String message;
+
+        Problem(ProblemType type, String nodeId, String otherId, String message) {
+            this.type = type;
+            this.nodeId = nodeId;
+            this.otherId = otherId;
+            this.message = message;
+        }
+
+        public ProblemType getType() {
+            return type;
+        }
+
+        /**
+         * @return Die ID des betroffenen Knotens bzw. des Knotens, an dem die Kante eingetragen ist.
+         */
+        public String getNodeId() {
+            return nodeId;
+        }
+
+        /**
+         * @return Die ID des anderen Knotens der Kante oder null, falls das Problem keine Kante betrifft.
+         */
+        public String getOtherId() {
+            return otherId;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public int compareTo(Problem o) {
+            int c = type.compareTo(o.type);
+
+            if (c == 0)
+                c = nodeId.compareTo(o.nodeId);
+
+            if (c == 0)
+                c = String.valueOf(otherId).compareTo(String.valueOf(o.otherId));
+
+            return c;
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+
+    /**
+     * Eine Zusammenhangskomponente.
+     */
+    public static final class Component {
+
+        private final int size;
+        private final String sampleId;
+        private final int targets;
+
+        Component(int size, String sampleId, int targets) {
+            this.size = size;
+            this.sampleId = sampleId;
+            this.targets = targets;
+        }
+
+        /**
+         * @return Die Anzahl der Knoten.
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * @return Die ID eines Knotens der Komponente, um sie zu finden.
+         */
+        public String getSampleId() {
+            return sampleId;
+        }
+
+        /**
+         * @return Die Anzahl der Ziele in der Komponente.
+         */
+        public int getTargets() {
+            return targets;
+        }
+
+        @Override
+        public String toString() {
+            return size + " Knoten, " + targets + " Ziele, z.B. " + sampleId;
+        }
+    }
+}
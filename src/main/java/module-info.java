@@ -10,6 +10,11 @@ module de.fhzwickau.graphmlbuilder {
     requires org.kordamp.bootstrapfx.core;
     requires eu.hansolo.tilesfx;
 
+    requires jdk.jfr;
+
+    requires static jdk.httpserver;
+    requires static java.net.http;
+
     opens de.fhzwickau.roomfinder to javafx.fxml;
     exports de.fhzwickau.roomfinder;
     exports de.fhzwickau.roomfinder.controller;
@@ -0,0 +1,35 @@
+package de.fhzwickau.roomfinder.cli;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GraphToolTest {
+
+    private static Node node(String id) {
+        return new Node(id, null, null, -1, -1, false, (byte) 0);
+    }
+
+    @Test
+    void oneSidedEdgesAreCountedOnce() {
+        Graph graph = new Graph();
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        graph.addAll(List.of(a, b, c));
+
+        Edge ab = new Edge(a, b, 1);
+
+        a.addEdge(ab);
+        b.addEdge(ab);
+        c.addEdge(new Edge(c, a, 2));
+
+        assertEquals(2, GraphTool.countEdges(graph));
+    }
+}
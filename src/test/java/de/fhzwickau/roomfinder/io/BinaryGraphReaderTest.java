@@ -0,0 +1,69 @@
+package de.fhzwickau.roomfinder.io;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryGraphReaderTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Jedes beschädigte Byte muss zu einer {@link IOException} führen, ohne den Graphen zu verändern.
+     */
+    @Test
+    void corruptDataIsRejectedBeforeBuilding() throws IOException {
+        Graph graph = new Graph();
+        Node a = new Node("a", "A", "h", 1, 2, true, (byte) 0);
+        Node b = new Node("b", null, null, -1, -1, false, (byte) 1);
+
+        graph.addAll(List.of(a, b, new LazyNode("c")));
+
+        Edge ab = new Edge(a, b, 4);
+        Edge bc = new Edge(b, graph.get("c"), 7);
+
+        a.addEdge(ab);
+        b.addEdge(ab);
+        b.addEdge(bc);
+        graph.get("c").addEdge(bc);
+
+        Path file = dir.resolve("graph.grb");
+
+        BinaryGraphFormat.write(graph, file);
+
+        byte[] bytes = Files.readAllBytes(file);
+
+        assertEquals(3, BinaryGraphFormat.read(file).size());
+
+        for (int i = 0; i < bytes.length; i++) {
+            for (int bit = 0; bit < 8; bit++) {
+                byte[] corrupt = bytes.clone();
+                corrupt[i] ^= 1 << bit;
+
+                Graph target = new Graph();
+
+                try (BinaryGraphReader reader = new BinaryGraphReader(
+                        Channels.newChannel(new ByteArrayInputStream(corrupt)))) {
+                    reader.readInto(target);
+                }
+                catch (IOException ex) {
+                    assertTrue(target.isEmpty(), "byte " + i + " left a partial graph");
+                }
+            }
+        }
+    }
+}
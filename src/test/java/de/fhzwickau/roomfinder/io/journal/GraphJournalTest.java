@@ -0,0 +1,118 @@
+package de.fhzwickau.roomfinder.io.journal;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.model.metadata.MetadataCodec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private static Node node(String id, String displayName) {
+        return new Node(id, displayName, null, -1, -1, false, (byte) 0);
+    }
+
+    private static void connect(Node a, Node b, int weight) {
+        Edge e = new Edge(a, b, weight);
+
+        a.addEdge(e);
+        b.addEdge(e);
+    }
+
+    /**
+     * @return Alle Knoten mit Anzeigename und alle Kanten als Text, unabhängig von der Reihenfolge.
+     */
+    private static Set<String> describe(Graph graph) {
+        Set<String> lines = new TreeSet<>();
+
+        for (Node node : graph.values()) {
+            lines.add(node.getClass().getSimpleName() + " " + node.getId() + " " + node.getDisplayName());
+
+            for (Edge e : node.getEdges()) {
+                lines.add(node.getId() + " -> " + e.getOther(node).getId() + " " + e.getWeight());
+            }
+        }
+
+        return lines;
+    }
+
+    /**
+     * Die Wiederholung muss den Graphen ergeben, der beim Schreiben im Speicher lag, auch wenn ein vollständiger
+     * Knoten durch einen neuen mit der gleichen ID ersetzt wurde.
+     */
+    @Test
+    void replayEqualsLiveGraph() throws IOException {
+        Path snapshot = dir.resolve("workspace.grb");
+        Graph live = new Graph();
+        Node a = node("a", "A");
+        Node b = node("b", "B");
+        Node c = node("c", "C");
+
+        try (GraphJournal journal = GraphJournal.open(snapshot, live)) {
+            for (Node n : new Node[]{a, b, c}) {
+                live.add(n);
+                journal.upsertNode(n);
+            }
+
+            connect(a, b, 2);
+            journal.addEdge("a", "b", 2);
+            connect(b, c, 5);
+            journal.addEdge("b", "c", 5);
+
+            Node replacement = node("b", "B2");
+
+            live.add(replacement);
+            journal.upsertNode(replacement);
+
+            MetadataCodec.of(Node.class).getField("id").parseInto(c, "d");
+            live.rekey("c", c);
+            journal.rekey("c", c);
+
+            a.getEdgeTo("b").destroy();
+            journal.destroyEdge("a", "b");
+        }
+
+        Graph replayed = new Graph();
+
+        try (GraphJournal journal = GraphJournal.open(snapshot, replayed)) {
+            assertEquals(describe(live), describe(replayed));
+        }
+    }
+
+    @Test
+    void corruptSnapshotLeavesGraphUntouched() throws IOException {
+        Path snapshot = dir.resolve("workspace.grb");
+        Graph graph = new Graph();
+        Node a = node("a", "A");
+        Node b = node("b", "B");
+
+        graph.addAll(List.of(a, b));
+        connect(a, b, 3);
+        BinaryGraphFormat.write(graph, snapshot);
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(snapshot, bytes);
+
+        Graph target = new Graph();
+
+        assertThrows(IOException.class, () -> GraphJournal.open(snapshot, target));
+        assertTrue(target.isEmpty());
+    }
+}
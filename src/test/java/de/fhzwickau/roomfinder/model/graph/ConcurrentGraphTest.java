@@ -0,0 +1,169 @@
+package de.fhzwickau.roomfinder.model.graph;
+
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrentGraphTest {
+
+    private static final int WRITERS = 8;
+    private static final int OPERATIONS = 20_000;
+    private static final int IDS = 300;
+
+    /**
+     * Mehrere Threads fügen gleichzeitig Knoten und {@link LazyNode}s hinzu, verbinden, trennen und entfernen sie.
+     * Danach müssen alle Kanten bei beiden Endpunkten eingetragen sein, beide Endpunkte im Graphen liegen und die
+     * Tabelle der {@link LazyNode}s genau den eingetragenen {@link LazyNode}s entsprechen.
+     */
+    @Test
+    void concurrentWritersKeepInvariants() throws Exception {
+        ConcurrentGraph graph = new ConcurrentGraph(IDS, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> writers = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            long seed = w;
+
+            writers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+
+                start.await();
+
+                for (int i = 0; i < OPERATIONS; i++) {
+                    write(graph, random);
+                }
+
+                return null;
+            }));
+        }
+
+        start.countDown();
+
+        for (Future<?> writer : writers) {
+            writer.get(2, TimeUnit.MINUTES);
+        }
+
+        executor.shutdown();
+
+        assertInvariants(graph);
+    }
+
+    /**
+     * Das Serialisieren darf die Knoten nicht in die Kopie verschieben.
+     */
+    @Test
+    void serializingKeepsNodesInGraph() throws Exception {
+        ConcurrentGraph graph = new ConcurrentGraph();
+
+        graph.add(new Node("a", null, null, -1, -1, false, (byte) 0));
+        graph.add(new Node("b", null, null, -1, -1, false, (byte) 0));
+        graph.connect("a", "b", 3);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(graph);
+        }
+
+        assertSame(graph, graph.get("a").getGraph());
+
+        graph.add(new Node("c", null, null, -1, -1, false, (byte) 0));
+        graph.connect("a", "c", 4);
+
+        assertEquals(4, graph.get("c").getEdgeTo("a").getWeight());
+
+        Graph copy;
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = (Graph) in.readObject();
+        }
+
+        assertEquals(2, copy.size());
+        assertSame(copy, copy.get("a").getGraph());
+        assertEquals(3, copy.get("b").getEdgeTo("a").getWeight());
+    }
+
+    private static void write(ConcurrentGraph graph, Random random) {
+        String id = "n" + random.nextInt(IDS);
+        String other = "n" + random.nextInt(IDS);
+
+        switch (random.nextInt(6)) {
+            case 0:
+                graph.add(new Node(id, null, null, -1, -1, false, (byte) 0));
+                break;
+            case 1:
+                graph.add(new LazyNode(id));
+                break;
+            case 2:
+            case 3:
+                try {
+                    graph.connect(id, other, 1 + random.nextInt(10));
+                }
+                catch (IllegalArgumentException ignored) {
+                    // Einer der Knoten fehlt gerade oder beide sind gleich
+                }
+                break;
+            case 4:
+                graph.disconnect(id, other);
+                break;
+            default:
+                Node node = graph.get(id);
+
+                if (node != null)
+                    graph.remove(node);
+        }
+    }
+
+    private static void assertInvariants(ConcurrentGraph graph) {
+        Set<LazyNode> lazy = Collections.newSetFromMap(new IdentityHashMap<>());
+        int edges = 0;
+
+        for (Node node : graph.values()) {
+            assertSame(node, graph.get(node.getId()));
+            assertSame(graph, node.getGraph());
+
+            if (node instanceof LazyNode)
+                lazy.add((LazyNode) node);
+
+            for (Edge e : node.getEdges()) {
+                Node other = e.getOther(node);
+
+                assertSame(other, graph.get(other.getId()), "endpoint " + other.getId() + " is not registered");
+                assertTrue(other.getEdges().contains(e), "edge " + node.getId() + "-" + other.getId()
+                        + " is one-sided");
+                assertSame(e, node.getEdgeTo(other.getId()));
+                assertNotNull(other.getEdgeTo(node.getId()));
+                edges++;
+            }
+        }
+
+        Set<LazyNode> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+        pending.addAll(graph.getLazyNodes());
+
+        assertEquals(lazy, pending);
+        assertTrue(edges > 0);
+    }
+}
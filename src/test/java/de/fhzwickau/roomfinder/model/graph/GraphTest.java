@@ -0,0 +1,194 @@
+package de.fhzwickau.roomfinder.model.graph;
+
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.listener.GraphListener;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.model.metadata.MetadataCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphTest {
+
+    private static Node node(String id) {
+        return new Node(id, null, null, -1, -1, false, (byte) 0);
+    }
+
+    private static void connect(Node a, Node b, int weight) {
+        Edge e = new Edge(a, b, weight);
+
+        a.addEdge(e);
+        b.addEdge(e);
+    }
+
+    @Test
+    void rekeyOntoAnotherNodeIsRejected() {
+        Graph graph = new Graph();
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+        Node d = node("d");
+
+        graph.addAll(List.of(a, b, c, d));
+        connect(a, c, 1);
+        connect(b, d, 2);
+
+        MetadataCodec.of(Node.class).getField("id").parseInto(a, "b");
+
+        assertThrows(IllegalArgumentException.class, () -> graph.rekey("a", a));
+        assertSame(a, graph.get("a"));
+        assertSame(b, graph.get("b"));
+        assertSame(b, d.getEdgeTo("b").getOther(d));
+    }
+
+    @Test
+    void rekeyResolvesLazyNode() {
+        Graph graph = new Graph();
+        Node a = node("a");
+        Node c = node("c");
+        LazyNode lazy = new LazyNode("b");
+
+        graph.addAll(List.of(a, c, lazy));
+        connect(c, lazy, 3);
+
+        MetadataCodec.of(Node.class).getField("id").parseInto(a, "b");
+        graph.rekey("a", a);
+
+        assertSame(a, graph.get("b"));
+        assertNull(graph.get("a"));
+        assertTrue(graph.getLazyNodes().isEmpty());
+        assertSame(a, c.getEdgeTo("b").getOther(c));
+    }
+
+    @Test
+    void replacingNodeTransfersEdges() {
+        Graph graph = new Graph();
+        Node b = node("b");
+        Node d = node("d");
+
+        graph.add(b);
+        graph.add(d);
+        connect(b, d, 4);
+
+        Node replacement = node("b");
+
+        graph.add(replacement);
+
+        assertSame(replacement, graph.get("b"));
+        assertTrue(b.getEdges().isEmpty());
+        assertEquals(1, replacement.getEdges().size());
+
+        Edge e = d.getEdgeTo("b");
+
+        assertNotNull(e);
+        assertSame(replacement, e.getOther(d));
+        assertEquals(4, e.getWeight());
+        assertTrue(replacement.getEdges().contains(e));
+    }
+
+    @Test
+    void replacingNodeKeepsItsOwnEdges() {
+        Graph graph = new Graph();
+        Node x = node("x");
+        Node y = node("y");
+        Node z = node("z");
+
+        graph.addAll(List.of(x, y, z));
+        connect(x, y, 5);
+        connect(x, z, 6);
+
+        Graph imported = new Graph();
+        Node x2 = node("x");
+        Node y2 = node("y");
+
+        imported.addAll(List.of(x2, y2));
+        connect(x2, y2, 9);
+        graph.addAll(List.of(x2, y2));
+
+        assertSame(x2, graph.get("x"));
+        assertEquals(9, graph.get("x").getEdgeTo("y").getWeight());
+        assertEquals(9, graph.get("y").getEdgeTo("x").getWeight());
+        assertEquals(6, z.getEdgeTo("x").getWeight());
+        assertSame(x2, z.getEdgeTo("x").getOther(z));
+    }
+
+    @Test
+    void combineCopiesBothGraphs() {
+        Graph first = new Graph();
+        Node a = node("a");
+        Node b = node("b");
+
+        first.addAll(List.of(a, b, new LazyNode("c")));
+        b.addEdge(new Edge(a, b, 4));
+
+        Graph second = new Graph();
+        Node b2 = new Node("b", "B", null, 1, 2, true, (byte) 0);
+        Node c = node("c");
+
+        second.addAll(List.of(b2, c, new LazyNode("a")));
+        connect(b2, c, 7);
+
+        Graph combined = first.combine(second);
+
+        assertEquals(3, combined.size());
+        assertTrue(combined.getLazyNodes().isEmpty());
+        assertEquals("B", combined.get("b").getDisplayName());
+        assertEquals(4, combined.get("a").getEdgeTo("b").getWeight());
+        assertEquals(4, combined.get("b").getEdgeTo("a").getWeight());
+        assertEquals(7, combined.get("c").getEdgeTo("b").getWeight());
+        assertSame(first, a.getGraph());
+        assertSame(second, b2.getGraph());
+        assertNull(a.getEdgeTo("c"));
+    }
+
+    @Test
+    void mapMutatorsFireEvents() {
+        for (Graph graph : List.of(new Graph(), new ConcurrentGraph())) {
+            List<String> events = new ArrayList<>();
+
+            graph.addGraphListener(new GraphListener() {
+
+                @Override
+                public void onNodeAdded(Node node) {
+                    events.add("+" + node.getId());
+                }
+
+                @Override
+                public void onNodeRemoved(String id, Node node) {
+                    events.add("-" + id);
+                }
+            });
+
+            Node a = node("a");
+            Node b = node("b");
+
+            graph.put("a", a);
+            graph.putAll(Map.of("b", b));
+            graph.add(new LazyNode("c"));
+            connect(a, b, 1);
+            connect(b, graph.get("c"), 2);
+
+            assertThrows(IllegalArgumentException.class, () -> graph.put("x", node("y")));
+            assertSame(a, graph.remove("a"));
+            assertNull(b.getEdgeTo("a"));
+
+            graph.clear();
+
+            assertTrue(graph.isEmpty());
+            assertTrue(graph.getLazyNodes().isEmpty());
+            assertTrue(b.getEdges().isEmpty());
+            assertEquals(List.of("+a", "+b", "+c", "-a"), events.subList(0, 4));
+            assertEquals(6, events.size());
+        }
+    }
+}
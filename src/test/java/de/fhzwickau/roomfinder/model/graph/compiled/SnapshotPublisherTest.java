@@ -0,0 +1,158 @@
+package de.fhzwickau.roomfinder.model.graph.compiled;
+
+import de.fhzwickau.roomfinder.model.graph.ConcurrentGraph;
+import de.fhzwickau.roomfinder.model.graph.node.LazyNode;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.model.metadata.MetadataCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnapshotPublisherTest {
+
+    private static final int IDS = 60;
+
+    /**
+     * Nach jeder Runde von Änderungen muss der schrittweise erzeugte Stand den gleichen Graphen beschreiben wie ein
+     * neu kompilierter, und die Knoten müssen ihren Index behalten.
+     */
+    @Test
+    void patchedSnapshotsMatchCompiledGraph() {
+        ConcurrentGraph graph = new ConcurrentGraph(IDS, 4);
+        SnapshotPublisher publisher = new SnapshotPublisher(graph);
+        Random random = new Random(42);
+        int patched = 0;
+
+        for (int round = 0; round < 200; round++) {
+            for (int i = 0; i < 1 + random.nextInt(5); i++) {
+                write(graph, random);
+            }
+
+            CompiledGraph previous = publisher.current().getGraph();
+            GraphSnapshot snapshot = publisher.refresh();
+
+            if (snapshot.isCompacted())
+                continue;
+
+            for (int u = 0; u < previous.getNodeCount(); u++) {
+                if (previous.getId(u) != null && graph.get(previous.getId(u)) != null)
+                    assertEquals(u, snapshot.getGraph().indexOf(previous.getId(u)));
+            }
+
+            assertSameGraph(CompiledGraph.compile(graph), snapshot.getGraph());
+            patched++;
+        }
+
+        assertFalse(publisher.isStale());
+        assertTrue(patched > 150);
+        assertTrue(publisher.current().getGraph().getArcCount() > 0);
+    }
+
+    @Test
+    void unchangedGraphIsShared() {
+        ConcurrentGraph graph = new ConcurrentGraph(4, 1);
+        SnapshotPublisher publisher = new SnapshotPublisher(graph);
+
+        graph.add(new Node("a", null, null, -1, -1, false, (byte) 0));
+
+        CompiledGraph first = publisher.refresh().getGraph();
+
+        assertSame(first, publisher.freeze().getGraph());
+
+        publisher.close();
+        graph.remove(graph.get("a"));
+
+        assertFalse(publisher.isStale());
+    }
+
+    private static void write(ConcurrentGraph graph, Random random) {
+        String id = "n" + random.nextInt(IDS);
+        String other = "n" + random.nextInt(IDS);
+
+        switch (random.nextInt(7)) {
+            case 0:
+                graph.add(new Node(id, random.nextBoolean() ? "Raum " + id : null, "r" + random.nextInt(4),
+                        random.nextInt(100), random.nextInt(100), random.nextBoolean(), (byte) random.nextInt(3)));
+                break;
+            case 1:
+                graph.add(new LazyNode(id));
+                break;
+            case 2:
+            case 3:
+                if (graph.get(id) != null && graph.get(other) != null && !id.equals(other))
+                    graph.connect(id, other, 1 + random.nextInt(20));
+                break;
+            case 4:
+                graph.disconnect(id, other);
+                break;
+            case 5:
+                Node node = graph.get(id);
+
+                if (node != null && !(node instanceof LazyNode) && graph.get(other) == null) {
+                    MetadataCodec.of(Node.class).getField("id").parseInto(node, other);
+                    graph.rekey(id, node);
+                }
+                break;
+            default:
+                if (graph.get(id) != null)
+                    graph.remove(graph.get(id));
+        }
+    }
+
+    /**
+     * Vergleicht zwei kompilierte Graphen über die IDs, da neue Knoten in verschiedener Reihenfolge angefügt werden.
+     */
+    private static void assertSameGraph(CompiledGraph expected, CompiledGraph actual) {
+        int nodes = 0;
+
+        for (int u = 0; u < actual.getNodeCount(); u++) {
+            if (actual.getId(u) == null) {
+                assertEquals(0, actual.getDegree(u));
+                assertNull(actual.getDisplayName(u));
+                continue;
+            }
+
+            nodes++;
+
+            int v = expected.indexOf(actual.getId(u));
+
+            assertEquals(expected.getDisplayName(v), actual.getDisplayName(u));
+            assertEquals(expected.getPositionX(v), actual.getPositionX(u));
+            assertEquals(expected.getPositionY(v), actual.getPositionY(u));
+            assertEquals(ressource(expected, v), ressource(actual, u));
+            assertEquals(expected.asTarget(v), actual.asTarget(u));
+            assertEquals(expected.getToiletType(v), actual.getToiletType(u));
+            assertEquals(expected.isLazy(v), actual.isLazy(u));
+            assertEquals(arcs(expected, v), arcs(actual, u), "arcs of " + actual.getId(u));
+        }
+
+        assertEquals(expected.getNodeCount(), nodes);
+        assertEquals(expected.getArcCount(), actual.getArcCount());
+    }
+
+    private static String ressource(CompiledGraph graph, int node) {
+        int ressource = graph.getRessourceIndex(node);
+
+        return ressource == IndexedGraph.NONE ? null : graph.getRessourceName(ressource);
+    }
+
+    private static List<String> arcs(CompiledGraph graph, int node) {
+        List<String> arcs = new ArrayList<>();
+
+        for (int arc = graph.getArcStart(node); arc < graph.getArcEnd(node); arc++) {
+            arcs.add(graph.getId(graph.getTarget(arc)) + ":" + graph.getWeight(arc));
+        }
+
+        arcs.sort(null);
+
+        return arcs;
+    }
+}
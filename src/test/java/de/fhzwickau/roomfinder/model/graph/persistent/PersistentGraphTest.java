@@ -0,0 +1,65 @@
+package de.fhzwickau.roomfinder.model.graph.persistent;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PersistentGraphTest {
+
+    private static Node node(String id) {
+        return new Node(id, null, null, -1, -1, false, (byte) 0);
+    }
+
+    /**
+     * Eine Kante, die nur beim Knoten mit der größeren ID eingetragen ist, muss bei beiden Knoten ankommen.
+     */
+    @Test
+    void oneSidedEdgesBecomeSymmetric() {
+        Graph graph = new Graph();
+        Node a = node("a");
+        Node b = node("b");
+        Node c = node("c");
+
+        graph.addAll(List.of(a, b, c));
+        b.addEdge(new Edge(a, b, 4));
+        c.addEdge(new Edge(c, a, 6));
+
+        PersistentGraph persistent = PersistentGraph.of(graph);
+
+        assertEquals(4, persistent.get("a").getWeightTo("b"));
+        assertEquals(4, persistent.get("b").getWeightTo("a"));
+        assertEquals(6, persistent.get("a").getWeightTo("c"));
+
+        Graph rebuilt = persistent.toGraph();
+
+        assertNotNull(rebuilt.get("a").getEdgeTo("b"));
+        assertNotNull(rebuilt.get("b").getEdgeTo("a"));
+        assertNotNull(rebuilt.get("c").getEdgeTo("a"));
+
+        PersistentGraph removed = persistent.remove("b");
+
+        assertNull(removed.get("a").getWeightTo("b"));
+        assertEquals(6, removed.get("a").getWeightTo("c"));
+    }
+
+    @Test
+    void combineKeepsBothBranches() {
+        PersistentGraph base = PersistentGraph.empty().add(node("a")).add(node("b")).add(node("c"))
+                .connect("a", "b", 1);
+        PersistentGraph left = base.connect("a", "c", 2);
+        PersistentGraph right = base.connect("a", "b", 5).remove("c");
+        PersistentGraph combined = left.combine(right);
+
+        assertEquals(5, combined.get("a").getWeightTo("b"));
+        assertEquals(5, combined.get("b").getWeightTo("a"));
+        assertEquals(2, combined.get("c").getWeightTo("a"));
+        assertEquals(1, base.get("a").getWeightTo("b"));
+    }
+}
@@ -0,0 +1,77 @@
+package de.fhzwickau.roomfinder.routing;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.compiled.CompiledGraph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoordinateHeuristicTest {
+
+    private static void connect(Node a, Node b, int weight) {
+        Edge e = new Edge(a, b, weight);
+
+        a.addEdge(e);
+        b.addEdge(e);
+    }
+
+    /**
+     * Der Weg über eine andere Etage ist viel kürzer als die Luftlinie auf dem Grundriss. Die Schätzung darf ihn
+     * trotzdem nicht überschätzen.
+     */
+    @Test
+    void detourOverAnotherRessourceIsNotOverestimated() {
+        Graph graph = new Graph();
+        Node a = new Node("a", null, "eg", 0, 0, false, (byte) 0);
+        Node t = new Node("t", null, "eg", 1000, 0, true, (byte) 0);
+        Node stairs1 = new Node("s1", null, "eg", 10, 0, false, (byte) 0);
+        Node stairs2 = new Node("s2", null, "eg", 990, 0, false, (byte) 0);
+        Node upstairs = new Node("o", null, "og", 500, 500, false, (byte) 0);
+        Node hidden = new Node("x", null, null, -1, -1, false, (byte) 0);
+
+        graph.addAll(List.of(a, t, stairs1, stairs2, upstairs, hidden));
+        connect(a, t, 1000);
+        connect(a, stairs1, 10);
+        connect(stairs1, upstairs, 1);
+        connect(upstairs, stairs2, 1);
+        connect(stairs2, t, 10);
+        connect(t, hidden, 3);
+
+        CompiledGraph compiled = CompiledGraph.compile(graph);
+        CoordinateHeuristic heuristic = CoordinateHeuristic.calibrate(compiled);
+        Dijkstra dijkstra = new Dijkstra(compiled);
+
+        assertEquals(1.0, heuristic.getCostPerPixel());
+
+        for (int u = 0; u < compiled.getNodeCount(); u++) {
+            int[] distances = dijkstra.distancesFrom(u);
+
+            for (int v = 0; v < compiled.getNodeCount(); v++) {
+                assertTrue(heuristic.estimate(u, v) <= distances[v],
+                        compiled.getId(u) + " -> " + compiled.getId(v));
+            }
+        }
+
+        assertEquals(22, new AStar(compiled, heuristic).route("a", "t").getCost());
+    }
+
+    @Test
+    void distantCoordinatesDoNotOverflow() {
+        Graph graph = new Graph();
+        Node a = new Node("a", null, "eg", 0, 0, false, (byte) 0);
+        Node b = new Node("b", null, "eg", Integer.MAX_VALUE, 0, false, (byte) 0);
+
+        graph.addAll(List.of(a, b));
+        connect(a, b, Integer.MAX_VALUE);
+
+        CompiledGraph compiled = CompiledGraph.compile(graph);
+        CoordinateHeuristic heuristic = new CoordinateHeuristic(compiled, 0.5);
+
+        assertEquals(Integer.MAX_VALUE / 2, heuristic.estimate(compiled.indexOf("a"), compiled.indexOf("b")));
+    }
+}
@@ -0,0 +1,52 @@
+package de.fhzwickau.roomfinder.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NodeSearchIndexTest {
+
+    /**
+     * Anfragen mit wenigen verschiedenen Trigrammen haben keine positive Schwelle für den Trigramm-Filter.
+     */
+    @Test
+    void repetitiveQueries() {
+        NodeSearchIndex index = new NodeSearchIndex();
+
+        index.add("abababab", "Labor");
+        index.add("aaaaaaaa", null);
+        index.add("00000000", "Keller");
+        index.add("0000000", null);
+        index.add("h001", "Hörsaal 1");
+
+        assertEquals("abababab", index.search("abababab", 5).get(0).getId());
+        assertEquals("aaaaaaaa", index.search("aaaaaaaa", 5).get(0).getId());
+        assertEquals("00000000", index.search("00000000", 5).get(0).getId());
+
+        List<NodeSearchIndex.Match> typo = index.fuzzy("00000100", 5);
+
+        assertEquals(2, typo.size());
+        assertTrue(typo.stream().allMatch(m -> m.getDistance() == 1));
+        assertEquals(1, index.fuzzy("abababa", 5).size());
+        assertTrue(index.fuzzy("bbbbbbbb", 5).isEmpty());
+    }
+
+    @Test
+    void prefixAndTypo() {
+        NodeSearchIndex index = new NodeSearchIndex();
+
+        index.add("h001", "Hörsaal 1");
+        index.add("h002", "Hörsaal 2");
+        index.add("b100", "Bibliothek");
+
+        assertEquals(2, index.prefix("h00", 10).size());
+        assertEquals("b100", index.search("biblothek", 1).get(0).getId());
+
+        index.remove("b100");
+
+        assertTrue(index.search("bibliothek", 1).isEmpty());
+    }
+}
@@ -0,0 +1,52 @@
+package de.fhzwickau.roomfinder.search;
+
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialIndexTest {
+
+    /**
+     * Indizes eines kompilierten Graphen sind Integer-Objekte, die nicht identisch sein müssen.
+     */
+    @Test
+    void equalEntriesAreTheSameEntry() {
+        SpatialIndex<Integer> index = new SpatialIndex<>();
+
+        index.add("eg", 10, 10, Integer.valueOf(1000));
+        index.add("eg", 500, 500, Integer.valueOf(1000));
+
+        assertEquals(1, index.size());
+        assertEquals(List.of(1000), index.within("eg", 500, 500, 1));
+        assertTrue(index.within("eg", 10, 10, 1).isEmpty());
+        assertTrue(index.remove(Integer.valueOf(1000)));
+        assertEquals(0, index.size());
+        assertTrue(index.within("eg", 500, 500, 1).isEmpty());
+    }
+
+    /**
+     * Ein Knoten, der durch einen gleichnamigen ersetzt wird, ist nach {@link Node#equals(Object)} gleich, muss aber
+     * als eigener Eintrag entfernt werden.
+     */
+    @Test
+    void replacedNodesAreRemovedByIdentity() {
+        Graph graph = new Graph();
+        Node old = new Node("a", null, "eg", 10, 10, false, (byte) 0);
+
+        graph.add(old);
+
+        SpatialIndex<Node> index = SpatialIndex.of(graph);
+        Node replacement = new Node("a", null, "eg", 200, 200, false, (byte) 0);
+
+        graph.add(replacement);
+
+        assertEquals(1, index.size());
+        assertSame(replacement, index.nearest("eg", 0, 0, n -> true));
+    }
+}
@@ -0,0 +1,93 @@
+package de.fhzwickau.roomfinder.server;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.model.ToiletType;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import de.fhzwickau.roomfinder.routing.NearestToiletIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+class LoadedGraphTest {
+
+    @TempDir
+    Path dir;
+
+    private static Node node(String id, ToiletType toilet) {
+        return new Node(id, null, "h", 0, 0, false, toilet != null ? toilet.getId() : 0);
+    }
+
+    private static void connect(Graph graph, String a, String b, int weight) {
+        Node u = graph.get(a);
+        Node v = graph.get(b);
+        Edge e = new Edge(u, v, weight);
+
+        u.addEdge(e);
+        v.addEdge(e);
+    }
+
+    private static Graph chain(int n) {
+        Graph graph = new Graph();
+
+        for (int i = 0; i < n; i++) {
+            graph.add(node("n" + i, i == 0 ? ToiletType.MALE : i == n - 1 ? ToiletType.FEMALE : null));
+        }
+
+        for (int i = 1; i < n; i++) {
+            connect(graph, "n" + (i - 1), "n" + i, 2);
+        }
+
+        return graph;
+    }
+
+    @Test
+    void reloadUpdatesToiletsIncrementally() throws IOException {
+        Path file = dir.resolve("graph.grb");
+        Graph graph = chain(30);
+
+        BinaryGraphFormat.write(graph, file);
+
+        LoadedGraph first = LoadedGraph.load(file, 1);
+        int index = first.getGraph().indexOf("n3");
+
+        /*
+        Toilette verlegen, einen Knoten entfernen und eine Umleitung und ein neues Gewicht eintragen
+         */
+        graph.add(node("n0", null));
+        graph.add(node("n5", ToiletType.MALE));
+        graph.remove(graph.get("n15"));
+        graph.add(node("x", ToiletType.ACCESSIBLE));
+        connect(graph, "x", "n14", 100);
+        connect(graph, "x", "n16", 1);
+        Edge reweighted = graph.get("n20").getEdgeTo("n21");
+
+        graph.get("n20").removeEdgeOnlyForThisNode(reweighted);
+        graph.get("n21").removeEdgeOnlyForThisNode(reweighted);
+        connect(graph, "n20", "n21", 7);
+        BinaryGraphFormat.write(graph, file);
+
+        LoadedGraph second = LoadedGraph.load(file, 2, first);
+        NearestToiletIndex expected = new NearestToiletIndex(second.getGraph());
+
+        assertNotSame(first.getToilets(), second.getToilets());
+        assertEquals(index, second.getGraph().indexOf("n3"));
+        assertEquals(6, first.getToilets().getDistance(ToiletType.MALE, index));
+
+        for (ToiletType type : ToiletType.values()) {
+            for (int u = 0; u < second.getGraph().getNodeCount(); u++) {
+                if (second.getGraph().getId(u) == null)
+                    continue;
+
+                assertEquals(expected.getDistance(type, u), second.getToilets().getDistance(type, u));
+                assertEquals(expected.getNearestToilet(type, u), second.getToilets().getNearestToilet(type, u));
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package de.fhzwickau.roomfinder.server;
+
+import de.fhzwickau.roomfinder.io.BinaryGraphFormat;
+import de.fhzwickau.roomfinder.model.graph.Graph;
+import de.fhzwickau.roomfinder.model.graph.edge.Edge;
+import de.fhzwickau.roomfinder.model.graph.node.Node;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteServerTest {
+
+    @TempDir
+    Path dir;
+
+    private RouteServer server;
+
+    @BeforeEach
+    void start() throws IOException {
+        Graph graph = new Graph();
+        Node a = new Node("a+b", null, "h", 0, 0, true, (byte) 0);
+        Node b = new Node("50%", null, "h", 10, 0, true, (byte) 0);
+
+        graph.addAll(List.of(a, b));
+
+        Edge e = new Edge(a, b, 10);
+
+        a.addEdge(e);
+        b.addEdge(e);
+
+        Path file = dir.resolve("graph.grb");
+
+        BinaryGraphFormat.write(graph, file);
+        server = new RouteServer(file, new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void nodeIdsWithReservedCharacters() throws IOException {
+        HttpURLConnection plus = open("/node/a+b");
+        HttpURLConnection percent = open("/node/50%25");
+
+        assertEquals(200, plus.getResponseCode());
+        assertTrue(read(plus).contains("\"a+b\""));
+        assertEquals(200, percent.getResponseCode());
+        assertTrue(read(percent).contains("\"50%\""));
+    }
+
+    @Test
+    void oversizedBodyIsRejected() throws IOException {
+        byte[] line = "a+b 50%\n".getBytes(StandardCharsets.UTF_8);
+        int lines = 200_000;
+        InetSocketAddress address = server.getAddress();
+
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            OutputStream out = socket.getOutputStream();
+
+            try {
+                out.write(("POST /route HTTP/1.1\r\nHost: localhost\r\nContent-Length: " + (long) line.length * lines
+                        + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+
+                for (int i = 0; i < lines; i++) {
+                    out.write(line);
+                }
+
+                out.flush();
+            }
+            catch (IOException ignored) {
+                // Der Server darf die Verbindung nach der Antwort schließen
+            }
+
+            String status = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII)).readLine();
+
+            assertEquals("HTTP/1.1 413", status.substring(0, 12));
+        }
+    }
+
+    private HttpURLConnection open(String path) throws IOException {
+        InetSocketAddress address = server.getAddress();
+
+        return (HttpURLConnection) new URL("http", address.getHostString(), address.getPort(), path).openConnection();
+    }
+
+    private static String read(HttpURLConnection connection) throws IOException {
+        try (InputStream in = connection.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}